@@ -0,0 +1,197 @@
+package com.vcitdevproblem.loadtest;
+
+import com.vcitdevproblem.model.Client;
+import com.vcitdevproblem.synthetic.SyntheticClientGenerator;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Closed-loop benchmark of the throughput a single connection carries. Boots the application jar on a free port (or
+ * targets {@code loadtest.url}) and registers a synthetic register, then for each scenario drives one HTTP/1.1
+ * connection, which carries one request at a time, and one cleartext HTTP/2 connection carrying
+ * {@code benchmark.streams} concurrent streams. Requests accept gzip, so the reported bytes are those on the wire.
+ * <p>
+ * Scenarios: {@code search} returns a small envelope below the compression threshold, {@code list} a page of 100
+ * clients compressed by the connector, and {@code export} the precompressed ID number export of the register.
+ * <p>
+ * Configured through system properties, see {@code gradle/loadtest.gradle}.
+ */
+public final class ConnectionBenchmark {
+
+    private static final String[] LAST_NAME_QUERIES = {"Doe", "Smith", "Nkosi", "Naidoo", "Botha", "Zulu"};
+
+    private final String baseUrl;
+    private final List<String> idNumbers;
+
+    private ConnectionBenchmark(String baseUrl, List<String> idNumbers) {
+        this.baseUrl = baseUrl;
+        this.idNumbers = idNumbers;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("loadtest.clients", 10_000);
+        int seconds = Integer.getInteger("benchmark.duration", 10);
+        int streams = Integer.getInteger("benchmark.streams", 32);
+        long seed = Long.getLong("loadtest.seed", 42);
+
+        Process server = null;
+        String baseUrl = System.getProperty("loadtest.url");
+        if (baseUrl == null) {
+            int port = LoadTest.freePort();
+            server = LoadTest.startServer(port);
+            baseUrl = "http://localhost:" + port + "/api";
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(8, streams));
+        try {
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    .connectTimeout(LoadTest.REQUEST_TIMEOUT)
+                    .executor(executor)
+                    .build();
+            LoadTest.awaitReady(http, baseUrl, server);
+            ConnectionBenchmark benchmark = new ConnectionBenchmark(baseUrl, seed(http, baseUrl, clients, seed));
+            System.out.printf(Locale.ROOT, "Registered %d clients; %d s per run, %d streams per HTTP/2 connection%n",
+                    clients, seconds, streams);
+
+            System.out.printf(Locale.ROOT, "%-8s %-9s %7s %10s %12s %10s %9s%n",
+                    "scenario", "protocol", "streams", "requests", "requests/s", "KB/resp", "errors");
+            for (String scenario : List.of("search", "list", "export")) {
+                benchmark.run(scenario, HttpClient.Version.HTTP_1_1, 1, seconds, executor);
+                benchmark.run(scenario, HttpClient.Version.HTTP_2, streams, seconds, executor);
+            }
+        } finally {
+            executor.shutdownNow();
+            if (server != null) {
+                server.destroy();
+                server.waitFor(30, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    /**
+     * Registers the synthetic register through the API, 64 requests at a time.
+     *
+     * @return the registered ID numbers
+     */
+    private static List<String> seed(HttpClient http, String baseUrl, int clients, long seed) throws InterruptedException {
+        SyntheticClientGenerator generator = new SyntheticClientGenerator(seed);
+        Semaphore permits = new Semaphore(64);
+        List<String> idNumbers = new ArrayList<>(clients);
+        List<CompletableFuture<?>> pending = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            Client client = generator.generate(i);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/v1/clients/create"))
+                    .timeout(LoadTest.REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(SyntheticClientGenerator.toJson(client)))
+                    .build();
+            permits.acquire();
+            pending.add(http.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> permits.release())
+                    .thenAccept(response -> {
+                        if (response.statusCode() != 200) {
+                            throw new IllegalStateException("Seeding " + client.getIdNumber() + " failed with "
+                                    + response.statusCode());
+                        }
+                    }));
+            idNumbers.add(client.getIdNumber());
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+        return idNumbers;
+    }
+
+    /**
+     * Keeps {@code streams} requests of the scenario in flight on a single connection for the given time.
+     */
+    private void run(String scenario, HttpClient.Version version, int streams, int seconds, ExecutorService executor)
+            throws InterruptedException {
+        // A fresh client per run: the JDK client opens one connection per HTTP/2 origin, and with one request in
+        // flight at a time it reuses a single pooled HTTP/1.1 connection.
+        HttpClient http = HttpClient.newBuilder()
+                .version(version)
+                .connectTimeout(LoadTest.REQUEST_TIMEOUT)
+                .executor(executor)
+                .build();
+        IntFunction<HttpRequest> requests = requests(scenario);
+        // One request alone first, so that HTTP/2 is negotiated before the streams open.
+        HttpResponse<byte[]> first;
+        try {
+            first = http.send(requests.apply(0), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException ex) {
+            throw new IllegalStateException("Warm-up request of " + scenario + " failed", ex);
+        }
+        if (first.version() != version) {
+            System.out.printf(Locale.ROOT, "%-8s %-9s negotiated %s instead%n", scenario, label(version),
+                    label(first.version()));
+            return;
+        }
+
+        AtomicLong completed = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        AtomicLong bytes = new AtomicLong();
+        AtomicLong sequence = new AtomicLong();
+        Semaphore inFlight = new Semaphore(streams);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        long started = System.nanoTime();
+        while (System.nanoTime() < deadline) {
+            if (!inFlight.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+                continue;
+            }
+            http.sendAsync(requests.apply((int) sequence.getAndIncrement()), HttpResponse.BodyHandlers.ofByteArray())
+                    .whenComplete((response, failure) -> {
+                        if (failure == null && response.statusCode() == 200) {
+                            completed.incrementAndGet();
+                            bytes.addAndGet(response.body().length);
+                        } else {
+                            errors.incrementAndGet();
+                        }
+                        inFlight.release();
+                    });
+        }
+        inFlight.acquire(streams);
+        double elapsed = (System.nanoTime() - started) / 1e9;
+        System.out.printf(Locale.ROOT, "%-8s %-9s %7d %10d %12.0f %10.1f %9d%n", scenario, label(version), streams,
+                completed.get(), completed.get() / elapsed,
+                completed.get() == 0 ? 0 : bytes.get() / 1024.0 / completed.get(), errors.get());
+    }
+
+    private IntFunction<HttpRequest> requests(String scenario) {
+        switch (scenario) {
+            case "search":
+                return i -> get("/v1/clients/search?idNumber=" + idNumbers.get(i % idNumbers.size()));
+            case "list":
+                return i -> get("/v1/clients/search/all?size=100&lastName="
+                        + LAST_NAME_QUERIES[i % LAST_NAME_QUERIES.length]);
+            case "export":
+                return i -> get("/v1/clients/export?view=idNumber");
+            default:
+                throw new IllegalArgumentException("Unknown scenario: " + scenario);
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(LoadTest.REQUEST_TIMEOUT)
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+    }
+
+    private static String label(HttpClient.Version version) {
+        return version == HttpClient.Version.HTTP_2 ? "h2c" : "http/1.1";
+    }
+}
@@ -0,0 +1,74 @@
+package com.vcitdevproblem.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Collects the latencies and outcomes of one operation type. Latencies are measured from the time a request was
+ * scheduled to be sent, not from when it was actually sent, so a stalled server cannot hide queueing delay by
+ * slowing the load generator down.
+ */
+final class LatencyRecorder {
+
+    private final String operation;
+    private long[] latencies = new long[1024];
+    private int count;
+    private int errors;
+    private int skipped;
+
+    LatencyRecorder(String operation) {
+        this.operation = operation;
+    }
+
+    synchronized void success(long latencyNanos) {
+        record(latencyNanos);
+    }
+
+    synchronized void error(long latencyNanos) {
+        record(latencyNanos);
+        errors++;
+    }
+
+    /**
+     * Counts a request that was not sent because there was no client to run it against.
+     */
+    synchronized void skip() {
+        skipped++;
+    }
+
+    String getOperation() {
+        return operation;
+    }
+
+    synchronized int getCount() {
+        return count;
+    }
+
+    synchronized int getErrors() {
+        return errors;
+    }
+
+    synchronized int getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * @param percentile the percentile, between 0 and 100
+     * @return the latency at the percentile in milliseconds, or 0 without samples
+     */
+    synchronized double percentileMillis(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, rank))] / 1_000_000.0;
+    }
+
+    private void record(long latencyNanos) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+    }
+}
@@ -0,0 +1,43 @@
+package com.vcitdevproblem.loadtest;
+
+import com.vcitdevproblem.model.Client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * The clients known to be registered and not in use by a request. Every operation on an existing client borrows it
+ * exclusively, so concurrent requests never race each other on the same client and any failure is a real error.
+ */
+final class LiveClients {
+
+    private final List<Client> available = new ArrayList<>();
+    private final SplittableRandom random;
+
+    LiveClients(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    synchronized void release(Client client) {
+        available.add(client);
+    }
+
+    /**
+     * @return a random available client, removed until it is released, or null if none is available
+     */
+    synchronized Client borrow() {
+        if (available.isEmpty()) {
+            return null;
+        }
+        int index = random.nextInt(available.size());
+        Client client = available.get(index);
+        available.set(index, available.get(available.size() - 1));
+        available.remove(available.size() - 1);
+        return client;
+    }
+
+    synchronized int size() {
+        return available.size();
+    }
+}
@@ -0,0 +1,378 @@
+package com.vcitdevproblem.loadtest;
+
+import com.vcitdevproblem.model.Client;
+import com.vcitdevproblem.synthetic.SyntheticClientGenerator;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load test of the client API. Boots the application jar on a free port (or targets
+ * {@code loadtest.url}), registers a synthetic register through the API, then sends a weighted mix of operations at
+ * a fixed arrival rate, independent of how fast the server answers. Each operation's p99 latency and the overall
+ * error rate are compared against the stored {@link SloBaseline}; the process exits with status 1 on a regression.
+ * <p>
+ * Configured through system properties, see {@code gradle/loadtest.gradle}.
+ */
+public final class LoadTest {
+
+    static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final String[] LAST_NAME_QUERIES = {"Doe", "Smith", "Nkosi", "Naidoo", "Botha", "Zulu"};
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final SplittableRandom random;
+    private final SyntheticClientGenerator generator;
+    private final LiveClients live;
+    private final Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+    private final Phaser inFlight = new Phaser(1);
+    private long nextIndex;
+
+    private LoadTest(HttpClient http, String baseUrl, long seed) {
+        this.http = http;
+        this.baseUrl = baseUrl;
+        this.random = new SplittableRandom(seed);
+        this.generator = new SyntheticClientGenerator(seed);
+        this.live = new LiveClients(seed);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("loadtest.clients", 10_000);
+        int rate = Integer.getInteger("loadtest.rate", 200);
+        int warmupSeconds = Integer.getInteger("loadtest.warmup", 10);
+        int durationSeconds = Integer.getInteger("loadtest.duration", 60);
+        long seed = Long.getLong("loadtest.seed", 42);
+        Map<String, Integer> mix = parseMix(System.getProperty("loadtest.mix",
+                "search:60,searchByMobile:10,list:5,create:10,update:10,delete:5"));
+        Path baselinePath = Path.of(System.getProperty("loadtest.baseline", "src/loadTest/resources/slo-baseline.properties"));
+        boolean updateBaseline = Boolean.getBoolean("loadtest.updateBaseline");
+        HttpClient.Version version = httpVersion(System.getProperty("loadtest.http", "1.1"));
+
+        Process server = null;
+        String baseUrl = System.getProperty("loadtest.url");
+        if (baseUrl == null) {
+            int port = freePort();
+            server = startServer(port);
+            baseUrl = "http://localhost:" + port + "/api";
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        boolean sloViolated = false;
+        try {
+            HttpClient http = HttpClient.newBuilder()
+                    .version(version)
+                    .connectTimeout(REQUEST_TIMEOUT)
+                    .executor(executor)
+                    .build();
+            LoadTest test = new LoadTest(http, baseUrl, seed);
+            // Over HTTP/2 the health check upgrades the connection to h2c before the load starts.
+            awaitReady(http, baseUrl, server);
+            long seedStarted = System.nanoTime();
+            test.seed(clients);
+            System.out.printf(Locale.ROOT, "Registered %d clients in %d ms%n", clients,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seedStarted));
+
+            test.run(mix, rate, warmupSeconds, durationSeconds);
+            List<LatencyRecorder> results = new ArrayList<>(test.recorders.values());
+            double errorRate = test.report(results, durationSeconds);
+
+            SloBaseline baseline = SloBaseline.load(baselinePath);
+            if (updateBaseline) {
+                baseline.record(baselinePath, results, String.format(Locale.ROOT,
+                        "%d clients, %d requests/s for %d s, mix %s", clients, rate, durationSeconds, mix));
+                System.out.println("Baseline written to " + baselinePath);
+                return;
+            }
+            List<String> violations = baseline.violations(results, errorRate);
+            if (!violations.isEmpty()) {
+                violations.forEach(violation -> System.out.println("SLO violated: " + violation));
+                sloViolated = true;
+            } else {
+                System.out.println("All SLOs met.");
+            }
+        } finally {
+            executor.shutdownNow();
+            if (server != null) {
+                server.destroy();
+                server.waitFor(30, TimeUnit.SECONDS);
+            }
+        }
+        // Only once the server is stopped: exiting skips pending finally blocks and would leave it running.
+        if (sloViolated) {
+            System.exit(1);
+        }
+    }
+
+    static HttpClient.Version httpVersion(String version) {
+        switch (version) {
+            case "1.1":
+                return HttpClient.Version.HTTP_1_1;
+            case "2":
+                return HttpClient.Version.HTTP_2;
+            default:
+                throw new IllegalArgumentException("Unknown HTTP version: " + version + " (use 1.1 or 2)");
+        }
+    }
+
+    static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    static Process startServer(int port) throws IOException {
+        String java = System.getProperty("loadtest.java", "java");
+        String jar = System.getProperty("loadtest.jar");
+        if (jar == null) {
+            throw new IllegalStateException("Set loadtest.jar to the application jar or loadtest.url to a running server");
+        }
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        for (String arg : System.getProperty("loadtest.jvmArgs", "-Xmx1g").trim().split("\\s+")) {
+            if (!arg.isEmpty()) {
+                command.add(arg);
+            }
+        }
+        command.addAll(List.of("-jar", jar, "--server.port=" + port, "--spring.profiles.active=prod",
+                // A single load generator would exhaust its caller quota; the test measures the service itself.
+                "--admission.enabled=false"));
+        Path log = Path.of(System.getProperty("loadtest.serverLog", "build/loadtest/server.log"));
+        Files.createDirectories(log.toAbsolutePath().getParent());
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+    }
+
+    static void awaitReady(HttpClient http, String baseUrl, Process server) throws InterruptedException {
+        HttpRequest health = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health"))
+                .timeout(Duration.ofSeconds(2)).build();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(120);
+        while (System.nanoTime() < deadline) {
+            if (server != null && !server.isAlive()) {
+                throw new IllegalStateException("Application exited with code " + server.exitValue());
+            }
+            try {
+                if (http.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException ignored) {
+                // Not listening yet.
+            }
+            Thread.sleep(100);
+        }
+        throw new IllegalStateException("Application did not become healthy within 120 seconds");
+    }
+
+    /**
+     * Registers the synthetic register through the API, 64 requests at a time.
+     */
+    private void seed(int clients) throws InterruptedException {
+        Semaphore permits = new Semaphore(64);
+        List<CompletableFuture<?>> pending = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            Client client = generator.generate(nextIndex++);
+            permits.acquire();
+            pending.add(http.sendAsync(post("/v1/clients/create", client), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> permits.release())
+                    .thenAccept(response -> {
+                        if (response.statusCode() != 200) {
+                            throw new IllegalStateException("Seeding " + client.getIdNumber() + " failed with "
+                                    + response.statusCode());
+                        }
+                        live.release(client);
+                    }));
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+    }
+
+    /**
+     * Sends the operation mix at a fixed rate for the warm-up and the measured duration, then waits for the
+     * outstanding requests. Only requests scheduled after the warm-up are recorded.
+     */
+    private void run(Map<String, Integer> mix, int rate, int warmupSeconds, int durationSeconds) {
+        mix.keySet().forEach(operation -> recorders.put(operation, new LatencyRecorder(operation)));
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long requests = (long) rate * (warmupSeconds + durationSeconds);
+        long start = System.nanoTime();
+        long measuredFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+
+        for (long i = 0; i < requests; i++) {
+            long scheduled = start + i * interval;
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            int pick = random.nextInt(totalWeight);
+            String operation = null;
+            for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+                operation = entry.getKey();
+                pick -= entry.getValue();
+                if (pick < 0) {
+                    break;
+                }
+            }
+            LatencyRecorder recorder = scheduled >= measuredFrom ? recorders.get(operation) : null;
+            send(operation, scheduled, recorder);
+        }
+        try {
+            inFlight.awaitAdvanceInterruptibly(inFlight.arrive(), REQUEST_TIMEOUT.toSeconds() * 2, TimeUnit.SECONDS);
+        } catch (Exception ex) {
+            System.out.println("Requests still outstanding after the run: " + (inFlight.getUnarrivedParties()));
+        }
+    }
+
+    private void send(String operation, long scheduled, LatencyRecorder recorder) {
+        Client client = "create".equals(operation) || "list".equals(operation) ? null : live.borrow();
+        HttpRequest request;
+        Client afterSuccess;
+        switch (operation) {
+            case "create":
+                afterSuccess = generator.generate(nextIndex++);
+                request = post("/v1/clients/create", afterSuccess);
+                break;
+            case "update":
+                if (client == null) {
+                    skip(recorder);
+                    return;
+                }
+                afterSuccess = updated(client);
+                request = HttpRequest.newBuilder(uri("/v1/clients/update/" + client.getIdNumber()))
+                        .timeout(REQUEST_TIMEOUT)
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString(SyntheticClientGenerator.toJson(afterSuccess)))
+                        .build();
+                break;
+            case "delete":
+                if (client == null) {
+                    skip(recorder);
+                    return;
+                }
+                afterSuccess = null;
+                request = HttpRequest.newBuilder(uri("/v1/clients/delete/" + client.getIdNumber()))
+                        .timeout(REQUEST_TIMEOUT).DELETE().build();
+                break;
+            case "search":
+            case "searchByMobile":
+                if (client == null) {
+                    skip(recorder);
+                    return;
+                }
+                afterSuccess = client;
+                request = get("search".equals(operation)
+                        ? "/v1/clients/search?idNumber=" + client.getIdNumber()
+                        : "/v1/clients/search?phoneNumber=" + client.getMobileNumber());
+                break;
+            case "list":
+                afterSuccess = null;
+                request = get("/v1/clients/search/all?size=20&lastName="
+                        + LAST_NAME_QUERIES[random.nextInt(LAST_NAME_QUERIES.length)]);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown operation: " + operation);
+        }
+
+        inFlight.register();
+        http.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+            long latency = System.nanoTime() - scheduled;
+            boolean ok = failure == null && response.statusCode() == 200;
+            if (recorder != null) {
+                if (ok) {
+                    recorder.success(latency);
+                } else {
+                    recorder.error(latency);
+                }
+            }
+            Client released = ok ? afterSuccess : client;
+            if (released != null) {
+                live.release(released);
+            }
+            inFlight.arriveAndDeregister();
+        });
+    }
+
+    /**
+     * @return a copy of the client with the mobile number and address of a client not generated yet, as an update
+     * would send; both stay unique since that client is never created
+     */
+    private Client updated(Client client) {
+        Client fresh = generator.generate(nextIndex++);
+        return new Client(client.getFirstName(), client.getLastName(), fresh.getMobileNumber(),
+                client.getIdNumber(), fresh.getPhysicalAddress());
+    }
+
+    private static void skip(LatencyRecorder recorder) {
+        if (recorder != null) {
+            recorder.skip();
+        }
+    }
+
+    /**
+     * Prints the per-operation results.
+     *
+     * @return the error rate over all recorded requests
+     */
+    private double report(List<LatencyRecorder> results, int durationSeconds) {
+        System.out.printf(Locale.ROOT, "%-16s %8s %7s %7s %9s %9s %9s %9s%n",
+                "operation", "requests", "errors", "skipped", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        long requests = 0;
+        long errors = 0;
+        for (LatencyRecorder recorder : results) {
+            requests += recorder.getCount();
+            errors += recorder.getErrors();
+            System.out.printf(Locale.ROOT, "%-16s %8d %7d %7d %9.1f %9.1f %9.1f %9.1f%n",
+                    recorder.getOperation(), recorder.getCount(), recorder.getErrors(), recorder.getSkipped(),
+                    recorder.percentileMillis(50), recorder.percentileMillis(95), recorder.percentileMillis(99),
+                    recorder.percentileMillis(100));
+        }
+        double errorRate = requests == 0 ? 0 : (double) errors / requests;
+        System.out.printf(Locale.ROOT, "%d requests in %d s (%.0f/s), error rate %.4f%n",
+                requests, durationSeconds, (double) requests / durationSeconds, errorRate);
+        return errorRate;
+    }
+
+    private HttpRequest post(String path, Client client) {
+        return HttpRequest.newBuilder(uri(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(SyntheticClientGenerator.toJson(client)))
+                .build();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).timeout(REQUEST_TIMEOUT).GET().build();
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split(":");
+            weights.put(pair[0].trim(), Integer.parseInt(pair[1].trim()));
+        }
+        return weights;
+    }
+}
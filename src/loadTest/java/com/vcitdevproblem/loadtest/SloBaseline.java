@@ -0,0 +1,95 @@
+package com.vcitdevproblem.loadtest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * The stored latency and error-rate baseline a load test run is compared against.
+ * <p>
+ * The file holds {@code <operation>.p99.ms} for every operation, a relative {@code tolerance} for p99 regressions
+ * and an absolute {@code error.rate.max}.
+ */
+final class SloBaseline {
+
+    private static final double DEFAULT_TOLERANCE = 0.25;
+    private static final double DEFAULT_MAX_ERROR_RATE = 0.001;
+
+    private final Properties properties;
+
+    private SloBaseline(Properties properties) {
+        this.properties = properties;
+    }
+
+    static SloBaseline load(Path path) throws IOException {
+        Properties properties = new Properties();
+        if (Files.exists(path)) {
+            try (Reader reader = Files.newBufferedReader(path)) {
+                properties.load(reader);
+            }
+        }
+        return new SloBaseline(properties);
+    }
+
+    /**
+     * @param recorders  the results of the run
+     * @param errorRate  the error rate over all operations
+     * @return a description of every SLO the run violated; empty if it passed
+     */
+    List<String> violations(List<LatencyRecorder> recorders, double errorRate) {
+        List<String> violations = new ArrayList<>();
+        double tolerance = number("tolerance", DEFAULT_TOLERANCE);
+        for (LatencyRecorder recorder : recorders) {
+            String baseline = properties.getProperty(recorder.getOperation() + ".p99.ms");
+            if (baseline == null || recorder.getCount() == 0) {
+                continue;
+            }
+            double limit = Double.parseDouble(baseline) * (1 + tolerance);
+            double p99 = recorder.percentileMillis(99);
+            if (p99 > limit) {
+                violations.add(String.format(Locale.ROOT, "%s p99 %.1f ms exceeds baseline %s ms + %.0f%%",
+                        recorder.getOperation(), p99, baseline, tolerance * 100));
+            }
+        }
+        double maxErrorRate = number("error.rate.max", DEFAULT_MAX_ERROR_RATE);
+        if (errorRate > maxErrorRate) {
+            violations.add(String.format(Locale.ROOT, "error rate %.4f exceeds %.4f", errorRate, maxErrorRate));
+        }
+        return violations;
+    }
+
+    /**
+     * Replaces the stored p99 latencies by those of this run, keeping the tolerance and error budget.
+     */
+    void record(Path path, List<LatencyRecorder> recorders, String description) throws IOException {
+        Map<String, String> values = new TreeMap<>();
+        values.put("tolerance", properties.getProperty("tolerance", String.valueOf(DEFAULT_TOLERANCE)));
+        values.put("error.rate.max", properties.getProperty("error.rate.max", String.valueOf(DEFAULT_MAX_ERROR_RATE)));
+        for (LatencyRecorder recorder : recorders) {
+            if (recorder.getCount() > 0) {
+                values.put(recorder.getOperation() + ".p99.ms",
+                        String.format(Locale.ROOT, "%.1f", recorder.percentileMillis(99)));
+            }
+        }
+        try (Writer writer = Files.newBufferedWriter(path)) {
+            writer.write("# Load test SLO baseline, recorded by ./gradlew loadTest -PupdateLoadTestBaseline\n");
+            writer.write("# " + description + "\n");
+            for (Map.Entry<String, String> value : values.entrySet()) {
+                writer.write(value.getKey() + "=" + value.getValue() + "\n");
+            }
+        }
+    }
+
+    private double number(String key, double defaultValue) {
+        String value = properties.getProperty(key);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+}
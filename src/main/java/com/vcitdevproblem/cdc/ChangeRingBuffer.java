@@ -0,0 +1,219 @@
+package com.vcitdevproblem.cdc;
+
+import com.vcitdevproblem.dto.ClientDTO;
+import com.vcitdevproblem.tenant.TenantContext;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded, lock-free multi-producer ring buffer of client changes.
+ * Sequence numbers start at 1 and increase monotonically; once the buffer is full the oldest changes are
+ * overwritten, and consumers that fall further behind than the capacity are told so via {@link #oldestSequence()}.
+ * <p>
+ * One consumer that must not miss changes can {@link #setGate(LongSupplier) gate} the buffer: a publisher about to
+ * overwrite a change that consumer has not read yet waits until it has, so the consumer holds writers back rather
+ * than losing changes. Every other consumer still sees overwrites.
+ */
+public class ChangeRingBuffer {
+
+    private static final long GATE_PARK_NANOS = 50_000;
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<ClientChangeEvent> slots;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong published = new AtomicLong();
+    private final ConcurrentLinkedQueue<Thread> waiters = new ConcurrentLinkedQueue<>();
+    private final LongAdder gatedPublishes = new LongAdder();
+    private volatile LongSupplier gate;
+
+    public ChangeRingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 2) {
+            throw new IllegalArgumentException("Change buffer capacity must be at least 2.");
+        }
+        this.capacity = Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Appends a change to the register of the default tenant to the buffer.
+     *
+     * @param type     the kind of change
+     * @param idNumber the ID number of the affected client
+     * @param client   the client state after the change, or null for deletes
+     * @return the sequence number assigned to the change
+     */
+    public long publish(ChangeType type, String idNumber, ClientDTO client) {
+        return publish(TenantContext.DEFAULT_TENANT, type, idNumber, client);
+    }
+
+    /**
+     * Appends a change to the buffer. The changes of all tenants share one sequence.
+     *
+     * @param tenant   the tenant whose register changed
+     * @param type     the kind of change
+     * @param idNumber the ID number of the affected client
+     * @param client   the client state after the change, or null for deletes
+     * @return the sequence number assigned to the change
+     */
+    public long publish(String tenant, ChangeType type, String idNumber, ClientDTO client) {
+        long sequence = claimed.incrementAndGet();
+        LongSupplier gating = gate;
+        if (gating != null && sequence - capacity >= gating.getAsLong()) {
+            awaitGate(sequence - capacity);
+        }
+        ClientChangeEvent event = new ClientChangeEvent(sequence, type, tenant, idNumber, System.currentTimeMillis(),
+                client);
+        int index = (int) (sequence & mask);
+        while (true) {
+            ClientChangeEvent current = slots.get(index);
+            // A producer stalled for a whole lap must not overwrite the newer change in its slot.
+            if (current != null && current.getSequence() > sequence) {
+                break;
+            }
+            if (slots.compareAndSet(index, current, event)) {
+                break;
+            }
+        }
+        published.incrementAndGet();
+        if (!waiters.isEmpty()) {
+            waiters.forEach(LockSupport::unpark);
+        }
+        return sequence;
+    }
+
+    /**
+     * Makes publishers wait for a consumer rather than overwrite changes it has not read yet.
+     *
+     * @param nextSequence supplies the next sequence the consumer will read, so that every earlier change may be
+     *                     overwritten; null removes the gate
+     */
+    public void setGate(LongSupplier nextSequence) {
+        this.gate = nextSequence;
+    }
+
+    /**
+     * @return the number of publishes that had to wait for the gating consumer
+     */
+    public long getGatedPublishes() {
+        return gatedPublishes.sum();
+    }
+
+    /**
+     * Waits until the gating consumer has read the change about to be overwritten, or the gate is removed.
+     */
+    private void awaitGate(long overwritten) {
+        gatedPublishes.increment();
+        boolean interrupted = false;
+        LongSupplier gating;
+        while ((gating = gate) != null && overwritten >= gating.getAsLong()) {
+            LockSupport.parkNanos(this, GATE_PARK_NANOS);
+            // A publish under a lock cannot be abandoned halfway, so the interrupt is kept for the caller.
+            interrupted |= Thread.interrupted();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Copies published changes starting at {@code fromSequence} into {@code into}, stopping at the first
+     * change that is not yet visible so that consumers always observe sequence order.
+     *
+     * @param fromSequence the first sequence to read
+     * @param maxChanges   the maximum number of changes to copy
+     * @param into         the list receiving the changes
+     * @return the sequence the next read should start from
+     */
+    public long read(long fromSequence, int maxChanges, List<ClientChangeEvent> into) {
+        long sequence = fromSequence;
+        long last = claimed.get();
+        while (sequence <= last && into.size() < maxChanges) {
+            ClientChangeEvent event = slots.get((int) (sequence & mask));
+            if (event == null || event.getSequence() != sequence) {
+                break;
+            }
+            into.add(event);
+            sequence++;
+        }
+        return sequence;
+    }
+
+    /**
+     * Returns true if the change with the given sequence has been published and is still buffered.
+     *
+     * @param sequence the sequence to check
+     * @return whether {@link #read(long, int, List)} would return it
+     */
+    public boolean isAvailable(long sequence) {
+        ClientChangeEvent event = slots.get((int) (sequence & mask));
+        return event != null && event.getSequence() == sequence;
+    }
+
+    /**
+     * Resolves where a consumer asking for {@code fromSequence} starts reading. Sequences start at 1, so 0 or less
+     * asks for everything and starts at the oldest buffered change.
+     *
+     * @param fromSequence the first sequence the consumer asked for
+     * @return the first sequence to read
+     */
+    public long startSequence(long fromSequence) {
+        return fromSequence > 0 ? fromSequence : oldestSequence();
+    }
+
+    /**
+     * Returns true if the change with the given sequence was published but has since been overwritten, meaning a
+     * consumer about to read it has missed changes. A sequence still in its slot is not overwritten, even if a
+     * producer has already claimed the one that will replace it.
+     *
+     * @param sequence the next sequence a consumer would read
+     * @return whether the change is lost to the consumer
+     */
+    public boolean isOverwritten(long sequence) {
+        return sequence >= 1 && sequence < oldestSequence() && !isAvailable(sequence);
+    }
+
+    /**
+     * Parks the calling thread until another change is published or the timeout expires.
+     *
+     * @param observedPublishCount a value previously returned by {@link #publishCount()}
+     * @param timeoutNanos         the maximum time to wait
+     */
+    public void awaitPublish(long observedPublishCount, long timeoutNanos) {
+        Thread current = Thread.currentThread();
+        waiters.add(current);
+        try {
+            long deadline = System.nanoTime() + timeoutNanos;
+            long remaining = timeoutNanos;
+            while (published.get() == observedPublishCount && remaining > 0 && !current.isInterrupted()) {
+                LockSupport.parkNanos(this, remaining);
+                remaining = deadline - System.nanoTime();
+            }
+        } finally {
+            waiters.remove(current);
+        }
+    }
+
+    public long publishCount() {
+        return published.get();
+    }
+
+    public long latestSequence() {
+        return claimed.get();
+    }
+
+    public long oldestSequence() {
+        return Math.max(1, claimed.get() - capacity + 1);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,248 @@
+package com.vcitdevproblem.cdc;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers the change stream to subscribed HTTP clients.
+ * A single dispatcher thread waits for publishes and hands subscribers that have something to read to a small
+ * delivery pool, so streams do not hold a request thread each and a slow consumer only delays itself.
+ * Each subscriber receives the changes of its own tenant only; sequences are shared by all tenants, so a tenant's
+ * stream skips the sequences of the others.
+ */
+public class ChangeStreamBroadcaster implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeStreamBroadcaster.class);
+
+    private final ChangeRingBuffer buffer;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final long heartbeatNanos;
+    private final long streamTimeoutMillis;
+    private final int deliveryThreads;
+
+    private final Set<Subscriber> subscribers = new CopyOnWriteArraySet<>();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile boolean running = true;
+    private volatile ExecutorService deliveryPool;
+    private volatile Thread dispatcher;
+
+    public ChangeStreamBroadcaster(ChangeRingBuffer buffer, ObjectMapper objectMapper, ChangeStreamProperties properties) {
+        this.buffer = buffer;
+        this.objectMapper = objectMapper;
+        this.batchSize = properties.getBatchSize();
+        this.heartbeatNanos = properties.getHeartbeatInterval().toNanos();
+        this.streamTimeoutMillis = properties.getStreamTimeout().toMillis();
+        this.deliveryThreads = properties.getDeliveryThreads();
+    }
+
+    /**
+     * Opens a newline-delimited JSON stream of changes.
+     *
+     * @param tenant       the tenant whose changes to deliver
+     * @param fromSequence the first sequence to deliver, or null or 0 to start at the oldest buffered change
+     * @return the emitter to return from the controller
+     */
+    public ResponseBodyEmitter subscribeNdjson(String tenant, Long fromSequence) {
+        return subscribe(new ResponseBodyEmitter(streamTimeoutMillis), false, tenant, fromSequence);
+    }
+
+    /**
+     * Opens a Server-Sent Events stream of changes; each event carries a batch and its last sequence as id.
+     *
+     * @param tenant       the tenant whose changes to deliver
+     * @param fromSequence the first sequence to deliver, or null or 0 to start at the oldest buffered change
+     * @return the emitter to return from the controller
+     */
+    public SseEmitter subscribeSse(String tenant, Long fromSequence) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        subscribe(emitter, true, tenant, fromSequence);
+        return emitter;
+    }
+
+    private ResponseBodyEmitter subscribe(ResponseBodyEmitter emitter, boolean sse, String tenant, Long fromSequence) {
+        ensureStarted();
+        long start = buffer.startSequence(fromSequence != null ? fromSequence : 0);
+        Subscriber subscriber = new Subscriber(emitter, sse, tenant, start);
+        emitter.onCompletion(() -> close(subscriber));
+        emitter.onTimeout(() -> close(subscriber));
+        emitter.onError(error -> close(subscriber));
+        subscribers.add(subscriber);
+        schedule(subscriber);
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private void ensureStarted() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        deliveryPool = Executors.newFixedThreadPool(deliveryThreads, runnable -> {
+            Thread thread = new Thread(runnable, "change-stream-delivery-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Thread thread = new Thread(this::dispatch, "change-stream-dispatcher");
+        thread.setDaemon(true);
+        dispatcher = thread;
+        thread.start();
+    }
+
+    private void dispatch() {
+        while (running) {
+            long observed = buffer.publishCount();
+            subscribers.forEach(this::schedule);
+            buffer.awaitPublish(observed, heartbeatNanos);
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (!subscriber.closed && subscriber.draining.compareAndSet(false, true)) {
+            deliveryPool.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            List<ClientChangeEvent> batch = new ArrayList<>(batchSize);
+            while (!subscriber.closed) {
+                if (buffer.isOverwritten(subscriber.next)) {
+                    long oldest = buffer.oldestSequence();
+                    subscriber.sendControl(ChangeType.TRUNCATED, oldest);
+                    subscriber.next = oldest;
+                }
+                batch.clear();
+                long next = buffer.read(subscriber.next, batchSize, batch);
+                if (batch.isEmpty()) {
+                    if (System.nanoTime() - subscriber.lastSentNanos >= heartbeatNanos) {
+                        subscriber.sendControl(ChangeType.HEARTBEAT, subscriber.next - 1);
+                    }
+                    break;
+                }
+                batch.removeIf(event -> !subscriber.tenant.equals(event.getTenant()));
+                if (!batch.isEmpty()) {
+                    subscriber.sendBatch(batch);
+                }
+                subscriber.next = next;
+            }
+        } catch (IOException | IllegalStateException ex) {
+            // The client went away or the emitter already completed; the container cleans up the request.
+            logger.debug("Closing change stream subscriber: {}", ex.getMessage());
+            close(subscriber);
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // A publish may have landed between the last read and clearing the flag.
+        if (buffer.isAvailable(subscriber.next)) {
+            schedule(subscriber);
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscribers.remove(subscriber);
+    }
+
+    private String toJson(ClientChangeEvent event) throws JsonProcessingException {
+        String json = event.json;
+        if (json == null) {
+            json = objectMapper.writeValueAsString(event);
+            event.json = json;
+        }
+        return json;
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        Thread thread = dispatcher;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        ExecutorService pool = deliveryPool;
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    private final class Subscriber {
+
+        private final ResponseBodyEmitter emitter;
+        private final boolean sse;
+        private final String tenant;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+        private volatile long next;
+        private volatile long lastSentNanos = System.nanoTime();
+
+        private Subscriber(ResponseBodyEmitter emitter, boolean sse, String tenant, long next) {
+            this.emitter = emitter;
+            this.sse = sse;
+            this.tenant = tenant;
+            this.next = next;
+        }
+
+        private void sendBatch(List<ClientChangeEvent> batch) throws IOException {
+            StringBuilder payload = new StringBuilder(batch.size() * 192);
+            if (sse) {
+                payload.append('[');
+                for (int i = 0; i < batch.size(); i++) {
+                    if (i > 0) {
+                        payload.append(',');
+                    }
+                    payload.append(toJson(batch.get(i)));
+                }
+                payload.append(']');
+                long lastSequence = batch.get(batch.size() - 1).getSequence();
+                ((SseEmitter) emitter).send(SseEmitter.event()
+                        .id(Long.toString(lastSequence))
+                        .name("changes")
+                        .data(payload.toString(), MediaType.APPLICATION_JSON));
+            } else {
+                for (ClientChangeEvent event : batch) {
+                    payload.append(toJson(event)).append('\n');
+                }
+                emitter.send(payload.toString(), MediaType.APPLICATION_NDJSON);
+            }
+            lastSentNanos = System.nanoTime();
+        }
+
+        private void sendControl(ChangeType type, long sequence) throws IOException {
+            ClientChangeEvent control = new ClientChangeEvent(sequence, type, null, null, System.currentTimeMillis(),
+                    null);
+            if (sse && type == ChangeType.HEARTBEAT) {
+                ((SseEmitter) emitter).send(SseEmitter.event().comment("heartbeat"));
+            } else if (sse) {
+                ((SseEmitter) emitter).send(SseEmitter.event()
+                        .name(type.name().toLowerCase(Locale.ROOT))
+                        .data(toJson(control), MediaType.APPLICATION_JSON));
+            } else {
+                emitter.send(toJson(control) + "\n", MediaType.APPLICATION_NDJSON);
+            }
+            lastSentNanos = System.nanoTime();
+        }
+    }
+}
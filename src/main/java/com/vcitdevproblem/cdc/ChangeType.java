@@ -0,0 +1,24 @@
+package com.vcitdevproblem.cdc;
+
+/**
+ * Kind of record on the client change stream.
+ * {@link #RESYNC}, {@link #TRUNCATED} and {@link #HEARTBEAT} are stream control records and never carry a client.
+ */
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED,
+    /**
+     * A bulk load added clients to the tenant's register without publishing them one by one; consumers re-read the
+     * register, such as from the export, and continue after the record's sequence.
+     */
+    RESYNC,
+    /**
+     * The consumer asked for changes that are no longer buffered; delivery resumes at the record's sequence.
+     */
+    TRUNCATED,
+    /**
+     * Sent on idle streams so that consumers and intermediaries keep the connection open.
+     */
+    HEARTBEAT
+}
@@ -0,0 +1,61 @@
+package com.vcitdevproblem.cdc;
+
+import com.vcitdevproblem.dto.ClientDTO;
+import com.vcitdevproblem.tenant.TenantContext;
+
+/**
+ * A single record on the client change stream.
+ */
+public class ClientChangeEvent {
+
+    private final long sequence;
+    private final ChangeType type;
+    private final String tenant;
+    private final String idNumber;
+    private final long timestamp;
+    private final ClientDTO client;
+
+    // Serialized form, computed once on first delivery and shared by all subscribers.
+    volatile String json;
+
+    public ClientChangeEvent(long sequence, ChangeType type, String idNumber, long timestamp, ClientDTO client) {
+        this(sequence, type, TenantContext.DEFAULT_TENANT, idNumber, timestamp, client);
+    }
+
+    public ClientChangeEvent(long sequence, ChangeType type, String tenant, String idNumber, long timestamp,
+                             ClientDTO client) {
+        this.sequence = sequence;
+        this.type = type;
+        this.tenant = tenant;
+        this.idNumber = idNumber;
+        this.timestamp = timestamp;
+        this.client = client;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    /**
+     * @return the tenant whose register changed, or null for control records
+     */
+    public String getTenant() {
+        return tenant;
+    }
+
+    public String getIdNumber() {
+        return idNumber;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public ClientDTO getClient() {
+        return client;
+    }
+}
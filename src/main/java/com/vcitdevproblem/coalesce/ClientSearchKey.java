@@ -0,0 +1,78 @@
+package com.vcitdevproblem.coalesce;
+
+import com.vcitdevproblem.store.ClientProjection;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Identifies a single-client search of one tenant's register, so that identical concurrent searches can share one
+ * execution. The first name is matched case-insensitively and is therefore normalized.
+ */
+public final class ClientSearchKey {
+
+    private final String tenant;
+    private final String firstName;
+    private final String idNumber;
+    private final String phoneNumber;
+    private final ClientProjection projection;
+
+    public ClientSearchKey(String tenant, Optional<String> firstName, Optional<String> idNumber,
+                           Optional<String> phoneNumber, ClientProjection projection) {
+        this.tenant = tenant;
+        this.firstName = firstName.map(name -> name.toLowerCase(Locale.ROOT)).orElse(null);
+        this.idNumber = idNumber.orElse(null);
+        this.phoneNumber = phoneNumber.orElse(null);
+        this.projection = projection;
+    }
+
+    /**
+     * @param clientTenant the tenant of a register
+     * @return whether this search reads that register
+     */
+    public boolean belongsTo(String clientTenant) {
+        return tenant.equals(clientTenant);
+    }
+
+    /**
+     * @param clientTenant       the tenant of a written client
+     * @param clientIdNumber     the ID number of a written client
+     * @param clientMobileNumber the mobile number of a written client
+     * @return whether a write to that client may change the result of this search; searches by first name alone
+     * depend on every client of their tenant
+     */
+    public boolean concerns(String clientTenant, String clientIdNumber, String clientMobileNumber) {
+        if (!belongsTo(clientTenant)) {
+            return false;
+        }
+        if (idNumber != null) {
+            return idNumber.equals(clientIdNumber);
+        }
+        if (phoneNumber != null) {
+            return phoneNumber.equals(clientMobileNumber);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ClientSearchKey)) {
+            return false;
+        }
+        ClientSearchKey other = (ClientSearchKey) o;
+        return tenant.equals(other.tenant)
+                && Objects.equals(firstName, other.firstName)
+                && Objects.equals(idNumber, other.idNumber)
+                && Objects.equals(phoneNumber, other.phoneNumber)
+                && projection == other.projection;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(tenant, firstName, idNumber, phoneNumber, projection);
+    }
+}
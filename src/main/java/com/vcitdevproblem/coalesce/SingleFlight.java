@@ -0,0 +1,128 @@
+package com.vcitdevproblem.coalesce;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical calls: the first caller for a key runs the call, and callers arriving while it is
+ * in flight wait for and share its result, or its exception. Nothing is kept once the call completes, so this is
+ * not a cache; it only removes duplicate work during bursts.
+ * <p>
+ * A write that may change the result of in-flight calls must {@link #invalidate} them, after which new callers start
+ * a fresh call instead of joining one that may have read the register before the write. Callers already waiting
+ * keep the result they joined for, as they arrived before the write completed.
+ *
+ * @param <K> the call key, with value equality
+ * @param <V> the result type
+ */
+public class SingleFlight<K, V> implements MeterBinder {
+
+    private final String name;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * @param name the metric name prefix, e.g. {@code client.search}
+     */
+    public SingleFlight(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Runs the call for the key, or joins the identical call already in flight.
+     *
+     * @param key  identifies identical calls
+     * @param call computes the result; runs on the calling thread of the first caller
+     * @return the result of the call
+     */
+    public V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+        executed.increment();
+        try {
+            V result = call.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error ex) {
+            flight.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Detaches the in-flight calls whose result a write may have changed, so that later callers do not join them.
+     *
+     * @param affected selects the keys of the affected calls
+     */
+    public void invalidate(Predicate<? super K> affected) {
+        inFlight.keySet().removeIf(affected);
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    public long getExecuted() {
+        return executed.sum();
+    }
+
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    /**
+     * @return the share of calls served by joining another call, or 0 before any call
+     */
+    public double getHitRatio() {
+        long hits = coalesced.sum();
+        long total = hits + executed.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(name + ".coalescing.calls", this, SingleFlight::getExecuted)
+                .description("Calls that were executed")
+                .tag("outcome", "executed")
+                .register(registry);
+        FunctionCounter.builder(name + ".coalescing.calls", this, SingleFlight::getCoalesced)
+                .description("Calls that joined an identical call in flight")
+                .tag("outcome", "coalesced")
+                .register(registry);
+        Gauge.builder(name + ".coalescing.hit.ratio", this, SingleFlight::getHitRatio)
+                .description("Share of calls that joined an identical call in flight")
+                .register(registry);
+        Gauge.builder(name + ".coalescing.in.flight", this, SingleFlight::getInFlight)
+                .register(registry);
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+}
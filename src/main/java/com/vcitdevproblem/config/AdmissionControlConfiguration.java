@@ -0,0 +1,65 @@
+package com.vcitdevproblem.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vcitdevproblem.web.admission.AdaptiveConcurrencyLimiter;
+import com.vcitdevproblem.web.admission.AdmissionControlEndpoint;
+import com.vcitdevproblem.web.admission.AdmissionControlFilter;
+import com.vcitdevproblem.web.admission.AdmissionProperties;
+import com.vcitdevproblem.web.admission.CallerQuotas;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Wires the admission control filter in front of {@code /v1/clients}, with separate concurrency
+ * budgets for reads and writes plus per-caller quotas. The beans exist whether or not {@code admission.enabled} is
+ * set, since the filter checks it at run time.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionControlConfiguration {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter readLimiter(AdmissionProperties properties) {
+        AdmissionProperties.Budget budget = properties.getReads();
+        return new AdaptiveConcurrencyLimiter("reads", budget.getInitialLimit(), budget.getMinLimit(), budget.getMaxLimit());
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimiter writeLimiter(AdmissionProperties properties) {
+        AdmissionProperties.Budget budget = properties.getWrites();
+        return new AdaptiveConcurrencyLimiter("writes", budget.getInitialLimit(), budget.getMinLimit(), budget.getMaxLimit());
+    }
+
+    @Bean
+    public CallerQuotas callerQuotas(AdmissionProperties properties) {
+        AdmissionProperties.Quota quota = properties.getQuota();
+        return new CallerQuotas(quota.getPermitsPerSecond(), quota.getBurst(), quota.getMaxCallers());
+    }
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            AdaptiveConcurrencyLimiter readLimiter,
+            AdaptiveConcurrencyLimiter writeLimiter,
+            CallerQuotas callerQuotas,
+            AdmissionProperties properties,
+            ObjectMapper objectMapper) throws JsonProcessingException {
+        AdmissionControlFilter filter = new AdmissionControlFilter(
+                readLimiter, writeLimiter, callerQuotas, properties.isEnabled(), objectMapper);
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/v1/clients/*", "/v1/tenants/*");
+        // Right after the tenant's own budget, ahead of everything that does per-request work.
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+
+    @Bean
+    public AdmissionControlEndpoint admissionControlEndpoint(AdaptiveConcurrencyLimiter readLimiter,
+                                                             AdaptiveConcurrencyLimiter writeLimiter,
+                                                             CallerQuotas callerQuotas) {
+        return new AdmissionControlEndpoint(readLimiter, writeLimiter, callerQuotas);
+    }
+}
@@ -0,0 +1,30 @@
+package com.vcitdevproblem.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vcitdevproblem.cdc.ChangeRingBuffer;
+import com.vcitdevproblem.cdc.ChangeStreamBroadcaster;
+import com.vcitdevproblem.cdc.ChangeStreamProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Wires the in-process change stream: the ring buffer ClientService publishes into and the broadcaster
+ * that delivers it to HTTP subscribers.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ChangeStreamProperties.class)
+public class ChangeStreamConfiguration {
+
+    @Bean
+    public ChangeRingBuffer changeRingBuffer(ChangeStreamProperties properties) {
+        return new ChangeRingBuffer(properties.getCapacity());
+    }
+
+    @Bean
+    public ChangeStreamBroadcaster changeStreamBroadcaster(ChangeRingBuffer changeRingBuffer,
+                                                           ObjectMapper objectMapper,
+                                                           ChangeStreamProperties properties) {
+        return new ChangeStreamBroadcaster(changeRingBuffer, objectMapper, properties);
+    }
+}
@@ -0,0 +1,21 @@
+package com.vcitdevproblem.config;
+
+import com.vcitdevproblem.coalesce.ClientSearchKey;
+import com.vcitdevproblem.coalesce.SingleFlight;
+import com.vcitdevproblem.dto.ClientDTO;
+import com.vcitdevproblem.service.ClientResult;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Provides the single-flight group that coalesces concurrent identical client searches; its hit ratio is published
+ * as the {@code client.search.coalescing.*} metrics.
+ */
+@Configuration(proxyBeanMethods = false)
+public class CoalescingConfiguration {
+
+    @Bean
+    public SingleFlight<ClientSearchKey, ClientResult<ClientDTO>> clientSearchFlights() {
+        return new SingleFlight<>("client.search");
+    }
+}
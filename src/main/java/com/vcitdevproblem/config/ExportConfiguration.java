@@ -0,0 +1,22 @@
+package com.vcitdevproblem.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vcitdevproblem.export.ClientExporter;
+import com.vcitdevproblem.export.ExportProperties;
+import com.vcitdevproblem.store.ClientStore;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Wires the streamed, precompressed register export.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ExportProperties.class)
+public class ExportConfiguration {
+
+    @Bean
+    public ClientExporter clientExporter(ClientStore clientStore, ObjectMapper objectMapper, ExportProperties properties) {
+        return new ClientExporter(clientStore, objectMapper, properties);
+    }
+}
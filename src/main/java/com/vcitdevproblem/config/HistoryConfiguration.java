@@ -0,0 +1,29 @@
+package com.vcitdevproblem.config;
+
+import com.vcitdevproblem.cdc.ChangeRingBuffer;
+import com.vcitdevproblem.history.HistoryProperties;
+import com.vcitdevproblem.history.HistoryRecorder;
+import com.vcitdevproblem.history.HistoryStore;
+import com.vcitdevproblem.tenant.TenantRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Wires the audit history of client changes, recorded from the change stream.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(HistoryProperties.class)
+public class HistoryConfiguration {
+
+    @Bean
+    public HistoryStore historyStore(HistoryProperties properties) {
+        return new HistoryStore(properties);
+    }
+
+    @Bean
+    public HistoryRecorder historyRecorder(ChangeRingBuffer changeRingBuffer, HistoryStore historyStore,
+                                           TenantRegistry tenantRegistry, HistoryProperties properties) {
+        return new HistoryRecorder(changeRingBuffer, historyStore, tenantRegistry, properties);
+    }
+}
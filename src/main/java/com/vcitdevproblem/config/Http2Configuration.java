@@ -0,0 +1,33 @@
+package com.vcitdevproblem.config;
+
+import com.vcitdevproblem.web.transport.Http2Properties;
+import org.apache.coyote.UpgradeProtocol;
+import org.apache.coyote.http2.Http2Protocol;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Tunes the multiplexing of the HTTP/2 protocol that Spring Boot adds to the connector when
+ * {@code server.http2.enabled} is set. On the plain HTTP connector Tomcat then speaks cleartext HTTP/2 (h2c), both
+ * after an {@code Upgrade: h2c} request and with prior knowledge.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(Http2Properties.class)
+public class Http2Configuration {
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> http2StreamLimits(Http2Properties properties) {
+        // Connector customizers run after Spring Boot has added the upgrade protocol.
+        return factory -> factory.addConnectorCustomizers(connector -> {
+            for (UpgradeProtocol protocol : connector.findUpgradeProtocols()) {
+                if (protocol instanceof Http2Protocol http2) {
+                    http2.setMaxConcurrentStreams(properties.getMaxConcurrentStreams());
+                    http2.setMaxConcurrentStreamExecution(properties.getMaxConcurrentStreamExecution());
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,46 @@
+package com.vcitdevproblem.config;
+
+import com.vcitdevproblem.index.IndexEndpoint;
+import com.vcitdevproblem.index.IndexManager;
+import com.vcitdevproblem.index.IndexingProperties;
+import com.vcitdevproblem.index.SortedClientIndex;
+import com.vcitdevproblem.index.TrigramIndex;
+import com.vcitdevproblem.store.ClientStore;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Secondary indexes maintained by ClientService alongside the client register. The online indexes of
+ * {@code indexing.indexes} start building in the background once the application has started.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(IndexingProperties.class)
+public class IndexConfiguration {
+
+    @Bean
+    public TrigramIndex fuzzyIndex() {
+        return new TrigramIndex();
+    }
+
+    @Bean
+    public SortedClientIndex sortedIndex() {
+        return new SortedClientIndex();
+    }
+
+    @Bean
+    public IndexManager indexManager(IndexingProperties properties, ClientStore store) {
+        return new IndexManager(properties, store);
+    }
+
+    @Bean
+    public IndexEndpoint indexEndpoint(IndexManager indexManager) {
+        return new IndexEndpoint(indexManager);
+    }
+
+    @Bean
+    public CommandLineRunner indexBuilds(IndexManager indexManager) {
+        return args -> indexManager.buildConfigured();
+    }
+}
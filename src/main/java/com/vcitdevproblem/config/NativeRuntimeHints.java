@@ -0,0 +1,64 @@
+package com.vcitdevproblem.config;
+
+import com.vcitdevproblem.cdc.ClientChangeEvent;
+import com.vcitdevproblem.dto.ClientDTO;
+import com.vcitdevproblem.dto.ClientMatchDTO;
+import com.vcitdevproblem.dto.ClientPageDTO;
+import com.vcitdevproblem.dto.ClientRequest;
+import com.vcitdevproblem.dto.ClientResponse;
+import com.vcitdevproblem.dto.ClientScanDTO;
+import com.vcitdevproblem.dto.ClientVersionDTO;
+import com.vcitdevproblem.dto.ImmutableClientDTO;
+import com.vcitdevproblem.logging.LoggingAspect;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Reachability metadata for the GraalVM native image.
+ * Spring AOT covers the bean definitions; this registrar adds what it cannot infer on its own.
+ * <p>
+ * The native target has not been built or run against {@code nativeTest} yet, and the Mockito based test classes
+ * are disabled in AOT mode, so these hints are unverified: a payload type missing here only shows up as a failed
+ * (de)serialization in the native executable.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeRuntimeHints.class)
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final String CLIENT_MAPPER_IMPL = "com.vcitdevproblem.mapper.ClientMapperImpl";
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    /**
+     * Registers reflection hints for the Jackson DTOs, the MapStruct generated mapper and the logging aspect.
+     *
+     * @param hints       the hints to contribute to
+     * @param classLoader the class loader used during AOT processing
+     */
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // Jackson (de)serializes the DTOs through their constructors and accessors, including the
+        // generic ClientResponse envelope whose payload type is only known at runtime, so every
+        // payload type has to be listed.
+        bindingRegistrar.registerReflectionHints(hints.reflection(),
+                ClientDTO.class, ClientRequest.class, ClientResponse.class, ClientMatchDTO.class,
+                ClientPageDTO.class, ClientScanDTO.class, ClientVersionDTO.class);
+        // Jackson introspects the runtime class of a payload, and the store's cached projections are
+        // ImmutableClientDTOs wherever a ClientDTO is declared.
+        bindingRegistrar.registerReflectionHints(hints.reflection(), ImmutableClientDTO.class);
+        // The change stream serializes its events with the ObjectMapper directly, out of sight of Spring AOT.
+        bindingRegistrar.registerReflectionHints(hints.reflection(), ClientChangeEvent.class);
+
+        hints.reflection().registerType(TypeReference.of(CLIENT_MAPPER_IMPL),
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        // AspectJ resolves advice methods and their pointcut annotations reflectively.
+        hints.reflection().registerType(LoggingAspect.class,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+    }
+}
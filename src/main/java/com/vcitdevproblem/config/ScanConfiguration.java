@@ -0,0 +1,20 @@
+package com.vcitdevproblem.config;
+
+import com.vcitdevproblem.scan.ParallelScanEngine;
+import com.vcitdevproblem.scan.ScanProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Wires the fork-join scan engine used for unindexed filter queries.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ScanProperties.class)
+public class ScanConfiguration {
+
+    @Bean
+    public ParallelScanEngine parallelScanEngine(ScanProperties properties) {
+        return new ParallelScanEngine(properties);
+    }
+}
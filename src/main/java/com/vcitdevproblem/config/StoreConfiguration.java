@@ -0,0 +1,35 @@
+package com.vcitdevproblem.config;
+
+import com.vcitdevproblem.mapper.ClientMapper;
+import com.vcitdevproblem.store.ClientKeyFilters;
+import com.vcitdevproblem.store.ClientRecord;
+import com.vcitdevproblem.store.ClientStore;
+import com.vcitdevproblem.store.ClientStoreEndpoint;
+import com.vcitdevproblem.store.TieringProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Provides the versioned client register that ClientService reads snapshots from and writes to, tiered to disk
+ * when {@code store.tiering.enabled} is set, and the key filters that answer lookups for unregistered clients.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(TieringProperties.class)
+public class StoreConfiguration {
+
+    @Bean
+    public ClientStore clientStore(TieringProperties tiering, ClientMapper clientMapper) {
+        return new ClientStore(tiering, client -> ClientRecord.of(client, clientMapper));
+    }
+
+    @Bean
+    public ClientKeyFilters clientKeyFilters() {
+        return new ClientKeyFilters(65_536);
+    }
+
+    @Bean
+    public ClientStoreEndpoint clientStoreEndpoint(ClientStore clientStore) {
+        return new ClientStoreEndpoint(clientStore);
+    }
+}
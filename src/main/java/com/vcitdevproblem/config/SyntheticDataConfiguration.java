@@ -0,0 +1,23 @@
+package com.vcitdevproblem.config;
+
+import com.vcitdevproblem.service.ClientService;
+import com.vcitdevproblem.synthetic.SyntheticDataInitializer;
+import com.vcitdevproblem.synthetic.SyntheticDataProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Loads a generated register at start-up when {@code synthetic.clients} is set. The initializer exists whether or not
+ * the property is set, since it checks it at run time.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(SyntheticDataProperties.class)
+public class SyntheticDataConfiguration {
+
+    @Bean
+    public SyntheticDataInitializer syntheticDataInitializer(ClientService clientService,
+                                                             SyntheticDataProperties properties) {
+        return new SyntheticDataInitializer(clientService, properties);
+    }
+}
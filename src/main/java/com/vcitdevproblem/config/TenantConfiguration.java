@@ -0,0 +1,95 @@
+package com.vcitdevproblem.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vcitdevproblem.index.IndexManager;
+import com.vcitdevproblem.index.IndexingProperties;
+import com.vcitdevproblem.index.SortedClientIndex;
+import com.vcitdevproblem.index.TrigramIndex;
+import com.vcitdevproblem.mapper.ClientMapper;
+import com.vcitdevproblem.store.ClientKeyFilters;
+import com.vcitdevproblem.store.ClientRecord;
+import com.vcitdevproblem.store.ClientStore;
+import com.vcitdevproblem.store.TieringProperties;
+import com.vcitdevproblem.tenant.TenantContext;
+import com.vcitdevproblem.tenant.TenantEndpoint;
+import com.vcitdevproblem.tenant.TenantFilter;
+import com.vcitdevproblem.tenant.TenantPartition;
+import com.vcitdevproblem.tenant.TenantProperties;
+import com.vcitdevproblem.tenant.TenantRegistry;
+import com.vcitdevproblem.tenant.TenantScheduler;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Wires the tenant-scoped registers. The default tenant is served by the store, key filters and indexes beans;
+ * every other tenant gets its own, created on its first request when it is configured under {@code tenancy.tenants}
+ * or through the tenants endpoint otherwise, with its store tiered to its own directory under
+ * {@code store.tiering.directory} when tiering is enabled.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(TenantProperties.class)
+public class TenantConfiguration {
+
+    @Bean
+    public TenantRegistry tenantRegistry(TenantProperties properties, ClientStore clientStore,
+                                         ClientKeyFilters clientKeyFilters, TrigramIndex fuzzyIndex,
+                                         SortedClientIndex sortedIndex, IndexManager indexManager,
+                                         IndexingProperties indexing, TieringProperties tiering,
+                                         ClientMapper clientMapper) {
+        TenantPartition defaultPartition = new TenantPartition(TenantContext.DEFAULT_TENANT,
+                properties.quotaOf(TenantContext.DEFAULT_TENANT), clientStore, clientKeyFilters, fuzzyIndex,
+                sortedIndex, indexManager);
+        return new TenantRegistry(properties, defaultPartition, (tenant, quota) -> {
+            ClientStore store = new ClientStore(tieringOf(tiering, tenant),
+                    client -> ClientRecord.of(client, clientMapper));
+            IndexManager tenantIndexes = new IndexManager(indexing, store);
+            tenantIndexes.buildConfigured();
+            return new TenantPartition(tenant, quota, store, new ClientKeyFilters(4_096), new TrigramIndex(),
+                    new SortedClientIndex(), tenantIndexes);
+        });
+    }
+
+    @Bean
+    public TenantScheduler tenantScheduler(TenantProperties properties) {
+        return new TenantScheduler(properties.getMaxConcurrentRequests());
+    }
+
+    @Bean
+    public FilterRegistrationBean<TenantFilter> tenantFilter(TenantRegistry tenantRegistry,
+                                                             TenantScheduler tenantScheduler,
+                                                             TenantProperties properties,
+                                                             ObjectMapper objectMapper) throws JsonProcessingException {
+        FilterRegistrationBean<TenantFilter> registration = new FilterRegistrationBean<>(
+                new TenantFilter(tenantRegistry, tenantScheduler, properties.getHeader(), objectMapper));
+        registration.addUrlPatterns("/v1/clients/*", "/v1/tenants/*");
+        // Right after character encoding: a tenant over its own budget takes nothing from the shared one.
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+    @Bean
+    public TenantEndpoint tenantEndpoint(TenantRegistry tenantRegistry) {
+        return new TenantEndpoint(tenantRegistry);
+    }
+
+    /**
+     * @param tiering the tiering configuration of the default tenant
+     * @param tenant  the tenant ID
+     * @return the same configuration, with the segment files in a directory of the tenant's own
+     */
+    private static TieringProperties tieringOf(TieringProperties tiering, String tenant) {
+        TieringProperties copy = new TieringProperties();
+        copy.setEnabled(tiering.isEnabled());
+        copy.setDirectory(tiering.getDirectory().resolve("tenants").resolve(tenant));
+        copy.setHotCapacity(tiering.getHotCapacity());
+        copy.setMemtableLimit(tiering.getMemtableLimit());
+        copy.setBlockSize(tiering.getBlockSize());
+        copy.setBloomBitsPerKey(tiering.getBloomBitsPerKey());
+        copy.setMaxSegments(tiering.getMaxSegments());
+        return copy;
+    }
+}
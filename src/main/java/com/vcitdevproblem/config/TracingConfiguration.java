@@ -0,0 +1,52 @@
+package com.vcitdevproblem.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vcitdevproblem.tracing.ClientTracer;
+import com.vcitdevproblem.tracing.SlowQueryLog;
+import com.vcitdevproblem.tracing.TracingAspect;
+import com.vcitdevproblem.tracing.TracingFilter;
+import com.vcitdevproblem.tracing.TracingJsonMessageConverter;
+import com.vcitdevproblem.tracing.TracingProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Wires sampled request tracing to JFR across the filter chain, controllers, services and response serialization,
+ * and the slow query log.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(TracingProperties.class)
+public class TracingConfiguration {
+
+    @Bean
+    public ClientTracer clientTracer(TracingProperties properties) {
+        return new ClientTracer(properties.getSampleRate());
+    }
+
+    @Bean
+    public SlowQueryLog slowQueryLog(TracingProperties properties) {
+        return new SlowQueryLog(properties.getSlowQueryThreshold());
+    }
+
+    @Bean
+    public TracingAspect tracingAspect(ClientTracer clientTracer) {
+        return new TracingAspect(clientTracer);
+    }
+
+    @Bean
+    public TracingJsonMessageConverter tracingJsonMessageConverter(ObjectMapper objectMapper, ClientTracer clientTracer) {
+        return new TracingJsonMessageConverter(objectMapper, clientTracer);
+    }
+
+    @Bean
+    public FilterRegistrationBean<TracingFilter> tracingFilter(ClientTracer clientTracer) {
+        FilterRegistrationBean<TracingFilter> registration = new FilterRegistrationBean<>(new TracingFilter(clientTracer));
+        registration.addUrlPatterns("/v1/clients/*", "/v1/tenants/*");
+        // Just inside admission control: rejected requests are not worth tracing.
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 3);
+        return registration;
+    }
+}
@@ -1,9 +1,11 @@
 package com.vcitdevproblem.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class ClientDTO {
 
     @NotBlank(message = "First name is mandatory.")
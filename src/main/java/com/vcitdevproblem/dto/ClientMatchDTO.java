@@ -0,0 +1,34 @@
+package com.vcitdevproblem.dto;
+
+/**
+ * A client returned by a ranked search, together with its similarity score between 0 and 1.
+ */
+public class ClientMatchDTO {
+
+    private ClientDTO client;
+    private double score;
+
+    public ClientMatchDTO() {
+    }
+
+    public ClientMatchDTO(ClientDTO client, double score) {
+        this.client = client;
+        this.score = score;
+    }
+
+    public ClientDTO getClient() {
+        return client;
+    }
+
+    public void setClient(ClientDTO client) {
+        this.client = client;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+}
@@ -0,0 +1,39 @@
+package com.vcitdevproblem.dto;
+
+import java.util.List;
+
+/**
+ * One page of clients returned by a paged search, with the cursor of the next page.
+ */
+public class ClientPageDTO {
+
+    private List<ClientDTO> clients;
+    private String nextCursor;
+
+    public ClientPageDTO() {
+    }
+
+    public ClientPageDTO(List<ClientDTO> clients, String nextCursor) {
+        this.clients = clients;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ClientDTO> getClients() {
+        return clients;
+    }
+
+    public void setClients(List<ClientDTO> clients) {
+        this.clients = clients;
+    }
+
+    /**
+     * @return the opaque cursor to pass back for the next page, or null if this is the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
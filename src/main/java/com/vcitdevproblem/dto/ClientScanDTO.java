@@ -0,0 +1,62 @@
+package com.vcitdevproblem.dto;
+
+import java.util.List;
+
+/**
+ * Clients matched by an ad-hoc filter scan, with how much of the register the scan covered.
+ */
+public class ClientScanDTO {
+
+    private List<ClientDTO> clients;
+    private long scanned;
+    private boolean truncated;
+    private boolean complete;
+
+    public ClientScanDTO() {
+    }
+
+    public ClientScanDTO(List<ClientDTO> clients, long scanned, boolean truncated, boolean complete) {
+        this.clients = clients;
+        this.scanned = scanned;
+        this.truncated = truncated;
+        this.complete = complete;
+    }
+
+    public List<ClientDTO> getClients() {
+        return clients;
+    }
+
+    public void setClients(List<ClientDTO> clients) {
+        this.clients = clients;
+    }
+
+    public long getScanned() {
+        return scanned;
+    }
+
+    public void setScanned(long scanned) {
+        this.scanned = scanned;
+    }
+
+    /**
+     * @return true if more clients match than the requested limit
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public void setTruncated(boolean truncated) {
+        this.truncated = truncated;
+    }
+
+    /**
+     * @return false if the scan timed out before covering the whole register
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+}
@@ -0,0 +1,81 @@
+package com.vcitdevproblem.dto;
+
+import com.vcitdevproblem.cdc.ChangeType;
+
+import java.util.List;
+
+/**
+ * One version of a client from the audit history: the change that produced it and the client as it was afterwards.
+ */
+public class ClientVersionDTO {
+
+    private long sequence;
+    private ChangeType type;
+    private long timestamp;
+    private List<String> changedFields;
+    private ClientDTO client;
+
+    public ClientVersionDTO() {
+    }
+
+    public ClientVersionDTO(long sequence, ChangeType type, long timestamp, List<String> changedFields,
+                            ClientDTO client) {
+        this.sequence = sequence;
+        this.type = type;
+        this.timestamp = timestamp;
+        this.changedFields = changedFields;
+        this.client = client;
+    }
+
+    /**
+     * @return the sequence of the change on the change stream
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public void setType(ChangeType type) {
+        this.type = type;
+    }
+
+    /**
+     * @return the time of the change, in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * @return the API names of the fields the change set or cleared
+     */
+    public List<String> getChangedFields() {
+        return changedFields;
+    }
+
+    public void setChangedFields(List<String> changedFields) {
+        this.changedFields = changedFields;
+    }
+
+    /**
+     * @return the client after the change, or null if the change deleted it
+     */
+    public ClientDTO getClient() {
+        return client;
+    }
+
+    public void setClient(ClientDTO client) {
+        this.client = client;
+    }
+}
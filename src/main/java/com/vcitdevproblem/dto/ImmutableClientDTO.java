@@ -0,0 +1,54 @@
+package com.vcitdevproblem.dto;
+
+/**
+ * A client DTO that cannot be modified. The read projections of stored clients are shared by every reader and every
+ * change event, so they are handed out as this type and any attempt to change one fails instead of corrupting what
+ * other requests see.
+ */
+public final class ImmutableClientDTO extends ClientDTO {
+
+    private ImmutableClientDTO(ClientDTO client) {
+        super(client.getFirstName(), client.getLastName(), client.getMobileNumber(), client.getIdNumber(),
+                client.getPhysicalAddress());
+    }
+
+    /**
+     * @param client the DTO to copy, or null
+     * @return an unmodifiable copy of the DTO, the DTO itself if it already is one, or null
+     */
+    public static ImmutableClientDTO copyOf(ClientDTO client) {
+        if (client == null || client instanceof ImmutableClientDTO) {
+            return (ImmutableClientDTO) client;
+        }
+        return new ImmutableClientDTO(client);
+    }
+
+    @Override
+    public void setFirstName(String firstName) {
+        throw unmodifiable();
+    }
+
+    @Override
+    public void setLastName(String lastName) {
+        throw unmodifiable();
+    }
+
+    @Override
+    public void setMobileNumber(String mobileNumber) {
+        throw unmodifiable();
+    }
+
+    @Override
+    public void setPhysicalAddress(String physicalAddress) {
+        throw unmodifiable();
+    }
+
+    @Override
+    public void setIdNumber(String idNumber) {
+        throw unmodifiable();
+    }
+
+    private static UnsupportedOperationException unmodifiable() {
+        return new UnsupportedOperationException("Stored client projections are shared and cannot be modified.");
+    }
+}
@@ -0,0 +1,24 @@
+package com.vcitdevproblem.exception;
+
+/**
+ * Preallocated instances of the routine client errors, shared by every request that ends with one of them.
+ * {@link GlobalExceptionHandler} answers these with pre-serialized envelopes.
+ */
+public final class ClientErrors {
+
+    public static final ClientNotFoundException CLIENT_NOT_FOUND =
+            new ClientNotFoundException("Client not found.");
+    public static final DuplicateIdException DUPLICATE_ID =
+            new DuplicateIdException("Duplicate ID number found.");
+    public static final DuplicateMobileNumberException DUPLICATE_MOBILE_NUMBER =
+            new DuplicateMobileNumberException("Duplicate mobile number found.");
+    public static final InvalidIdNumberException INVALID_ID_NUMBER =
+            new InvalidIdNumberException("Invalid South African ID number.");
+    public static final ScanCapacityExceededException TOO_MANY_SCANS =
+            new ScanCapacityExceededException("Too many scans are running.");
+    public static final TenantQuotaExceededException TENANT_QUOTA_EXCEEDED =
+            new TenantQuotaExceededException("The tenant's client quota has been reached.");
+
+    private ClientErrors() {
+    }
+}
@@ -0,0 +1,13 @@
+package com.vcitdevproblem.exception;
+
+/**
+ * Base class of the expected business outcomes of client operations, such as a client that does not exist or a
+ * duplicate ID number. These are routine, so they are stackless: creating one costs no more than any other object,
+ * and the common ones are preallocated in {@link ClientErrors}.
+ */
+public abstract class ClientException extends RuntimeException {
+
+    protected ClientException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -1,6 +1,6 @@
 package com.vcitdevproblem.exception;
 
-public class ClientNotFoundException extends RuntimeException {
+public class ClientNotFoundException extends ClientException {
     public ClientNotFoundException(String message) {
         super(message);
     }
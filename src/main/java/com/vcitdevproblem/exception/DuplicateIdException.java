@@ -1,6 +1,6 @@
 package com.vcitdevproblem.exception;
 
-public class DuplicateIdException extends RuntimeException {
+public class DuplicateIdException extends ClientException {
     public DuplicateIdException(String message) {
         super(message);
     }
@@ -1,7 +1,7 @@
 package com.vcitdevproblem.exception;
 
 
-public class DuplicateMobileNumberException extends RuntimeException {
+public class DuplicateMobileNumberException extends ClientException {
     public DuplicateMobileNumberException(String message) {
         super(message);
     }
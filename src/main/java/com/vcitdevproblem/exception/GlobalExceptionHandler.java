@@ -1,20 +1,40 @@
 package com.vcitdevproblem.exception;
 
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.vcitdevproblem.dto.ClientResponse;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
 /**
  * GlobalExceptionHandler is a centralized exception handling component that handles various exceptions
  * thrown by the application and returns appropriate responses with HTTP status codes.
+ * The preallocated {@link ClientErrors} are answered with responses serialized once at startup, so a routine error
+ * costs no more than writing a few bytes.
  */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final Map<ClientException, ResponseEntity<byte[]>> cachedResponses = new IdentityHashMap<>();
+
+    public GlobalExceptionHandler(ObjectMapper objectMapper) throws JsonProcessingException {
+        cache(objectMapper, ClientErrors.CLIENT_NOT_FOUND, notFound(ClientErrors.CLIENT_NOT_FOUND));
+        cache(objectMapper, ClientErrors.DUPLICATE_ID, duplicateId(ClientErrors.DUPLICATE_ID));
+        cache(objectMapper, ClientErrors.DUPLICATE_MOBILE_NUMBER, duplicateMobileNumber(ClientErrors.DUPLICATE_MOBILE_NUMBER));
+        cache(objectMapper, ClientErrors.INVALID_ID_NUMBER, invalidIdNumber(ClientErrors.INVALID_ID_NUMBER));
+        cache(objectMapper, ClientErrors.TOO_MANY_SCANS, scanCapacityExceeded(ClientErrors.TOO_MANY_SCANS));
+        cache(objectMapper, ClientErrors.TENANT_QUOTA_EXCEEDED, tenantQuotaExceeded(ClientErrors.TENANT_QUOTA_EXCEEDED));
+    }
+
     /**
      * Handles ClientNotFoundException and returns a response with HTTP 404 status.
      *
@@ -22,10 +42,8 @@ public class GlobalExceptionHandler {
      * @return a ResponseEntity containing a ClientResponse with the error message and 404 status code
      */
     @ExceptionHandler(ClientNotFoundException.class)
-    public ResponseEntity<ClientResponse<String>> handleClientNotFound(ClientNotFoundException ex) {
-        ClientResponse<String> response = new ClientResponse<>(
-                404, "api-fm-404", ex.getMessage(), "Client not found.", null);
-        return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+    public ResponseEntity<?> handleClientNotFound(ClientNotFoundException ex) {
+        return cachedOr(ex, GlobalExceptionHandler::notFound);
     }
 
     /**
@@ -35,10 +53,8 @@ public class GlobalExceptionHandler {
      * @return a ResponseEntity containing a ClientResponse with the error message and 400 status code
      */
     @ExceptionHandler(DuplicateIdException.class)
-    public ResponseEntity<ClientResponse<String>> handleDuplicateId(DuplicateIdException ex) {
-        ClientResponse<String> response = new ClientResponse<>(
-                400, "api-fm-400", ex.getMessage(), "Duplicate ID number.", null);
-        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    public ResponseEntity<?> handleDuplicateId(DuplicateIdException ex) {
+        return cachedOr(ex, GlobalExceptionHandler::duplicateId);
     }
 
     /**
@@ -48,10 +64,8 @@ public class GlobalExceptionHandler {
      * @return a ResponseEntity containing a ClientResponse with the error message and 400 status code
      */
     @ExceptionHandler(DuplicateMobileNumberException.class)
-    public ResponseEntity<ClientResponse<String>> handleDuplicateMobileNumber(DuplicateMobileNumberException ex) {
-        ClientResponse<String> response = new ClientResponse<>(
-                400, "api-fm-400", ex.getMessage(), "Duplicate mobile number.", null);
-        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    public ResponseEntity<?> handleDuplicateMobileNumber(DuplicateMobileNumberException ex) {
+        return cachedOr(ex, GlobalExceptionHandler::duplicateMobileNumber);
     }
 
     /**
@@ -61,10 +75,63 @@ public class GlobalExceptionHandler {
      * @return a ResponseEntity containing a ClientResponse with the error message and 400 status code
      */
     @ExceptionHandler(InvalidIdNumberException.class)
-    public ResponseEntity<ClientResponse<String>> handleInvalidIdNumber(InvalidIdNumberException ex) {
-        ClientResponse<String> response = new ClientResponse<>(
-                400, "api-fm-400", ex.getMessage(), "Invalid ID number.", null);
-        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    public ResponseEntity<?> handleInvalidIdNumber(InvalidIdNumberException ex) {
+        return cachedOr(ex, GlobalExceptionHandler::invalidIdNumber);
+    }
+
+    /**
+     * Handles InvalidRequestParameterException and returns a response with HTTP 400 status.
+     *
+     * @param ex the exception thrown when a request parameter is not acceptable
+     * @return a ResponseEntity containing a ClientResponse with the error message and 400 status code
+     */
+    @ExceptionHandler(InvalidRequestParameterException.class)
+    public ResponseEntity<?> handleInvalidRequestParameter(InvalidRequestParameterException ex) {
+        return cachedOr(ex, GlobalExceptionHandler::invalidRequestParameter);
+    }
+
+    /**
+     * Handles ScanCapacityExceededException and returns a response with HTTP 429 status.
+     *
+     * @param ex the exception thrown when the maximum number of concurrent scans is already running
+     * @return a ResponseEntity containing a ClientResponse with the error message and 429 status code
+     */
+    @ExceptionHandler(ScanCapacityExceededException.class)
+    public ResponseEntity<?> handleScanCapacityExceeded(ScanCapacityExceededException ex) {
+        return cachedOr(ex, GlobalExceptionHandler::scanCapacityExceeded);
+    }
+
+    /**
+     * Handles TenantQuotaExceededException and returns a response with HTTP 403 status.
+     *
+     * @param ex the exception thrown when the tenant's register already holds as many clients as its quota allows
+     * @return a ResponseEntity containing a ClientResponse with the error message and 403 status code
+     */
+    @ExceptionHandler(TenantQuotaExceededException.class)
+    public ResponseEntity<?> handleTenantQuotaExceeded(TenantQuotaExceededException ex) {
+        return cachedOr(ex, GlobalExceptionHandler::tenantQuotaExceeded);
+    }
+
+    /**
+     * Handles TenantNotFoundException and returns a response with HTTP 404 status.
+     *
+     * @param ex the exception thrown when a tenant is neither configured nor created
+     * @return a ResponseEntity containing a ClientResponse with the error message and 404 status code
+     */
+    @ExceptionHandler(TenantNotFoundException.class)
+    public ResponseEntity<?> handleTenantNotFound(TenantNotFoundException ex) {
+        return cachedOr(ex, GlobalExceptionHandler::tenantNotFound);
+    }
+
+    /**
+     * Handles HistoryIncompleteException and returns a response with HTTP 500 status.
+     *
+     * @param ex the exception thrown when a history lookup reaches into a period whose changes were lost
+     * @return a ResponseEntity containing a ClientResponse with the error message and 500 status code
+     */
+    @ExceptionHandler(HistoryIncompleteException.class)
+    public ResponseEntity<?> handleHistoryIncomplete(HistoryIncompleteException ex) {
+        return historyIncomplete(ex);
     }
 
     /**
@@ -95,4 +162,92 @@ public class GlobalExceptionHandler {
                 500, "api-fm-500", "An unexpected error occurred.", ex.getMessage(), null);
         return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
     }
+
+    /**
+     * Answers an exception the way the handlers above would, for callers that report errors outside of Spring MVC's
+     * exception resolution, such as a streamed response whose status has already been sent.
+     *
+     * @param ex the exception to answer
+     * @return a ResponseEntity holding the pre-serialized or built ClientResponse, and its status code
+     */
+    public ResponseEntity<?> handle(Throwable ex) {
+        if (ex instanceof ClientNotFoundException notFound) {
+            return handleClientNotFound(notFound);
+        } else if (ex instanceof DuplicateIdException duplicateId) {
+            return handleDuplicateId(duplicateId);
+        } else if (ex instanceof DuplicateMobileNumberException duplicateMobileNumber) {
+            return handleDuplicateMobileNumber(duplicateMobileNumber);
+        } else if (ex instanceof InvalidIdNumberException invalidIdNumber) {
+            return handleInvalidIdNumber(invalidIdNumber);
+        } else if (ex instanceof InvalidRequestParameterException invalidRequestParameter) {
+            return handleInvalidRequestParameter(invalidRequestParameter);
+        } else if (ex instanceof ScanCapacityExceededException scanCapacityExceeded) {
+            return handleScanCapacityExceeded(scanCapacityExceeded);
+        } else if (ex instanceof TenantQuotaExceededException tenantQuotaExceeded) {
+            return handleTenantQuotaExceeded(tenantQuotaExceeded);
+        } else if (ex instanceof TenantNotFoundException tenantNotFound) {
+            return handleTenantNotFound(tenantNotFound);
+        } else if (ex instanceof HistoryIncompleteException historyIncomplete) {
+            return handleHistoryIncomplete(historyIncomplete);
+        }
+        return handleGeneralExceptions(ex instanceof Exception exception ? exception : new RuntimeException(ex));
+    }
+
+    private static ResponseEntity<ClientResponse<String>> notFound(ClientNotFoundException ex) {
+        return error(HttpStatus.NOT_FOUND, 404, "api-fm-404", ex, "Client not found.");
+    }
+
+    private static ResponseEntity<ClientResponse<String>> duplicateId(DuplicateIdException ex) {
+        return error(HttpStatus.BAD_REQUEST, 400, "api-fm-400", ex, "Duplicate ID number.");
+    }
+
+    private static ResponseEntity<ClientResponse<String>> duplicateMobileNumber(DuplicateMobileNumberException ex) {
+        return error(HttpStatus.BAD_REQUEST, 400, "api-fm-400", ex, "Duplicate mobile number.");
+    }
+
+    private static ResponseEntity<ClientResponse<String>> invalidIdNumber(InvalidIdNumberException ex) {
+        return error(HttpStatus.BAD_REQUEST, 400, "api-fm-400", ex, "Invalid ID number.");
+    }
+
+    private static ResponseEntity<ClientResponse<String>> invalidRequestParameter(InvalidRequestParameterException ex) {
+        return error(HttpStatus.BAD_REQUEST, 400, "api-fm-400", ex, "Invalid input.");
+    }
+
+    private static ResponseEntity<ClientResponse<String>> scanCapacityExceeded(ScanCapacityExceededException ex) {
+        return error(HttpStatus.TOO_MANY_REQUESTS, 429, "api-fm-429", ex, "The service is busy, please try again shortly.");
+    }
+
+    private static ResponseEntity<ClientResponse<String>> tenantQuotaExceeded(TenantQuotaExceededException ex) {
+        return error(HttpStatus.FORBIDDEN, 403, "api-fm-403", ex, "The register is full, no more clients can be added.");
+    }
+
+    private static ResponseEntity<ClientResponse<String>> tenantNotFound(TenantNotFoundException ex) {
+        return error(HttpStatus.NOT_FOUND, 404, "api-fm-404", ex, "Tenant not found.");
+    }
+
+    private static ResponseEntity<ClientResponse<String>> historyIncomplete(HistoryIncompleteException ex) {
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, 500, "api-fm-500", ex, "The history of this period is incomplete.");
+    }
+
+    private static ResponseEntity<ClientResponse<String>> error(HttpStatus status, int resultCode, String messageCode,
+                                                                RuntimeException ex, String friendlyMessage) {
+        return new ResponseEntity<>(
+                new ClientResponse<>(resultCode, messageCode, ex.getMessage(), friendlyMessage, null), status);
+    }
+
+    /**
+     * Returns the pre-serialized response of a preallocated error, or builds the response for any other instance.
+     */
+    private <E extends ClientException> ResponseEntity<?> cachedOr(
+            E ex, Function<E, ResponseEntity<ClientResponse<String>>> response) {
+        ResponseEntity<byte[]> cached = cachedResponses.get(ex);
+        return cached != null ? cached : response.apply(ex);
+    }
+
+    private void cache(ObjectMapper objectMapper, ClientException error, ResponseEntity<ClientResponse<String>> response)
+            throws JsonProcessingException {
+        cachedResponses.put(error, ResponseEntity.status(response.getStatusCode())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(objectMapper.writeValueAsBytes(response.getBody())));
+    }
 }
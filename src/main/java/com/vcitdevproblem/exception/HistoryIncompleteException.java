@@ -0,0 +1,14 @@
+package com.vcitdevproblem.exception;
+
+/**
+ * Thrown when a history lookup covers a period in which changes were lost from the audit history, so that its
+ * answer could be wrong.
+ * <p>
+ * Unlike a {@link ClientException}, this is not an expected business outcome but a fault of the service, so it keeps
+ * its stack trace and is logged as an error.
+ */
+public class HistoryIncompleteException extends RuntimeException {
+    public HistoryIncompleteException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,6 @@
 package com.vcitdevproblem.exception;
 
-public class InvalidIdNumberException extends RuntimeException {
+public class InvalidIdNumberException extends ClientException {
     public InvalidIdNumberException(String message) {
         super(message);
     }
@@ -0,0 +1,11 @@
+package com.vcitdevproblem.exception;
+
+/**
+ * Thrown when a request parameter cannot be used as given, such as an unknown sort key or view, a malformed filter
+ * expression or a page cursor issued for a different query.
+ */
+public class InvalidRequestParameterException extends ClientException {
+    public InvalidRequestParameterException(String message) {
+        super(message);
+    }
+}
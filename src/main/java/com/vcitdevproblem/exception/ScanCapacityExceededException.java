@@ -0,0 +1,7 @@
+package com.vcitdevproblem.exception;
+
+public class ScanCapacityExceededException extends ClientException {
+    public ScanCapacityExceededException(String message) {
+        super(message);
+    }
+}
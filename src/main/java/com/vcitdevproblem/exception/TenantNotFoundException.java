@@ -0,0 +1,10 @@
+package com.vcitdevproblem.exception;
+
+/**
+ * Thrown when a request names a tenant that is neither configured nor created through the tenants endpoint.
+ */
+public class TenantNotFoundException extends ClientException {
+    public TenantNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.vcitdevproblem.exception;
+
+public class TenantQuotaExceededException extends ClientException {
+    public TenantQuotaExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,439 @@
+package com.vcitdevproblem.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.vcitdevproblem.dto.ClientDTO;
+import com.vcitdevproblem.store.ClientProjection;
+import com.vcitdevproblem.store.ClientRecord;
+import com.vcitdevproblem.store.ClientSnapshot;
+import com.vcitdevproblem.store.ClientStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the whole client register as newline-delimited JSON, one client per line, straight to the response stream.
+ * <p>
+ * Every export reads one {@link ClientSnapshot}, so it is consistent however long the transfer takes. Compressed
+ * exports are gzipped here rather than by the connector, and the compressed bytes of each view are kept: until the
+ * next write, repeated exports are served from memory without serializing or compressing anything.
+ * <p>
+ * The kept views of every tenant share the one {@link ExportProperties#getPrecompressedLimit() budget}. Once they
+ * exceed it, the least recently served view is dropped; a view made stale by a write is dropped when it is next
+ * asked for. Registers are held weakly, so the views of a tenant's store go with the store.
+ * <p>
+ * Copies taken while compressing are bounded too. Of concurrent exports of the same view and version only the first
+ * keeps a copy, the others just stream, and the copies in progress reserve their bytes from a second budget of the
+ * same size, giving up their copy when it runs out. Compressed exports therefore hold at most twice the limit
+ * however many of them run at once.
+ */
+public class ClientExporter implements MeterBinder {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ClientStore store;
+    private final ObjectWriter writer;
+    private final long precompressedLimit;
+    private final Map<ClientStore, Map<ClientProjection, PrecompressedExport>> precompressed = new WeakHashMap<>();
+    private final LongAdder precompressedHits = new LongAdder();
+    private final LongAdder precompressedEvictions = new LongAdder();
+    /**
+     * The version of each view being copied by an export in progress; guarded by {@link #precompressed}.
+     */
+    private final Map<ClientStore, Map<ClientProjection, Long>> capturing = new WeakHashMap<>();
+    /**
+     * Bytes held by the copies of exports in progress.
+     */
+    private final AtomicLong captureBytes = new AtomicLong();
+    /**
+     * Counts the kept exports served, to tell the least recently served; guarded, like the kept exports, by
+     * {@link #precompressed}.
+     */
+    private long uses;
+
+    public ClientExporter(ClientStore store, ObjectMapper objectMapper, ExportProperties properties) {
+        this.store = store;
+        // One client per line, and no flush after each of them: the stream is flushed once the export is complete.
+        this.writer = objectMapper.writerFor(ClientDTO.class)
+                .withRootValueSeparator("\n")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.precompressedLimit = properties.getPrecompressedLimit().toBytes();
+    }
+
+    /**
+     * Writes the register of the default tenant uncompressed.
+     *
+     * @param projection the projection of the clients
+     * @param out        the stream to write to, left open
+     * @throws IOException if writing fails, e.g. because the caller disconnected
+     */
+    public void export(ClientProjection projection, OutputStream out) throws IOException {
+        export(store, projection, out);
+    }
+
+    /**
+     * Writes a register uncompressed.
+     *
+     * @param store      the register of the tenant to export
+     * @param projection the projection of the clients
+     * @param out        the stream to write to, left open
+     * @throws IOException if writing fails, e.g. because the caller disconnected
+     */
+    public void export(ClientStore store, ClientProjection projection, OutputStream out) throws IOException {
+        writeLines(store.snapshot(), projection, out);
+        out.flush();
+    }
+
+    /**
+     * Writes the register of the default tenant as a single gzip member.
+     *
+     * @param projection the projection of the clients
+     * @param out        the stream to write to, left open
+     * @throws IOException if writing fails, e.g. because the caller disconnected
+     */
+    public void exportGzip(ClientProjection projection, OutputStream out) throws IOException {
+        exportGzip(store, projection, out);
+    }
+
+    /**
+     * Writes a register as a single gzip member, from memory if the register has not changed since the view was
+     * last compressed.
+     *
+     * @param store      the register of the tenant to export
+     * @param projection the projection of the clients
+     * @param out        the stream to write to, left open
+     * @throws IOException if writing fails, e.g. because the caller disconnected
+     */
+    public void exportGzip(ClientStore store, ClientProjection projection, OutputStream out) throws IOException {
+        ClientSnapshot snapshot = store.snapshot();
+        byte[] cached = precompressed(store, projection, snapshot.getVersion());
+        if (cached != null) {
+            precompressedHits.increment();
+            out.write(cached);
+            out.flush();
+            return;
+        }
+        if (!startCapture(store, projection, snapshot.getVersion())) {
+            try (GZIPOutputStream gzip = new GZIPOutputStream(new UnclosedOutputStream(out), BUFFER_SIZE)) {
+                writeLines(snapshot, projection, gzip);
+            }
+            out.flush();
+            return;
+        }
+        CapturingOutputStream capture = new CapturingOutputStream(out);
+        try {
+            try (GZIPOutputStream gzip = new GZIPOutputStream(capture, BUFFER_SIZE)) {
+                writeLines(snapshot, projection, gzip);
+            }
+            out.flush();
+            byte[] body = capture.captured();
+            if (body != null) {
+                keep(store, projection, new PrecompressedExport(snapshot.getVersion(), body));
+            }
+        } finally {
+            capture.release();
+            endCapture(store, projection, snapshot.getVersion());
+        }
+    }
+
+    /**
+     * @return the number of compressed exports served from memory
+     */
+    public long getPrecompressedHits() {
+        return precompressedHits.sum();
+    }
+
+    /**
+     * @return the number of bytes held by the precompressed exports
+     */
+    public long getPrecompressedBytes() {
+        synchronized (precompressed) {
+            return precompressedBytes();
+        }
+    }
+
+    /**
+     * @return the number of precompressed exports dropped to stay within the limit
+     */
+    public long getPrecompressedEvictions() {
+        return precompressedEvictions.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("client.export.precompressed.hits", precompressedHits, LongAdder::sum)
+                .description("Compressed exports served from memory")
+                .register(registry);
+        Gauge.builder("client.export.precompressed.bytes", this, ClientExporter::getPrecompressedBytes)
+                .description("Memory held by precompressed exports")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("client.export.precompressed.evictions", precompressedEvictions, LongAdder::sum)
+                .description("Precompressed exports dropped to stay within the memory limit")
+                .register(registry);
+    }
+
+    /**
+     * Tells whether an {@code Accept-Encoding} header admits gzip.
+     *
+     * @param acceptEncoding the header value, or null if the request had none
+     * @return whether gzip, or any encoding, is accepted with a non-zero quality
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            String name = parameters[0].trim().toLowerCase(Locale.ROOT);
+            if (!name.equals("gzip") && !name.equals("x-gzip") && !name.equals("*")) {
+                continue;
+            }
+            boolean refused = false;
+            for (int i = 1; i < parameters.length; i++) {
+                String parameter = parameters[i].trim().toLowerCase(Locale.ROOT);
+                if (parameter.startsWith("q=")) {
+                    try {
+                        refused = Double.parseDouble(parameter.substring(2)) <= 0;
+                    } catch (NumberFormatException ex) {
+                        refused = true;
+                    }
+                }
+            }
+            if (!refused) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the kept body of the view at the version, or null; a kept body of an older version is dropped
+     */
+    private byte[] precompressed(ClientStore store, ClientProjection projection, long version) {
+        synchronized (precompressed) {
+            Map<ClientProjection, PrecompressedExport> views = precompressed.get(store);
+            PrecompressedExport export = views != null ? views.get(projection) : null;
+            if (export == null) {
+                return null;
+            }
+            if (export.version != version) {
+                if (export.version < version) {
+                    remove(store, views, projection);
+                }
+                return null;
+            }
+            export.lastUse = ++uses;
+            return export.body;
+        }
+    }
+
+    /**
+     * Claims the copying of a view at a version.
+     *
+     * @return whether the export should keep a copy; false if another export is copying the view at the same or a
+     * newer version
+     */
+    private boolean startCapture(ClientStore store, ClientProjection projection, long version) {
+        synchronized (precompressed) {
+            Map<ClientProjection, Long> views =
+                    capturing.computeIfAbsent(store, key -> new EnumMap<>(ClientProjection.class));
+            Long current = views.get(projection);
+            if (current != null && current >= version) {
+                return false;
+            }
+            views.put(projection, version);
+            return true;
+        }
+    }
+
+    private void endCapture(ClientStore store, ClientProjection projection, long version) {
+        synchronized (precompressed) {
+            Map<ClientProjection, Long> views = capturing.get(store);
+            if (views != null && views.remove(projection, version) && views.isEmpty()) {
+                capturing.remove(store);
+            }
+        }
+    }
+
+    /**
+     * Keeps a compressed view unless a newer one is kept already, then drops the least recently served views until
+     * all of them fit within the limit again.
+     */
+    private void keep(ClientStore store, ClientProjection projection, PrecompressedExport export) {
+        synchronized (precompressed) {
+            Map<ClientProjection, PrecompressedExport> views =
+                    precompressed.computeIfAbsent(store, key -> new EnumMap<>(ClientProjection.class));
+            PrecompressedExport current = views.get(projection);
+            if (current != null && current.version > export.version) {
+                return;
+            }
+            export.lastUse = ++uses;
+            views.put(projection, export);
+            long bytes = precompressedBytes();
+            while (bytes > precompressedLimit) {
+                ClientStore victimStore = null;
+                ClientProjection victim = null;
+                long oldest = Long.MAX_VALUE;
+                for (Map.Entry<ClientStore, Map<ClientProjection, PrecompressedExport>> entry
+                        : precompressed.entrySet()) {
+                    for (Map.Entry<ClientProjection, PrecompressedExport> view : entry.getValue().entrySet()) {
+                        if (view.getValue().lastUse < oldest) {
+                            oldest = view.getValue().lastUse;
+                            victimStore = entry.getKey();
+                            victim = view.getKey();
+                        }
+                    }
+                }
+                Map<ClientProjection, PrecompressedExport> victimViews = precompressed.get(victimStore);
+                bytes -= victimViews.get(victim).body.length;
+                remove(victimStore, victimViews, victim);
+                precompressedEvictions.increment();
+            }
+        }
+    }
+
+    private void remove(ClientStore store, Map<ClientProjection, PrecompressedExport> views,
+                        ClientProjection projection) {
+        views.remove(projection);
+        if (views.isEmpty()) {
+            precompressed.remove(store);
+        }
+    }
+
+    private long precompressedBytes() {
+        long bytes = 0;
+        for (Map<ClientProjection, PrecompressedExport> views : precompressed.values()) {
+            for (PrecompressedExport export : views.values()) {
+                bytes += export.body.length;
+            }
+        }
+        return bytes;
+    }
+
+    private void writeLines(ClientSnapshot snapshot, ClientProjection projection, OutputStream out) throws IOException {
+        try (JsonGenerator generator = writer.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            Iterator<ClientRecord> records = snapshot.stream().iterator();
+            if (!records.hasNext()) {
+                return;
+            }
+            while (records.hasNext()) {
+                writer.writeValue(generator, records.next().projection(projection));
+            }
+            generator.writeRaw('\n');
+        }
+    }
+
+    private static final class PrecompressedExport {
+
+        private final long version;
+        private final byte[] body;
+        private long lastUse;
+
+        private PrecompressedExport(long version, byte[] body) {
+            this.version = version;
+            this.body = body;
+        }
+    }
+
+    /**
+     * Passes bytes through to the response. Closing it leaves the response open.
+     */
+    private static class UnclosedOutputStream extends OutputStream {
+
+        final OutputStream delegate;
+
+        private UnclosedOutputStream(OutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            delegate.write(bytes, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() {
+            // The response stream belongs to the container.
+        }
+    }
+
+    /**
+     * Passes bytes through to the response and keeps a copy of them for as long as the bytes it reserves fit within
+     * the limit, together with those of the other copies in progress.
+     */
+    private final class CapturingOutputStream extends UnclosedOutputStream {
+
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream(BUFFER_SIZE);
+        private long reserved;
+
+        private CapturingOutputStream(OutputStream delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            if (copy != null && reserve(1)) {
+                copy.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            delegate.write(bytes, offset, length);
+            if (copy != null && reserve(length)) {
+                copy.write(bytes, offset, length);
+            }
+        }
+
+        /**
+         * @return whether the bytes were reserved; if not, the copy is given up along with its reservation
+         */
+        private boolean reserve(int length) {
+            if (captureBytes.addAndGet(length) <= precompressedLimit) {
+                reserved += length;
+                return true;
+            }
+            captureBytes.addAndGet(-length);
+            copy = null;
+            release();
+            return false;
+        }
+
+        private void release() {
+            captureBytes.addAndGet(-reserved);
+            reserved = 0;
+        }
+
+        private byte[] captured() {
+            return copy != null ? copy.toByteArray() : null;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.vcitdevproblem.export;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuration of register exports, bound from {@code export.*}.
+ */
+@ConfigurationProperties(prefix = "export")
+public class ExportProperties {
+
+    /**
+     * Memory shared by the gzip-compressed exports of every tenant and view that are kept and served again until
+     * their register changes. The least recently served are dropped to stay within it; a single export larger than
+     * the whole of it is compressed afresh for every request.
+     */
+    private DataSize precompressedLimit = DataSize.ofMegabytes(64);
+
+    public DataSize getPrecompressedLimit() {
+        return precompressedLimit;
+    }
+
+    public void setPrecompressedLimit(DataSize precompressedLimit) {
+        this.precompressedLimit = precompressedLimit;
+    }
+}
@@ -0,0 +1,216 @@
+package com.vcitdevproblem.history;
+
+import com.vcitdevproblem.cdc.ChangeType;
+import com.vcitdevproblem.dto.ClientDTO;
+import com.vcitdevproblem.dto.ClientVersionDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The versions of one client, as a list of {@link HistoryChunk}s in time order. The first timestamps of the chunks
+ * form the time index: a point-in-time lookup binary-searches them and decodes a single chunk. Appends and compaction
+ * come from the single recorder thread; lookups may run concurrently with them.
+ */
+final class ClientHistory {
+
+    private final String idNumber;
+    private final List<HistoryChunk> chunks = new ArrayList<>();
+    private final String[] current = new String[HistoryChunk.FIELDS.length];
+    private int versions;
+    private long bytes;
+    private ChangeType lastType;
+
+    ClientHistory(String idNumber) {
+        this.idNumber = idNumber;
+    }
+
+    /**
+     * Appends a change, encoding only the fields that differ from the previous version.
+     *
+     * @param sequence      the sequence of the change
+     * @param type          the change type
+     * @param timestamp     the time of the change
+     * @param client        the client after the change, or null for a delete
+     * @param chunkVersions the number of versions after which a new chunk is started
+     */
+    synchronized void append(long sequence, ChangeType type, long timestamp, ClientDTO client, int chunkVersions) {
+        String[] next = client == null
+                ? new String[HistoryChunk.FIELDS.length]
+                : new String[]{client.getFirstName(), client.getLastName(), client.getMobileNumber(),
+                client.getPhysicalAddress()};
+        int changedMask = 0;
+        for (int i = 0; i < next.length; i++) {
+            if (!Objects.equals(current[i], next[i])) {
+                changedMask |= 1 << i;
+            }
+        }
+        HistoryChunk chunk = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+        if (chunk == null || chunk.getVersions() >= chunkVersions) {
+            if (chunk != null) {
+                bytes -= chunk.getBytes();
+                chunk.trim();
+                bytes += chunk.getBytes();
+            }
+            chunk = new HistoryChunk();
+            chunks.add(chunk);
+        } else {
+            bytes -= chunk.getBytes();
+        }
+        chunk.append(sequence, type, timestamp, changedMask, next);
+        bytes += chunk.getBytes();
+        System.arraycopy(next, 0, current, 0, next.length);
+        lastType = type;
+        versions++;
+    }
+
+    /**
+     * @param from the earliest timestamp, inclusive
+     * @param to   the latest timestamp, inclusive
+     * @return the versions recorded in the window, oldest first
+     */
+    synchronized List<ClientVersionDTO> versions(long from, long to) {
+        List<ClientVersionDTO> result = new ArrayList<>();
+        for (HistoryChunk chunk : chunks) {
+            if (chunk.getFirstTimestamp() > to) {
+                break;
+            }
+            if (chunk.getLastTimestamp() < from) {
+                continue;
+            }
+            HistoryChunk.Cursor cursor = chunk.cursor();
+            while (cursor.next() && cursor.timestamp() <= to) {
+                if (cursor.timestamp() >= from) {
+                    result.add(toVersion(cursor));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param timestamp the point in time
+     * @return the latest version at or before the timestamp, or null if none is retained
+     */
+    synchronized ClientVersionDTO at(long timestamp) {
+        int low = 0;
+        int high = chunks.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (chunks.get(middle).getFirstTimestamp() <= timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        if (high < 0) {
+            return null;
+        }
+        HistoryChunk.Cursor cursor = chunks.get(high).cursor();
+        ClientVersionDTO version = null;
+        while (cursor.next() && cursor.timestamp() <= timestamp) {
+            version = toVersion(cursor);
+        }
+        return version;
+    }
+
+    /**
+     * Drops the versions older than a cutoff, keeping the last of them as the keyframe of the state at the cutoff.
+     * Whole chunks before the chunk holding that version are dropped without decoding; that chunk is rewritten only
+     * if it holds other expired versions.
+     *
+     * @param cutoff the oldest timestamp to keep in full
+     * @return true if nothing is left, because the client was deleted before the cutoff
+     */
+    synchronized boolean compact(long cutoff) {
+        int keep = chunks.size() - 1;
+        while (keep >= 0 && chunks.get(keep).getFirstTimestamp() > cutoff) {
+            keep--;
+        }
+        if (keep < 0) {
+            return false;
+        }
+        for (HistoryChunk dropped : chunks.subList(0, keep)) {
+            versions -= dropped.getVersions();
+            bytes -= dropped.getBytes();
+        }
+        chunks.subList(0, keep).clear();
+
+        HistoryChunk first = chunks.get(0);
+        HistoryChunk.Cursor cursor = first.cursor();
+        List<Version> retained = new ArrayList<>();
+        int expired = 0;
+        while (cursor.next()) {
+            if (cursor.timestamp() <= cutoff) {
+                expired++;
+                retained.clear();
+            }
+            retained.add(new Version(cursor));
+        }
+        if (chunks.size() == 1 && retained.size() == 1 && retained.get(0).type == ChangeType.DELETED) {
+            return true;
+        }
+        if (expired <= 1) {
+            return false;
+        }
+        HistoryChunk rewritten = new HistoryChunk();
+        for (Version version : retained) {
+            rewritten.append(version.sequence, version.type, version.timestamp, version.changedMask, version.fields);
+        }
+        rewritten.trim();
+        versions += rewritten.getVersions() - first.getVersions();
+        bytes += rewritten.getBytes() - first.getBytes();
+        chunks.set(0, rewritten);
+        return false;
+    }
+
+    /**
+     * @return true if the last version appended is a deletion
+     */
+    synchronized boolean isDeleted() {
+        return lastType == ChangeType.DELETED;
+    }
+
+    synchronized int getVersions() {
+        return versions;
+    }
+
+    synchronized long getBytes() {
+        return bytes;
+    }
+
+    private ClientVersionDTO toVersion(HistoryChunk.Cursor cursor) {
+        List<String> changedFields = new ArrayList<>(Integer.bitCount(cursor.changedMask()));
+        for (int i = 0; i < HistoryChunk.FIELDS.length; i++) {
+            if ((cursor.changedMask() & 1 << i) != 0) {
+                changedFields.add(HistoryChunk.FIELDS[i]);
+            }
+        }
+        String[] fields = cursor.fields();
+        ClientDTO client = cursor.type() == ChangeType.DELETED
+                ? null
+                : new ClientDTO(fields[0], fields[1], fields[2], idNumber, fields[3]);
+        return new ClientVersionDTO(cursor.sequence(), cursor.type(), cursor.timestamp(), changedFields, client);
+    }
+
+    /**
+     * A decoded version held while its chunk is rewritten.
+     */
+    private static final class Version {
+
+        private final long sequence;
+        private final ChangeType type;
+        private final long timestamp;
+        private final int changedMask;
+        private final String[] fields;
+
+        private Version(HistoryChunk.Cursor cursor) {
+            this.sequence = cursor.sequence();
+            this.type = cursor.type();
+            this.timestamp = cursor.timestamp();
+            this.changedMask = cursor.changedMask();
+            this.fields = cursor.fields().clone();
+        }
+    }
+}
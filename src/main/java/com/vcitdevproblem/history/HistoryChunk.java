@@ -0,0 +1,232 @@
+package com.vcitdevproblem.history;
+
+import com.vcitdevproblem.cdc.ChangeType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Append-only run of versions of one client, encoded compactly.
+ * <p>
+ * The first version of a chunk is a keyframe holding every non-null field and the absolute sequence and timestamp, so
+ * a chunk decodes on its own; each later version holds only the fields its change set or cleared, and its sequence and
+ * timestamp as varint deltas from the previous version. Every version has a one-byte header with its change type and
+ * changed fields, so a typical update of one field costs a few bytes plus the new value.
+ * <p>
+ * Not thread-safe; {@link ClientHistory} serializes access.
+ */
+final class HistoryChunk {
+
+    /**
+     * API names of the versioned fields, in bit order. The ID number is the history's key and is not stored.
+     */
+    static final String[] FIELDS = {"firstName", "lastName", "mobileNumber", "physicalAddress"};
+
+    private static final ChangeType[] TYPES = ChangeType.values();
+
+    private byte[] data = new byte[64];
+    private int length;
+    private int versions;
+    private long firstSequence;
+    private long lastSequence;
+    private long firstTimestamp;
+    private long lastTimestamp;
+
+    /**
+     * Appends a version.
+     *
+     * @param sequence    the sequence of the change
+     * @param type        the change type
+     * @param timestamp   the time of the change, in milliseconds since the epoch
+     * @param changedMask the bits of the fields the change set or cleared
+     * @param fields      the fields after the change, all null for a delete
+     */
+    void append(long sequence, ChangeType type, long timestamp, int changedMask, String[] fields) {
+        if (versions == 0) {
+            firstSequence = sequence;
+            firstTimestamp = timestamp;
+        } else {
+            writeVarLong(sequence - lastSequence);
+            writeVarLong(zigZag(timestamp - lastTimestamp));
+        }
+        writeByte(type.ordinal() << FIELDS.length | changedMask);
+        int storedMask = changedMask;
+        if (versions == 0) {
+            storedMask = 0;
+            for (int i = 0; i < FIELDS.length; i++) {
+                if (fields[i] != null) {
+                    storedMask |= 1 << i;
+                }
+            }
+            writeByte(storedMask);
+        }
+        if (type != ChangeType.DELETED) {
+            for (int i = 0; i < FIELDS.length; i++) {
+                if ((storedMask & 1 << i) != 0) {
+                    writeString(fields[i]);
+                }
+            }
+        }
+        lastSequence = sequence;
+        lastTimestamp = timestamp;
+        versions++;
+    }
+
+    /**
+     * Drops the spare capacity of a chunk that will not grow for a while.
+     */
+    void trim() {
+        if (data.length > length) {
+            data = Arrays.copyOf(data, length);
+        }
+    }
+
+    int getVersions() {
+        return versions;
+    }
+
+    int getBytes() {
+        return data.length;
+    }
+
+    long getFirstTimestamp() {
+        return firstTimestamp;
+    }
+
+    long getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    private void writeByte(int value) {
+        ensureCapacity(1);
+        data[length++] = (byte) value;
+    }
+
+    private void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            data[length++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+    }
+
+    private void writeString(String value) {
+        if (value == null) {
+            writeVarLong(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length + 1L);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, data, length, bytes.length);
+        length += bytes.length;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + extra));
+        }
+    }
+
+    private static long zigZag(long value) {
+        return value << 1 ^ value >> 63;
+    }
+
+    /**
+     * Decodes the versions of the chunk in order, replaying the deltas into the full state of the client.
+     */
+    final class Cursor {
+
+        private final String[] fields = new String[FIELDS.length];
+        private int position;
+        private int read;
+        private long sequence;
+        private long timestamp;
+        private ChangeType type;
+        private int changedMask;
+
+        /**
+         * Moves to the next version.
+         *
+         * @return false if there are no more versions
+         */
+        boolean next() {
+            if (read == versions) {
+                return false;
+            }
+            if (read == 0) {
+                sequence = firstSequence;
+                timestamp = firstTimestamp;
+            } else {
+                sequence += readVarLong();
+                long delta = readVarLong();
+                timestamp += delta >>> 1 ^ -(delta & 1);
+            }
+            int header = data[position++] & 0xFF;
+            type = TYPES[header >>> FIELDS.length];
+            changedMask = header & (1 << FIELDS.length) - 1;
+            int storedMask = read == 0 ? data[position++] & 0xFF : changedMask;
+            if (type == ChangeType.DELETED) {
+                Arrays.fill(fields, null);
+            } else {
+                for (int i = 0; i < FIELDS.length; i++) {
+                    if ((storedMask & 1 << i) != 0) {
+                        fields[i] = readString();
+                    }
+                }
+            }
+            read++;
+            return true;
+        }
+
+        long sequence() {
+            return sequence;
+        }
+
+        long timestamp() {
+            return timestamp;
+        }
+
+        ChangeType type() {
+            return type;
+        }
+
+        int changedMask() {
+            return changedMask;
+        }
+
+        /**
+         * @return the fields after the current version; overwritten by {@link #next()}
+         */
+        String[] fields() {
+            return fields;
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+
+        private String readString() {
+            int size = (int) readVarLong() - 1;
+            if (size < 0) {
+                return null;
+            }
+            String value = new String(data, position, size, StandardCharsets.UTF_8);
+            position += size;
+            return value;
+        }
+    }
+}
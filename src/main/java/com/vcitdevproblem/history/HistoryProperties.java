@@ -0,0 +1,62 @@
+package com.vcitdevproblem.history;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the audit history of client changes, bound from {@code history.*}.
+ */
+@ConfigurationProperties(prefix = "history")
+public class HistoryProperties {
+
+    /**
+     * How long versions are kept. The state of each client at the start of the window is kept as well, so that
+     * point-in-time lookups anywhere inside the window are answered.
+     */
+    private Duration retention = Duration.ofDays(365);
+    /**
+     * How often expired versions are dropped and their chunks rewritten.
+     */
+    private Duration compactionInterval = Duration.ofHours(1);
+    /**
+     * Versions per chunk; each chunk starts with a full copy of the client, so lookups decode at most one chunk.
+     */
+    private int chunkVersions = 32;
+    /**
+     * Changes read from the change stream and appended together.
+     */
+    private int batchSize = 1024;
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Duration retention) {
+        this.retention = retention;
+    }
+
+    public Duration getCompactionInterval() {
+        return compactionInterval;
+    }
+
+    public void setCompactionInterval(Duration compactionInterval) {
+        this.compactionInterval = compactionInterval;
+    }
+
+    public int getChunkVersions() {
+        return chunkVersions;
+    }
+
+    public void setChunkVersions(int chunkVersions) {
+        this.chunkVersions = chunkVersions;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+}
@@ -0,0 +1,327 @@
+package com.vcitdevproblem.history;
+
+import com.vcitdevproblem.cdc.ChangeRingBuffer;
+import com.vcitdevproblem.cdc.ChangeType;
+import com.vcitdevproblem.cdc.ClientChangeEvent;
+import com.vcitdevproblem.dto.ClientDTO;
+import com.vcitdevproblem.exception.HistoryIncompleteException;
+import com.vcitdevproblem.store.ClientProjection;
+import com.vcitdevproblem.tenant.TenantPartition;
+import com.vcitdevproblem.tenant.TenantRegistry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Feeds the {@link HistoryStore} from the change stream. ClientService already publishes every write to the
+ * {@link ChangeRingBuffer}, so recording history adds nothing to the write path: a single background thread reads
+ * the buffer in batches of {@code history.batch-size}, appends them, and runs retention every
+ * {@code history.compaction-interval}.
+ * <p>
+ * The recorder {@link ChangeRingBuffer#setGate gates} the buffer, so a burst larger than the buffer's capacity makes
+ * writers wait for it to catch up instead of overwriting changes it has not recorded; such waits are counted by the
+ * {@code client.history.stalls} metric. Changes can still be lost if a batch cannot be appended. They are counted by
+ * the {@code client.history.dropped} metric and logged, and a gap is opened in the history of each tenant they
+ * belong to: that tenant's lookups reaching into it fail with {@link HistoryIncompleteException} until the recorder
+ * has re-read the tenant's register from its store and recorded it as a complete baseline, which closes the gap.
+ * <p>
+ * Bulk loads publish no change per client, so they hand their clients to {@link #recordBaseline(String, List)},
+ * which publishes a single {@link ChangeType#RESYNC} change that the recorder records them at.
+ */
+@Slf4j
+public class HistoryRecorder implements InitializingBean, DisposableBean, MeterBinder {
+
+    private final ChangeRingBuffer buffer;
+    private final HistoryStore store;
+    private final TenantRegistry tenants;
+    private final int batchSize;
+    private final long retentionMillis;
+    private final long compactionIntervalNanos;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Map<String, Queue<Baseline>> baselines = new ConcurrentHashMap<>();
+    private final Set<String> rebaselining = ConcurrentHashMap.newKeySet();
+    private final ExecutorService rebaseliner;
+    private volatile boolean running = true;
+    private volatile Thread thread;
+    private volatile long next;
+
+    /**
+     * Creates a recorder that cannot re-read registers, so gaps it opens stay open until retention passes them.
+     */
+    public HistoryRecorder(ChangeRingBuffer buffer, HistoryStore store, HistoryProperties properties) {
+        this(buffer, store, null, properties);
+    }
+
+    /**
+     * @param tenants the tenants whose registers are re-read to close gaps
+     */
+    public HistoryRecorder(ChangeRingBuffer buffer, HistoryStore store, TenantRegistry tenants,
+                           HistoryProperties properties) {
+        this.buffer = buffer;
+        this.store = store;
+        this.tenants = tenants;
+        this.batchSize = Math.max(1, properties.getBatchSize());
+        this.retentionMillis = properties.getRetention().toMillis();
+        this.compactionIntervalNanos = properties.getCompactionInterval().toNanos();
+        this.rebaseliner = Executors.newSingleThreadExecutor(task -> {
+            Thread rebaseline = new Thread(task, "client-history-rebaseline");
+            rebaseline.setDaemon(true);
+            return rebaseline;
+        });
+    }
+
+    /**
+     * Starts recording from the oldest buffered change, and gates the buffer at the recorder's position.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        next = buffer.oldestSequence();
+        buffer.setGate(() -> next);
+        Thread recorder = new Thread(this::record, "client-history-recorder");
+        recorder.setDaemon(true);
+        thread = recorder;
+        recorder.start();
+    }
+
+    /**
+     * Releases the buffer's gate and stops the recorder thread.
+     */
+    @Override
+    public void destroy() throws Exception {
+        running = false;
+        buffer.setGate(null);
+        rebaseliner.shutdownNow();
+        Thread recorder = thread;
+        if (recorder != null) {
+            recorder.interrupt();
+            recorder.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Records the clients of a bulk load, each as a {@link ChangeType#CREATED} version. Publishes a
+     * {@link ChangeType#RESYNC} change for the tenant, at whose position in the stream the recorder appends the
+     * versions, so that every client's versions stay in order without waiting for the recorder. The caller must hold
+     * the tenant's write lock, so that none of the clients changes before the resync is published.
+     *
+     * @param tenant  the tenant the clients were loaded into
+     * @param clients the loaded clients
+     * @return the sequence of the resync change
+     */
+    public long recordBaseline(String tenant, List<ClientDTO> clients) {
+        return publishBaseline(tenant, clients, false);
+    }
+
+    /**
+     * @return the number of published changes not yet in the history
+     */
+    public long getLag() {
+        return Math.max(0, buffer.latestSequence() - store.getLastSequence());
+    }
+
+    /**
+     * @return the number of changes that could not be recorded
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("client.history.lag", this, HistoryRecorder::getLag)
+                .description("Published changes not yet recorded in the audit history")
+                .register(registry);
+        FunctionCounter.builder("client.history.dropped", dropped, AtomicLong::get)
+                .description("Changes lost from the audit history")
+                .register(registry);
+        FunctionCounter.builder("client.history.stalls", buffer, ChangeRingBuffer::getGatedPublishes)
+                .description("Writes that waited for the audit history recorder to catch up")
+                .register(registry);
+    }
+
+    /**
+     * Queues a baseline for the tenant's next resync change, then publishes that change. Every resync is published
+     * here under the tenant's write lock, so the tenant's queue is in the order of its resync changes.
+     */
+    private long publishBaseline(String tenant, List<ClientDTO> clients, boolean complete) {
+        Baseline baseline = new Baseline(clients, complete);
+        baselines.computeIfAbsent(tenant, key -> new ConcurrentLinkedQueue<>()).add(baseline);
+        baseline.sequence = buffer.publish(tenant, ChangeType.RESYNC, null, null);
+        return baseline.sequence;
+    }
+
+    private void record() {
+        try {
+            List<ClientChangeEvent> batch = new ArrayList<>(batchSize);
+            long nextCompaction = System.nanoTime() + compactionIntervalNanos;
+            while (running) {
+                long observed = buffer.publishCount();
+                try {
+                    drain(batch);
+                    if (System.nanoTime() - nextCompaction >= 0) {
+                        nextCompaction = System.nanoTime() + compactionIntervalNanos;
+                        store.compact(System.currentTimeMillis() - retentionMillis);
+                    }
+                } catch (RuntimeException ex) {
+                    log.error("Recording client history failed before sequence {}.", next, ex);
+                }
+                buffer.awaitPublish(observed, Math.max(0, nextCompaction - System.nanoTime()));
+                if (Thread.interrupted() && !running) {
+                    return;
+                }
+            }
+        } finally {
+            // Writers must never wait for a recorder that has stopped.
+            buffer.setGate(null);
+        }
+    }
+
+    private void drain(List<ClientChangeEvent> batch) {
+        while (true) {
+            if (buffer.isOverwritten(next)) {
+                long oldest = buffer.oldestSequence();
+                dropped.addAndGet(oldest - next);
+                log.error("Client history lost changes {} to {}: they were overwritten in the change buffer before "
+                        + "the recorder read them. Re-reading every register.", next, oldest - 1);
+                next = oldest;
+                lost(knownTenants(), store.getLastTimestamp());
+            }
+            batch.clear();
+            long following = buffer.read(next, batchSize, batch);
+            if (batch.isEmpty()) {
+                return;
+            }
+            // Moved past the batch first, so that a batch that cannot be appended is logged once and skipped.
+            next = following;
+            append(batch);
+        }
+    }
+
+    /**
+     * Appends a batch, recording each queued baseline at its resync change. If the batch cannot be appended, its
+     * changes are counted as dropped and their tenants' registers are re-read.
+     */
+    private void append(List<ClientChangeEvent> batch) {
+        // Taken off their queues up front, so that a failed batch leaves no baseline behind for a later resync.
+        List<Baseline> resyncs = new ArrayList<>();
+        for (ClientChangeEvent change : batch) {
+            resyncs.add(change.getType() == ChangeType.RESYNC ? baselineOf(change) : null);
+        }
+        try {
+            int from = 0;
+            for (int i = 0; i < batch.size(); i++) {
+                Baseline baseline = resyncs.get(i);
+                if (baseline != null) {
+                    ClientChangeEvent resync = batch.get(i);
+                    store.append(batch.subList(from, i));
+                    store.appendBaseline(resync.getTenant(), baseline.clients, baseline.complete,
+                            resync.getSequence(), resync.getTimestamp());
+                    from = i + 1;
+                }
+            }
+            store.append(batch.subList(from, batch.size()));
+        } catch (RuntimeException ex) {
+            Set<String> affected = new HashSet<>();
+            long earliest = Long.MAX_VALUE;
+            for (ClientChangeEvent change : batch) {
+                affected.add(change.getTenant());
+                earliest = Math.min(earliest, change.getTimestamp());
+            }
+            dropped.addAndGet(batch.size());
+            log.error("Client history could not record changes {} to {}. Re-reading the registers of {}.",
+                    batch.get(0).getSequence(), batch.get(batch.size() - 1).getSequence(), affected, ex);
+            lost(affected, Math.min(earliest, store.getLastTimestamp()));
+        }
+    }
+
+    /**
+     * @return the baseline published with a resync change, or null if there is none, skipping baselines whose own
+     *         resync change was lost
+     */
+    private Baseline baselineOf(ClientChangeEvent resync) {
+        Queue<Baseline> queue = baselines.get(resync.getTenant());
+        if (queue == null) {
+            return null;
+        }
+        Baseline head;
+        while ((head = queue.peek()) != null && head.sequence != 0 && head.sequence < resync.getSequence()) {
+            queue.poll();
+        }
+        // A head still publishing is the baseline of this resync: the tenant publishes one resync at a time.
+        return head != null && (head.sequence == 0 || head.sequence == resync.getSequence()) ? queue.poll() : null;
+    }
+
+    /**
+     * Opens a gap in the history of each tenant, then re-reads their registers on the re-baseline thread; never on
+     * the recorder thread, which a gated writer holding a tenant's write lock may be waiting for.
+     */
+    private void lost(Set<String> lostTenants, long from) {
+        for (String tenant : lostTenants) {
+            store.openGap(tenant, from);
+            if (tenants != null && running && rebaselining.add(tenant)) {
+                rebaseliner.execute(() -> rebaseline(tenant));
+            }
+        }
+    }
+
+    private void rebaseline(String tenant) {
+        rebaselining.remove(tenant);
+        TenantPartition partition = tenants.find(tenant);
+        if (partition == null) {
+            return;
+        }
+        try {
+            synchronized (partition.getWriteLock()) {
+                List<ClientDTO> clients = partition.getStore().snapshot().stream()
+                        .map(record -> record.projection(ClientProjection.FULL))
+                        .toList();
+                publishBaseline(tenant, clients, true);
+            }
+            log.info("Re-read the register of tenant {} into the client history.", tenant);
+        } catch (RuntimeException ex) {
+            log.error("Re-reading the register of tenant {} into the client history failed; its gap stays "
+                    + "open.", tenant, ex);
+        }
+    }
+
+    private Set<String> knownTenants() {
+        Set<String> known = new HashSet<>(store.getTenants());
+        if (tenants != null) {
+            tenants.getPartitions().forEach(partition -> known.add(partition.getTenant()));
+        }
+        return known;
+    }
+
+    /**
+     * Clients waiting to be recorded at the resync change published with them.
+     */
+    private static final class Baseline {
+
+        private final List<ClientDTO> clients;
+        private final boolean complete;
+        /** The sequence of the resync change, or 0 while it is being published. */
+        private volatile long sequence;
+
+        private Baseline(List<ClientDTO> clients, boolean complete) {
+            this.clients = clients;
+            this.complete = complete;
+        }
+    }
+}
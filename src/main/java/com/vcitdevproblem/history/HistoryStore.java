@@ -0,0 +1,322 @@
+package com.vcitdevproblem.history;
+
+import com.vcitdevproblem.cdc.ChangeType;
+import com.vcitdevproblem.cdc.ClientChangeEvent;
+import com.vcitdevproblem.dto.ClientDTO;
+import com.vcitdevproblem.dto.ClientVersionDTO;
+import com.vcitdevproblem.exception.HistoryIncompleteException;
+import com.vcitdevproblem.tenant.TenantContext;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versioned audit history of every client, keyed by tenant and ID number. A client re-keyed to a new ID number ends
+ * the history of the old one with a deletion and starts a new history.
+ * <p>
+ * Versions are appended in batches by the single {@link HistoryRecorder} thread, which also runs retention, so
+ * appends never contend with each other; point-in-time lookups run on request threads against the same histories.
+ * Baselines, of the clients of a bulk load or of a tenant's whole register, are appended by the recorder too, at
+ * the position of the resync change published with them.
+ * <p>
+ * Changes the recorder missed are recorded as a gap in the history of their tenant, open from the last change
+ * recorded before them until a complete baseline of the tenant's register closes it. Lookups whose answer could
+ * depend on a change in a gap fail with {@link HistoryIncompleteException} rather than return a history that is
+ * silently incomplete; other tenants are unaffected. Closed gaps are forgotten once retention has passed them.
+ */
+public class HistoryStore implements MeterBinder {
+
+    private final Map<String, Map<String, ClientHistory>> histories = new ConcurrentHashMap<>();
+    private final int chunkVersions;
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final Map<String, List<Gap>> gaps = new ConcurrentHashMap<>();
+    private volatile long lastSequence;
+    private volatile long lastTimestamp = Long.MIN_VALUE;
+
+    public HistoryStore(HistoryProperties properties) {
+        this.chunkVersions = Math.max(1, properties.getChunkVersions());
+    }
+
+    /**
+     * Appends a batch of changes, in sequence order. Only the recorder thread may call this.
+     *
+     * @param changes the changes read from the change stream
+     */
+    public void append(List<ClientChangeEvent> changes) {
+        long addedVersions = 0;
+        long addedBytes = 0;
+        for (ClientChangeEvent change : changes) {
+            ChangeType type = change.getType();
+            if (type == ChangeType.CREATED || type == ChangeType.UPDATED || type == ChangeType.DELETED) {
+                ClientHistory history = histories.computeIfAbsent(change.getTenant(), tenant -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(change.getIdNumber(), ClientHistory::new);
+                long before = history.getBytes();
+                history.append(change.getSequence(), type, change.getTimestamp(), change.getClient(), chunkVersions);
+                addedBytes += history.getBytes() - before;
+                addedVersions++;
+            }
+            lastSequence = change.getSequence();
+            lastTimestamp = change.getTimestamp();
+        }
+        versions.addAndGet(addedVersions);
+        bytes.addAndGet(addedBytes);
+    }
+
+    /**
+     * Adds a version for each client of a baseline, at the position of the {@link ChangeType#RESYNC} change it was
+     * published with, so that it comes after the earlier changes of its clients and before the later ones. Only the
+     * recorder thread may call this.
+     * <p>
+     * A bulk load's baseline holds only the loaded clients, each of which gets a {@link ChangeType#CREATED} version.
+     * A complete baseline holds the tenant's whole register: it updates every client whose recorded state may be
+     * stale, deletes those no longer registered, and closes the tenant's open gap.
+     *
+     * @param tenant    the tenant of the clients
+     * @param clients   the clients
+     * @param complete  whether the baseline is the tenant's whole register
+     * @param sequence  the sequence of the resync change
+     * @param timestamp the time of the resync change, in milliseconds since the epoch
+     */
+    public void appendBaseline(String tenant, List<ClientDTO> clients, boolean complete, long sequence,
+                               long timestamp) {
+        Map<String, ClientHistory> tenantHistories =
+                histories.computeIfAbsent(tenant, key -> new ConcurrentHashMap<>());
+        long added = 0;
+        for (ClientDTO client : clients) {
+            // Atomic with retention, which may drop the history of a client deleted earlier under the same ID.
+            tenantHistories.compute(client.getIdNumber(), (idNumber, history) -> {
+                ClientHistory target = history != null ? history : new ClientHistory(idNumber);
+                ChangeType type = complete && history != null && !history.isDeleted()
+                        ? ChangeType.UPDATED : ChangeType.CREATED;
+                long before = target.getBytes();
+                target.append(sequence, type, timestamp, client, chunkVersions);
+                bytes.addAndGet(target.getBytes() - before);
+                return target;
+            });
+            added++;
+        }
+        if (complete) {
+            Set<String> registered = new HashSet<>(clients.size() * 2);
+            clients.forEach(client -> registered.add(client.getIdNumber()));
+            for (String idNumber : tenantHistories.keySet()) {
+                if (registered.contains(idNumber)) {
+                    continue;
+                }
+                ClientHistory history = tenantHistories.get(idNumber);
+                if (history != null && !history.isDeleted()) {
+                    long before = history.getBytes();
+                    history.append(sequence, ChangeType.DELETED, timestamp, null, chunkVersions);
+                    bytes.addAndGet(history.getBytes() - before);
+                    added++;
+                }
+            }
+            closeGap(tenant, timestamp);
+        }
+        versions.addAndGet(added);
+        lastSequence = sequence;
+        lastTimestamp = timestamp;
+    }
+
+    /**
+     * Records that changes of a tenant were lost after a point in time. The gap stays open, failing every later
+     * lookup of the tenant, until a complete baseline closes it. Only the recorder thread may call this.
+     *
+     * @param tenant the tenant whose changes were lost
+     * @param from   the time after which the lost changes were made
+     */
+    public void openGap(String tenant, long from) {
+        List<Gap> tenantGaps = gaps.computeIfAbsent(tenant, key -> new CopyOnWriteArrayList<>());
+        if (tenantGaps.isEmpty() || tenantGaps.get(tenantGaps.size() - 1).to != Long.MAX_VALUE) {
+            tenantGaps.add(new Gap(from));
+        }
+    }
+
+    /**
+     * @return the number of periods in which changes were lost, over all tenants
+     */
+    public int getGaps() {
+        return gaps.values().stream().mapToInt(List::size).sum();
+    }
+
+    /**
+     * @return the tenants with an audit history
+     */
+    public Set<String> getTenants() {
+        return histories.keySet();
+    }
+
+    /**
+     * @return the time of the last change appended, in milliseconds since the epoch
+     */
+    public long getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    /**
+     * Drops versions older than a cutoff, keeping the state of each client at the cutoff, and forgets clients that
+     * were deleted before it. Only the recorder thread may call this.
+     *
+     * @param cutoff the oldest timestamp to keep, in milliseconds since the epoch
+     */
+    public void compact(long cutoff) {
+        long removedVersions = 0;
+        long removedBytes = 0;
+        for (Map<String, ClientHistory> tenantHistories : histories.values()) {
+            for (String idNumber : tenantHistories.keySet()) {
+                tenantHistories.computeIfPresent(idNumber, (key, history) -> {
+                    int versionsBefore = history.getVersions();
+                    long bytesBefore = history.getBytes();
+                    boolean emptied = history.compact(cutoff);
+                    versions.addAndGet((emptied ? 0 : history.getVersions()) - versionsBefore);
+                    bytes.addAndGet((emptied ? 0 : history.getBytes()) - bytesBefore);
+                    return emptied ? null : history;
+                });
+            }
+        }
+        for (List<Gap> tenantGaps : gaps.values()) {
+            tenantGaps.removeIf(gap -> gap.to <= cutoff);
+        }
+    }
+
+    /**
+     * @param idNumber the ID number of a client of the default tenant
+     * @param from     the earliest timestamp, inclusive, in milliseconds since the epoch
+     * @param to       the latest timestamp, inclusive, in milliseconds since the epoch
+     * @return the versions of the client in the window, oldest first; empty if there are none
+     */
+    public List<ClientVersionDTO> versions(String idNumber, long from, long to) {
+        return versions(TenantContext.DEFAULT_TENANT, idNumber, from, to);
+    }
+
+    /**
+     * @param tenant   the tenant of the client
+     * @param idNumber the ID number of the client
+     * @param from     the earliest timestamp, inclusive, in milliseconds since the epoch
+     * @param to       the latest timestamp, inclusive, in milliseconds since the epoch
+     * @return the versions of the client in the window, oldest first; empty if there are none
+     * @throws HistoryIncompleteException if changes were lost in the window
+     */
+    public List<ClientVersionDTO> versions(String tenant, String idNumber, long from, long to) {
+        checkComplete(tenant, from, to);
+        ClientHistory history = history(tenant, idNumber);
+        return history == null ? List.of() : history.versions(from, to);
+    }
+
+    /**
+     * @param idNumber  the ID number of a client of the default tenant
+     * @param timestamp the point in time, in milliseconds since the epoch
+     * @return the latest version of the client at or before the timestamp, or null if none is retained
+     */
+    public ClientVersionDTO at(String idNumber, long timestamp) {
+        return at(TenantContext.DEFAULT_TENANT, idNumber, timestamp);
+    }
+
+    /**
+     * @param tenant    the tenant of the client
+     * @param idNumber  the ID number of the client
+     * @param timestamp the point in time, in milliseconds since the epoch
+     * @return the latest version of the client at or before the timestamp, or null if none is retained; a
+     *         {@link ChangeType#DELETED} version means the client did not exist at that time
+     * @throws HistoryIncompleteException if changes were lost between that version and the timestamp
+     */
+    public ClientVersionDTO at(String tenant, String idNumber, long timestamp) {
+        ClientHistory history = history(tenant, idNumber);
+        ClientVersionDTO version = history == null ? null : history.at(timestamp);
+        checkComplete(tenant, version == null ? Long.MIN_VALUE : version.getTimestamp(), timestamp);
+        return version;
+    }
+
+    /**
+     * @return the sequence of the last change appended
+     */
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    public long getVersions() {
+        return versions.get();
+    }
+
+    /**
+     * @return the memory held by the encoded versions
+     */
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    public int getClients() {
+        return histories.values().stream().mapToInt(Map::size).sum();
+    }
+
+    /**
+     * @throws HistoryIncompleteException if changes were lost between the two points in time
+     */
+    private void checkComplete(String tenant, long from, long to) {
+        List<Gap> tenantGaps = gaps.get(tenant);
+        if (tenantGaps == null) {
+            return;
+        }
+        for (Gap gap : tenantGaps) {
+            long gapTo = gap.to;
+            if (gap.from <= to && gapTo > from) {
+                throw new HistoryIncompleteException("Changes made "
+                        + (gap.from == Long.MIN_VALUE ? "since start-up" : "after " + Instant.ofEpochMilli(gap.from))
+                        + (gapTo == Long.MAX_VALUE ? "" : " and before " + Instant.ofEpochMilli(gapTo))
+                        + " are missing from the history.");
+            }
+        }
+    }
+
+    private void closeGap(String tenant, long to) {
+        List<Gap> tenantGaps = gaps.get(tenant);
+        Gap last = tenantGaps == null || tenantGaps.isEmpty() ? null : tenantGaps.get(tenantGaps.size() - 1);
+        if (last != null && last.to == Long.MAX_VALUE) {
+            last.to = to;
+        }
+    }
+
+    private ClientHistory history(String tenant, String idNumber) {
+        Map<String, ClientHistory> tenantHistories = histories.get(tenant);
+        return tenantHistories == null ? null : tenantHistories.get(idNumber);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("client.history.versions", this, HistoryStore::getVersions)
+                .description("Client versions held by the audit history")
+                .register(registry);
+        Gauge.builder("client.history.clients", this, HistoryStore::getClients)
+                .description("Clients with an audit history")
+                .register(registry);
+        Gauge.builder("client.history.bytes", this, HistoryStore::getBytes)
+                .description("Memory held by the encoded audit history")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("client.history.gaps", this, HistoryStore::getGaps)
+                .description("Periods in which changes were lost from the audit history")
+                .register(registry);
+    }
+
+    /**
+     * A period in which changes were lost, in milliseconds since the epoch; open, up to {@link Long#MAX_VALUE}, until
+     * a complete baseline closes it. The baseline holds every change made before it, so the gap ends just before.
+     */
+    private static final class Gap {
+        private final long from;
+        private volatile long to = Long.MAX_VALUE;
+
+        private Gap(long from) {
+            this.from = from;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.vcitdevproblem.index;
+
+import com.vcitdevproblem.exception.InvalidRequestParameterException;
+
+/**
+ * Sort keys supported by paged client searches. Name sorts break ties on the other name and then the ID number,
+ * so every order is total and can be resumed from a keyset cursor.
+ */
+public enum ClientSort {
+    FIRST_NAME("firstName"),
+    LAST_NAME("lastName"),
+    ID_NUMBER("idNumber");
+
+    private final String parameterName;
+
+    ClientSort(String parameterName) {
+        this.parameterName = parameterName;
+    }
+
+    public String getParameterName() {
+        return parameterName;
+    }
+
+    /**
+     * Resolves a sort key from its API name.
+     *
+     * @param parameterName the API name, e.g. {@code lastName}
+     * @return the matching sort key
+     * @throws InvalidRequestParameterException if no sort key has that name
+     */
+    public static ClientSort fromParameter(String parameterName) {
+        for (ClientSort sort : values()) {
+            if (sort.parameterName.equalsIgnoreCase(parameterName)) {
+                return sort;
+            }
+        }
+        throw new InvalidRequestParameterException("Unknown sort key: " + parameterName + ".");
+    }
+}
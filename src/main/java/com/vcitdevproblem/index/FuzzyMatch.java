@@ -0,0 +1,23 @@
+package com.vcitdevproblem.index;
+
+/**
+ * A client matched by the fuzzy text index, with its similarity to the query between 0 and 1.
+ */
+public class FuzzyMatch {
+
+    private final String idNumber;
+    private final double score;
+
+    public FuzzyMatch(String idNumber, double score) {
+        this.idNumber = idNumber;
+        this.score = score;
+    }
+
+    public String getIdNumber() {
+        return idNumber;
+    }
+
+    public double getScore() {
+        return score;
+    }
+}
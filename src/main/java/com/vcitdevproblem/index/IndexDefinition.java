@@ -0,0 +1,110 @@
+package com.vcitdevproblem.index;
+
+import com.vcitdevproblem.exception.InvalidRequestParameterException;
+import com.vcitdevproblem.model.Client;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Secondary indexes that {@link IndexManager} can build online. Each maps a client to one text key, ordered so that
+ * a range of keys is a range of the index; clients without a key are not indexed.
+ */
+public enum IndexDefinition {
+    /**
+     * Case-insensitive last name.
+     */
+    LAST_NAME("lastName", client -> client.getLastName() == null ? null : normalizeName(client.getLastName())),
+    /**
+     * Birth date encoded in the first six digits of the ID number, as {@code yyyy-MM-dd}.
+     */
+    BIRTH_DATE("birthDate", IndexDefinition::birthDate);
+
+    private final String parameterName;
+    private final Function<Client, String> key;
+
+    IndexDefinition(String parameterName, Function<Client, String> key) {
+        this.parameterName = parameterName;
+        this.key = key;
+    }
+
+    public String getParameterName() {
+        return parameterName;
+    }
+
+    /**
+     * @param client the client to index
+     * @return the client's key, or null if it has none
+     */
+    public String key(Client client) {
+        return key.apply(client);
+    }
+
+    /**
+     * Converts a query bound to the form of the keys.
+     *
+     * @param bound the bound as given in the request
+     * @return the bound as a key
+     * @throws InvalidRequestParameterException if the bound is not valid for this index
+     */
+    public String normalizeBound(String bound) {
+        if (this == LAST_NAME) {
+            return normalizeName(bound);
+        }
+        try {
+            return LocalDate.parse(bound).toString();
+        } catch (DateTimeException ex) {
+            throw new InvalidRequestParameterException(
+                    "Invalid " + parameterName + ": " + bound + " (expected yyyy-MM-dd).");
+        }
+    }
+
+    /**
+     * Resolves an index from its API name.
+     *
+     * @param parameterName the API name, e.g. {@code birthDate}
+     * @return the matching index
+     * @throws InvalidRequestParameterException if no index has that name
+     */
+    public static IndexDefinition fromParameter(String parameterName) {
+        for (IndexDefinition definition : values()) {
+            if (definition.parameterName.equalsIgnoreCase(parameterName)) {
+                return definition;
+            }
+        }
+        throw new InvalidRequestParameterException("Unknown index: " + parameterName + ".");
+    }
+
+    private static String normalizeName(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Reads the birth date from the YYMMDD prefix of the ID number. Two-digit years after the current one are taken
+     * to be in the 1900s, the rest in the 2000s.
+     */
+    private static String birthDate(Client client) {
+        String idNumber = client.getIdNumber();
+        if (idNumber == null || idNumber.length() < 6) {
+            return null;
+        }
+        int yymmdd = 0;
+        for (int i = 0; i < 6; i++) {
+            char c = idNumber.charAt(i);
+            if (c < '0' || c > '9') {
+                return null;
+            }
+            yymmdd = yymmdd * 10 + (c - '0');
+        }
+        int yy = yymmdd / 10_000;
+        int year = yy > Year.now().getValue() % 100 ? 1900 + yy : 2000 + yy;
+        try {
+            return LocalDate.of(year, yymmdd / 100 % 100, yymmdd % 100).toString();
+        } catch (DateTimeException ex) {
+            return null;
+        }
+    }
+}
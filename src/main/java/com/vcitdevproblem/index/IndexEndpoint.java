@@ -0,0 +1,39 @@
+package com.vcitdevproblem.index;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint ({@code /actuator/indexes}) exposing the state and build progress of the online indexes.
+ * {@code POST /actuator/indexes/{name}} starts a rebuild; the current generation is served until it completes.
+ */
+@Endpoint(id = "indexes")
+public class IndexEndpoint {
+
+    private final IndexManager indexManager;
+
+    public IndexEndpoint(IndexManager indexManager) {
+        this.indexManager = indexManager;
+    }
+
+    @ReadOperation
+    public Map<String, Object> indexes() {
+        return indexManager.status();
+    }
+
+    @ReadOperation
+    public Map<String, Object> index(@Selector String name) {
+        return indexManager.status(IndexDefinition.fromParameter(name));
+    }
+
+    @WriteOperation
+    public Map<String, Object> rebuild(@Selector String name) {
+        IndexDefinition definition = IndexDefinition.fromParameter(name);
+        indexManager.build(definition);
+        return indexManager.status(definition);
+    }
+}
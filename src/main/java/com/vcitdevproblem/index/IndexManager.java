@@ -0,0 +1,237 @@
+package com.vcitdevproblem.index;
+
+import com.vcitdevproblem.exception.InvalidRequestParameterException;
+import com.vcitdevproblem.model.Client;
+import com.vcitdevproblem.store.ClientRecord;
+import com.vcitdevproblem.store.ClientSnapshot;
+import com.vcitdevproblem.store.ClientStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds and serves the secondary indexes of {@link IndexDefinition} without stopping writes.
+ * <p>
+ * A build registers a new, empty generation to receive live writes, then takes a snapshot of the store and backfills
+ * the generation from it in chunks on a single builder thread, throttled to {@code indexing.max-records-per-second}.
+ * Writes made during the backfill are caught up as they happen (see {@link OnlineIndex}). When the backfill ends the
+ * generation replaces the one being served in a single map write, and the old generation stops receiving writes, so
+ * queries see either the old index or the complete new one. An index is not queryable until its first build is done.
+ * <p>
+ * {@code ClientService} calls {@link #index(Client)} and {@link #remove(String)} after every store write, under its
+ * write lock.
+ */
+@Slf4j
+public class IndexManager implements DisposableBean {
+
+    private final IndexingProperties properties;
+    private final ClientStore store;
+    private final ExecutorService builder;
+    private final AtomicLong generations = new AtomicLong();
+    private final List<OnlineIndex> maintained = new CopyOnWriteArrayList<>();
+    private final Map<IndexDefinition, OnlineIndex> serving = new ConcurrentHashMap<>();
+    private final Map<IndexDefinition, OnlineIndex> latest = new ConcurrentHashMap<>();
+
+    public IndexManager(IndexingProperties properties, ClientStore store) {
+        this.properties = properties;
+        this.store = store;
+        this.builder = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "index-builder");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts building every index listed in {@code indexing.indexes}.
+     *
+     * @throws InvalidRequestParameterException if an index name is unknown
+     */
+    public void buildConfigured() {
+        for (String name : properties.getIndexes()) {
+            build(IndexDefinition.fromParameter(name));
+        }
+    }
+
+    /**
+     * Queues a build of a new generation of an index. Builds run one at a time; the current generation, if any, is
+     * served until the new one is ready.
+     *
+     * @param definition the index to build
+     * @return a future completed when the new generation is served, or failed
+     */
+    public CompletableFuture<Void> build(IndexDefinition definition) {
+        return CompletableFuture.runAsync(() -> runBuild(definition), builder);
+    }
+
+    /**
+     * Applies a stored client to every index being served or built.
+     *
+     * @param client the client as stored
+     */
+    public void index(Client client) {
+        for (OnlineIndex index : maintained) {
+            index.index(client);
+        }
+    }
+
+    /**
+     * Applies many stored clients, such as a bulk load.
+     *
+     * @param clients the clients as stored
+     */
+    public void indexAll(List<Client> clients) {
+        for (OnlineIndex index : maintained) {
+            clients.forEach(index::index);
+        }
+    }
+
+    /**
+     * Removes a deleted or re-keyed client from every index being served or built.
+     *
+     * @param idNumber the ID number the client was stored under
+     */
+    public void remove(String idNumber) {
+        for (OnlineIndex index : maintained) {
+            index.remove(idNumber);
+        }
+    }
+
+    /**
+     * @param definition the index
+     * @return true if a complete generation of the index is being served
+     */
+    public boolean isReady(IndexDefinition definition) {
+        return serving.containsKey(definition);
+    }
+
+    /**
+     * Reads the clients whose keys lie in a closed range from the served generation of an index.
+     *
+     * @param definition the index
+     * @param from       the lowest key, as normalized by {@link IndexDefinition#normalizeBound}, or null
+     * @param to         the highest key, as normalized by {@link IndexDefinition#normalizeBound}, or null
+     * @param limit      the maximum number of ID numbers to return
+     * @return the ID numbers in key order, or null if the index is not ready
+     */
+    public IndexPage range(IndexDefinition definition, String from, String to, int limit) {
+        OnlineIndex index = serving.get(definition);
+        if (index == null) {
+            return null;
+        }
+        List<String> idNumbers = index.getKeys().range(from, to, limit);
+        return new IndexPage(idNumbers, null, definition.getParameterName(), idNumbers.size());
+    }
+
+    /**
+     * @return for each index that has been built, whether it is ready, and the state and progress of its served and
+     *         latest generations
+     */
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        for (IndexDefinition definition : IndexDefinition.values()) {
+            if (latest.containsKey(definition)) {
+                status.put(definition.getParameterName(), status(definition));
+            }
+        }
+        return status;
+    }
+
+    /**
+     * @param definition the index
+     * @return whether the index is ready, and the state and progress of its served and latest generations
+     */
+    public Map<String, Object> status(IndexDefinition definition) {
+        OnlineIndex current = serving.get(definition);
+        OnlineIndex newest = latest.get(definition);
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("ready", current != null);
+        if (current != null) {
+            status.put("serving", current.status());
+        }
+        if (newest != null && newest != current) {
+            status.put("latest", newest.status());
+        }
+        return status;
+    }
+
+    /**
+     * Stops the builder, abandoning any build in progress.
+     */
+    @Override
+    public void destroy() throws Exception {
+        builder.shutdownNow();
+        builder.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void runBuild(IndexDefinition definition) {
+        OnlineIndex index = new OnlineIndex(definition, generations.incrementAndGet());
+        latest.put(definition, index);
+        // Registered before the snapshot is taken: a write is then either in the snapshot or applied live.
+        maintained.add(index);
+        try {
+            backfill(index, store.snapshot());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            abandon(index, "Interrupted");
+            return;
+        } catch (RuntimeException ex) {
+            abandon(index, ex.toString());
+            log.error("Building index {} failed.", definition.getParameterName(), ex);
+            throw ex;
+        }
+        index.ready();
+        OnlineIndex previous = serving.put(definition, index);
+        if (previous != null) {
+            maintained.remove(previous);
+            previous.retire();
+        }
+        log.info("Index {} ready: {}", definition.getParameterName(), index.status());
+    }
+
+    private void backfill(OnlineIndex index, ClientSnapshot snapshot) throws InterruptedException {
+        int chunkSize = Math.max(1, properties.getChunkSize());
+        int rate = properties.getMaxRecordsPerSecond();
+        index.setTotal(snapshot.size());
+        Spliterator<ClientRecord> records = snapshot.spliterator();
+        List<Client> chunk = new ArrayList<>(chunkSize);
+        long started = System.nanoTime();
+        long processed = 0;
+        boolean more = true;
+        while (more) {
+            more = records.tryAdvance(record -> chunk.add(record.getClient()));
+            if (more && chunk.size() < chunkSize) {
+                continue;
+            }
+            index.backfill(chunk);
+            processed += chunk.size();
+            chunk.clear();
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (rate > 0) {
+                long wait = started + processed * 1_000_000_000L / rate - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+            }
+        }
+    }
+
+    private void abandon(OnlineIndex index, String reason) {
+        maintained.remove(index);
+        index.fail(reason);
+    }
+}
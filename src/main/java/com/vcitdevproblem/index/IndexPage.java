@@ -0,0 +1,49 @@
+package com.vcitdevproblem.index;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated index scan.
+ */
+public class IndexPage {
+
+    private final List<String> idNumbers;
+    private final String nextCursor;
+    private final String ordering;
+    private final int scanned;
+
+    public IndexPage(List<String> idNumbers, String nextCursor, String ordering, int scanned) {
+        this.idNumbers = idNumbers;
+        this.nextCursor = nextCursor;
+        this.ordering = ordering;
+        this.scanned = scanned;
+    }
+
+    /**
+     * @return the ID numbers on this page, in sort order
+     */
+    public List<String> getIdNumbers() {
+        return idNumbers;
+    }
+
+    /**
+     * @return the opaque cursor of the next page, or null if this is the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * @return the name of the index ordering that served the page
+     */
+    public String getOrdering() {
+        return ordering;
+    }
+
+    /**
+     * @return the number of index entries read to fill the page
+     */
+    public int getScanned() {
+        return scanned;
+    }
+}
@@ -0,0 +1,50 @@
+package com.vcitdevproblem.index;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration of the online secondary indexes, bound from {@code indexing.*}.
+ */
+@ConfigurationProperties(prefix = "indexing")
+public class IndexingProperties {
+
+    /**
+     * API names of the indexes to build at start-up.
+     */
+    private List<String> indexes = new ArrayList<>(List.of("lastName", "birthDate"));
+    /**
+     * Clients read from the snapshot and applied to the index under one lock hold during a backfill.
+     */
+    private int chunkSize = 4096;
+    /**
+     * Upper bound on the backfill rate, so that building an index does not starve request threads; 0 for unlimited.
+     */
+    private int maxRecordsPerSecond = 500_000;
+
+    public List<String> getIndexes() {
+        return indexes;
+    }
+
+    public void setIndexes(List<String> indexes) {
+        this.indexes = indexes;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getMaxRecordsPerSecond() {
+        return maxRecordsPerSecond;
+    }
+
+    public void setMaxRecordsPerSecond(int maxRecordsPerSecond) {
+        this.maxRecordsPerSecond = maxRecordsPerSecond;
+    }
+}
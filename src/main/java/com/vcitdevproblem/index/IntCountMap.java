@@ -0,0 +1,109 @@
+package com.vcitdevproblem.index;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing int to int counter, used to accumulate per-document trigram hits without boxing.
+ * Counting happens in rounds: a key is counted at most once per round, however often it is incremented in it.
+ */
+final class IntCountMap {
+
+    private static final int FREE = -1;
+
+    private int[] keys;
+    private int[] counts;
+    private int[] rounds;
+    private int round;
+    private int size;
+
+    IntCountMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2) - 1) << 1;
+        keys = new int[capacity];
+        counts = new int[capacity];
+        rounds = new int[capacity];
+        Arrays.fill(keys, FREE);
+    }
+
+    /**
+     * Starts a new round, after which every key can be counted once more.
+     */
+    void nextRound() {
+        round++;
+    }
+
+    /**
+     * Increments the count of a key, inserting it if absent, unless it was already counted in this round.
+     *
+     * @param key a non-negative key
+     */
+    void increment(int key) {
+        int slot = find(key);
+        if (keys[slot] == FREE) {
+            keys[slot] = key;
+            counts[slot] = 1;
+            rounds[slot] = round;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+        } else if (rounds[slot] != round) {
+            counts[slot]++;
+            rounds[slot] = round;
+        }
+    }
+
+    /**
+     * Increments the count of a key only if it is already present and was not yet counted in this round.
+     *
+     * @param key a non-negative key
+     */
+    void incrementIfPresent(int key) {
+        int slot = find(key);
+        if (keys[slot] != FREE && rounds[slot] != round) {
+            counts[slot]++;
+            rounds[slot] = round;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return keys.length;
+    }
+
+    int keyAt(int slot) {
+        return keys[slot];
+    }
+
+    int countAt(int slot) {
+        return counts[slot];
+    }
+
+    private int find(int key) {
+        int mask = keys.length - 1;
+        int slot = (key * 0x9E3779B9) >>> 1 & mask;
+        while (keys[slot] != FREE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldCounts = counts;
+        int[] oldRounds = rounds;
+        keys = new int[oldKeys.length * 2];
+        counts = new int[oldKeys.length * 2];
+        rounds = new int[oldKeys.length * 2];
+        Arrays.fill(keys, FREE);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+                rounds[slot] = oldRounds[i];
+            }
+        }
+    }
+}
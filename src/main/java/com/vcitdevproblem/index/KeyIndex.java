@@ -0,0 +1,79 @@
+package com.vcitdevproblem.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Ordered multimap from a text key to the ID numbers of the clients holding it. Readers scan ranges without locks;
+ * writers are serialized by the owning {@link OnlineIndex}.
+ */
+final class KeyIndex {
+
+    private static final Comparator<Entry> ORDER = Comparator.comparing(Entry::key).thenComparing(Entry::idNumber);
+
+    private final ConcurrentSkipListSet<Entry> entries = new ConcurrentSkipListSet<>(ORDER);
+    private final ConcurrentHashMap<String, String> keys = new ConcurrentHashMap<>();
+
+    /**
+     * Sets the key of a client, replacing its previous key; a null key removes the client.
+     */
+    void put(String idNumber, String key) {
+        String previous = key == null ? keys.remove(idNumber) : keys.put(idNumber, key);
+        if (previous != null && !previous.equals(key)) {
+            entries.remove(new Entry(previous, idNumber));
+        }
+        if (key != null) {
+            entries.add(new Entry(key, idNumber));
+        }
+    }
+
+    void remove(String idNumber) {
+        put(idNumber, null);
+    }
+
+    /**
+     * Returns the clients whose keys lie in a closed range, in key order.
+     *
+     * @param from  the lowest key, or null for no lower bound
+     * @param to    the highest key, or null for no upper bound
+     * @param limit the maximum number of ID numbers to return
+     * @return the ID numbers
+     */
+    List<String> range(String from, String to, int limit) {
+        List<String> idNumbers = new ArrayList<>(Math.min(limit, 1024));
+        NavigableSet<Entry> tail = from == null ? entries : entries.tailSet(new Entry(from, ""), true);
+        for (Entry entry : tail) {
+            if (idNumbers.size() == limit || to != null && entry.key().compareTo(to) > 0) {
+                break;
+            }
+            idNumbers.add(entry.idNumber());
+        }
+        return idNumbers;
+    }
+
+    int size() {
+        return keys.size();
+    }
+
+    private static final class Entry {
+        private final String key;
+        private final String idNumber;
+
+        Entry(String key, String idNumber) {
+            this.key = key;
+            this.idNumber = idNumber;
+        }
+
+        String key() {
+            return key;
+        }
+
+        String idNumber() {
+            return idNumber;
+        }
+    }
+}
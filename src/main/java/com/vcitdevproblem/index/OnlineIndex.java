@@ -0,0 +1,136 @@
+package com.vcitdevproblem.index;
+
+import com.vcitdevproblem.model.Client;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One generation of a secondary index, built online by {@link IndexManager}.
+ * <p>
+ * While the index is {@link State#BUILDING}, live writes are applied to it as they happen and the backfill fills in
+ * the rest from a snapshot taken after the index started receiving writes. The backfill skips every client a live
+ * write has touched, because the live write is newer than the snapshot; once the backfill has covered the snapshot,
+ * the index holds exactly what the register holds and becomes {@link State#READY}. Live writes and backfill chunks
+ * are serialized on the index itself.
+ */
+final class OnlineIndex {
+
+    /**
+     * Lifecycle of an index generation.
+     */
+    enum State {
+        BUILDING, READY, FAILED, RETIRED
+    }
+
+    private final IndexDefinition definition;
+    private final long generation;
+    private final KeyIndex keys = new KeyIndex();
+    private final Instant startedAt = Instant.now();
+    private Set<String> touched = new HashSet<>();
+    private volatile State state = State.BUILDING;
+    private volatile long processed;
+    private volatile long total;
+    private volatile Instant completedAt;
+    private volatile String failure;
+
+    OnlineIndex(IndexDefinition definition, long generation) {
+        this.definition = definition;
+        this.generation = generation;
+    }
+
+    IndexDefinition getDefinition() {
+        return definition;
+    }
+
+    State getState() {
+        return state;
+    }
+
+    KeyIndex getKeys() {
+        return keys;
+    }
+
+    /**
+     * Applies a live write of a client.
+     */
+    synchronized void index(Client client) {
+        keys.put(client.getIdNumber(), definition.key(client));
+        if (touched != null) {
+            touched.add(client.getIdNumber());
+        }
+    }
+
+    /**
+     * Applies a live deletion of a client.
+     */
+    synchronized void remove(String idNumber) {
+        keys.remove(idNumber);
+        if (touched != null) {
+            touched.add(idNumber);
+        }
+    }
+
+    /**
+     * Applies one chunk of the backfill, skipping clients written since the build started.
+     */
+    synchronized void backfill(List<Client> chunk) {
+        for (Client client : chunk) {
+            if (!touched.contains(client.getIdNumber())) {
+                keys.put(client.getIdNumber(), definition.key(client));
+            }
+        }
+        processed += chunk.size();
+    }
+
+    void setTotal(long total) {
+        this.total = total;
+    }
+
+    synchronized void ready() {
+        touched = null;
+        completedAt = Instant.now();
+        state = State.READY;
+    }
+
+    synchronized void fail(String reason) {
+        touched = null;
+        completedAt = Instant.now();
+        failure = reason;
+        state = State.FAILED;
+    }
+
+    void retire() {
+        state = State.RETIRED;
+    }
+
+    /**
+     * @return the state, progress and size of this generation
+     */
+    Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        long done = processed;
+        long expected = total;
+        status.put("index", definition.getParameterName());
+        status.put("generation", generation);
+        status.put("state", state);
+        status.put("processed", done);
+        status.put("total", expected);
+        status.put("progress", expected == 0 ? (state == State.READY ? 1.0 : 0.0) : Math.min(1.0, (double) done / expected));
+        status.put("entries", keys.size());
+        status.put("startedAt", startedAt.toString());
+        Instant completed = completedAt;
+        if (completed != null) {
+            status.put("completedAt", completed.toString());
+            status.put("durationMs", completed.toEpochMilli() - startedAt.toEpochMilli());
+        }
+        if (failure != null) {
+            status.put("failure", failure);
+        }
+        return status;
+    }
+}
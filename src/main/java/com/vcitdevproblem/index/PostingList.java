@@ -0,0 +1,271 @@
+package com.vcitdevproblem.index;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable posting list of document ids.
+ * <p>
+ * The bulk lives in sorted, varint-compressed blocks of at most {@value #BLOCK_SIZE} ids. Recent additions and
+ * removals are kept in two small sorted arrays. Ascending additions (the common case, since new clients get
+ * ascending document ids) are written into spare capacity of arrays shared with older versions, which never look
+ * past their own counts, and are sealed into whole blocks the same way. Removals and out-of-order additions are
+ * folded copy-on-write into the blocks they belong to once enough of them accumulate, re-encoding only those blocks.
+ * <p>
+ * Only the newest version of a list may be modified, which the index guarantees by serializing its writers.
+ */
+final class PostingList {
+
+    static final PostingList EMPTY = new PostingList(new Block[0], 0, 0, new int[0], 0, new int[0]);
+
+    private static final int BLOCK_SIZE = 128;
+    private static final int MAX_PENDING_CHANGES = 64;
+
+    private final Block[] blocks;
+    private final int blockCount;
+    private final int blockedCount;
+    private final int[] added;
+    private final int addedCount;
+    private final int[] removed;
+
+    private PostingList(Block[] blocks, int blockCount, int blockedCount, int[] added, int addedCount, int[] removed) {
+        this.blocks = blocks;
+        this.blockCount = blockCount;
+        this.blockedCount = blockedCount;
+        this.added = added;
+        this.addedCount = addedCount;
+        this.removed = removed;
+    }
+
+    /**
+     * Returns a list that additionally contains the given document.
+     *
+     * @param docId the document id to add
+     * @return the new list
+     */
+    PostingList with(int docId) {
+        int removedAt = Arrays.binarySearch(removed, docId);
+        if (removedAt >= 0) {
+            return new PostingList(blocks, blockCount, blockedCount, added, addedCount, deleteAt(removed, removedAt));
+        }
+        if (addedCount == 0 || docId > added[addedCount - 1]) {
+            int[] target = added;
+            if (addedCount == target.length) {
+                target = Arrays.copyOf(added, Math.max(8, addedCount * 2));
+            }
+            target[addedCount] = docId;
+            return maybeCompact(new PostingList(blocks, blockCount, blockedCount, target, addedCount + 1, removed));
+        }
+        int addedAt = Arrays.binarySearch(added, 0, addedCount, docId);
+        if (addedAt >= 0) {
+            return this;
+        }
+        int[] target = insertAt(added, addedCount, -addedAt - 1, docId);
+        return maybeCompact(new PostingList(blocks, blockCount, blockedCount, target, addedCount + 1, removed));
+    }
+
+    /**
+     * Returns a list without the given document.
+     * The caller guarantees the document is contained.
+     *
+     * @param docId the document id to remove
+     * @return the new list
+     */
+    PostingList without(int docId) {
+        int addedAt = Arrays.binarySearch(added, 0, addedCount, docId);
+        if (addedAt >= 0) {
+            int[] target = Arrays.copyOf(added, addedCount - 1);
+            System.arraycopy(added, addedAt + 1, target, addedAt, addedCount - addedAt - 1);
+            return new PostingList(blocks, blockCount, blockedCount, target, addedCount - 1, removed);
+        }
+        int removedAt = Arrays.binarySearch(removed, docId);
+        if (removedAt >= 0) {
+            return this;
+        }
+        int[] target = insertAt(removed, removed.length, -removedAt - 1, docId);
+        return maybeCompact(new PostingList(blocks, blockCount, blockedCount, added, addedCount, target));
+    }
+
+    int size() {
+        return blockedCount - removed.length + addedCount;
+    }
+
+    /**
+     * Visits every document id in the list, in ascending order.
+     *
+     * @param consumer the visitor
+     */
+    void forEach(IntConsumer consumer) {
+        int[] buffer = new int[BLOCK_SIZE];
+        int a = 0;
+        for (int b = 0; b < blockCount; b++) {
+            Block block = blocks[b];
+            block.decodeInto(buffer);
+            boolean checkRemoved = removed.length > 0 && block.last >= removed[0] && block.first <= removed[removed.length - 1];
+            for (int i = 0; i < block.count; i++) {
+                int docId = buffer[i];
+                while (a < addedCount && added[a] < docId) {
+                    consumer.accept(added[a++]);
+                }
+                if (!checkRemoved || Arrays.binarySearch(removed, docId) < 0) {
+                    consumer.accept(docId);
+                }
+            }
+        }
+        while (a < addedCount) {
+            consumer.accept(added[a++]);
+        }
+    }
+
+    int compressedBytes() {
+        int bytes = 4 * (addedCount + removed.length);
+        for (int b = 0; b < blockCount; b++) {
+            bytes += blocks[b].data.length + 12;
+        }
+        return bytes;
+    }
+
+    private static PostingList maybeCompact(PostingList list) {
+        int lastBlocked = list.blockCount > 0 ? list.blocks[list.blockCount - 1].last : -1;
+        int outOfOrderAdds = list.addedCount > 0 && list.added[0] <= lastBlocked
+                ? -Arrays.binarySearch(list.added, 0, list.addedCount, lastBlocked) - 1
+                : 0;
+        if (list.removed.length + outOfOrderAdds >= MAX_PENDING_CHANGES) {
+            return compact(list);
+        }
+        if (outOfOrderAdds == 0 && list.addedCount >= BLOCK_SIZE) {
+            return sealBlocks(list);
+        }
+        return list;
+    }
+
+    /**
+     * Moves whole blocks' worth of trailing additions into new blocks appended after the existing ones.
+     */
+    private static PostingList sealBlocks(PostingList list) {
+        int full = list.addedCount / BLOCK_SIZE;
+        Block[] blocks = list.blocks;
+        if (list.blockCount + full > blocks.length) {
+            blocks = Arrays.copyOf(blocks, Math.max(list.blockCount + full, blocks.length * 2));
+        }
+        for (int i = 0; i < full; i++) {
+            blocks[list.blockCount + i] = Block.encode(list.added, i * BLOCK_SIZE, (i + 1) * BLOCK_SIZE);
+        }
+        int[] remaining = Arrays.copyOfRange(list.added, full * BLOCK_SIZE, Math.max(list.addedCount, full * BLOCK_SIZE + 8));
+        return new PostingList(blocks, list.blockCount + full, list.blockedCount + full * BLOCK_SIZE,
+                remaining, list.addedCount - full * BLOCK_SIZE, list.removed);
+    }
+
+    /**
+     * Folds all pending additions and removals into the blocks they belong to, copy-on-write.
+     */
+    private static PostingList compact(PostingList list) {
+        Block[] blocks = list.blocks;
+        int[] added = list.added;
+        int addedCount = list.addedCount;
+        int[] removed = list.removed;
+        Block[] result = new Block[list.blockCount + addedCount / BLOCK_SIZE + 2];
+        int resultCount = 0;
+        int count = 0;
+        int a = 0;
+        int r = 0;
+        int[] decoded = new int[BLOCK_SIZE];
+        int[] merged = new int[BLOCK_SIZE + addedCount];
+        for (int b = 0; b < list.blockCount; b++) {
+            Block block = blocks[b];
+            // Additions below the next block's first id belong here; the last block takes everything left.
+            boolean lastBlock = b + 1 == list.blockCount;
+            int upper = lastBlock ? Integer.MAX_VALUE : blocks[b + 1].first;
+            int addedEnd = a;
+            while (addedEnd < addedCount && (lastBlock || added[addedEnd] < upper)) {
+                addedEnd++;
+            }
+            int removedEnd = r;
+            while (removedEnd < removed.length && removed[removedEnd] <= block.last) {
+                removedEnd++;
+            }
+            if (addedEnd == a && removedEnd == r) {
+                result = ensureCapacity(result, resultCount + 1);
+                result[resultCount++] = block;
+                count += block.count;
+                continue;
+            }
+            block.decodeInto(decoded);
+            int size = mergeInto(merged, decoded, block.count, added, a, addedEnd, removed, r, removedEnd);
+            result = ensureCapacity(result, resultCount + size / BLOCK_SIZE + 1);
+            for (int from = 0; from < size; from += BLOCK_SIZE) {
+                result[resultCount++] = Block.encode(merged, from, Math.min(size, from + BLOCK_SIZE));
+            }
+            count += size;
+            a = addedEnd;
+            r = removedEnd;
+        }
+        return new PostingList(result, resultCount, count, new int[8], 0, new int[0]);
+    }
+
+    private static int mergeInto(int[] merged, int[] decoded, int decodedCount,
+                                 int[] added, int addedFrom, int addedTo,
+                                 int[] removed, int removedFrom, int removedTo) {
+        int size = 0;
+        int a = addedFrom;
+        for (int i = 0; i < decodedCount; i++) {
+            int docId = decoded[i];
+            while (a < addedTo && added[a] < docId) {
+                merged[size++] = added[a++];
+            }
+            if (Arrays.binarySearch(removed, removedFrom, removedTo, docId) < 0) {
+                merged[size++] = docId;
+            }
+        }
+        while (a < addedTo) {
+            merged[size++] = added[a++];
+        }
+        return size;
+    }
+
+    private static Block[] ensureCapacity(Block[] blocks, int required) {
+        return required <= blocks.length ? blocks : Arrays.copyOf(blocks, Math.max(required, blocks.length * 2));
+    }
+
+    private static int[] insertAt(int[] values, int count, int index, int value) {
+        int[] copy = new int[count + 1];
+        System.arraycopy(values, 0, copy, 0, index);
+        copy[index] = value;
+        System.arraycopy(values, index, copy, index + 1, count - index);
+        return copy;
+    }
+
+    private static int[] deleteAt(int[] values, int index) {
+        int[] copy = new int[values.length - 1];
+        System.arraycopy(values, 0, copy, 0, index);
+        System.arraycopy(values, index + 1, copy, index, values.length - index - 1);
+        return copy;
+    }
+
+    /**
+     * A run of sorted document ids, varint encoded as deltas.
+     */
+    private static final class Block {
+
+        private final int first;
+        private final int last;
+        private final int count;
+        private final byte[] data;
+
+        private Block(int first, int last, int count, byte[] data) {
+            this.first = first;
+            this.last = last;
+            this.count = count;
+            this.data = data;
+        }
+
+        static Block encode(int[] values, int from, int to) {
+            int[] run = Arrays.copyOfRange(values, from, to);
+            return new Block(run[0], run[run.length - 1], run.length, VarIntCodec.encode(run, run.length));
+        }
+
+        void decodeInto(int[] buffer) {
+            VarIntCodec.decodeInto(data, count, buffer);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.vcitdevproblem.index;
+
+import com.vcitdevproblem.exception.InvalidRequestParameterException;
+import com.vcitdevproblem.model.Client;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Ordered secondary indexes over client names and ID numbers, serving filtered, sorted and keyset-paginated
+ * searches without scanning or sorting the register.
+ * <p>
+ * Each client is represented by one immutable {@link Entry} that all orderings share. A query picks the ordering
+ * whose leading columns are the equality filters and whose remaining columns are the requested sort, so a page is a
+ * range scan that starts right after the cursor and stops after {@code pageSize} entries, whatever its depth.
+ */
+public class SortedClientIndex {
+
+    private static final String CURSOR_VERSION = "v2";
+    private static final char SEPARATOR = '\u0000';
+    private static final String MIN = "";
+    private static final String MAX = "\uffff";
+
+    /**
+     * Column orders maintained by the index.
+     */
+    private enum Ordering {
+        ID(Comparator.comparing(Entry::idNumber)),
+        FIRST_LAST(Comparator.comparing(Entry::firstKey).thenComparing(Entry::lastKey).thenComparing(Entry::idNumber)),
+        LAST_FIRST(Comparator.comparing(Entry::lastKey).thenComparing(Entry::firstKey).thenComparing(Entry::idNumber)),
+        FIRST_ID(Comparator.comparing(Entry::firstKey).thenComparing(Entry::idNumber)),
+        LAST_ID(Comparator.comparing(Entry::lastKey).thenComparing(Entry::idNumber));
+
+        private final Comparator<Entry> comparator;
+
+        Ordering(Comparator<Entry> comparator) {
+            this.comparator = comparator;
+        }
+    }
+
+    private final Map<Ordering, ConcurrentSkipListSet<Entry>> orderings = new EnumMap<>(Ordering.class);
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public SortedClientIndex() {
+        for (Ordering ordering : Ordering.values()) {
+            orderings.put(ordering, new ConcurrentSkipListSet<>(ordering.comparator));
+        }
+    }
+
+    /**
+     * Adds a client to the index, replacing the entry of a client with the same ID number.
+     *
+     * @param client the client to index
+     */
+    public synchronized void index(Client client) {
+        Entry entry = new Entry(client.getIdNumber(), normalize(client.getFirstName()), normalize(client.getLastName()));
+        Entry previous = entries.put(entry.idNumber(), entry);
+        for (ConcurrentSkipListSet<Entry> ordering : orderings.values()) {
+            if (previous != null) {
+                ordering.remove(previous);
+            }
+            ordering.add(entry);
+        }
+    }
+
+    /**
+     * Adds many clients at once. Each ordering is a separate skip list, so the orderings are filled in parallel
+     * instead of one client at a time across all of them.
+     *
+     * @param clients the clients to index
+     */
+    public synchronized void indexAll(Collection<Client> clients) {
+        Map<String, Entry> added = new LinkedHashMap<>();
+        List<Entry> replaced = new ArrayList<>();
+        for (Client client : clients) {
+            Entry entry = new Entry(client.getIdNumber(), normalize(client.getFirstName()), normalize(client.getLastName()));
+            Entry previous = entries.put(entry.idNumber(), entry);
+            if (added.put(entry.idNumber(), entry) == null && previous != null) {
+                replaced.add(previous);
+            }
+        }
+        orderings.values().parallelStream().forEach(ordering -> {
+            replaced.forEach(ordering::remove);
+            ordering.addAll(added.values());
+        });
+    }
+
+    /**
+     * Removes a client from the index.
+     *
+     * @param idNumber the ID number of the client to remove
+     */
+    public synchronized void remove(String idNumber) {
+        Entry previous = entries.remove(idNumber);
+        if (previous != null) {
+            orderings.values().forEach(ordering -> ordering.remove(previous));
+        }
+    }
+
+    /**
+     * Returns one page of the clients matching the name filters, in the requested order.
+     *
+     * @param firstName  optional case-insensitive first name filter
+     * @param lastName   optional case-insensitive last name filter
+     * @param sort       the sort key
+     * @param descending whether to return the page in descending order
+     * @param pageSize   the maximum number of clients on the page
+     * @param cursor     the cursor returned with the previous page, if any
+     * @return the page and the cursor of the next one
+     * @throws InvalidRequestParameterException if the cursor is malformed or was issued for a different sort or
+     *                                          different filters
+     */
+    public IndexPage page(Optional<String> firstName, Optional<String> lastName, ClientSort sort, boolean descending,
+                          int pageSize, Optional<String> cursor) {
+        String first = firstName.map(SortedClientIndex::normalize).orElse(null);
+        String last = lastName.map(SortedClientIndex::normalize).orElse(null);
+        Ordering ordering = chooseOrdering(first != null, last != null, sort);
+
+        NavigableSet<Entry> range = orderings.get(ordering);
+        if (first != null || last != null) {
+            range = range.subSet(bound(first, last, MIN), true, bound(first, last, MAX), true);
+        }
+        if (descending) {
+            range = range.descendingSet();
+        }
+        if (cursor.isPresent()) {
+            range = range.tailSet(decodeCursor(cursor.get(), first, last, sort, descending), false);
+        }
+
+        List<String> idNumbers = new ArrayList<>(pageSize);
+        Entry lastEntry = null;
+        Iterator<Entry> iterator = range.iterator();
+        while (iterator.hasNext() && idNumbers.size() < pageSize) {
+            lastEntry = iterator.next();
+            idNumbers.add(lastEntry.idNumber());
+        }
+        boolean hasNext = iterator.hasNext();
+        String nextCursor = hasNext ? encodeCursor(lastEntry, first, last, sort, descending) : null;
+        return new IndexPage(idNumbers, nextCursor, ordering.name(), idNumbers.size() + (hasNext ? 1 : 0));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Picks the ordering whose leading columns are the equality filters, followed by the sort columns.
+     */
+    private static Ordering chooseOrdering(boolean byFirst, boolean byLast, ClientSort sort) {
+        if (byFirst && byLast) {
+            // Both names are fixed, so every name-led ordering degenerates to ID order within the range.
+            return sort == ClientSort.LAST_NAME ? Ordering.LAST_FIRST : Ordering.FIRST_LAST;
+        }
+        switch (sort) {
+            case FIRST_NAME:
+                return byLast ? Ordering.LAST_FIRST : Ordering.FIRST_LAST;
+            case LAST_NAME:
+                return byFirst ? Ordering.FIRST_LAST : Ordering.LAST_FIRST;
+            default:
+                return byFirst ? Ordering.FIRST_ID : byLast ? Ordering.LAST_ID : Ordering.ID;
+        }
+    }
+
+    /**
+     * Builds a probe entry at the low ({@link #MIN}) or high ({@link #MAX}) end of the filtered range.
+     */
+    private static Entry bound(String first, String last, String fill) {
+        return new Entry(fill, first != null ? first : fill, last != null ? last : fill);
+    }
+
+    /**
+     * Encodes the position after an entry, bound to the sort and the name filters of the query, so that the cursor
+     * cannot be replayed against another query, whose range it would silently skip into or out of.
+     */
+    private static String encodeCursor(Entry entry, String first, String last, ClientSort sort, boolean descending) {
+        String raw = String.join(String.valueOf(SEPARATOR), CURSOR_VERSION, sort.name(),
+                descending ? "desc" : "asc", filterKey(first), filterKey(last), entry.firstKey(), entry.lastKey(),
+                entry.idNumber());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Entry decodeCursor(String cursor, String first, String last, ClientSort sort, boolean descending) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split(String.valueOf(SEPARATOR), -1);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidRequestParameterException("Invalid page cursor.");
+        }
+        if (parts.length != 8 || !CURSOR_VERSION.equals(parts[0])) {
+            throw new InvalidRequestParameterException("Invalid page cursor.");
+        }
+        if (!sort.name().equals(parts[1]) || !(descending ? "desc" : "asc").equals(parts[2])) {
+            throw new InvalidRequestParameterException("Page cursor does not match the requested sort.");
+        }
+        if (!filterKey(first).equals(parts[3]) || !filterKey(last).equals(parts[4])) {
+            throw new InvalidRequestParameterException("Page cursor does not match the requested filters.");
+        }
+        return new Entry(parts[7], parts[5], parts[6]);
+    }
+
+    /**
+     * Tells an absent filter apart from a filter on an empty name.
+     */
+    private static String filterKey(String value) {
+        return value == null ? "" : "=" + value;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The sort keys of one client, shared by all orderings.
+     */
+    private static final class Entry {
+        private final String idNumber;
+        private final String firstKey;
+        private final String lastKey;
+
+        Entry(String idNumber, String firstKey, String lastKey) {
+            this.idNumber = idNumber;
+            this.firstKey = firstKey;
+            this.lastKey = lastKey;
+        }
+
+        String idNumber() {
+            return idNumber;
+        }
+
+        String firstKey() {
+            return firstKey;
+        }
+
+        String lastKey() {
+            return lastKey;
+        }
+    }
+}
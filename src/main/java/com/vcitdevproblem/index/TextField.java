@@ -0,0 +1,43 @@
+package com.vcitdevproblem.index;
+
+import com.vcitdevproblem.exception.InvalidRequestParameterException;
+import com.vcitdevproblem.model.Client;
+
+import java.util.function.Function;
+
+/**
+ * Client fields covered by the fuzzy text index.
+ */
+public enum TextField {
+    FIRST_NAME("firstName", Client::getFirstName),
+    LAST_NAME("lastName", Client::getLastName),
+    PHYSICAL_ADDRESS("physicalAddress", Client::getPhysicalAddress);
+
+    private final String parameterName;
+    private final Function<Client, String> extractor;
+
+    TextField(String parameterName, Function<Client, String> extractor) {
+        this.parameterName = parameterName;
+        this.extractor = extractor;
+    }
+
+    public String valueOf(Client client) {
+        return extractor.apply(client);
+    }
+
+    /**
+     * Resolves a field from its API name, as used for the corresponding {@code ClientDTO} property.
+     *
+     * @param parameterName the API name, e.g. {@code lastName}
+     * @return the matching field
+     * @throws InvalidRequestParameterException if no field has that name
+     */
+    public static TextField fromParameter(String parameterName) {
+        for (TextField field : values()) {
+            if (field.parameterName.equalsIgnoreCase(parameterName)) {
+                return field;
+            }
+        }
+        throw new InvalidRequestParameterException("Unknown search field: " + parameterName + ".");
+    }
+}
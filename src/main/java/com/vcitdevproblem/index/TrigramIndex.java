@@ -0,0 +1,336 @@
+package com.vcitdevproblem.index;
+
+import com.vcitdevproblem.model.Client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+
+/**
+ * Incrementally maintained trigram inverted index over the client name and address fields.
+ * <p>
+ * Every indexed client gets an internal document id. Each (field, trigram) pair maps to a compressed
+ * {@link PostingList}; posting lists are immutable and swapped atomically, so searches never lock while
+ * updates are serialized on the index. Ranking counts how many of the query trigrams a client shares
+ * and returns the top-k by that coverage.
+ * <p>
+ * The document ids of removed clients are reused, so the id table stays as large as the most clients ever indexed
+ * at once rather than growing with every client that has passed through the register. A search counts hits on the
+ * posting lists it read when it started, so each allocation of a document id is stamped with a generation, and
+ * hits on ids allocated after the search started are not attributed to the client that holds them now.
+ */
+public class TrigramIndex {
+
+    private static final long[] NO_TRIGRAMS = new long[0];
+    private static final long TRIGRAM_MASK = (1L << 48) - 1;
+    private static final Comparator<FuzzyMatch> RANKING = Comparator.comparingDouble(FuzzyMatch::getScore).reversed()
+            .thenComparing(FuzzyMatch::getIdNumber);
+
+    private final ConcurrentHashMap<Long, PostingList> postings = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Document> documents = new ConcurrentHashMap<>();
+    private volatile Document[] documentsByDocId = new Document[1024];
+    private volatile long generation;
+    private int nextDocId;
+    private int[] freeDocIds = new int[64];
+    private int freeCount;
+
+    /**
+     * Adds a client to the index, or re-indexes it if its ID number is already indexed.
+     *
+     * @param client the client to index
+     */
+    public synchronized void index(Client client) {
+        Document previous = documents.get(client.getIdNumber());
+        Document document = previous != null
+                ? new Document(previous.docId, previous.generation, client)
+                : new Document(allocateDocId(), ++generation, client);
+        int docId = document.docId;
+        for (TextField field : TextField.values()) {
+            long[] before = previous != null ? trigrams(previous.values.get(field)) : NO_TRIGRAMS;
+            long[] after = trigrams(document.values.get(field));
+            for (long trigram : before) {
+                if (Arrays.binarySearch(after, trigram) < 0) {
+                    postings.computeIfPresent(key(field, trigram), (key, list) -> emptyToNull(list.without(docId)));
+                }
+            }
+            for (long trigram : after) {
+                if (Arrays.binarySearch(before, trigram) < 0) {
+                    postings.compute(key(field, trigram), (key, list) -> (list != null ? list : PostingList.EMPTY).with(docId));
+                }
+            }
+        }
+        documents.put(client.getIdNumber(), document);
+        publish(document);
+    }
+
+    /**
+     * Removes a client from the index.
+     *
+     * @param idNumber the ID number of the client to remove
+     */
+    public synchronized void remove(String idNumber) {
+        Document document = documents.remove(idNumber);
+        if (document == null) {
+            return;
+        }
+        for (Map.Entry<TextField, String> entry : document.values.entrySet()) {
+            for (long trigram : trigrams(entry.getValue())) {
+                postings.computeIfPresent(key(entry.getKey(), trigram), (key, list) -> emptyToNull(list.without(document.docId)));
+            }
+        }
+        Document[] documentsById = documentsByDocId;
+        documentsById[document.docId] = null;
+        documentsByDocId = documentsById;
+        if (freeCount == freeDocIds.length) {
+            freeDocIds = Arrays.copyOf(freeDocIds, freeCount * 2);
+        }
+        freeDocIds[freeCount++] = document.docId;
+    }
+
+    /**
+     * Finds the clients whose selected fields best cover the trigrams of the query.
+     *
+     * @param query         the free-text query, typically a possibly misspelt name or address
+     * @param fields        the fields to match against
+     * @param limit         the maximum number of matches to return
+     * @param minSimilarity the minimum share of query trigrams a match must contain, between 0 and 1
+     * @return the matches, best first
+     */
+    public List<FuzzyMatch> search(String query, Collection<TextField> fields, int limit, double minSimilarity) {
+        return search(query, fields, limit, minSimilarity, candidates -> {
+        });
+    }
+
+    /**
+     * Finds the clients whose selected fields best cover the trigrams of the query, reporting how many candidate
+     * clients were scored.
+     *
+     * @param query         the free-text query, typically a possibly misspelt name or address
+     * @param fields        the fields to match against
+     * @param limit         the maximum number of matches to return
+     * @param minSimilarity the minimum share of query trigrams a match must contain, between 0 and 1
+     * @param candidates    receives the number of candidate clients
+     * @return the matches, best first
+     */
+    public List<FuzzyMatch> search(String query, Collection<TextField> fields, int limit, double minSimilarity,
+                                   IntConsumer candidates) {
+        long startGeneration = generation;
+        long[] queryTrigrams = trigrams(query);
+        if (queryTrigrams.length == 0 || fields.isEmpty() || limit <= 0) {
+            candidates.accept(0);
+            return List.of();
+        }
+
+        // One group of posting lists per query trigram (one list per searched field), rarest first. A client
+        // matching a trigram in several fields still shares it only once, so each group is one counting round.
+        List<List<PostingList>> groups = new ArrayList<>(queryTrigrams.length);
+        for (long trigram : queryTrigrams) {
+            List<PostingList> group = new ArrayList<>(fields.size());
+            for (TextField field : fields) {
+                PostingList list = postings.get(key(field, trigram));
+                if (list != null) {
+                    group.add(list);
+                }
+            }
+            groups.add(group);
+        }
+        groups.sort(Comparator.comparingInt(TrigramIndex::groupSize));
+
+        // A client needs at least minHits shared trigrams, so it must occur in one of the rarest
+        // (n - minHits + 1) groups: only those generate candidates, the rest merely add to their counts.
+        int n = queryTrigrams.length;
+        int minHits = Math.max(1, (int) Math.ceil(minSimilarity * n));
+        int candidateGroups = n - minHits + 1;
+        int expected = 0;
+        for (int i = 0; i < candidateGroups; i++) {
+            expected += groupSize(groups.get(i));
+        }
+        IntCountMap hits = new IntCountMap(expected);
+        for (int i = 0; i < n; i++) {
+            boolean generatesCandidates = i < candidateGroups;
+            hits.nextRound();
+            for (PostingList list : groups.get(i)) {
+                list.forEach(generatesCandidates ? hits::increment : hits::incrementIfPresent);
+            }
+        }
+
+        candidates.accept(hits.size());
+
+        Document[] documentsById = documentsByDocId;
+        PriorityQueue<FuzzyMatch> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        for (int slot = 0; slot < hits.capacity(); slot++) {
+            int docId = hits.keyAt(slot);
+            if (docId < 0 || hits.countAt(slot) < minHits || docId >= documentsById.length) {
+                continue;
+            }
+            // The id was freed, or handed to another client, after the posting lists were read.
+            Document document = documentsById[docId];
+            if (document == null || document.generation > startGeneration) {
+                continue;
+            }
+            best.add(new FuzzyMatch(document.idNumber, (double) hits.countAt(slot) / n));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        FuzzyMatch[] ranked = best.toArray(new FuzzyMatch[0]);
+        Arrays.sort(ranked, RANKING);
+        return Arrays.asList(ranked);
+    }
+
+    /**
+     * Computes the similarity of a client to a query the way {@link #search(String, Collection, int, double)} ranks
+     * it, from the client's current field values rather than the index.
+     *
+     * @param query  the free-text query
+     * @param fields the fields to match against
+     * @param client the client to compare
+     * @return the share of the query trigrams found in any of the fields, between 0 and 1
+     */
+    public static double similarity(String query, Collection<TextField> fields, Client client) {
+        long[] queryTrigrams = trigrams(query);
+        if (queryTrigrams.length == 0) {
+            return 0;
+        }
+        List<long[]> fieldTrigrams = new ArrayList<>(fields.size());
+        for (TextField field : fields) {
+            fieldTrigrams.add(trigrams(field.valueOf(client)));
+        }
+        int shared = 0;
+        for (long trigram : queryTrigrams) {
+            for (long[] trigrams : fieldTrigrams) {
+                if (Arrays.binarySearch(trigrams, trigram) >= 0) {
+                    shared++;
+                    break;
+                }
+            }
+        }
+        return (double) shared / queryTrigrams.length;
+    }
+
+    /**
+     * Returns index statistics for diagnostics.
+     *
+     * @return statistics keyed by name
+     */
+    public Map<String, Object> statistics() {
+        long entries = 0;
+        long bytes = 0;
+        for (PostingList list : postings.values()) {
+            entries += list.size();
+            bytes += list.compressedBytes();
+        }
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("documents", documents.size());
+        statistics.put("documentIds", nextDocId);
+        statistics.put("trigrams", postings.size());
+        statistics.put("postings", entries);
+        statistics.put("postingBytes", bytes);
+        return statistics;
+    }
+
+    /**
+     * Splits text into the padded, lower-cased trigrams of its words, so that "Jon" and "John" share
+     * "  j", " jo" and "jo" prefixes while transposed or dropped letters only cost a few trigrams.
+     *
+     * @param text the text to split
+     * @return the distinct trigrams of the text, each packed into the low 48 bits of a long, sorted
+     */
+    static long[] trigrams(String text) {
+        if (text == null || text.isEmpty()) {
+            return NO_TRIGRAMS;
+        }
+        long[] trigrams = new long[text.length() + 2];
+        int count = 0;
+        // Sliding window over the padded word: "  " before each word, " " after it.
+        long window = pack(' ', ' ');
+        boolean inWord = false;
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? Character.toLowerCase(text.charAt(i)) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                window = ((window << 16) | c) & TRIGRAM_MASK;
+                trigrams[count++] = window;
+                inWord = true;
+            } else if (inWord) {
+                trigrams[count++] = ((window << 16) | ' ') & TRIGRAM_MASK;
+                window = pack(' ', ' ');
+                inWord = false;
+            }
+        }
+        Arrays.sort(trigrams, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || trigrams[i] != trigrams[distinct - 1]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        return Arrays.copyOf(trigrams, distinct);
+    }
+
+    private static long pack(char first, char second) {
+        return ((long) first << 16) | second;
+    }
+
+    private int allocateDocId() {
+        return freeCount > 0 ? freeDocIds[--freeCount] : nextDocId++;
+    }
+
+    /**
+     * Makes a document visible to searches under its id, growing the id table if needed.
+     */
+    private void publish(Document document) {
+        Document[] documentsById = documentsByDocId;
+        if (document.docId >= documentsById.length) {
+            documentsById = Arrays.copyOf(documentsById, documentsById.length * 2);
+        }
+        documentsById[document.docId] = document;
+        // Written back even when unchanged, so searches that read the table see the document.
+        documentsByDocId = documentsById;
+    }
+
+    private static int groupSize(List<PostingList> group) {
+        int size = 0;
+        for (PostingList list : group) {
+            size += list.size();
+        }
+        return size;
+    }
+
+    private static PostingList emptyToNull(PostingList list) {
+        return list.size() == 0 ? null : list;
+    }
+
+    private static Long key(TextField field, long trigram) {
+        return ((long) field.ordinal() << 48) | trigram;
+    }
+
+    /**
+     * The indexed field values of one client, kept so that updates and removals know which postings to touch.
+     * Trigrams are recomputed from them instead of being stored per client.
+     */
+    private static final class Document {
+
+        private final String idNumber;
+        private final int docId;
+        private final long generation;
+        private final Map<TextField, String> values = new EnumMap<>(TextField.class);
+
+        private Document(int docId, long generation, Client client) {
+            this.idNumber = client.getIdNumber();
+            this.docId = docId;
+            this.generation = generation;
+            for (TextField field : TextField.values()) {
+                values.put(field, field.valueOf(client));
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.vcitdevproblem.index;
+
+import java.util.Arrays;
+
+/**
+ * Delta + LEB128 varint encoding of sorted int arrays, the compressed form of posting lists.
+ * Dense posting lists cost about one byte per entry instead of four.
+ */
+final class VarIntCodec {
+
+    private VarIntCodec() {
+    }
+
+    /**
+     * Encodes a strictly increasing array of non-negative ints.
+     *
+     * @param values the sorted values
+     * @param count  the number of values to encode
+     * @return the encoded bytes
+     */
+    static byte[] encode(int[] values, int count) {
+        byte[] out = new byte[count * 5];
+        int position = 0;
+        int previous = 0;
+        for (int i = 0; i < count; i++) {
+            int delta = values[i] - previous;
+            previous = values[i];
+            while ((delta & ~0x7F) != 0) {
+                out[position++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            out[position++] = (byte) delta;
+        }
+        return Arrays.copyOf(out, position);
+    }
+
+    /**
+     * Decodes values produced by {@link #encode(int[], int)}.
+     *
+     * @param bytes the encoded bytes
+     * @param count the number of encoded values
+     * @return the decoded values
+     */
+    static int[] decode(byte[] bytes, int count) {
+        int[] values = new int[count];
+        decodeInto(bytes, count, values);
+        return values;
+    }
+
+    /**
+     * Decodes values produced by {@link #encode(int[], int)} into an existing array.
+     *
+     * @param bytes  the encoded bytes
+     * @param count  the number of encoded values
+     * @param values the array receiving the values, at least {@code count} long
+     */
+    static void decodeInto(byte[] bytes, int count, int[] values) {
+        int position = 0;
+        int previous = 0;
+        for (int i = 0; i < count; i++) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            previous += delta;
+            values[i] = previous;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.vcitdevproblem.logging;
 
+import com.vcitdevproblem.exception.ClientException;
+import com.vcitdevproblem.tracing.ClientTracer;
+import com.vcitdevproblem.tracing.TraceLayer;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.AfterThrowing;
@@ -12,12 +15,19 @@ import org.springframework.stereotype.Component;
 /**
  * Aspect for logging the execution of service and controller methods.
  * This logging aspect tracks method entry, successful execution, and exceptions.
+ * In sampled requests each log statement is traced, so its cost shows up separately from the method's own; outside
+ * them it is logged directly, without allocating the traced step.
  */
 @Aspect
 @Component
 public class LoggingAspect {
 
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final ClientTracer tracer;
+
+    public LoggingAspect(ClientTracer tracer) {
+        this.tracer = tracer;
+    }
 
     /**
      * Logs the entry of any method in the service layer before the method execution.
@@ -26,7 +36,11 @@ public class LoggingAspect {
      */
     @Before("execution(* com.vcitdevproblem.service..*(..))")
     public void logBeforeServiceMethodExecution(JoinPoint joinPoint) {
-        logger.info("Service - Entering method: {} with arguments: {}", joinPoint.getSignature().toShortString(), joinPoint.getArgs());
+        if (!tracer.isTracing()) {
+            logEntry("Service", joinPoint);
+            return;
+        }
+        tracer.trace(TraceLayer.LOGGING, "service.before", () -> logEntry("Service", joinPoint));
     }
 
     /**
@@ -37,18 +51,27 @@ public class LoggingAspect {
      */
     @AfterReturning(pointcut = "execution(* com.vcitdevproblem.service..*(..))", returning = "result")
     public void logAfterServiceMethodExecution(JoinPoint joinPoint, Object result) {
-        logger.info("Service - Method {} executed successfully. Return value: {}", joinPoint.getSignature().toShortString(), result);
+        if (!tracer.isTracing()) {
+            logReturn("Service", joinPoint, result);
+            return;
+        }
+        tracer.trace(TraceLayer.LOGGING, "service.afterReturning", () -> logReturn("Service", joinPoint, result));
     }
 
     /**
-     * Logs any exception thrown by methods in the service layer.
+     * Logs any exception thrown by methods in the service layer. Expected business outcomes such as a missing
+     * client are logged at INFO without a stack trace; anything else is an error.
      *
      * @param joinPoint provides the method signature
      * @param ex        the exception thrown by the method
      */
     @AfterThrowing(pointcut = "execution(* com.vcitdevproblem.service..*(..))", throwing = "ex")
     public void logServiceMethodExceptions(JoinPoint joinPoint, Throwable ex) {
-        logger.error("Service - Method {} threw an exception. Exception: {}", joinPoint.getSignature().toShortString(), ex.getMessage(), ex);
+        if (!tracer.isTracing()) {
+            logException("Service", joinPoint, ex);
+            return;
+        }
+        tracer.trace(TraceLayer.LOGGING, "service.afterThrowing", () -> logException("Service", joinPoint, ex));
     }
 
     /**
@@ -58,7 +81,11 @@ public class LoggingAspect {
      */
     @Before("execution(* com.vcitdevproblem.web.rest..*(..))")
     public void logBeforeControllerMethodExecution(JoinPoint joinPoint) {
-        logger.info("Controller - Entering method: {} with arguments: {}", joinPoint.getSignature().toShortString(), joinPoint.getArgs());
+        if (!tracer.isTracing()) {
+            logEntry("Controller", joinPoint);
+            return;
+        }
+        tracer.trace(TraceLayer.LOGGING, "controller.before", () -> logEntry("Controller", joinPoint));
     }
 
     /**
@@ -69,17 +96,45 @@ public class LoggingAspect {
      */
     @AfterReturning(pointcut = "execution(* com.vcitdevproblem.web.rest..*(..))", returning = "result")
     public void logAfterControllerMethodExecution(JoinPoint joinPoint, Object result) {
-        logger.info("Controller - Method {} executed successfully. Return value: {}", joinPoint.getSignature().toShortString(), result);
+        if (!tracer.isTracing()) {
+            logReturn("Controller", joinPoint, result);
+            return;
+        }
+        tracer.trace(TraceLayer.LOGGING, "controller.afterReturning", () -> logReturn("Controller", joinPoint, result));
     }
 
     /**
-     * Logs any exception thrown by methods in the controller layer.
+     * Logs any exception thrown by methods in the controller layer, business outcomes at INFO as for services.
      *
      * @param joinPoint provides the method signature
      * @param ex        the exception thrown by the method
      */
     @AfterThrowing(pointcut = "execution(* com.vcitdevproblem.web.rest..*(..))", throwing = "ex")
     public void logControllerMethodExceptions(JoinPoint joinPoint, Throwable ex) {
-        logger.error("Controller - Method {} threw an exception. Exception: {}", joinPoint.getSignature().toShortString(), ex.getMessage(), ex);
+        if (!tracer.isTracing()) {
+            logException("Controller", joinPoint, ex);
+            return;
+        }
+        tracer.trace(TraceLayer.LOGGING, "controller.afterThrowing", () -> logException("Controller", joinPoint, ex));
+    }
+
+    private void logEntry(String layer, JoinPoint joinPoint) {
+        logger.info("{} - Entering method: {} with arguments: {}", layer, joinPoint.getSignature().toShortString(),
+                joinPoint.getArgs());
+    }
+
+    private void logReturn(String layer, JoinPoint joinPoint, Object result) {
+        logger.info("{} - Method {} executed successfully. Return value: {}", layer,
+                joinPoint.getSignature().toShortString(), result);
+    }
+
+    private void logException(String layer, JoinPoint joinPoint, Throwable ex) {
+        if (ex instanceof ClientException) {
+            logger.info("{} - Method {} ended with {}: {}", layer, joinPoint.getSignature().toShortString(),
+                    ex.getClass().getSimpleName(), ex.getMessage());
+        } else {
+            logger.error("{} - Method {} threw an exception. Exception: {}", layer, joinPoint.getSignature().toShortString(),
+                    ex.getMessage(), ex);
+        }
     }
 }
@@ -0,0 +1,108 @@
+package com.vcitdevproblem.scan;
+
+import com.vcitdevproblem.exception.InvalidRequestParameterException;
+import com.vcitdevproblem.model.Client;
+
+import java.util.function.Function;
+
+/**
+ * Client attributes addressable from a {@link ClientFilter}: the stored fields plus the birth year, gender and
+ * citizenship encoded in the South African ID number.
+ */
+public enum ClientField {
+    FIRST_NAME("firstName", Client::getFirstName),
+    LAST_NAME("lastName", Client::getLastName),
+    MOBILE_NUMBER("mobileNumber", Client::getMobileNumber),
+    ID_NUMBER("idNumber", Client::getIdNumber),
+    PHYSICAL_ADDRESS("physicalAddress", Client::getPhysicalAddress),
+    GENDER("gender", ClientField::gender),
+    CITIZENSHIP("citizenship", ClientField::citizenship),
+    BIRTH_YEAR("birthYear", null);
+
+    private final String parameterName;
+    private final Function<Client, String> text;
+
+    ClientField(String parameterName, Function<Client, String> text) {
+        this.parameterName = parameterName;
+        this.text = text;
+    }
+
+    public String getParameterName() {
+        return parameterName;
+    }
+
+    /**
+     * @return true if the field is compared as a number rather than as text
+     */
+    public boolean isNumeric() {
+        return text == null;
+    }
+
+    /**
+     * Reads a text field.
+     *
+     * @param client the client to read
+     * @return the field value, or null if the client has none
+     */
+    String text(Client client) {
+        return text.apply(client);
+    }
+
+    /**
+     * Reads the birth year from the first two digits of the ID number. Two-digit years after {@code pivotYear} are
+     * taken to be in the 1900s, the rest in the 2000s.
+     *
+     * @param client    the client to read
+     * @param pivotYear the last two digits of the current year
+     * @return the four-digit birth year, or -1 if the ID number is malformed
+     */
+    static int birthYear(Client client, int pivotYear) {
+        int yy = digitsOf(client, 0, 2);
+        if (yy < 0) {
+            return -1;
+        }
+        return yy > pivotYear ? 1900 + yy : 2000 + yy;
+    }
+
+    /**
+     * Resolves a field from its API name.
+     *
+     * @param parameterName the API name, e.g. {@code physicalAddress}
+     * @return the matching field
+     * @throws InvalidRequestParameterException if no field has that name
+     */
+    public static ClientField fromParameter(String parameterName) {
+        for (ClientField field : values()) {
+            if (field.parameterName.equalsIgnoreCase(parameterName)) {
+                return field;
+            }
+        }
+        throw new InvalidRequestParameterException("Unknown filter field: " + parameterName + ".");
+    }
+
+    private static String gender(Client client) {
+        int sequence = digitsOf(client, 6, 10);
+        return sequence < 0 ? null : sequence < 5000 ? "female" : "male";
+    }
+
+    private static String citizenship(Client client) {
+        int status = digitsOf(client, 10, 11);
+        return status < 0 ? null : status == 0 ? "citizen" : "resident";
+    }
+
+    private static int digitsOf(Client client, int from, int to) {
+        String idNumber = client.getIdNumber();
+        if (idNumber == null || idNumber.length() < to) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = idNumber.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
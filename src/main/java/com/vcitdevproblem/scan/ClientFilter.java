@@ -0,0 +1,319 @@
+package com.vcitdevproblem.scan;
+
+import com.vcitdevproblem.exception.InvalidRequestParameterException;
+import com.vcitdevproblem.model.Client;
+
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * A filter over client fields, parsed once from a small expression language and compiled into a tree of
+ * predicates that the scan engine evaluates against every client.
+ * <p>
+ * Grammar, with keywords and field names matched case-insensitively:
+ * <pre>
+ * expression := term ("or" term)*
+ * term       := factor ("and" factor)*
+ * factor     := "not" factor | "(" expression ")" | field operator literal
+ * operator   := "=" | "!=" | "&lt;" | "&lt;=" | "&gt;" | "&gt;=" | "contains" | "startsWith" | "endsWith"
+ * literal    := 'text' | "text" | integer
+ * </pre>
+ * Text comparisons ignore case. {@code birthYear} is numeric and only supports the comparison operators; the other
+ * fields are listed in {@link ClientField}. Example:
+ * {@code birthYear >= 1990 and birthYear < 2000 and physicalAddress contains 'Elm'}.
+ */
+public final class ClientFilter implements Predicate<Client> {
+
+    private static final int MAX_LENGTH = 1024;
+    private static final int MAX_DEPTH = 32;
+
+    private final String expression;
+    private final Predicate<Client> predicate;
+
+    private ClientFilter(String expression, Predicate<Client> predicate) {
+        this.expression = expression;
+        this.predicate = predicate;
+    }
+
+    /**
+     * Parses and compiles a filter expression.
+     *
+     * @param expression the filter expression
+     * @return the compiled filter
+     * @throws InvalidRequestParameterException if the expression is empty, too long, too deeply nested or malformed
+     */
+    public static ClientFilter compile(String expression) {
+        if (expression == null || expression.isBlank()) {
+            throw new InvalidRequestParameterException("Filter expression cannot be empty.");
+        }
+        if (expression.length() > MAX_LENGTH) {
+            throw new InvalidRequestParameterException(
+                    "Filter expression is longer than " + MAX_LENGTH + " characters.");
+        }
+        Parser parser = new Parser(tokenize(expression), Year.now().getValue() % 100);
+        Predicate<Client> predicate = parser.expression(0);
+        parser.expectEnd();
+        return new ClientFilter(expression, predicate);
+    }
+
+    @Override
+    public boolean test(Client client) {
+        return predicate.test(client);
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    private enum TokenType { WORD, TEXT, NUMBER, SYMBOL, END }
+
+    private static final class Token {
+        private final TokenType type;
+        private final String value;
+        private final int position;
+
+        Token(TokenType type, String value, int position) {
+            this.type = type;
+            this.value = value;
+            this.position = position;
+        }
+
+        boolean is(String word) {
+            return (type == TokenType.WORD || type == TokenType.SYMBOL) && value.equalsIgnoreCase(word);
+        }
+    }
+
+    private static List<Token> tokenize(String expression) {
+        List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < expression.length()) {
+            char c = expression.charAt(i);
+            int start = i;
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (Character.isLetter(c)) {
+                while (i < expression.length() && Character.isLetterOrDigit(expression.charAt(i))) {
+                    i++;
+                }
+                tokens.add(new Token(TokenType.WORD, expression.substring(start, i), start));
+            } else if (Character.isDigit(c) || (c == '-' && i + 1 < expression.length() && Character.isDigit(expression.charAt(i + 1)))) {
+                i++;
+                while (i < expression.length() && Character.isDigit(expression.charAt(i))) {
+                    i++;
+                }
+                tokens.add(new Token(TokenType.NUMBER, expression.substring(start, i), start));
+            } else if (c == '\'' || c == '"') {
+                StringBuilder text = new StringBuilder();
+                i++;
+                while (i < expression.length() && expression.charAt(i) != c) {
+                    if (expression.charAt(i) == '\\' && i + 1 < expression.length()) {
+                        i++;
+                    }
+                    text.append(expression.charAt(i++));
+                }
+                if (i >= expression.length()) {
+                    throw new InvalidRequestParameterException("Unterminated text literal at position " + start + ".");
+                }
+                i++;
+                tokens.add(new Token(TokenType.TEXT, text.toString(), start));
+            } else if (c == '!' || c == '<' || c == '>') {
+                i += i + 1 < expression.length() && expression.charAt(i + 1) == '=' ? 2 : 1;
+                tokens.add(new Token(TokenType.SYMBOL, expression.substring(start, i), start));
+            } else if (c == '=' || c == '(' || c == ')') {
+                i++;
+                tokens.add(new Token(TokenType.SYMBOL, String.valueOf(c), start));
+            } else {
+                throw new InvalidRequestParameterException(
+                        "Unexpected character '" + c + "' at position " + start + ".");
+            }
+        }
+        tokens.add(new Token(TokenType.END, "", expression.length()));
+        return tokens;
+    }
+
+    /**
+     * Recursive descent parser producing compiled predicates.
+     */
+    private static final class Parser {
+        private final List<Token> tokens;
+        private final int pivotYear;
+        private int next;
+
+        Parser(List<Token> tokens, int pivotYear) {
+            this.tokens = tokens;
+            this.pivotYear = pivotYear;
+        }
+
+        Predicate<Client> expression(int depth) {
+            if (depth > MAX_DEPTH) {
+                throw new InvalidRequestParameterException(
+                        "Filter expression is nested more than " + MAX_DEPTH + " levels deep.");
+            }
+            Predicate<Client> result = term(depth);
+            while (peek().is("or")) {
+                next++;
+                result = result.or(term(depth));
+            }
+            return result;
+        }
+
+        Predicate<Client> term(int depth) {
+            Predicate<Client> result = factor(depth);
+            while (peek().is("and")) {
+                next++;
+                result = result.and(factor(depth));
+            }
+            return result;
+        }
+
+        Predicate<Client> factor(int depth) {
+            Token token = peek();
+            if (token.is("not")) {
+                next++;
+                return factor(depth + 1).negate();
+            }
+            if (token.is("(")) {
+                next++;
+                Predicate<Client> inner = expression(depth + 1);
+                expect(")");
+                return inner;
+            }
+            return comparison();
+        }
+
+        Predicate<Client> comparison() {
+            Token fieldToken = take();
+            if (fieldToken.type != TokenType.WORD) {
+                throw error(fieldToken, "a field name");
+            }
+            ClientField field = ClientField.fromParameter(fieldToken.value);
+            Token operator = take();
+            if (operator.type != TokenType.SYMBOL && operator.type != TokenType.WORD) {
+                throw error(operator, "an operator");
+            }
+            Token literal = take();
+            if (literal.type != TokenType.TEXT && literal.type != TokenType.NUMBER) {
+                throw error(literal, "a quoted text or a number");
+            }
+            return field.isNumeric() ? numeric(field, operator, literal) : text(field, operator, literal.value);
+        }
+
+        private Predicate<Client> numeric(ClientField field, Token operator, Token literal) {
+            if (literal.type != TokenType.NUMBER) {
+                throw error(literal, "a number for " + field.getParameterName());
+            }
+            int value;
+            try {
+                value = Integer.parseInt(literal.value);
+            } catch (NumberFormatException ex) {
+                throw error(literal, "a smaller number");
+            }
+            int pivot = pivotYear;
+            switch (operator.value.toLowerCase(Locale.ROOT)) {
+                case "=":
+                    return client -> ClientField.birthYear(client, pivot) == value;
+                case "!=":
+                    return client -> ClientField.birthYear(client, pivot) != value;
+                case "<":
+                    return client -> inRange(ClientField.birthYear(client, pivot), Integer.MIN_VALUE, value - 1L);
+                case "<=":
+                    return client -> inRange(ClientField.birthYear(client, pivot), Integer.MIN_VALUE, value);
+                case ">":
+                    return client -> inRange(ClientField.birthYear(client, pivot), value + 1L, Integer.MAX_VALUE);
+                case ">=":
+                    return client -> inRange(ClientField.birthYear(client, pivot), value, Integer.MAX_VALUE);
+                default:
+                    throw error(operator, "a comparison operator for " + field.getParameterName());
+            }
+        }
+
+        private Predicate<Client> text(ClientField field, Token operator, String value) {
+            switch (operator.value.toLowerCase(Locale.ROOT)) {
+                case "=":
+                    return client -> value.equalsIgnoreCase(field.text(client));
+                case "!=":
+                    return client -> !value.equalsIgnoreCase(field.text(client));
+                case "<":
+                    return client -> compare(field.text(client), value) < 0;
+                case "<=":
+                    return client -> compare(field.text(client), value) <= 0;
+                case ">":
+                    return client -> compare(field.text(client), value) > 0;
+                case ">=":
+                    return client -> compare(field.text(client), value) >= 0;
+                case "contains":
+                    return client -> containsIgnoreCase(field.text(client), value);
+                case "startswith":
+                    return client -> {
+                        String actual = field.text(client);
+                        return actual != null && actual.regionMatches(true, 0, value, 0, value.length());
+                    };
+                case "endswith":
+                    return client -> {
+                        String actual = field.text(client);
+                        return actual != null
+                                && actual.regionMatches(true, actual.length() - value.length(), value, 0, value.length());
+                    };
+                default:
+                    throw error(operator, "an operator");
+            }
+        }
+
+        void expectEnd() {
+            if (peek().type != TokenType.END) {
+                throw error(peek(), "'and', 'or' or the end of the filter");
+            }
+        }
+
+        private void expect(String symbol) {
+            Token token = take();
+            if (!token.is(symbol)) {
+                throw error(token, "'" + symbol + "'");
+            }
+        }
+
+        private Token peek() {
+            return tokens.get(next);
+        }
+
+        private Token take() {
+            Token token = tokens.get(next);
+            if (token.type != TokenType.END) {
+                next++;
+            }
+            return token;
+        }
+
+        private static InvalidRequestParameterException error(Token token, String expected) {
+            String found = token.type == TokenType.END ? "the end of the filter" : "'" + token.value + "'";
+            return new InvalidRequestParameterException(
+                    "Invalid filter: expected " + expected + " at position " + token.position + " but found " + found + ".");
+        }
+    }
+
+    private static boolean inRange(int actual, long min, long max) {
+        return actual >= 0 && actual >= min && actual <= max;
+    }
+
+    private static int compare(String actual, String value) {
+        // Clients without the field sort before every value, so they only match '<' and '<='.
+        return actual == null ? -1 : String.CASE_INSENSITIVE_ORDER.compare(actual, value);
+    }
+
+    private static boolean containsIgnoreCase(String actual, String value) {
+        if (actual == null) {
+            return false;
+        }
+        int last = actual.length() - value.length();
+        for (int i = 0; i <= last; i++) {
+            if (actual.regionMatches(true, i, value, 0, value.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,186 @@
+package com.vcitdevproblem.scan;
+
+import com.vcitdevproblem.exception.ClientErrors;
+import com.vcitdevproblem.exception.ScanCapacityExceededException;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Evaluates ad-hoc filters against the whole register on a dedicated fork-join pool.
+ * <p>
+ * The source is split into chunks of roughly {@code chunkSize} clients that idle workers steal from each other, so a
+ * scan uses every worker the pool has. The pool size is the CPU budget of all scans together: it never adds threads
+ * beyond {@code scan.parallelism}, not even to compensate for joins, so however many scans run, they keep at most that
+ * many cores busy and leave the rest to request threads. Thread priorities are not used for this, since Linux
+ * ignores them for normal threads. The number of concurrent scans is capped as well. Workers check between small
+ * batches whether the limit has been exceeded or the scan was cancelled, and stop without visiting the rest of their
+ * chunk.
+ */
+public class ParallelScanEngine implements DisposableBean {
+
+    private static final int CHECK_INTERVAL = 256;
+
+    private final ForkJoinPool pool;
+    private final Semaphore scanPermits;
+    private final int chunkSize;
+    private final int maxLimit;
+
+    public ParallelScanEngine(ScanProperties properties) {
+        int parallelism = Math.max(1, properties.getParallelism());
+        this.pool = new ForkJoinPool(parallelism, ParallelScanEngine::newWorker, null, false,
+                0, parallelism, 1, pool -> true, 60, TimeUnit.SECONDS);
+        this.scanPermits = new Semaphore(properties.getMaxConcurrentScans());
+        this.chunkSize = Math.max(CHECK_INTERVAL, properties.getChunkSize());
+        this.maxLimit = properties.getMaxLimit();
+    }
+
+    /**
+     * Starts a scan on the scan pool.
+     *
+     * @param source       supplies the elements to scan; called on a scan worker, so it may be expensive
+     * @param filter       the predicate an element must satisfy
+     * @param limit        the maximum number of matches to return, capped at the configured maximum
+     * @param cancellation stops the scan early when cancelled
+     * @param <T>          the type of the scanned elements
+     * @return a future completed with the matches once the scan finishes, hits the limit or is cancelled
+     * @throws ScanCapacityExceededException if the maximum number of concurrent scans is already running
+     */
+    public <T> CompletableFuture<ScanResult<T>> submit(Supplier<Spliterator<T>> source, Predicate<? super T> filter,
+                                                       int limit, ScanCancellation cancellation) {
+        if (!scanPermits.tryAcquire()) {
+            throw ClientErrors.TOO_MANY_SCANS;
+        }
+        try {
+            Scan<T> scan = new Scan<>(filter, Math.max(1, Math.min(limit, maxLimit)), cancellation);
+            return CompletableFuture
+                    .supplyAsync(() -> {
+                        new ScanTask<>(scan, source.get(), chunkSize).invoke();
+                        return scan.result();
+                    }, pool)
+                    .whenComplete((result, error) -> scanPermits.release());
+        } catch (RejectedExecutionException ex) {
+            scanPermits.release();
+            throw new ScanCapacityExceededException("The scan engine is shutting down.");
+        }
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+
+    private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("client-scan-" + thread.getPoolIndex());
+        return thread;
+    }
+
+    /**
+     * State shared by the tasks of one scan. Matches claim slots in a fixed array; claiming the slot past the limit
+     * proves that more matches exist and stops the scan.
+     */
+    private static final class Scan<T> {
+        private final Predicate<? super T> filter;
+        private final int limit;
+        private final ScanCancellation cancellation;
+        private final AtomicReferenceArray<T> matches;
+        private final AtomicInteger matched = new AtomicInteger();
+        private final LongAdder scanned = new LongAdder();
+        private volatile boolean stopped;
+        private volatile boolean cancelled;
+
+        Scan(Predicate<? super T> filter, int limit, ScanCancellation cancellation) {
+            this.filter = filter;
+            this.limit = limit;
+            this.cancellation = cancellation;
+            this.matches = new AtomicReferenceArray<>(limit);
+        }
+
+        boolean shouldStop() {
+            if (stopped) {
+                return true;
+            }
+            if (cancellation.isCancelled()) {
+                cancelled = true;
+                stopped = true;
+            }
+            return stopped;
+        }
+
+        void evaluate(Spliterator<T> chunk) {
+            Consumer<T> visitor = element -> {
+                if (filter.test(element)) {
+                    int slot = matched.getAndIncrement();
+                    if (slot < limit) {
+                        matches.set(slot, element);
+                    } else {
+                        stopped = true;
+                    }
+                }
+            };
+            long visited = 0;
+            boolean more = true;
+            while (more && !shouldStop()) {
+                for (int i = 0; i < CHECK_INTERVAL && (more = chunk.tryAdvance(visitor)); i++) {
+                    visited++;
+                }
+            }
+            scanned.add(visited);
+        }
+
+        ScanResult<T> result() {
+            int count = Math.min(matched.get(), limit);
+            List<T> elements = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                elements.add(matches.get(i));
+            }
+            return new ScanResult<>(elements, scanned.sum(), matched.get() > limit, cancelled);
+        }
+    }
+
+    /**
+     * Splits its part of the source until it is no larger than a chunk, forking the split-off halves.
+     */
+    private static final class ScanTask<T> extends RecursiveAction {
+        private final Scan<T> scan;
+        private final Spliterator<T> source;
+        private final int chunkSize;
+
+        ScanTask(Scan<T> scan, Spliterator<T> source, int chunkSize) {
+            this.scan = scan;
+            this.source = source;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            List<ScanTask<T>> forked = new ArrayList<>();
+            Spliterator<T> prefix;
+            while (source.estimateSize() > chunkSize && !scan.shouldStop() && (prefix = source.trySplit()) != null) {
+                ScanTask<T> task = new ScanTask<>(scan, prefix, chunkSize);
+                task.fork();
+                forked.add(task);
+            }
+            scan.evaluate(source);
+            for (int i = forked.size() - 1; i >= 0; i--) {
+                forked.get(i).join();
+            }
+        }
+    }
+}
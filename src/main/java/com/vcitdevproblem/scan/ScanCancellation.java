@@ -0,0 +1,32 @@
+package com.vcitdevproblem.scan;
+
+/**
+ * Cooperative cancellation of a running scan, triggered explicitly (e.g. when the HTTP client disconnects) or by a
+ * deadline. Scan tasks poll it between small batches of clients.
+ */
+public class ScanCancellation {
+
+    private final long deadlineNanos;
+    private volatile boolean cancelled;
+
+    /**
+     * @param timeoutNanos how long the scan may run before it cancels itself
+     */
+    public ScanCancellation(long timeoutNanos) {
+        this.deadlineNanos = System.nanoTime() + timeoutNanos;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return true once {@link #cancel()} was called or the deadline passed
+     */
+    public boolean isCancelled() {
+        if (!cancelled && System.nanoTime() - deadlineNanos > 0) {
+            cancelled = true;
+        }
+        return cancelled;
+    }
+}
@@ -0,0 +1,75 @@
+package com.vcitdevproblem.scan;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the ad-hoc scan engine, bound from {@code scan.*}.
+ */
+@ConfigurationProperties(prefix = "scan")
+public class ScanProperties {
+
+    /**
+     * Worker threads shared by all scans, which caps the cores scans can keep busy; defaults to a quarter of the cores
+     * so that online traffic keeps the rest.
+     */
+    private int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+    private int maxConcurrentScans = 2;
+    private int chunkSize = 4096;
+    private int maxLimit = 1000;
+    private Duration timeout = Duration.ofSeconds(30);
+    /**
+     * How often a running scan writes a byte of whitespace ahead of its JSON answer. The servlet container reports a
+     * client that went away only when the response is written to, so this is how an abandoned scan is noticed.
+     */
+    private Duration probeInterval = Duration.ofSeconds(1);
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getMaxConcurrentScans() {
+        return maxConcurrentScans;
+    }
+
+    public void setMaxConcurrentScans(int maxConcurrentScans) {
+        this.maxConcurrentScans = maxConcurrentScans;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public Duration getProbeInterval() {
+        return probeInterval;
+    }
+
+    public void setProbeInterval(Duration probeInterval) {
+        this.probeInterval = probeInterval;
+    }
+}
@@ -0,0 +1,51 @@
+package com.vcitdevproblem.scan;
+
+import java.util.List;
+
+/**
+ * Outcome of a parallel scan.
+ *
+ * @param <T> the type of the scanned elements
+ */
+public class ScanResult<T> {
+
+    private final List<T> matches;
+    private final long scanned;
+    private final boolean truncated;
+    private final boolean cancelled;
+
+    public ScanResult(List<T> matches, long scanned, boolean truncated, boolean cancelled) {
+        this.matches = matches;
+        this.scanned = scanned;
+        this.truncated = truncated;
+        this.cancelled = cancelled;
+    }
+
+    /**
+     * @return the matching elements, in no particular order
+     */
+    public List<T> getMatches() {
+        return matches;
+    }
+
+    /**
+     * @return the number of elements evaluated before the scan finished or stopped
+     */
+    public long getScanned() {
+        return scanned;
+    }
+
+    /**
+     * @return true if the scan stopped early because the limit was reached, so more elements may match
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * @return true if the scan was cancelled or timed out before covering every element
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
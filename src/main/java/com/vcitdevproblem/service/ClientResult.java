@@ -0,0 +1,85 @@
+package com.vcitdevproblem.service;
+
+import com.vcitdevproblem.exception.ClientException;
+
+import java.util.function.Function;
+
+/**
+ * The outcome of a client operation: either its value or the expected business error that prevented it, such as a
+ * duplicate ID number. Returning the error instead of throwing it keeps routine failures as cheap as successes;
+ * {@link #orElseThrow()} turns it back into an exception at boundaries that need one.
+ *
+ * @param <T> the type of the value
+ */
+public final class ClientResult<T> {
+
+    private final T value;
+    private final ClientException error;
+
+    private ClientResult(T value, ClientException error) {
+        this.value = value;
+        this.error = error;
+    }
+
+    /**
+     * @param value the value of the operation
+     * @return a successful result
+     */
+    public static <T> ClientResult<T> success(T value) {
+        return new ClientResult<>(value, null);
+    }
+
+    /**
+     * @param error the business error, usually one of the preallocated {@code ClientErrors}
+     * @return a failed result
+     */
+    public static <T> ClientResult<T> failure(ClientException error) {
+        return new ClientResult<>(null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * @return the value, or null if the operation failed
+     */
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * @return the error, or null if the operation succeeded
+     */
+    public ClientException getError() {
+        return error;
+    }
+
+    /**
+     * Applies a function to the value of a successful result.
+     *
+     * @param mapper the function to apply
+     * @return the mapped result, or this failure
+     */
+    @SuppressWarnings("unchecked")
+    public <R> ClientResult<R> map(Function<? super T, ? extends R> mapper) {
+        return error == null ? success(mapper.apply(value)) : (ClientResult<R>) this;
+    }
+
+    /**
+     * @return the value
+     * @throws ClientException the error, if the operation failed
+     */
+    public T orElseThrow() {
+        if (error != null) {
+            throw error;
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return error == null ? "ClientResult[" + value + "]" : "ClientResult[" + error.getClass().getSimpleName()
+                + ": " + error.getMessage() + "]";
+    }
+}
@@ -1,51 +1,165 @@
 package com.vcitdevproblem.service;
 
+import com.vcitdevproblem.cdc.ChangeRingBuffer;
+import com.vcitdevproblem.cdc.ChangeType;
+import com.vcitdevproblem.coalesce.ClientSearchKey;
+import com.vcitdevproblem.coalesce.SingleFlight;
 import com.vcitdevproblem.dto.ClientDTO;
+import com.vcitdevproblem.dto.ClientMatchDTO;
+import com.vcitdevproblem.dto.ClientPageDTO;
+import com.vcitdevproblem.dto.ClientScanDTO;
+import com.vcitdevproblem.exception.ClientErrors;
+import com.vcitdevproblem.exception.ClientException;
 import com.vcitdevproblem.exception.ClientNotFoundException;
 import com.vcitdevproblem.exception.DuplicateIdException;
 import com.vcitdevproblem.exception.DuplicateMobileNumberException;
 import com.vcitdevproblem.exception.InvalidIdNumberException;
+import com.vcitdevproblem.exception.InvalidRequestParameterException;
+import com.vcitdevproblem.exception.ScanCapacityExceededException;
+import com.vcitdevproblem.exception.TenantQuotaExceededException;
+import com.vcitdevproblem.history.HistoryRecorder;
+import com.vcitdevproblem.index.ClientSort;
+import com.vcitdevproblem.index.IndexDefinition;
+import com.vcitdevproblem.index.IndexPage;
+import com.vcitdevproblem.index.TextField;
+import com.vcitdevproblem.index.TrigramIndex;
 import com.vcitdevproblem.mapper.ClientMapper;
 import com.vcitdevproblem.model.Client;
+import com.vcitdevproblem.scan.ClientFilter;
+import com.vcitdevproblem.scan.ParallelScanEngine;
+import com.vcitdevproblem.scan.ScanCancellation;
+import com.vcitdevproblem.store.ClientDictionary;
+import com.vcitdevproblem.store.ClientKeyFilters;
+import com.vcitdevproblem.store.ClientProjection;
+import com.vcitdevproblem.store.ClientRecord;
+import com.vcitdevproblem.store.ClientSnapshot;
+import com.vcitdevproblem.store.ClientStore;
+import com.vcitdevproblem.store.MembershipFilter;
+import com.vcitdevproblem.store.SymbolTable;
+import com.vcitdevproblem.tenant.TenantContext;
+import com.vcitdevproblem.tenant.TenantPartition;
+import com.vcitdevproblem.tenant.TenantRegistry;
+import com.vcitdevproblem.tracing.ClientTracer;
+import com.vcitdevproblem.tracing.QueryShape;
+import com.vcitdevproblem.tracing.SlowQueryLog;
+import com.vcitdevproblem.tracing.TraceLayer;
 import com.vcitdevproblem.util.validation.IdNumberValidator;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Service class responsible for handling client-related operations such as creation, updating, searching, and deletion.
+ * Reads run against an immutable {@link ClientSnapshot} and never wait for writers; writers are serialized so that
+ * validation, the store, the secondary indexes and the change stream all see writes in the same order.
+ * Lookups by ID number or mobile number first ask {@link ClientKeyFilters}, so unregistered keys are rejected
+ * without reading the store. Identical single-client searches arriving together share one execution through
+ * {@link SingleFlight}; writers detach the in-flight searches they may affect. Expected failures such as a missing
+ * client are returned as a failed {@link ClientResult} by the {@code try} variants of each operation, and thrown as
+ * preallocated, stackless exceptions by the others. The steps of writes are traced in sampled requests, and searches
+ * slower than the threshold of the {@link SlowQueryLog} are logged with their plan.
+ * <p>
+ * Every operation works on the register of the tenant of the current request, see {@link TenantContext}: each tenant
+ * has its own store, key filters, indexes and write lock in its {@link TenantPartition}, so duplicate checks are
+ * scoped to the tenant and one tenant's writes never wait for another's.
  */
 @Service
 public class ClientService {
 
-    private final Map<String, Client> clients = new HashMap<>();
+    private final TenantRegistry tenants;
     private final ClientMapper clientMapper;
+    private final ChangeRingBuffer changeStream;
+    private final ParallelScanEngine scanEngine;
+    private final SingleFlight<ClientSearchKey, ClientResult<ClientDTO>> searchFlights;
+    private final ClientTracer tracer;
+    private final SlowQueryLog slowQueries;
+    private final HistoryRecorder historyRecorder;
 
-    public ClientService(ClientMapper clientMapper) {
+    public ClientService(TenantRegistry tenants, ClientMapper clientMapper, ChangeRingBuffer changeStream,
+                         ParallelScanEngine scanEngine,
+                         SingleFlight<ClientSearchKey, ClientResult<ClientDTO>> searchFlights, ClientTracer tracer,
+                         SlowQueryLog slowQueries, HistoryRecorder historyRecorder) {
+        this.tenants = tenants;
         this.clientMapper = clientMapper;
+        this.changeStream = changeStream;
+        this.scanEngine = scanEngine;
+        this.searchFlights = searchFlights;
+        this.tracer = tracer;
+        this.slowQueries = slowQueries;
+        this.historyRecorder = historyRecorder;
     }
 
     /**
      * Creates a new client and adds it to the internal client repository.
      * Validates the client's ID number and ensures it is unique.
+     * Publishes a {@link ChangeType#CREATED} change on success.
      *
      * @param clientDTO the client details to create
      * @return the created {@link ClientDTO} object
-     * @throws DuplicateIdException     if a client with the same ID number already exists
-     * @throws InvalidIdNumberException if the provided ID number is invalid
+     * @throws DuplicateIdException         if a client with the same ID number already exists
+     * @throws InvalidIdNumberException     if the provided ID number is invalid
+     * @throws TenantQuotaExceededException if the tenant's register already holds as many clients as its quota allows
      */
     public ClientDTO createClient(ClientDTO clientDTO) {
-        Client client = clientMapper.toEntity(clientDTO);
-        validateClient(client);
+        return tryCreateClient(clientDTO).orElseThrow();
+    }
+
+    /**
+     * Creates a new client like {@link #createClient(ClientDTO)}, returning a duplicate or invalid ID number, or a
+     * full register, as a failed result instead of throwing it.
+     *
+     * @param clientDTO the client details to create
+     * @return the created client, or the error that prevented it
+     */
+    public ClientResult<ClientDTO> tryCreateClient(ClientDTO clientDTO) {
+        TenantPartition partition = tenants.current();
+        ClientRecord record = toRecord(partition, clientDTO);
+        Client client = record.getClient();
+        ClientDTO createdClient = record.projection(ClientProjection.FULL);
 
-        clients.put(client.getIdNumber(), client);
-        return clientMapper.toDTO(client);
+        synchronized (partition.getWriteLock()) {
+            ClientSnapshot snapshot = partition.getStore().snapshot();
+            ClientException error = tracer.isTracing()
+                    ? tracer.trace(TraceLayer.VALIDATION, "validateClient",
+                    () -> validateClient(partition, snapshot, client, null))
+                    : validateClient(partition, snapshot, client, null);
+            if (error != null) {
+                return ClientResult.failure(error);
+            }
+            if (!partition.hasRoomFor(1)) {
+                partition.rejectClients(1);
+                return ClientResult.failure(ClientErrors.TENANT_QUOTA_EXCEEDED);
+            }
+            if (tracer.isTracing()) {
+                tracer.trace(TraceLayer.STORE, "put", () -> storeNewClient(partition, record));
+            } else {
+                storeNewClient(partition, record);
+            }
+            invalidateSearches(partition, client.getIdNumber(), client.getMobileNumber());
+            if (tracer.isTracing()) {
+                tracer.trace(TraceLayer.INDEX, "index", () -> indexClient(partition, client, null));
+            } else {
+                indexClient(partition, client, null);
+            }
+            changeStream.publish(partition.getTenant(), ChangeType.CREATED, client.getIdNumber(), createdClient);
+        }
+        return ClientResult.success(createdClient);
     }
 
     /**
      * Updates an existing client in the internal repository.
+     * The client keeps its own ID number and mobile number without tripping the duplicate checks; if the ID number
+     * changes, the client is re-keyed and the change stream sees a {@link ChangeType#DELETED} of the old ID number
+     * followed by a {@link ChangeType#CREATED}, otherwise a single {@link ChangeType#UPDATED}.
      *
      * @param idNumber  the ID number of the client to update
      * @param clientDTO the updated client details
@@ -55,19 +169,132 @@ public class ClientService {
      * @throws InvalidIdNumberException if the provided ID number is invalid
      */
     public ClientDTO updateClient(String idNumber, ClientDTO clientDTO) {
-        if (!clients.containsKey(idNumber)) {
-            throw new ClientNotFoundException("Client not found.");
-        }
+        return tryUpdateClient(idNumber, clientDTO).orElseThrow();
+    }
+
+    /**
+     * Updates an existing client like {@link #updateClient(String, ClientDTO)}, returning a missing client or a
+     * duplicate or invalid ID number as a failed result instead of throwing it.
+     *
+     * @param idNumber  the ID number of the client to update
+     * @param clientDTO the updated client details
+     * @return the updated client, or the error that prevented the update
+     */
+    public ClientResult<ClientDTO> tryUpdateClient(String idNumber, ClientDTO clientDTO) {
+        TenantPartition partition = tenants.current();
+        ClientStore store = partition.getStore();
+        ClientKeyFilters keyFilters = partition.getKeyFilters();
+        ClientRecord record = toRecord(partition, clientDTO);
+        Client client = record.getClient();
+        ClientDTO updatedClient = record.projection(ClientProjection.FULL);
+
+        synchronized (partition.getWriteLock()) {
+            ClientSnapshot snapshot = store.snapshot();
+            ClientRecord existing = lookup(keyFilters.idNumbers(), idNumber, snapshot::get);
+            if (existing == null) {
+                return ClientResult.failure(ClientErrors.CLIENT_NOT_FOUND);
+            }
+            ClientException error = tracer.isTracing()
+                    ? tracer.trace(TraceLayer.VALIDATION, "validateClient",
+                    () -> validateClient(partition, snapshot, client, idNumber))
+                    : validateClient(partition, snapshot, client, idNumber);
+            if (error != null) {
+                return ClientResult.failure(error);
+            }
 
-        Client client = clientMapper.toEntity(clientDTO);
-        validateClient(client);
+            String previousMobileNumber = existing.getClient().getMobileNumber();
+            boolean idNumberChanged = !idNumber.equals(client.getIdNumber());
+            boolean mobileNumberChanged = !previousMobileNumber.equals(client.getMobileNumber());
+            if (idNumberChanged) {
+                keyFilters.idNumbers().add(client.getIdNumber());
+            }
+            if (mobileNumberChanged) {
+                keyFilters.mobileNumbers().add(client.getMobileNumber());
+            }
+            if (tracer.isTracing()) {
+                tracer.trace(TraceLayer.STORE, "put", () -> store.put(record, idNumber));
+            } else {
+                store.put(record, idNumber);
+            }
+            if (idNumberChanged) {
+                keyFilters.idNumbers().remove(idNumber);
+            }
+            if (mobileNumberChanged) {
+                keyFilters.mobileNumbers().remove(previousMobileNumber);
+            }
+            keyFilters.ensureCapacity(store.snapshot());
+            invalidateSearches(partition, idNumber, previousMobileNumber);
+            invalidateSearches(partition, client.getIdNumber(), client.getMobileNumber());
+            if (tracer.isTracing()) {
+                tracer.trace(TraceLayer.INDEX, "index", () -> indexClient(partition, client, idNumber));
+            } else {
+                indexClient(partition, client, idNumber);
+            }
+            String tenant = partition.getTenant();
+            if (idNumber.equals(client.getIdNumber())) {
+                changeStream.publish(tenant, ChangeType.UPDATED, idNumber, updatedClient);
+            } else {
+                changeStream.publish(tenant, ChangeType.DELETED, idNumber, null);
+                changeStream.publish(tenant, ChangeType.CREATED, client.getIdNumber(), updatedClient);
+            }
+        }
+        return ClientResult.success(updatedClient);
+    }
 
-        clients.put(idNumber, client);
-        return clientMapper.toDTO(client);
+    /**
+     * Loads many clients at once, such as a generated register at start-up. Each client is validated like a create
+     * and skipped if it is invalid or a duplicate; once the tenant's register is at its quota, the rest are skipped.
+     * Projections are mapped in parallel, and the two secondary indexes are built concurrently with each other. Only
+     * the tenant's own writes wait for the load. A load can be far larger than the change buffer, so instead of one
+     * change per client, a single {@link ChangeType#RESYNC} change tells the tenant's stream consumers to re-read the
+     * register, and the audit history records a {@link ChangeType#CREATED} version of each loaded client at it.
+     *
+     * @param clients the clients to load; a parallel stream is mapped in parallel
+     * @return the number of clients loaded
+     */
+    public int loadClients(Stream<Client> clients) {
+        TenantPartition partition = tenants.current();
+        ClientStore store = partition.getStore();
+        ClientKeyFilters keyFilters = partition.getKeyFilters();
+        ClientDictionary dictionary = store.getDictionary();
+        List<ClientRecord> records = clients
+                .map(client -> ClientRecord.of(dictionary.canonicalize(client), clientMapper))
+                .toList();
+        List<Client> loaded = new ArrayList<>(records.size());
+        List<ClientDTO> baseline = new ArrayList<>(records.size());
+        synchronized (partition.getWriteLock()) {
+            for (int i = 0; i < records.size(); i++) {
+                Client client = records.get(i).getClient();
+                if (validateClient(partition, store.snapshot(), client, null) != null) {
+                    continue;
+                }
+                if (!partition.hasRoomFor(1)) {
+                    partition.rejectClients(records.size() - i);
+                    break;
+                }
+                ClientRecord record = records.get(i);
+                keyFilters.idNumbers().add(client.getIdNumber());
+                keyFilters.mobileNumbers().add(client.getMobileNumber());
+                store.put(record, null);
+                keyFilters.ensureCapacity(store.snapshot());
+                loaded.add(client);
+                baseline.add(record.projection(ClientProjection.FULL));
+            }
+            if (!loaded.isEmpty()) {
+                historyRecorder.recordBaseline(partition.getTenant(), baseline);
+            }
+            searchFlights.invalidate(key -> key.belongsTo(partition.getTenant()));
+            CompletableFuture<Void> fuzzyIndexed = CompletableFuture.runAsync(
+                    () -> loaded.forEach(partition.getFuzzyIndex()::index));
+            partition.getSortedIndex().indexAll(loaded);
+            partition.getIndexManager().indexAll(loaded);
+            fuzzyIndexed.join();
+        }
+        return loaded.size();
     }
 
     /**
-     * Searches for a client by first name, ID number, or phone number.
+     * Searches for a client by first name, ID number, or phone number, against a consistent snapshot of the register.
      *
      * @param firstName   the optional first name of the client
      * @param idNumber    the optional ID number of the client
@@ -76,52 +303,457 @@ public class ClientService {
      * @throws ClientNotFoundException if no client matches the search criteria
      */
     public ClientDTO searchClient(Optional<String> firstName, Optional<String> idNumber, Optional<String> phoneNumber) {
-        return clients.values().stream()
-                .filter(client ->
-                        firstName.map(client.getFirstName()::equalsIgnoreCase).orElse(true) &&
+        return searchClient(firstName, idNumber, phoneNumber, ClientProjection.FULL);
+    }
+
+    /**
+     * Searches for a client by first name, ID number, or phone number and returns the requested precomputed
+     * projection of it. Concurrent identical searches share one execution and its result or exception.
+     *
+     * @param firstName   the optional first name of the client
+     * @param idNumber    the optional ID number of the client
+     * @param phoneNumber the optional phone number of the client
+     * @param projection  the projection to return
+     * @return the found client, as the requested projection
+     * @throws ClientNotFoundException if no client matches the search criteria
+     */
+    public ClientDTO searchClient(Optional<String> firstName, Optional<String> idNumber, Optional<String> phoneNumber,
+                                  ClientProjection projection) {
+        return trySearchClient(firstName, idNumber, phoneNumber, projection).orElseThrow();
+    }
+
+    /**
+     * Searches for a client like {@link #searchClient(Optional, Optional, Optional, ClientProjection)}, returning
+     * a missing client as a failed result instead of throwing it.
+     *
+     * @param firstName   the optional first name of the client
+     * @param idNumber    the optional ID number of the client
+     * @param phoneNumber the optional phone number of the client
+     * @param projection  the projection to return
+     * @return the found client, as the requested projection, or {@link ClientErrors#CLIENT_NOT_FOUND}
+     */
+    public ClientResult<ClientDTO> trySearchClient(Optional<String> firstName, Optional<String> idNumber,
+                                                   Optional<String> phoneNumber, ClientProjection projection) {
+        TenantPartition partition = tenants.current();
+        return searchFlights.execute(
+                new ClientSearchKey(partition.getTenant(), firstName, idNumber, phoneNumber, projection),
+                () -> findClient(partition, firstName, idNumber, phoneNumber, projection));
+    }
+
+    /**
+     * Runs a single-client search against the current snapshot of a tenant's register.
+     *
+     * @param partition   the partition of the tenant
+     * @param firstName   the optional first name of the client
+     * @param idNumber    the optional ID number of the client
+     * @param phoneNumber the optional phone number of the client
+     * @param projection  the projection to return
+     * @return the found client, as the requested projection, or {@link ClientErrors#CLIENT_NOT_FOUND}
+     */
+    private ClientResult<ClientDTO> findClient(TenantPartition partition, Optional<String> firstName,
+                                               Optional<String> idNumber, Optional<String> phoneNumber,
+                                               ClientProjection projection) {
+        long started = System.nanoTime();
+        ClientStore store = partition.getStore();
+        ClientKeyFilters keyFilters = partition.getKeyFilters();
+        long[] scanned = {0};
+        // Resolved before taking the snapshot: a name no stored client has cannot match, and a key reused since the
+        // snapshot was taken is caught by comparing the name itself once the keys match.
+        int firstNameKey = firstName.map(store.getDictionary()::nameKey).orElse(SymbolTable.NO_SYMBOL);
+        boolean unknownFirstName = firstName.isPresent() && firstNameKey == SymbolTable.NO_SYMBOL;
+        String plan = idNumber.isPresent() ? "idNumber lookup" : phoneNumber.isPresent() ? "mobileNumber lookup"
+                : unknownFirstName ? "firstName dictionary miss" : "full scan";
+        ClientSnapshot snapshot = store.snapshot();
+        Stream<ClientRecord> candidates = idNumber.isPresent()
+                ? Stream.ofNullable(lookup(keyFilters.idNumbers(), idNumber.get(), snapshot::get))
+                : phoneNumber.isPresent()
+                ? Stream.ofNullable(lookup(keyFilters.mobileNumbers(), phoneNumber.get(), snapshot::idNumberOfMobile))
+                        .map(snapshot::get)
+                : unknownFirstName
+                ? Stream.empty()
+                : snapshot.stream();
+        try {
+            return candidates
+                    .filter(record -> {
+                        scanned[0]++;
+                        Client client = record.getClient();
+                        return firstName.map(name -> record.getFirstNameKey() == firstNameKey
+                                        && client.getFirstName().equalsIgnoreCase(name)).orElse(true) &&
                                 idNumber.map(client.getIdNumber()::equals).orElse(true) &&
-                                phoneNumber.map(client.getMobileNumber()::equals).orElse(true)
-                )
-                .findFirst()
-                .map(clientMapper::toDTO)
-                .orElseThrow(() -> new ClientNotFoundException("Client not found."));
+                                phoneNumber.map(client.getMobileNumber()::equals).orElse(true);
+                    })
+                    .findFirst()
+                    .map(record -> ClientResult.success(record.projection(projection)))
+                    .orElse(ClientResult.failure(ClientErrors.CLIENT_NOT_FOUND));
+        } finally {
+            slowQueries.record("searchClient", plan, scanned[0], started, () -> new QueryShape()
+                    .parameter("firstName", firstName)
+                    .parameter("idNumber", idNumber)
+                    .parameter("phoneNumber", phoneNumber)
+                    .option("projection", projection));
+        }
+    }
+
+    /**
+     * Searches for all clients matching the given criteria and returns one page of them in the requested order.
+     * ID number and phone number are unique, so either one resolves to at most one client directly; name filters
+     * are served by range scans over the sorted index, so every page costs the same however deep it is.
+     *
+     * @param firstName   the optional case-insensitive first name of the clients
+     * @param lastName    the optional case-insensitive last name of the clients
+     * @param idNumber    the optional ID number of the client
+     * @param phoneNumber the optional phone number of the client
+     * @param sort        the API name of the sort key (firstName, lastName or idNumber)
+     * @param descending  whether to sort in descending order
+     * @param pageSize    the maximum number of clients on the page
+     * @param cursor      the cursor returned with the previous page, if any
+     * @param projection  the projection of the clients to return
+     * @return the page of matching clients, empty if nothing matches
+     * @throws InvalidRequestParameterException if the sort key is unknown or the cursor is invalid for this sort
+     */
+    public ClientPageDTO searchClients(Optional<String> firstName, Optional<String> lastName, Optional<String> idNumber,
+                                       Optional<String> phoneNumber, String sort, boolean descending, int pageSize,
+                                       Optional<String> cursor, ClientProjection projection) {
+        long started = System.nanoTime();
+        ClientSort clientSort = ClientSort.fromParameter(sort);
+        TenantPartition partition = tenants.current();
+        ClientSnapshot snapshot = partition.getStore().snapshot();
+        Supplier<QueryShape> shape = () -> new QueryShape()
+                .parameter("firstName", firstName)
+                .parameter("lastName", lastName)
+                .parameter("idNumber", idNumber)
+                .parameter("phoneNumber", phoneNumber)
+                .parameter("cursor", cursor)
+                .option("sort", clientSort)
+                .option("descending", descending)
+                .option("pageSize", pageSize)
+                .option("projection", projection);
+
+        if (idNumber.isPresent() || phoneNumber.isPresent()) {
+            Optional<ClientRecord> match = idNumber.map(snapshot::get)
+                    .or(() -> phoneNumber.map(snapshot::idNumberOfMobile).map(snapshot::get))
+                    .filter(record -> {
+                        Client client = record.getClient();
+                        return idNumber.map(client.getIdNumber()::equals).orElse(true)
+                                && phoneNumber.map(client.getMobileNumber()::equals).orElse(true)
+                                && matchesNames(client, firstName, lastName);
+                    });
+            List<ClientDTO> page = cursor.isPresent()
+                    ? List.of()
+                    : match.map(record -> record.projection(projection)).stream().toList();
+            slowQueries.record("searchClients", idNumber.isPresent() ? "idNumber lookup" : "mobileNumber lookup",
+                    match.isPresent() ? 1 : 0, started, shape);
+            return new ClientPageDTO(page, null);
+        }
+
+        IndexPage page = partition.getSortedIndex().page(firstName, lastName, clientSort, descending, pageSize, cursor);
+        List<ClientDTO> results = new ArrayList<>(page.getIdNumbers().size());
+        for (String id : page.getIdNumbers()) {
+            // The index is updated after the store, so a client renamed since the snapshot may still be listed
+            // under its old name.
+            ClientRecord record = snapshot.get(id);
+            if (record != null && matchesNames(record.getClient(), firstName, lastName)) {
+                results.add(record.projection(projection));
+            }
+        }
+        slowQueries.record("searchClients", "sorted index " + page.getOrdering(), page.getScanned(), started, shape);
+        return new ClientPageDTO(results, page.getNextCursor());
     }
 
     /**
-     * Deletes a client by their ID number.
+     * Deletes a client by their ID number and publishes a {@link ChangeType#DELETED} change.
      *
      * @param idNumber the ID number of the client to delete
      * @throws ClientNotFoundException if no client with the given ID number exists
      */
     public void deleteClient(String idNumber) {
-        if (!clients.containsKey(idNumber)) {
-            throw new ClientNotFoundException("Client not found.");
+        tryDeleteClient(idNumber).orElseThrow();
+    }
+
+    /**
+     * Deletes a client like {@link #deleteClient(String)}, returning a missing client as a failed result instead of
+     * throwing it.
+     *
+     * @param idNumber the ID number of the client to delete
+     * @return the deleted ID number, or {@link ClientErrors#CLIENT_NOT_FOUND}
+     */
+    public ClientResult<String> tryDeleteClient(String idNumber) {
+        TenantPartition partition = tenants.current();
+        ClientKeyFilters keyFilters = partition.getKeyFilters();
+        synchronized (partition.getWriteLock()) {
+            ClientRecord existing = lookup(keyFilters.idNumbers(), idNumber, partition.getStore().snapshot()::get);
+            if (existing == null) {
+                return ClientResult.failure(ClientErrors.CLIENT_NOT_FOUND);
+            }
+            partition.getStore().remove(idNumber);
+            keyFilters.idNumbers().remove(idNumber);
+            keyFilters.mobileNumbers().remove(existing.getClient().getMobileNumber());
+            invalidateSearches(partition, idNumber, existing.getClient().getMobileNumber());
+            partition.getFuzzyIndex().remove(idNumber);
+            partition.getSortedIndex().remove(idNumber);
+            partition.getIndexManager().remove(idNumber);
+            changeStream.publish(partition.getTenant(), ChangeType.DELETED, idNumber, null);
         }
-        clients.remove(idNumber);
+        return ClientResult.success(idNumber);
     }
 
     /**
-     * Validates the client for duplicate ID numbers and mobile numbers.
+     * Finds clients whose names or address resemble the query, tolerating typos, ranked by similarity.
      *
-     * @param client the client to validate
-     * @throws DuplicateIdException     if a duplicate ID number or mobile number is found
-     * @throws InvalidIdNumberException if the ID number is invalid
+     * @param query         the free-text query
+     * @param fields        the API names of the fields to search; all text fields when empty
+     * @param limit         the maximum number of matches to return
+     * @param minSimilarity the minimum similarity score of a match, between 0 and 1
+     * @return the matching clients, best first; empty if nothing is similar enough
+     * @throws InvalidRequestParameterException if a field name is unknown
      */
-    private void validateClient(Client client) {
-        if (clients.containsKey(client.getIdNumber())) {
-            throw new DuplicateIdException("Duplicate ID number found.");
+    public List<ClientMatchDTO> fuzzySearchClients(String query, List<String> fields, int limit, double minSimilarity) {
+        long started = System.nanoTime();
+        Set<TextField> textFields = EnumSet.noneOf(TextField.class);
+        fields.forEach(field -> textFields.add(TextField.fromParameter(field)));
+        if (textFields.isEmpty()) {
+            textFields.addAll(EnumSet.allOf(TextField.class));
         }
 
-        boolean isValidate = IdNumberValidator.validate(client.getIdNumber());
+        TenantPartition partition = tenants.current();
+        ClientSnapshot snapshot = partition.getStore().snapshot();
+        List<ClientMatchDTO> matches = new ArrayList<>();
+        int[] candidates = {0};
+        partition.getFuzzyIndex().search(query, textFields, limit, minSimilarity, count -> candidates[0] = count).forEach(match -> {
+            // The index may lag the snapshot, so the match is scored again against the client as it is in it.
+            ClientRecord record = snapshot.get(match.getIdNumber());
+            double score = record == null ? 0 : TrigramIndex.similarity(query, textFields, record.getClient());
+            if (record != null && score > 0 && score >= minSimilarity) {
+                matches.add(new ClientMatchDTO(record.projection(ClientProjection.FULL), score));
+            }
+        });
+        matches.sort(Comparator.comparingDouble(ClientMatchDTO::getScore).reversed()
+                .thenComparing(match -> match.getClient().getIdNumber()));
+        slowQueries.record("fuzzySearchClients", "trigram index", candidates[0], started, () -> new QueryShape()
+                .parameter("query", Optional.ofNullable(query))
+                .option("fields", textFields)
+                .option("limit", limit)
+                .option("minSimilarity", minSimilarity));
+        return matches;
+    }
+
+    /**
+     * Scans every client against an ad-hoc filter expression on the parallel scan engine.
+     * The filter is compiled before the scan starts, so syntax errors are reported immediately, and the scan sees the
+     * register as it was when the request arrived, however long it runs.
+     *
+     * @param filter       the filter expression, see {@link ClientFilter}
+     * @param limit        the maximum number of clients to return
+     * @param cancellation stops the scan early, e.g. when the caller goes away
+     * @param projection   the projection of the clients to return
+     * @return a future completed with the matching clients, ordered by ID number
+     * @throws InvalidRequestParameterException if the filter expression is invalid
+     * @throws ScanCapacityExceededException    if too many scans are already running
+     */
+    public CompletableFuture<ClientScanDTO> scanClients(String filter, int limit, ScanCancellation cancellation,
+                                                        ClientProjection projection) {
+        long started = System.nanoTime();
+        ClientFilter clientFilter = ClientFilter.compile(filter);
+        ClientSnapshot snapshot = tenants.current().getStore().snapshot();
+        return scanEngine.submit(snapshot::spliterator, record -> clientFilter.test(record.getClient()), limit, cancellation)
+                .thenApply(result -> {
+                    slowQueries.record("scanClients", "parallel scan", result.getScanned(), started, () -> new QueryShape()
+                            .expression("filter", filter)
+                            .option("limit", limit)
+                            .option("projection", projection));
+                    return new ClientScanDTO(
+                            result.getMatches().stream()
+                                    .sorted(Comparator.comparing(ClientRecord::getIdNumber))
+                                    .map(record -> record.projection(projection))
+                                    .toList(),
+                            result.getScanned(),
+                            result.isTruncated(),
+                            !result.isCancelled());
+                });
+    }
+
+    /**
+     * Finds the clients whose key in an online index lies in a closed range, in key order. Served from the index once
+     * it is ready; until then, including while its first build is running, the register is scanned instead. Clients
+     * read from the index are checked against the snapshot, so a client written since the index was read is returned
+     * only if it still matches.
+     *
+     * @param index      the API name of the index, e.g. {@code lastName} or {@code birthDate}
+     * @param from       the optional lowest key, inclusive
+     * @param to         the optional highest key, inclusive
+     * @param limit      the maximum number of clients to return
+     * @param projection the projection of the clients to return
+     * @return the matching clients, with the number of clients examined
+     * @throws InvalidRequestParameterException if the index is unknown or a bound is invalid for it
+     */
+    public ClientScanDTO searchClientsByRange(String index, Optional<String> from, Optional<String> to, int limit,
+                                              ClientProjection projection) {
+        long started = System.nanoTime();
+        IndexDefinition definition = IndexDefinition.fromParameter(index);
+        String lower = from.map(definition::normalizeBound).orElse(null);
+        String upper = to.map(definition::normalizeBound).orElse(null);
+        TenantPartition partition = tenants.current();
+        ClientSnapshot snapshot = partition.getStore().snapshot();
+        IndexPage page = partition.getIndexManager().range(definition, lower, upper, limit + 1);
+        List<ClientRecord> matches;
+        long scanned;
+        if (page != null) {
+            matches = new ArrayList<>(page.getIdNumbers().size());
+            for (String id : page.getIdNumbers()) {
+                ClientRecord record = snapshot.get(id);
+                if (record != null && inRange(definition.key(record.getClient()), lower, upper)) {
+                    matches.add(record);
+                }
+            }
+            scanned = page.getScanned();
+        } else {
+            Comparator<ClientRecord> byKey = Comparator.comparing(record -> definition.key(record.getClient()));
+            matches = snapshot.stream()
+                    .filter(record -> inRange(definition.key(record.getClient()), lower, upper))
+                    .sorted(byKey.thenComparing(ClientRecord::getIdNumber))
+                    .limit(limit + 1L)
+                    .toList();
+            scanned = snapshot.size();
+        }
+        boolean truncated = matches.size() > limit;
+        List<ClientDTO> clients = matches.stream()
+                .limit(limit)
+                .map(record -> record.projection(projection))
+                .toList();
+        slowQueries.record("searchClientsByRange",
+                page != null ? "online index " + definition.getParameterName() : "full scan", scanned, started,
+                () -> new QueryShape()
+                        .parameter("from", from)
+                        .parameter("to", to)
+                        .option("index", definition.getParameterName())
+                        .option("limit", limit)
+                        .option("projection", projection));
+        return new ClientScanDTO(clients, scanned, truncated, true);
+    }
 
-        if (!isValidate) {
-            throw new InvalidIdNumberException("Invalid South African ID number.");
+    /**
+     * Maps a client to its record, with its projections precomputed and sharing the stored instances of its names.
+     *
+     * @param partition the partition of the tenant the client belongs to
+     * @param clientDTO the client details
+     * @return the client record
+     */
+    private ClientRecord toRecord(TenantPartition partition, ClientDTO clientDTO) {
+        if (tracer.isTracing()) {
+            return tracer.trace(TraceLayer.MAPPING, "toRecord", () -> mapRecord(partition, clientDTO));
         }
+        return mapRecord(partition, clientDTO);
+    }
+
+    private ClientRecord mapRecord(TenantPartition partition, ClientDTO clientDTO) {
+        return ClientRecord.of(partition.getStore().getDictionary().canonicalize(clientMapper.toEntity(clientDTO)),
+                clientMapper);
+    }
+
+    /**
+     * Adds a new client to its tenant's store and key filters.
+     *
+     * @param partition the partition of the tenant
+     * @param record    the client record
+     */
+    private void storeNewClient(TenantPartition partition, ClientRecord record) {
+        Client client = record.getClient();
+        partition.getKeyFilters().idNumbers().add(client.getIdNumber());
+        partition.getKeyFilters().mobileNumbers().add(client.getMobileNumber());
+        partition.getStore().put(record, null);
+        partition.getKeyFilters().ensureCapacity(partition.getStore().snapshot());
+    }
 
-        boolean mobileNumberExists = clients.values().stream()
-                .anyMatch(existingClient -> existingClient.getMobileNumber().equals(client.getMobileNumber()));
-        if (mobileNumberExists) {
-            throw new DuplicateMobileNumberException("Duplicate mobile number found.");
+    /**
+     * Adds a client to its tenant's search indexes, first removing the entries of its previous ID number if it
+     * changed.
+     *
+     * @param partition        the partition of the tenant
+     * @param client           the client to index
+     * @param replacedIdNumber the ID number the client was stored under, or null for a new client
+     */
+    private void indexClient(TenantPartition partition, Client client, String replacedIdNumber) {
+        if (replacedIdNumber != null && !replacedIdNumber.equals(client.getIdNumber())) {
+            partition.getFuzzyIndex().remove(replacedIdNumber);
+            partition.getSortedIndex().remove(replacedIdNumber);
+            partition.getIndexManager().remove(replacedIdNumber);
+        }
+        partition.getFuzzyIndex().index(client);
+        partition.getSortedIndex().index(client);
+        partition.getIndexManager().index(client);
+    }
+
+    /**
+     * Validates the client for duplicate ID numbers and mobile numbers within its tenant's register.
+     *
+     * @param partition        the partition of the tenant
+     * @param snapshot         the register to validate against
+     * @param client           the client to validate
+     * @param replacedIdNumber the ID number of the client being updated, excluded from the duplicate checks,
+     *                         or null when creating
+     * @return the {@link DuplicateIdException}, {@link InvalidIdNumberException} or
+     * {@link DuplicateMobileNumberException} found, or null if the client is valid
+     */
+    private ClientException validateClient(TenantPartition partition, ClientSnapshot snapshot, Client client,
+                                           String replacedIdNumber) {
+        ClientKeyFilters keyFilters = partition.getKeyFilters();
+        if (!client.getIdNumber().equals(replacedIdNumber)
+                && lookup(keyFilters.idNumbers(), client.getIdNumber(), snapshot::get) != null) {
+            return ClientErrors.DUPLICATE_ID;
+        }
+
+        try {
+            if (!IdNumberValidator.validate(client.getIdNumber())) {
+                return ClientErrors.INVALID_ID_NUMBER;
+            }
+        } catch (InvalidIdNumberException ex) {
+            return ex;
+        }
+
+        String mobileOwner = lookup(keyFilters.mobileNumbers(), client.getMobileNumber(), snapshot::idNumberOfMobile);
+        if (mobileOwner != null && !mobileOwner.equals(replacedIdNumber)) {
+            return ClientErrors.DUPLICATE_MOBILE_NUMBER;
+        }
+        return null;
+    }
+
+    /**
+     * Detaches the in-flight searches whose result a write to the client may change.
+     *
+     * @param partition    the partition of the tenant of the written client
+     * @param idNumber     the ID number of the written client
+     * @param mobileNumber the mobile number of the written client
+     */
+    private void invalidateSearches(TenantPartition partition, String idNumber, String mobileNumber) {
+        String tenant = partition.getTenant();
+        searchFlights.invalidate(key -> key.concerns(tenant, idNumber, mobileNumber));
+    }
+
+    private static boolean matchesNames(Client client, Optional<String> firstName, Optional<String> lastName) {
+        return firstName.map(client.getFirstName()::equalsIgnoreCase).orElse(true)
+                && lastName.map(client.getLastName()::equalsIgnoreCase).orElse(true);
+    }
+
+    private static boolean inRange(String key, String lower, String upper) {
+        return key != null && (lower == null || key.compareTo(lower) >= 0) && (upper == null || key.compareTo(upper) <= 0);
+    }
+
+    /**
+     * Reads a key from the register unless its filter rules it out, counting the filter's false positives.
+     *
+     * @param filter the filter over the key
+     * @param key    the ID number or mobile number to look up
+     * @param reader the register lookup for the key
+     * @return the value found, or null if the key is not registered
+     */
+    private static <T> T lookup(MembershipFilter filter, String key, Function<String, T> reader) {
+        if (!filter.mightContain(key)) {
+            return null;
+        }
+        T value = reader.apply(key);
+        if (value == null) {
+            filter.recordFalsePositive();
         }
+        return value;
     }
 }
@@ -0,0 +1,122 @@
+package com.vcitdevproblem.store;
+
+import com.vcitdevproblem.model.Client;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Dictionary encoding of the client names held by the store. Many clients share first and last names; the
+ * dictionary keeps one instance of each spelling for all of them and gives each case-folded name an integer key, so
+ * that case-insensitive name equality is an integer comparison. Both tables are reference counted by the store: a
+ * name is acquired when a client holding it is written and released when that client is replaced or deleted.
+ */
+public class ClientDictionary {
+
+    private final SymbolTable names = new SymbolTable();
+    private final SymbolTable nameKeys = new SymbolTable();
+
+    /**
+     * Replaces the names of a client that is about to be mapped to a record by their shared instances, so that its
+     * projections share them too. Nothing is acquired.
+     *
+     * @param client a client not yet visible to other threads
+     * @return the client
+     */
+    public Client canonicalize(Client client) {
+        if (client.getFirstName() != null) {
+            client.setFirstName(names.canonical(client.getFirstName()));
+        }
+        if (client.getLastName() != null) {
+            client.setLastName(names.canonical(client.getLastName()));
+        }
+        return client;
+    }
+
+    /**
+     * Returns the key of a name: the code of its case-folded form.
+     *
+     * @param name the name, in any case
+     * @return the key, or {@link SymbolTable#NO_SYMBOL} if no stored client has that name
+     */
+    public int nameKey(String name) {
+        return name == null ? SymbolTable.NO_SYMBOL : nameKeys.code(fold(name));
+    }
+
+    /**
+     * @return the number of distinct spellings and case-folded names, and the references to them
+     */
+    public Map<String, Object> statistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("names", names.size());
+        stats.put("nameKeys", nameKeys.size());
+        stats.put("references", names.references());
+        return stats;
+    }
+
+    /**
+     * Takes a reference to the names of a record being stored.
+     *
+     * @return the record holding the shared name instances and their keys
+     */
+    ClientRecord acquire(ClientRecord record) {
+        Client client = record.getClient();
+        String firstName = acquireName(client.getFirstName());
+        String lastName = acquireName(client.getLastName());
+        return record.withNames(firstName, lastName, acquireKey(firstName), acquireKey(lastName));
+    }
+
+    /**
+     * Drops the references of a record that was replaced or deleted.
+     */
+    void release(ClientRecord record) {
+        Client client = record.getClient();
+        releaseName(client.getFirstName());
+        releaseName(client.getLastName());
+    }
+
+    /**
+     * Encodes a record read back from disk without taking references: the client it belongs to is still stored, so
+     * its names are held already.
+     */
+    ClientRecord resolve(ClientRecord record) {
+        Client client = record.getClient();
+        String firstName = client.getFirstName() == null ? null : names.canonical(client.getFirstName());
+        String lastName = client.getLastName() == null ? null : names.canonical(client.getLastName());
+        return record.withNames(firstName, lastName, nameKey(firstName), nameKey(lastName));
+    }
+
+    private String acquireName(String name) {
+        return name == null ? null : names.value(names.acquire(name));
+    }
+
+    private int acquireKey(String name) {
+        return name == null ? SymbolTable.NO_SYMBOL : nameKeys.acquire(fold(name));
+    }
+
+    private void releaseName(String name) {
+        if (name != null) {
+            names.release(name);
+            nameKeys.release(fold(name));
+        }
+    }
+
+    /**
+     * Folds a name the way {@link String#equalsIgnoreCase} compares characters, so that two names get the same key
+     * exactly when they are equal ignoring case.
+     */
+    static String fold(String name) {
+        char[] folded = null;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            char f = Character.toLowerCase(Character.toUpperCase(c));
+            if (f != c) {
+                if (folded == null) {
+                    folded = name.toCharArray();
+                }
+                folded[i] = f;
+            }
+        }
+        return folded == null ? name : new String(folded);
+    }
+}
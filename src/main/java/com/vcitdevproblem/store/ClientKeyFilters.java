@@ -0,0 +1,75 @@
+package com.vcitdevproblem.store;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Membership filters over the ID numbers and mobile numbers in the register, letting lookups for unregistered keys
+ * fail without reading the store. Publishes each filter's observed and expected false positive rates as
+ * {@code client.filter.*} metrics, tagged with the key.
+ */
+public class ClientKeyFilters implements MeterBinder {
+
+    private final MembershipFilter idNumbers;
+    private final MembershipFilter mobileNumbers;
+
+    /**
+     * @param initialCapacity the number of clients to size the filters for before they first grow
+     */
+    public ClientKeyFilters(int initialCapacity) {
+        this.idNumbers = new MembershipFilter(initialCapacity);
+        this.mobileNumbers = new MembershipFilter(initialCapacity);
+    }
+
+    public MembershipFilter idNumbers() {
+        return idNumbers;
+    }
+
+    public MembershipFilter mobileNumbers() {
+        return mobileNumbers;
+    }
+
+    /**
+     * Grows the filters if they hold more clients than they were sized for. Must be called with writes to the
+     * register serialized.
+     *
+     * @param snapshot the current register
+     */
+    public void ensureCapacity(ClientSnapshot snapshot) {
+        if (idNumbers.isFull()) {
+            idNumbers.rebuild(snapshot.stream().map(ClientRecord::getIdNumber), snapshot.size());
+        }
+        if (mobileNumbers.isFull()) {
+            mobileNumbers.rebuild(snapshot.stream().map(record -> record.getClient().getMobileNumber()), snapshot.size());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "idNumber", idNumbers);
+        bind(registry, "mobileNumber", mobileNumbers);
+    }
+
+    private static void bind(MeterRegistry registry, String key, MembershipFilter filter) {
+        Gauge.builder("client.filter.false.positive.rate", filter, MembershipFilter::getFalsePositiveRate)
+                .description("Share of lookups for absent keys that the filter did not reject")
+                .tag("key", key)
+                .register(registry);
+        Gauge.builder("client.filter.expected.false.positive.rate", filter, MembershipFilter::getExpectedFalsePositiveRate)
+                .description("False positive rate predicted from the filter's size and load")
+                .tag("key", key)
+                .register(registry);
+        Gauge.builder("client.filter.keys", filter, MembershipFilter::size)
+                .tag("key", key)
+                .register(registry);
+        FunctionCounter.builder("client.filter.rejections", filter, MembershipFilter::getDefiniteMisses)
+                .description("Lookups answered as definitely absent without reading the store")
+                .tag("key", key)
+                .register(registry);
+        FunctionCounter.builder("client.filter.false.positives", filter, MembershipFilter::getFalsePositives)
+                .tag("key", key)
+                .register(registry);
+    }
+}
@@ -0,0 +1,39 @@
+package com.vcitdevproblem.store;
+
+import com.vcitdevproblem.exception.InvalidRequestParameterException;
+
+/**
+ * Read projections of a client kept precomputed in the store. The lightweight projections carry a single field and
+ * suit high-volume existence and lookup checks.
+ */
+public enum ClientProjection {
+    FULL("full"),
+    ID_NUMBER("idNumber"),
+    MOBILE_NUMBER("mobileNumber");
+
+    private final String parameterName;
+
+    ClientProjection(String parameterName) {
+        this.parameterName = parameterName;
+    }
+
+    public String getParameterName() {
+        return parameterName;
+    }
+
+    /**
+     * Resolves a projection from its API name.
+     *
+     * @param parameterName the API name, e.g. {@code idNumber}
+     * @return the matching projection
+     * @throws InvalidRequestParameterException if no projection has that name
+     */
+    public static ClientProjection fromParameter(String parameterName) {
+        for (ClientProjection projection : values()) {
+            if (projection.parameterName.equalsIgnoreCase(parameterName)) {
+                return projection;
+            }
+        }
+        throw new InvalidRequestParameterException("Unknown view: " + parameterName + ".");
+    }
+}
@@ -0,0 +1,104 @@
+package com.vcitdevproblem.store;
+
+import com.vcitdevproblem.dto.ClientDTO;
+import com.vcitdevproblem.dto.ImmutableClientDTO;
+import com.vcitdevproblem.mapper.ClientMapper;
+import com.vcitdevproblem.model.Client;
+
+/**
+ * A stored client together with its read projections, mapped once when the client is written so that reads hand
+ * out ready-made DTOs. The DTOs are shared by every reader, so they are kept as {@link ImmutableClientDTO}s.
+ * <p>
+ * Once stored, a record's names are the shared instances of the store's {@link ClientDictionary} and it carries the
+ * dictionary codes of their case-folded forms, so that name equality can be checked on integers.
+ */
+public final class ClientRecord {
+
+    private final Client client;
+    private final ImmutableClientDTO full;
+    private final ImmutableClientDTO idNumberOnly;
+    private final ImmutableClientDTO mobileNumberOnly;
+    private final int firstNameKey;
+    private final int lastNameKey;
+
+    public ClientRecord(Client client, ClientDTO full, ClientDTO idNumberOnly, ClientDTO mobileNumberOnly) {
+        this(client, full, idNumberOnly, mobileNumberOnly, SymbolTable.NO_SYMBOL, SymbolTable.NO_SYMBOL);
+    }
+
+    private ClientRecord(Client client, ClientDTO full, ClientDTO idNumberOnly, ClientDTO mobileNumberOnly,
+                         int firstNameKey, int lastNameKey) {
+        this.client = client;
+        this.full = ImmutableClientDTO.copyOf(full);
+        this.idNumberOnly = ImmutableClientDTO.copyOf(idNumberOnly);
+        this.mobileNumberOnly = ImmutableClientDTO.copyOf(mobileNumberOnly);
+        this.firstNameKey = firstNameKey;
+        this.lastNameKey = lastNameKey;
+    }
+
+    /**
+     * Maps a client to its record, computing every read projection once so that reads never map.
+     *
+     * @param client the client to store
+     * @param mapper the mapper producing the projections
+     * @return the record holding the client and its projections
+     */
+    public static ClientRecord of(Client client, ClientMapper mapper) {
+        return new ClientRecord(client, mapper.toDTO(client), mapper.toDtoIdNumber(client),
+                mapper.toDtoMobileNumber(client));
+    }
+
+    public Client getClient() {
+        return client;
+    }
+
+    public String getIdNumber() {
+        return client.getIdNumber();
+    }
+
+    /**
+     * @return the dictionary code of the case-folded first name, or {@link SymbolTable#NO_SYMBOL} if not stored
+     */
+    public int getFirstNameKey() {
+        return firstNameKey;
+    }
+
+    /**
+     * @return the dictionary code of the case-folded last name, or {@link SymbolTable#NO_SYMBOL} if not stored
+     */
+    public int getLastNameKey() {
+        return lastNameKey;
+    }
+
+    /**
+     * Returns this record with the given name instances and keys. The client and the full projection are copied
+     * only if they do not already hold those instances.
+     */
+    ClientRecord withNames(String firstName, String lastName, int firstNameKey, int lastNameKey) {
+        Client named = client;
+        if (client.getFirstName() != firstName || client.getLastName() != lastName) {
+            named = new Client(firstName, lastName, client.getMobileNumber(), client.getIdNumber(),
+                    client.getPhysicalAddress());
+        }
+        ClientDTO namedFull = full;
+        if (full.getFirstName() != firstName || full.getLastName() != lastName) {
+            namedFull = new ClientDTO(firstName, lastName, full.getMobileNumber(), full.getIdNumber(),
+                    full.getPhysicalAddress());
+        }
+        return new ClientRecord(named, namedFull, idNumberOnly, mobileNumberOnly, firstNameKey, lastNameKey);
+    }
+
+    /**
+     * @param projection the projection to return
+     * @return the precomputed, unmodifiable DTO for the projection
+     */
+    public ClientDTO projection(ClientProjection projection) {
+        switch (projection) {
+            case ID_NUMBER:
+                return idNumberOnly;
+            case MOBILE_NUMBER:
+                return mobileNumberOnly;
+            default:
+                return full;
+        }
+    }
+}
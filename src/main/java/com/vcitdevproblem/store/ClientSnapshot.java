@@ -0,0 +1,454 @@
+package com.vcitdevproblem.store;
+
+import com.vcitdevproblem.model.Client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * An immutable, point-in-time version of the client register. Reading a snapshot never blocks and is never affected
+ * by writes that happen after it was taken, however long the read takes.
+ * <p>
+ * Clients live in layers, newest first: the active in-memory map that takes writes, maps frozen for flushing, and
+ * on-disk {@link Segment}s. A client is served from the newest layer that has an entry for it; deletions are kept
+ * as tombstones while an older layer may still hold the client. Without tiering there is only the active layer.
+ */
+public final class ClientSnapshot {
+
+    /**
+     * Marks a deleted client in an in-memory layer.
+     */
+    static final ClientRecord TOMBSTONE = new ClientRecord(null, null, null, null);
+
+    static final ClientSnapshot EMPTY = new ClientSnapshot(0, 0, PersistentHashMap.empty(), Collections.emptyList(),
+            Collections.emptyList(), PersistentHashMap.empty(), null);
+
+    private final long version;
+    private final int size;
+    private final PersistentHashMap<String, ClientRecord> active;
+    private final List<PersistentHashMap<String, ClientRecord>> frozen;
+    private final List<Segment> segments;
+    private final PersistentHashMap<String, String> idNumbersByMobile;
+    private final ColdReader cold;
+
+    ClientSnapshot(long version, int size, PersistentHashMap<String, ClientRecord> active,
+                   List<PersistentHashMap<String, ClientRecord>> frozen, List<Segment> segments,
+                   PersistentHashMap<String, String> idNumbersByMobile, ColdReader cold) {
+        this.version = version;
+        this.size = size;
+        this.active = active;
+        this.frozen = frozen;
+        this.segments = segments;
+        this.idNumbersByMobile = idNumbersByMobile;
+        this.cold = cold;
+    }
+
+    /**
+     * @return the number of writes applied to the register when this snapshot was taken
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param idNumber the ID number to look up
+     * @return the client with that ID number, or null
+     */
+    public ClientRecord get(String idNumber) {
+        ClientRecord record = entry(idNumber);
+        return record == TOMBSTONE ? null : record;
+    }
+
+    public boolean contains(String idNumber) {
+        return get(idNumber) != null;
+    }
+
+    /**
+     * @param mobileNumber the mobile number to look up
+     * @return the ID number of the client with that mobile number, or null
+     */
+    public String idNumberOfMobile(String mobileNumber) {
+        return idNumbersByMobile.get(mobileNumber);
+    }
+
+    /**
+     * Returns a spliterator over every client in this snapshot, splittable for parallel scans. Clients read from disk
+     * are decoded as they are reached and are not cached.
+     * <p>
+     * In-memory layers are traversed one after the other, dropping clients that a newer in-memory layer holds. The
+     * segments, which are all sorted by ID number, are traversed together as one merge in key order, so a client
+     * present in several segments is taken from the newest without looking it up in the others.
+     *
+     * @return a spliterator over the live clients
+     */
+    public Spliterator<ClientRecord> spliterator() {
+        if (frozen.isEmpty() && segments.isEmpty()) {
+            return active.valueSpliterator();
+        }
+        List<Spliterator<ClientRecord>> parts = new ArrayList<>();
+        parts.add(new FilteringSpliterator<>(active.valueSpliterator(), record -> record == TOMBSTONE ? null : record));
+        for (int i = 0; i < frozen.size(); i++) {
+            int newer = i;
+            parts.add(new FilteringSpliterator<>(frozen.get(i).valueSpliterator(),
+                    record -> record == TOMBSTONE || inMemory(record.getIdNumber(), newer) ? null : record));
+        }
+        if (!segments.isEmpty()) {
+            parts.add(new SegmentMergeSpliterator(null, null));
+        }
+        return new ConcatSpliterator(parts, 0, parts.size());
+    }
+
+    public Stream<ClientRecord> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    PersistentHashMap<String, ClientRecord> getActive() {
+        return active;
+    }
+
+    List<PersistentHashMap<String, ClientRecord>> getFrozen() {
+        return frozen;
+    }
+
+    List<Segment> getSegments() {
+        return segments;
+    }
+
+    /**
+     * @return a snapshot sharing every layer with this one but reading cold clients through the given reader
+     */
+    ClientSnapshot withColdReader(ColdReader reader) {
+        return new ClientSnapshot(version, size, active, frozen, segments, idNumbersByMobile, reader);
+    }
+
+    ClientSnapshot with(ClientRecord record, String replacedIdNumber) {
+        PersistentHashMap<String, ClientRecord> nextActive = active;
+        PersistentHashMap<String, String> nextMobiles = idNumbersByMobile;
+        int nextSize = size;
+        if (replacedIdNumber != null && !replacedIdNumber.equals(record.getIdNumber())) {
+            ClientRecord replaced = get(replacedIdNumber);
+            if (replaced != null) {
+                nextActive = delete(nextActive, replacedIdNumber);
+                nextMobiles = nextMobiles.minus(replaced.getClient().getMobileNumber());
+                nextSize--;
+            }
+        }
+        ClientRecord previous = get(record.getIdNumber());
+        if (previous != null) {
+            nextMobiles = nextMobiles.minus(previous.getClient().getMobileNumber());
+        } else {
+            nextSize++;
+        }
+        nextActive = nextActive.plus(record.getIdNumber(), record);
+        nextMobiles = nextMobiles.plus(record.getClient().getMobileNumber(), record.getIdNumber());
+        return new ClientSnapshot(version + 1, nextSize, nextActive, frozen, segments, nextMobiles, cold);
+    }
+
+    ClientSnapshot without(String idNumber) {
+        ClientRecord removed = get(idNumber);
+        if (removed == null) {
+            return this;
+        }
+        return new ClientSnapshot(version + 1, size - 1, delete(active, idNumber), frozen, segments,
+                idNumbersByMobile.minus(removed.getClient().getMobileNumber()), cold);
+    }
+
+    /**
+     * Moves the active layer to the front of the frozen layers, leaving an empty active layer.
+     */
+    ClientSnapshot freeze() {
+        List<PersistentHashMap<String, ClientRecord>> nextFrozen = new ArrayList<>(frozen.size() + 1);
+        nextFrozen.add(active);
+        nextFrozen.addAll(frozen);
+        return new ClientSnapshot(version, size, PersistentHashMap.empty(), Collections.unmodifiableList(nextFrozen),
+                segments, idNumbersByMobile, cold);
+    }
+
+    /**
+     * Replaces a frozen layer by the segment it was written to.
+     */
+    ClientSnapshot flushed(PersistentHashMap<String, ClientRecord> layer, Segment segment) {
+        List<PersistentHashMap<String, ClientRecord>> nextFrozen = new ArrayList<>(frozen);
+        nextFrozen.removeIf(candidate -> candidate == layer);
+        List<Segment> nextSegments = new ArrayList<>(segments.size() + 1);
+        nextSegments.add(segment);
+        nextSegments.addAll(segments);
+        return new ClientSnapshot(version, size, active, Collections.unmodifiableList(nextFrozen),
+                Collections.unmodifiableList(nextSegments), idNumbersByMobile, cold);
+    }
+
+    /**
+     * Replaces the given segments, which must be the oldest ones, by the segment they were merged into.
+     */
+    ClientSnapshot compacted(List<Segment> merged, Segment segment) {
+        List<Segment> nextSegments = new ArrayList<>(segments.subList(0, segments.size() - merged.size()));
+        nextSegments.add(segment);
+        return new ClientSnapshot(version, size, active, frozen, Collections.unmodifiableList(nextSegments),
+                idNumbersByMobile, cold);
+    }
+
+    private PersistentHashMap<String, ClientRecord> delete(PersistentHashMap<String, ClientRecord> layer,
+                                                           String idNumber) {
+        return frozen.isEmpty() && segments.isEmpty() ? layer.minus(idNumber) : layer.plus(idNumber, TOMBSTONE);
+    }
+
+    /**
+     * @return the newest entry for the ID number: a record, {@link #TOMBSTONE} or null
+     */
+    private ClientRecord entry(String idNumber) {
+        ClientRecord record = active.get(idNumber);
+        for (int i = 0; record == null && i < frozen.size(); i++) {
+            record = frozen.get(i).get(idNumber);
+        }
+        for (int i = 0; record == null && i < segments.size(); i++) {
+            Segment segment = segments.get(i);
+            if (segment.mightContain(idNumber)) {
+                record = cold.read(segment, idNumber);
+            }
+        }
+        return record;
+    }
+
+    /**
+     * @return whether the active layer or one of the given number of newest frozen layers holds the ID number
+     */
+    private boolean inMemory(String idNumber, int frozenLayers) {
+        if (active.containsKey(idNumber)) {
+            return true;
+        }
+        for (int i = 0; i < frozenLayers; i++) {
+            if (frozen.get(i).containsKey(idNumber)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads clients from segments through the hot tier, promoting every client it reads from disk.
+     */
+    static final class ColdReader {
+        private final HotTier hotTier;
+        private final Function<Client, ClientRecord> recordFactory;
+
+        ColdReader(HotTier hotTier, Function<Client, ClientRecord> recordFactory) {
+            this.hotTier = hotTier;
+            this.recordFactory = recordFactory;
+        }
+
+        ClientRecord read(Segment segment, String idNumber) {
+            ClientRecord record = hotTier.get(segment.getId(), idNumber);
+            if (record != null) {
+                return record;
+            }
+            Client client = segment.find(idNumber);
+            if (client == null) {
+                return null;
+            }
+            record = client == Segment.TOMBSTONE ? TOMBSTONE : recordFactory.apply(client);
+            hotTier.put(segment.getId(), idNumber, record);
+            if (segment.isReleased()) {
+                // Read by a snapshot older than the compaction; the segment's clients were already evicted.
+                hotTier.remove(segment.getId(), idNumber);
+            }
+            return record;
+        }
+    }
+
+    /**
+     * Maps the elements of a spliterator, dropping those mapped to null.
+     */
+    private static final class FilteringSpliterator<T> implements Spliterator<ClientRecord> {
+        private final Spliterator<T> source;
+        private final Function<T, ClientRecord> mapper;
+        private ClientRecord mapped;
+
+        FilteringSpliterator(Spliterator<T> source, Function<T, ClientRecord> mapper) {
+            this.source = source;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super ClientRecord> action) {
+            mapped = null;
+            while (mapped == null && source.tryAdvance(element -> mapped = mapper.apply(element))) {
+                // Skip dropped elements.
+            }
+            if (mapped == null) {
+                return false;
+            }
+            action.accept(mapped);
+            return true;
+        }
+
+        @Override
+        public Spliterator<ClientRecord> trySplit() {
+            Spliterator<T> prefix = source.trySplit();
+            return prefix == null ? null : new FilteringSpliterator<>(prefix, mapper);
+        }
+
+        @Override
+        public long estimateSize() {
+            return source.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return IMMUTABLE | NONNULL;
+        }
+    }
+
+    /**
+     * Merges the segments' entries in a key range by ID number. For each ID number the newest segment's entry wins
+     * and the older ones are stepped over; clients deleted there or held by an in-memory layer are dropped. Splits,
+     * before it starts, at a block boundary of the segment with the most blocks in the range.
+     */
+    private final class SegmentMergeSpliterator implements Spliterator<ClientRecord> {
+        private final String fromKey;
+        private String toKey;
+        private List<Iterator<Map.Entry<String, Client>>> cursors;
+        private Map.Entry<String, Client>[] heads;
+
+        SegmentMergeSpliterator(String fromKey, String toKey) {
+            this.fromKey = fromKey;
+            this.toKey = toKey;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(Consumer<? super ClientRecord> action) {
+            if (cursors == null) {
+                cursors = new ArrayList<>(segments.size());
+                heads = new Map.Entry[segments.size()];
+                for (int i = 0; i < segments.size(); i++) {
+                    Iterator<Map.Entry<String, Client>> cursor = segments.get(i).iterator(fromKey, toKey);
+                    cursors.add(cursor);
+                    heads[i] = cursor.hasNext() ? cursor.next() : null;
+                }
+            }
+            while (true) {
+                int newest = -1;
+                for (int i = 0; i < heads.length; i++) {
+                    if (heads[i] != null
+                            && (newest < 0 || heads[i].getKey().compareTo(heads[newest].getKey()) < 0)) {
+                        newest = i;
+                    }
+                }
+                if (newest < 0) {
+                    return false;
+                }
+                Map.Entry<String, Client> entry = heads[newest];
+                for (int i = newest; i < heads.length; i++) {
+                    if (heads[i] != null && heads[i].getKey().equals(entry.getKey())) {
+                        heads[i] = cursors.get(i).hasNext() ? cursors.get(i).next() : null;
+                    }
+                }
+                if (entry.getValue() != Segment.TOMBSTONE && !inMemory(entry.getKey(), frozen.size())) {
+                    action.accept(cold.recordFactory.apply(entry.getValue()));
+                    return true;
+                }
+            }
+        }
+
+        @Override
+        public Spliterator<ClientRecord> trySplit() {
+            if (cursors != null) {
+                return null;
+            }
+            Segment widest = null;
+            int widestBlocks = 0;
+            for (Segment segment : segments) {
+                int blocks = segment.blocksBetween(fromKey, toKey);
+                if (blocks > widestBlocks) {
+                    widest = segment;
+                    widestBlocks = blocks;
+                }
+            }
+            String middle = widest == null ? null : widest.middleKey(fromKey, toKey);
+            if (middle == null) {
+                return null;
+            }
+            SegmentMergeSpliterator suffix = new SegmentMergeSpliterator(middle, toKey);
+            toKey = middle;
+            return suffix;
+        }
+
+        @Override
+        public long estimateSize() {
+            long size = 0;
+            for (Segment segment : segments) {
+                int blocks = segment.getBlockCount();
+                size += blocks == 0 ? 0 : segment.getEntryCount() * segment.blocksBetween(fromKey, toKey) / blocks;
+            }
+            return size;
+        }
+
+        @Override
+        public int characteristics() {
+            return IMMUTABLE | NONNULL;
+        }
+    }
+
+    /**
+     * Traverses several spliterators in turn; splits between them first, then within the only one left.
+     */
+    private static final class ConcatSpliterator implements Spliterator<ClientRecord> {
+        private final List<Spliterator<ClientRecord>> parts;
+        private int from;
+        private int to;
+
+        ConcatSpliterator(List<Spliterator<ClientRecord>> parts, int from, int to) {
+            this.parts = parts;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super ClientRecord> action) {
+            while (from < to) {
+                if (parts.get(from).tryAdvance(action)) {
+                    return true;
+                }
+                from++;
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<ClientRecord> trySplit() {
+            if (to - from >= 2) {
+                int middle = (from + to) >>> 1;
+                ConcatSpliterator prefix = new ConcatSpliterator(parts, from, middle);
+                from = middle;
+                return prefix;
+            }
+            return from < to ? parts.get(from).trySplit() : null;
+        }
+
+        @Override
+        public long estimateSize() {
+            long size = 0;
+            for (int i = from; i < to; i++) {
+                size += parts.get(i).estimateSize();
+            }
+            return size < 0 ? Long.MAX_VALUE : size;
+        }
+
+        @Override
+        public int characteristics() {
+            return IMMUTABLE | NONNULL;
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package com.vcitdevproblem.store;
+
+import com.vcitdevproblem.model.Client;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Multi-version client register. Each write derives a new {@link ClientSnapshot} from the current one by path
+ * copying and publishes it with a single volatile write; readers take whichever snapshot is current and use it
+ * without locks for as long as they need. Writes are serialized; stored {@link ClientRecord}s are immutable and
+ * are replaced, never modified.
+ * <p>
+ * With tiering enabled, the in-memory layer taking writes is frozen once it holds {@code memtableLimit} clients and
+ * written to a sorted, compressed segment file by a background thread; segments are merged once there are more
+ * than {@code maxSegments}, after which the merged files are deleted and their clients evicted from the hot tier.
+ * Clients read from segments are promoted into a bounded {@link HotTier}. The cold tier only offloads client records:
+ * the mobile-number map and the indexes built on the store keep a per-client entry on the heap, so tiering slows the
+ * heap's growth with the register rather than capping it. The cold tier is cleared on start-up and is not a durable
+ * copy of the register.
+ * <p>
+ * Stored records are dictionary-encoded through the store's {@link ClientDictionary}: each write takes references
+ * to the names it stores and releases those of the client it replaces, and records read back from disk are resolved
+ * against the same dictionary.
+ */
+@Slf4j
+public class ClientStore implements DisposableBean {
+
+    private final TieringProperties tiering;
+    private final Function<Client, ClientRecord> recordFactory;
+    private final HotTier hotTier;
+    private final ExecutorService flusher;
+    private final AtomicLong segmentSequence = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong compactions = new AtomicLong();
+    private final ClientDictionary dictionary = new ClientDictionary();
+
+    private volatile ClientSnapshot current = ClientSnapshot.EMPTY;
+
+    /**
+     * Creates a store that keeps every client in memory.
+     */
+    public ClientStore() {
+        this.tiering = null;
+        this.recordFactory = null;
+        this.hotTier = null;
+        this.flusher = null;
+    }
+
+    /**
+     * Creates a store that moves clients to disk as configured.
+     *
+     * @param tiering       the tiering configuration; if disabled, every client stays in memory
+     * @param recordFactory maps clients read back from disk to records
+     * @throws UncheckedIOException if the segment directory cannot be prepared
+     */
+    public ClientStore(TieringProperties tiering, Function<Client, ClientRecord> recordFactory) {
+        if (!tiering.isEnabled()) {
+            this.tiering = null;
+            this.recordFactory = null;
+            this.hotTier = null;
+            this.flusher = null;
+            return;
+        }
+        this.tiering = tiering;
+        this.recordFactory = recordFactory;
+        this.hotTier = new HotTier(tiering.getHotCapacity());
+        try {
+            Files.createDirectories(tiering.getDirectory());
+            deleteSegmentFiles(tiering.getDirectory());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot prepare client store directory " + tiering.getDirectory(), ex);
+        }
+        this.current = current.withColdReader(new ClientSnapshot.ColdReader(hotTier,
+                client -> dictionary.resolve(recordFactory.apply(client))));
+        this.flusher = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "client-store-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return the latest published snapshot
+     */
+    public ClientSnapshot snapshot() {
+        return current;
+    }
+
+    /**
+     * Stores a client, replacing the client previously stored under {@code replacedIdNumber} (if any) and the client
+     * with the same ID number.
+     *
+     * @param record           the client to store
+     * @param replacedIdNumber the ID number of the client this one replaces, or null
+     * @return the snapshot that includes the write
+     */
+    public synchronized ClientSnapshot put(ClientRecord record, String replacedIdNumber) {
+        ClientRecord replaced = replacedIdNumber != null && !replacedIdNumber.equals(record.getIdNumber())
+                ? current.get(replacedIdNumber) : null;
+        ClientRecord previous = current.get(record.getIdNumber());
+        // Acquire before releasing, so that names the client keeps are not dropped and re-interned.
+        current = current.with(dictionary.acquire(record), replacedIdNumber);
+        if (replaced != null) {
+            dictionary.release(replaced);
+        }
+        if (previous != null) {
+            dictionary.release(previous);
+        }
+        freezeIfFull();
+        return current;
+    }
+
+    /**
+     * Removes a client.
+     *
+     * @param idNumber the ID number of the client to remove
+     * @return the snapshot that includes the removal
+     */
+    public synchronized ClientSnapshot remove(String idNumber) {
+        ClientRecord removed = current.get(idNumber);
+        if (removed == null) {
+            return current;
+        }
+        current = current.without(idNumber);
+        dictionary.release(removed);
+        freezeIfFull();
+        return current;
+    }
+
+    /**
+     * @return the dictionary encoding the names of the stored clients
+     */
+    public ClientDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * @return counters and sizes of the store's tiers
+     */
+    public Map<String, Object> statistics() {
+        ClientSnapshot snapshot = current;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("tiering", tiering != null);
+        stats.put("clients", snapshot.size());
+        stats.put("version", snapshot.getVersion());
+        stats.put("dictionary", dictionary.statistics());
+        stats.put("memtableEntries", snapshot.getActive().size()
+                + snapshot.getFrozen().stream().mapToInt(PersistentHashMap::size).sum());
+        if (tiering == null) {
+            return stats;
+        }
+        long segmentEntries = 0;
+        long segmentBytes = 0;
+        long residentIndexBytes = 0;
+        for (Segment segment : snapshot.getSegments()) {
+            segmentEntries += segment.getEntryCount();
+            residentIndexBytes += segment.residentBytes();
+            try {
+                segmentBytes += Files.size(segment.getPath());
+            } catch (IOException ignored) {
+                // Replaced by a compaction in the meantime.
+            }
+        }
+        stats.put("frozenMemtables", snapshot.getFrozen().size());
+        stats.put("segments", snapshot.getSegments().size());
+        stats.put("segmentEntries", segmentEntries);
+        stats.put("segmentBytes", segmentBytes);
+        stats.put("segmentIndexBytes", residentIndexBytes);
+        stats.put("flushes", flushes.get());
+        stats.put("compactions", compactions.get());
+        Map<String, Object> hot = new LinkedHashMap<>();
+        hot.put("size", hotTier.size());
+        hot.put("capacity", hotTier.getCapacity());
+        hot.put("hits", hotTier.getHits());
+        hot.put("misses", hotTier.getMisses());
+        hot.put("evictions", hotTier.getEvictions());
+        stats.put("hotTier", hot);
+        return stats;
+    }
+
+    /**
+     * Stops the flusher and deletes the segment files.
+     */
+    @Override
+    public void destroy() throws Exception {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdownNow();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        deleteSegmentFiles(tiering.getDirectory());
+    }
+
+    private void freezeIfFull() {
+        if (tiering != null && current.getActive().size() >= tiering.getMemtableLimit()) {
+            current = current.freeze();
+            flusher.execute(this::flushFrozen);
+        }
+    }
+
+    /**
+     * Writes frozen layers to segments, oldest first, then compacts if there are too many segments. Runs on the
+     * flusher thread, which is the only thread that changes the segment list.
+     */
+    private void flushFrozen() {
+        try {
+            List<PersistentHashMap<String, ClientRecord>> frozen = current.getFrozen();
+            while (!frozen.isEmpty()) {
+                PersistentHashMap<String, ClientRecord> layer = frozen.get(frozen.size() - 1);
+                Segment segment = writeSegment(layer, current.getSegments().isEmpty());
+                synchronized (this) {
+                    current = current.flushed(layer, segment);
+                    frozen = current.getFrozen();
+                }
+                flushes.incrementAndGet();
+            }
+            if (current.getSegments().size() > tiering.getMaxSegments()) {
+                compact();
+            }
+        } catch (IOException | UncheckedIOException ex) {
+            log.warn("Failed to flush clients to disk; they stay in memory until the next flush", ex);
+        }
+    }
+
+    private Segment writeSegment(PersistentHashMap<String, ClientRecord> layer, boolean dropTombstones)
+            throws IOException {
+        List<Map.Entry<String, Client>> entries = new ArrayList<>(layer.size());
+        layer.forEach((idNumber, record) -> {
+            if (record != ClientSnapshot.TOMBSTONE) {
+                entries.add(Map.entry(idNumber, record.getClient()));
+            } else if (!dropTombstones) {
+                entries.add(Map.entry(idNumber, Segment.TOMBSTONE));
+            }
+        });
+        entries.sort(Map.Entry.comparingByKey());
+        return Segment.write(nextSegmentPath(), entries.iterator(), entries.size(), tiering.getBlockSize(),
+                tiering.getBloomBitsPerKey());
+    }
+
+    /**
+     * Merges every segment into one. Since nothing is older than the merged segments, tombstones are dropped.
+     */
+    private void compact() throws IOException {
+        List<Segment> segments = current.getSegments();
+        long expected = segments.stream().mapToLong(Segment::getEntryCount).sum();
+        Segment merged = Segment.write(nextSegmentPath(), new MergingIterator(segments), expected,
+                tiering.getBlockSize(), tiering.getBloomBitsPerKey());
+        synchronized (this) {
+            current = current.compacted(segments, merged);
+        }
+        for (Segment segment : segments) {
+            segment.retire(() -> hotTier.evictSegment(segment.getId()));
+        }
+        compactions.incrementAndGet();
+    }
+
+    private Path nextSegmentPath() {
+        return tiering.getDirectory().resolve("segment-" + segmentSequence.incrementAndGet() + ".dat");
+    }
+
+    private static void deleteSegmentFiles(Path directory) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "segment-*.dat")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Merges segments given newest first into one key-ordered sequence of live entries, taking each key from the
+     * newest segment that has it.
+     */
+    private static final class MergingIterator implements Iterator<Map.Entry<String, Client>> {
+        private final PriorityQueue<Cursor> cursors = new PriorityQueue<>(
+                Comparator.comparing((Cursor cursor) -> cursor.head.getKey()).thenComparingInt(cursor -> cursor.age));
+        private Map.Entry<String, Client> next;
+
+        MergingIterator(List<Segment> newestFirst) {
+            for (int i = 0; i < newestFirst.size(); i++) {
+                Cursor cursor = new Cursor(newestFirst.get(i).iterator(), i);
+                if (cursor.advance()) {
+                    cursors.add(cursor);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && !cursors.isEmpty()) {
+                Cursor newest = cursors.poll();
+                Map.Entry<String, Client> entry = newest.head;
+                while (!cursors.isEmpty() && cursors.peek().head.getKey().equals(entry.getKey())) {
+                    Cursor older = cursors.poll();
+                    if (older.advance()) {
+                        cursors.add(older);
+                    }
+                }
+                if (newest.advance()) {
+                    cursors.add(newest);
+                }
+                if (entry.getValue() != Segment.TOMBSTONE) {
+                    next = entry;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<String, Client> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<String, Client> entry = next;
+            next = null;
+            return entry;
+        }
+
+        private static final class Cursor {
+            private final Iterator<Map.Entry<String, Client>> entries;
+            private final int age;
+            private Map.Entry<String, Client> head;
+
+            Cursor(Iterator<Map.Entry<String, Client>> entries, int age) {
+                this.entries = entries;
+                this.age = age;
+            }
+
+            boolean advance() {
+                head = entries.hasNext() ? entries.next() : null;
+                return head != null;
+            }
+        }
+    }
+}
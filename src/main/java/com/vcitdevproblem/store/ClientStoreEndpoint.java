@@ -0,0 +1,24 @@
+package com.vcitdevproblem.store;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint ({@code /actuator/store}) exposing the size of each storage tier and the hot tier's hit rate.
+ */
+@Endpoint(id = "store")
+public class ClientStoreEndpoint {
+
+    private final ClientStore store;
+
+    public ClientStoreEndpoint(ClientStore store) {
+        this.store = store;
+    }
+
+    @ReadOperation
+    public Map<String, Object> store() {
+        return store.statistics();
+    }
+}
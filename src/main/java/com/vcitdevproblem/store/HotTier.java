@@ -0,0 +1,202 @@
+package com.vcitdevproblem.store;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded in-memory cache of clients read from cold segments. Entries are keyed by segment as well as ID number, so
+ * a cached client is only ever served to snapshots that contain that segment.
+ * <p>
+ * Each stripe keeps its entries in access order together with a small saturating access counter. To evict, the
+ * least recently used few are sampled and the least frequently used of them goes, which keeps clients read once
+ * (a burst of lookups for new IDs) from flushing out the ones read all the time. Counters are halved periodically
+ * so that past popularity fades.
+ */
+final class HotTier {
+
+    private static final int STRIPES = 16;
+    private static final int EVICTION_SAMPLE = 8;
+    private static final int MAX_FREQUENCY = 15;
+
+    private final Stripe[] stripes;
+    private final int capacity;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    HotTier(int capacity) {
+        this.capacity = Math.max(0, capacity);
+        int stripeCount = Math.max(1, Math.min(STRIPES, this.capacity / EVICTION_SAMPLE));
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(this.capacity / stripeCount + (i < this.capacity % stripeCount ? 1 : 0));
+        }
+    }
+
+    /**
+     * @return the cached record, or null
+     */
+    ClientRecord get(long segmentId, String idNumber) {
+        Key key = new Key(segmentId, idNumber);
+        ClientRecord record = stripeOf(key).get(key);
+        (record != null ? hits : misses).increment();
+        return record;
+    }
+
+    void put(long segmentId, String idNumber, ClientRecord record) {
+        Key key = new Key(segmentId, idNumber);
+        stripeOf(key).put(key, record);
+    }
+
+    void remove(long segmentId, String idNumber) {
+        Key key = new Key(segmentId, idNumber);
+        stripeOf(key).remove(key);
+    }
+
+    /**
+     * Drops every client cached from a segment, once the segment is retired.
+     *
+     * @param segmentId the ID of the segment
+     */
+    void evictSegment(long segmentId) {
+        for (Stripe stripe : stripes) {
+            stripe.removeSegment(segmentId);
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+
+    long getEvictions() {
+        return evictions.sum();
+    }
+
+    private Stripe stripeOf(Key key) {
+        int hash = key.hashCode();
+        return stripes[((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % stripes.length];
+    }
+
+    private static final class Key {
+        private final long segmentId;
+        private final String idNumber;
+
+        Key(long segmentId, String idNumber) {
+            this.segmentId = segmentId;
+            this.idNumber = idNumber;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return segmentId == other.segmentId && idNumber.equals(other.idNumber);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(segmentId, idNumber);
+        }
+    }
+
+    private static final class Node {
+        private final ClientRecord record;
+        private int frequency;
+
+        Node(ClientRecord record) {
+            this.record = record;
+        }
+    }
+
+    private final class Stripe {
+        private final int capacity;
+        private final LinkedHashMap<Key, Node> nodes = new LinkedHashMap<>(16, 0.75f, true);
+        private int accessesSinceAging;
+
+        Stripe(int capacity) {
+            this.capacity = capacity;
+        }
+
+        synchronized ClientRecord get(Key key) {
+            Node node = nodes.get(key);
+            if (node == null) {
+                return null;
+            }
+            if (node.frequency < MAX_FREQUENCY) {
+                node.frequency++;
+            }
+            if (++accessesSinceAging >= capacity * 8) {
+                age();
+            }
+            return node.record;
+        }
+
+        synchronized void put(Key key, ClientRecord record) {
+            if (capacity == 0 || nodes.containsKey(key)) {
+                return;
+            }
+            if (nodes.size() >= capacity) {
+                evict();
+            }
+            nodes.put(key, new Node(record));
+        }
+
+        synchronized void remove(Key key) {
+            nodes.remove(key);
+        }
+
+        synchronized void removeSegment(long segmentId) {
+            nodes.keySet().removeIf(key -> key.segmentId == segmentId);
+        }
+
+        synchronized int size() {
+            return nodes.size();
+        }
+
+        private void evict() {
+            Iterator<Map.Entry<Key, Node>> eldest = nodes.entrySet().iterator();
+            Key victim = null;
+            int lowest = Integer.MAX_VALUE;
+            for (int i = 0; i < EVICTION_SAMPLE && eldest.hasNext(); i++) {
+                Map.Entry<Key, Node> entry = eldest.next();
+                if (entry.getValue().frequency < lowest) {
+                    lowest = entry.getValue().frequency;
+                    victim = entry.getKey();
+                }
+            }
+            nodes.remove(victim);
+            evictions.increment();
+        }
+
+        private void age() {
+            accessesSinceAging = 0;
+            for (Node node : nodes.values()) {
+                node.frequency >>= 1;
+            }
+        }
+    }
+}
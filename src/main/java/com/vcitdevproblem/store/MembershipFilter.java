@@ -0,0 +1,180 @@
+package com.vcitdevproblem.store;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Counting bloom filter over the keys of the current register, answering "definitely absent" without a lookup.
+ * Each key increments four-bit counters instead of setting bits, so keys can be removed again. A counter that
+ * reaches its maximum sticks there and is never decremented, which costs accuracy but never correctness.
+ * <p>
+ * Callers add a key before it becomes visible in the store and remove it only after it is gone, so the filter
+ * always covers every key a reader can find. Writes must be serialized by the caller; reads are lock-free.
+ * When the number of keys outgrows the capacity the filter was sized for, {@link #rebuild} replaces it with one
+ * twice as large.
+ */
+public final class MembershipFilter {
+
+    private static final int COUNTERS_PER_KEY = 10;
+    private static final int HASHES = 7;
+    private static final int COUNTER_BITS = 4;
+    private static final long MAX_COUNT = (1L << COUNTER_BITS) - 1;
+
+    private volatile Counters counters;
+    private volatile long size;
+    private final LongAdder definiteMisses = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    /**
+     * @param initialCapacity the number of keys to size the filter for before it first grows
+     */
+    public MembershipFilter(int initialCapacity) {
+        this.counters = new Counters(Math.max(64, initialCapacity));
+    }
+
+    /**
+     * @param key the key to check
+     * @return false if the key is definitely absent, true if it may be present
+     */
+    public boolean mightContain(String key) {
+        if (counters.mightContain(BloomFilter.hash(key))) {
+            return true;
+        }
+        definiteMisses.increment();
+        return false;
+    }
+
+    /**
+     * Records that a key the filter reported as possibly present turned out to be absent.
+     */
+    public void recordFalsePositive() {
+        falsePositives.increment();
+    }
+
+    public void add(String key) {
+        counters.add(BloomFilter.hash(key));
+        size++;
+    }
+
+    /**
+     * @param key a key previously added and not yet removed
+     */
+    public void remove(String key) {
+        counters.remove(BloomFilter.hash(key));
+        size--;
+    }
+
+    /**
+     * @return whether the filter holds more keys than it was sized for
+     */
+    public boolean isFull() {
+        return size > counters.capacity;
+    }
+
+    /**
+     * Replaces the filter by one sized for twice the given keys and holding exactly them, which also clears counters
+     * stuck at their maximum. Readers keep using the old filter until the new one is complete.
+     *
+     * @param keys  every key currently in the register
+     * @param count the number of keys
+     */
+    public void rebuild(Stream<String> keys, long count) {
+        Counters next = new Counters((int) Math.min(Integer.MAX_VALUE / COUNTERS_PER_KEY, Math.max(64, count * 2)));
+        keys.forEach(key -> next.add(BloomFilter.hash(key)));
+        counters = next;
+        size = count;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public long getCapacity() {
+        return counters.capacity;
+    }
+
+    public long getDefiniteMisses() {
+        return definiteMisses.sum();
+    }
+
+    public long getFalsePositives() {
+        return falsePositives.sum();
+    }
+
+    /**
+     * @return the share of lookups for absent keys that the filter failed to reject, or 0 before any such lookup
+     */
+    public double getFalsePositiveRate() {
+        long positives = falsePositives.sum();
+        long negatives = positives + definiteMisses.sum();
+        return negatives == 0 ? 0 : (double) positives / negatives;
+    }
+
+    /**
+     * @return the false positive rate predicted for the current number of keys
+     */
+    public double getExpectedFalsePositiveRate() {
+        Counters current = counters;
+        return Math.pow(1 - Math.exp(-(double) HASHES * size / current.length), HASHES);
+    }
+
+    /**
+     * Four-bit counters packed sixteen to a long, updated with compare-and-set so that readers never see a torn word.
+     */
+    private static final class Counters {
+        private final int capacity;
+        private final long length;
+        private final AtomicLongArray words;
+
+        Counters(int capacity) {
+            this.capacity = capacity;
+            this.words = new AtomicLongArray((int) (((long) capacity * COUNTERS_PER_KEY + 15) >>> 4));
+            this.length = (long) words.length() << 4;
+        }
+
+        boolean mightContain(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= HASHES; i++) {
+                long counter = ((h1 + (long) i * h2) & Long.MAX_VALUE) % length;
+                if (((words.get((int) (counter >>> 4)) >>> shift(counter)) & MAX_COUNT) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void add(long hash) {
+            update(hash, 1);
+        }
+
+        void remove(long hash) {
+            update(hash, -1);
+        }
+
+        private void update(long hash, int delta) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= HASHES; i++) {
+                long counter = ((h1 + (long) i * h2) & Long.MAX_VALUE) % length;
+                int index = (int) (counter >>> 4);
+                int shift = shift(counter);
+                while (true) {
+                    long word = words.get(index);
+                    long count = (word >>> shift) & MAX_COUNT;
+                    if (count == MAX_COUNT || (count == 0 && delta < 0)) {
+                        break;
+                    }
+                    if (words.compareAndSet(index, word, word + ((long) delta << shift))) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        private static int shift(long counter) {
+            return (int) (counter & 15) << 2;
+        }
+    }
+}
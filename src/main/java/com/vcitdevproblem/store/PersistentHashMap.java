@@ -0,0 +1,501 @@
+package com.vcitdevproblem.store;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Immutable hash map implemented as a compressed hash-array mapped prefix tree (CHAMP).
+ * <p>
+ * Updates copy only the path from the root to the changed entry, roughly {@code log32(n)} small arrays, and share
+ * every other node with the previous version. Any number of versions can therefore be read concurrently without
+ * locks while a writer derives the next one. Each node keeps its entries inline, ahead of its sub-nodes, and removal
+ * keeps the tree canonical, so the shape of a map depends only on its contents.
+ *
+ * @param <K> the key type; must have stable {@code equals} and {@code hashCode}
+ * @param <V> the value type
+ */
+public final class PersistentHashMap<K, V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final int HASH_BITS = 32;
+
+    private static final PersistentHashMap<?, ?> EMPTY =
+            new PersistentHashMap<>(new BitmapNode(0, 0, new Object[0]), 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentHashMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param key the key to look up
+     * @return the value mapped to the key, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        return (V) root.get(key, hash(key), 0);
+    }
+
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Returns a map with the key mapped to the value. This map is not modified.
+     *
+     * @param key   the key, not null
+     * @param value the value, not null
+     * @return the new map, or this map if the key was already mapped to the same value
+     */
+    public PersistentHashMap<K, V> plus(K key, V value) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+        Change change = new Change();
+        Node newRoot = root.put(key, value, hash(key), 0, change);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentHashMap<>(newRoot, change.replaced ? size : size + 1);
+    }
+
+    /**
+     * Returns a map without the key. This map is not modified.
+     *
+     * @param key the key to remove
+     * @return the new map, or this map if the key was not mapped
+     */
+    public PersistentHashMap<K, V> minus(Object key) {
+        Node newRoot = root.remove(key, hash(key), 0);
+        return newRoot == root ? this : new PersistentHashMap<>(newRoot, size - 1);
+    }
+
+    /**
+     * Visits every entry, in no particular order.
+     *
+     * @param action the action to apply to each entry
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        root.forEach((BiConsumer<Object, Object>) action);
+    }
+
+    /**
+     * @return a spliterator over the values that splits along sub-trees, suitable for parallel traversal
+     */
+    public Spliterator<V> valueSpliterator() {
+        return new ValueSpliterator<>(root, size);
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int bitpos(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private static int index(int bitmap, int bit) {
+        return Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    /**
+     * Reports whether a put replaced an existing mapping.
+     */
+    private static final class Change {
+        private boolean replaced;
+    }
+
+    private abstract static class Node {
+        abstract Object get(Object key, int hash, int shift);
+
+        abstract Node put(Object key, Object value, int hash, int shift, Change change);
+
+        abstract Node remove(Object key, int hash, int shift);
+
+        abstract void forEach(BiConsumer<Object, Object> action);
+
+        /**
+         * @return the number of entries stored inline in this node
+         */
+        abstract int dataArity();
+
+        abstract Object keyAt(int index);
+
+        abstract Object valueAt(int index);
+
+        /**
+         * @return the number of sub-nodes of this node
+         */
+        abstract int nodeArity();
+
+        abstract Node nodeAt(int index);
+    }
+
+    /**
+     * Inner node: a data bitmap and a node bitmap select which of the 32 hash slots hold an inline entry and which
+     * hold a sub-node. {@code content} holds the entries as key, value pairs followed by the sub-nodes in reverse.
+     */
+    private static final class BitmapNode extends Node {
+        private final int dataMap;
+        private final int nodeMap;
+        private final Object[] content;
+
+        BitmapNode(int dataMap, int nodeMap, Object[] content) {
+            this.dataMap = dataMap;
+            this.nodeMap = nodeMap;
+            this.content = content;
+        }
+
+        @Override
+        Object get(Object key, int hash, int shift) {
+            int bit = bitpos(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int index = 2 * index(dataMap, bit);
+                return key.equals(content[index]) ? content[index + 1] : null;
+            }
+            if ((nodeMap & bit) != 0) {
+                return subNode(bit).get(key, hash, shift + BITS);
+            }
+            return null;
+        }
+
+        @Override
+        Node put(Object key, Object value, int hash, int shift, Change change) {
+            int bit = bitpos(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int index = 2 * index(dataMap, bit);
+                Object existingKey = content[index];
+                if (key.equals(existingKey)) {
+                    change.replaced = true;
+                    if (content[index + 1] == value) {
+                        return this;
+                    }
+                    Object[] copy = content.clone();
+                    copy[index + 1] = value;
+                    return new BitmapNode(dataMap, nodeMap, copy);
+                }
+                Node merged = merge(existingKey, content[index + 1], hash(existingKey), key, value, hash, shift + BITS);
+                return migrateDataToNode(bit, index, merged);
+            }
+            if ((nodeMap & bit) != 0) {
+                Node subNode = subNode(bit);
+                Node newSubNode = subNode.put(key, value, hash, shift + BITS, change);
+                return newSubNode == subNode ? this : withSubNode(bit, newSubNode);
+            }
+            int index = 2 * index(dataMap, bit);
+            Object[] copy = new Object[content.length + 2];
+            System.arraycopy(content, 0, copy, 0, index);
+            copy[index] = key;
+            copy[index + 1] = value;
+            System.arraycopy(content, index, copy, index + 2, content.length - index);
+            return new BitmapNode(dataMap | bit, nodeMap, copy);
+        }
+
+        @Override
+        Node remove(Object key, int hash, int shift) {
+            int bit = bitpos(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int index = 2 * index(dataMap, bit);
+                if (!key.equals(content[index])) {
+                    return this;
+                }
+                Object[] copy = new Object[content.length - 2];
+                System.arraycopy(content, 0, copy, 0, index);
+                System.arraycopy(content, index + 2, copy, index, content.length - index - 2);
+                return new BitmapNode(dataMap ^ bit, nodeMap, copy);
+            }
+            if ((nodeMap & bit) != 0) {
+                Node subNode = subNode(bit);
+                Node newSubNode = subNode.remove(key, hash, shift + BITS);
+                if (newSubNode == subNode) {
+                    return this;
+                }
+                if (newSubNode.nodeArity() == 0 && newSubNode.dataArity() == 1) {
+                    // Keep the tree canonical: a lone entry moves up into its parent.
+                    return migrateNodeToData(bit, newSubNode.keyAt(0), newSubNode.valueAt(0));
+                }
+                return withSubNode(bit, newSubNode);
+            }
+            return this;
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, Object> action) {
+            int dataEnd = 2 * Integer.bitCount(dataMap);
+            for (int i = 0; i < dataEnd; i += 2) {
+                action.accept(content[i], content[i + 1]);
+            }
+            for (int i = dataEnd; i < content.length; i++) {
+                ((Node) content[i]).forEach(action);
+            }
+        }
+
+        @Override
+        int dataArity() {
+            return Integer.bitCount(dataMap);
+        }
+
+        @Override
+        Object keyAt(int index) {
+            return content[2 * index];
+        }
+
+        @Override
+        Object valueAt(int index) {
+            return content[2 * index + 1];
+        }
+
+        @Override
+        int nodeArity() {
+            return Integer.bitCount(nodeMap);
+        }
+
+        @Override
+        Node nodeAt(int index) {
+            return (Node) content[content.length - 1 - index];
+        }
+
+        private Node subNode(int bit) {
+            return (Node) content[content.length - 1 - index(nodeMap, bit)];
+        }
+
+        private Node withSubNode(int bit, Node subNode) {
+            Object[] copy = content.clone();
+            copy[content.length - 1 - index(nodeMap, bit)] = subNode;
+            return new BitmapNode(dataMap, nodeMap, copy);
+        }
+
+        private Node migrateDataToNode(int bit, int dataIndex, Node subNode) {
+            int nodeIndex = content.length - 2 - index(nodeMap, bit);
+            Object[] copy = new Object[content.length - 1];
+            System.arraycopy(content, 0, copy, 0, dataIndex);
+            System.arraycopy(content, dataIndex + 2, copy, dataIndex, nodeIndex - dataIndex);
+            copy[nodeIndex] = subNode;
+            System.arraycopy(content, nodeIndex + 2, copy, nodeIndex + 1, content.length - nodeIndex - 2);
+            return new BitmapNode(dataMap ^ bit, nodeMap | bit, copy);
+        }
+
+        private Node migrateNodeToData(int bit, Object key, Object value) {
+            int nodeIndex = content.length - 1 - index(nodeMap, bit);
+            int dataIndex = 2 * index(dataMap, bit);
+            Object[] copy = new Object[content.length + 1];
+            System.arraycopy(content, 0, copy, 0, dataIndex);
+            copy[dataIndex] = key;
+            copy[dataIndex + 1] = value;
+            System.arraycopy(content, dataIndex, copy, dataIndex + 2, nodeIndex - dataIndex);
+            System.arraycopy(content, nodeIndex + 1, copy, nodeIndex + 2, content.length - nodeIndex - 1);
+            return new BitmapNode(dataMap | bit, nodeMap ^ bit, copy);
+        }
+
+        private static Node merge(Object key1, Object value1, int hash1, Object key2, Object value2, int hash2, int shift) {
+            if (shift >= HASH_BITS) {
+                return new CollisionNode(hash1, new Object[]{key1, value1, key2, value2});
+            }
+            int mask1 = (hash1 >>> shift) & MASK;
+            int mask2 = (hash2 >>> shift) & MASK;
+            if (mask1 != mask2) {
+                Object[] content = mask1 < mask2
+                        ? new Object[]{key1, value1, key2, value2}
+                        : new Object[]{key2, value2, key1, value1};
+                return new BitmapNode((1 << mask1) | (1 << mask2), 0, content);
+            }
+            return new BitmapNode(0, 1 << mask1,
+                    new Object[]{merge(key1, value1, hash1, key2, value2, hash2, shift + BITS)});
+        }
+    }
+
+    /**
+     * Leaf holding keys whose 32-bit hashes are identical.
+     */
+    private static final class CollisionNode extends Node {
+        private final int hash;
+        private final Object[] content;
+
+        CollisionNode(int hash, Object[] content) {
+            this.hash = hash;
+            this.content = content;
+        }
+
+        @Override
+        Object get(Object key, int hash, int shift) {
+            for (int i = 0; i < content.length; i += 2) {
+                if (key.equals(content[i])) {
+                    return content[i + 1];
+                }
+            }
+            return null;
+        }
+
+        @Override
+        Node put(Object key, Object value, int hash, int shift, Change change) {
+            for (int i = 0; i < content.length; i += 2) {
+                if (key.equals(content[i])) {
+                    change.replaced = true;
+                    if (content[i + 1] == value) {
+                        return this;
+                    }
+                    Object[] copy = content.clone();
+                    copy[i + 1] = value;
+                    return new CollisionNode(this.hash, copy);
+                }
+            }
+            Object[] copy = new Object[content.length + 2];
+            System.arraycopy(content, 0, copy, 0, content.length);
+            copy[content.length] = key;
+            copy[content.length + 1] = value;
+            return new CollisionNode(this.hash, copy);
+        }
+
+        @Override
+        Node remove(Object key, int hash, int shift) {
+            for (int i = 0; i < content.length; i += 2) {
+                if (key.equals(content[i])) {
+                    Object[] copy = new Object[content.length - 2];
+                    System.arraycopy(content, 0, copy, 0, i);
+                    System.arraycopy(content, i + 2, copy, i, content.length - i - 2);
+                    return new CollisionNode(this.hash, copy);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < content.length; i += 2) {
+                action.accept(content[i], content[i + 1]);
+            }
+        }
+
+        @Override
+        int dataArity() {
+            return content.length / 2;
+        }
+
+        @Override
+        Object keyAt(int index) {
+            return content[2 * index];
+        }
+
+        @Override
+        Object valueAt(int index) {
+            return content[2 * index + 1];
+        }
+
+        @Override
+        int nodeArity() {
+            return 0;
+        }
+
+        @Override
+        Node nodeAt(int index) {
+            throw new IndexOutOfBoundsException(index);
+        }
+    }
+
+    /**
+     * Depth-first traversal of the values. Splitting hands over half of the pending sub-trees; a spliterator holding a
+     * single unvisited sub-tree first opens it up, so large maps split down to small chunks.
+     */
+    private static final class ValueSpliterator<V> implements Spliterator<V> {
+        private final ArrayDeque<Node> pending = new ArrayDeque<>();
+        private Node current;
+        private int dataIndex;
+        private long estimate;
+
+        ValueSpliterator(Node root, long estimate) {
+            this.pending.push(root);
+            this.estimate = estimate;
+        }
+
+        private ValueSpliterator(long estimate) {
+            this.estimate = estimate;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(Consumer<? super V> action) {
+            while (current == null || dataIndex >= current.dataArity()) {
+                if (pending.isEmpty()) {
+                    current = null;
+                    return false;
+                }
+                open(pending.pop());
+            }
+            action.accept((V) current.valueAt(dataIndex++));
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void forEachRemaining(Consumer<? super V> action) {
+            while (true) {
+                if (current != null) {
+                    for (int arity = current.dataArity(); dataIndex < arity; dataIndex++) {
+                        action.accept((V) current.valueAt(dataIndex));
+                    }
+                }
+                if (pending.isEmpty()) {
+                    current = null;
+                    return;
+                }
+                open(pending.pop());
+            }
+        }
+
+        @Override
+        public Spliterator<V> trySplit() {
+            if (pending.size() == 1 && (current == null || dataIndex >= current.dataArity())) {
+                open(pending.pop());
+            }
+            int half = pending.size() / 2;
+            if (half == 0) {
+                return null;
+            }
+            ValueSpliterator<V> prefix = new ValueSpliterator<>(estimate >>> 1);
+            for (int i = 0; i < half; i++) {
+                prefix.pending.addLast(pending.pollLast());
+            }
+            estimate -= prefix.estimate;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return IMMUTABLE | NONNULL;
+        }
+
+        private void open(Node node) {
+            current = node;
+            dataIndex = 0;
+            for (int i = 0; i < node.nodeArity(); i++) {
+                pending.push(node.nodeAt(i));
+            }
+        }
+    }
+}
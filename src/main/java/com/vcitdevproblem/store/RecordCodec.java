@@ -0,0 +1,48 @@
+package com.vcitdevproblem.store;
+
+import com.vcitdevproblem.model.Client;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Binary encoding of clients in segment blocks. The ID number is the entry key and is not repeated in the value.
+ */
+final class RecordCodec {
+
+    private RecordCodec() {
+    }
+
+    static void write(DataOutput out, Client client) throws IOException {
+        writeNullable(out, client.getFirstName());
+        writeNullable(out, client.getLastName());
+        writeNullable(out, client.getMobileNumber());
+        writeNullable(out, client.getPhysicalAddress());
+    }
+
+    static Client read(DataInput in, String idNumber) throws IOException {
+        String firstName = readNullable(in);
+        String lastName = readNullable(in);
+        String mobileNumber = readNullable(in);
+        String physicalAddress = readNullable(in);
+        return new Client(firstName, lastName, mobileNumber, idNumber, physicalAddress);
+    }
+
+    static void skip(DataInput in) throws IOException {
+        for (int i = 0; i < 4; i++) {
+            readNullable(in);
+        }
+    }
+
+    private static void writeNullable(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
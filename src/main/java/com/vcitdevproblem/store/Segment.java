@@ -0,0 +1,568 @@
+package com.vcitdevproblem.store;
+
+import com.vcitdevproblem.model.Client;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Immutable on-disk run of clients sorted by ID number: Deflate-compressed data blocks followed by a sparse index
+ * (first key and location of every block) and a bloom filter over all keys, both of which are held in memory while
+ * the segment is in use. The file is memory-mapped, so its blocks live in the page cache rather than on the heap,
+ * and a lookup inflates at most one block, none when the bloom filter rules the key out. Deletions are stored as
+ * tombstones so that they shadow older segments.
+ * <p>
+ * Segments are reference counted. The store holds one reference while a segment is in its current snapshot, and
+ * every block read holds one while it inflates. Once the store {@link #retire(Runnable) retires} a segment that was
+ * compacted away and the last read in progress finishes, the file is deleted and the retirement action runs. A
+ * snapshot taken before the compaction can still read a deleted segment: the mapping outlives the file and is
+ * released once the segment is collected.
+ */
+final class Segment {
+
+    /**
+     * Marker returned by {@link #find(String)} for a key deleted in this segment.
+     */
+    static final Client TOMBSTONE = new Client();
+
+    private static final int MAGIC = 0x56434954;
+    private static final AtomicLong IDS = new AtomicLong();
+
+    private final long id = IDS.incrementAndGet();
+    private final Path path;
+    private final MappedByteBuffer data;
+    private final String[] firstKeys;
+    private final long[] offsets;
+    private final int[] compressedLengths;
+    private final int[] rawLengths;
+    private final BloomFilter bloom;
+    private final long entryCount;
+    private final AtomicInteger references = new AtomicInteger(1);
+    private volatile Runnable onRetired;
+
+    private Segment(Path path, MappedByteBuffer data, String[] firstKeys, long[] offsets, int[] compressedLengths,
+                    int[] rawLengths, BloomFilter bloom, long entryCount) {
+        this.path = path;
+        this.data = data;
+        this.firstKeys = firstKeys;
+        this.offsets = offsets;
+        this.compressedLengths = compressedLengths;
+        this.rawLengths = rawLengths;
+        this.bloom = bloom;
+        this.entryCount = entryCount;
+    }
+
+    /**
+     * Writes a segment from entries in ascending key order and opens it.
+     *
+     * @param path            the file to create
+     * @param entries         the entries, sorted by key; a {@link #TOMBSTONE} value marks a deletion
+     * @param expectedEntries the number of entries, used to size the bloom filter
+     * @param blockSize       the uncompressed size at which a block is closed
+     * @param bitsPerKey      bloom filter bits per key
+     * @return the open segment
+     * @throws IOException if the file cannot be written
+     */
+    static Segment write(Path path, Iterator<Map.Entry<String, Client>> entries, long expectedEntries, int blockSize,
+                         int bitsPerKey) throws IOException {
+        BloomFilter bloom = BloomFilter.create(expectedEntries, bitsPerKey);
+        List<String> firstKeys = new ArrayList<>();
+        List<long[]> locations = new ArrayList<>();
+        long entryCount = 0;
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (CountingOutputStream file = new CountingOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)))) {
+            ByteArrayOutputStream raw = new ByteArrayOutputStream(blockSize + 1024);
+            DataOutputStream block = new DataOutputStream(raw);
+            String blockFirstKey = null;
+            String previousKey = null;
+            while (entries.hasNext()) {
+                Map.Entry<String, Client> entry = entries.next();
+                String key = entry.getKey();
+                if (previousKey != null && previousKey.compareTo(key) >= 0) {
+                    throw new IllegalArgumentException("Segment entries must be in strictly ascending key order.");
+                }
+                previousKey = key;
+                if (blockFirstKey == null) {
+                    blockFirstKey = key;
+                }
+                block.writeUTF(key);
+                block.writeBoolean(entry.getValue() == TOMBSTONE);
+                if (entry.getValue() != TOMBSTONE) {
+                    RecordCodec.write(block, entry.getValue());
+                }
+                bloom.add(key);
+                entryCount++;
+                if (raw.size() >= blockSize) {
+                    locations.add(flushBlock(raw, deflater, file));
+                    firstKeys.add(blockFirstKey);
+                    blockFirstKey = null;
+                }
+            }
+            if (blockFirstKey != null) {
+                locations.add(flushBlock(raw, deflater, file));
+                firstKeys.add(blockFirstKey);
+            }
+
+            DataOutputStream tail = new DataOutputStream(file);
+            long indexOffset = file.count;
+            tail.writeInt(firstKeys.size());
+            for (int i = 0; i < firstKeys.size(); i++) {
+                tail.writeUTF(firstKeys.get(i));
+                tail.writeLong(locations.get(i)[0]);
+                tail.writeInt((int) locations.get(i)[1]);
+                tail.writeInt((int) locations.get(i)[2]);
+            }
+            long bloomOffset = file.count;
+            bloom.writeTo(tail);
+            tail.writeLong(indexOffset);
+            tail.writeLong(bloomOffset);
+            tail.writeLong(entryCount);
+            tail.writeInt(MAGIC);
+            tail.flush();
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(path);
+            throw ex;
+        } finally {
+            deflater.end();
+        }
+
+        int blocks = firstKeys.size();
+        long[] offsets = new long[blocks];
+        int[] compressedLengths = new int[blocks];
+        int[] rawLengths = new int[blocks];
+        for (int i = 0; i < blocks; i++) {
+            offsets[i] = locations.get(i)[0];
+            compressedLengths[i] = (int) locations.get(i)[1];
+            rawLengths[i] = (int) locations.get(i)[2];
+        }
+        MappedByteBuffer data;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                Files.deleteIfExists(path);
+                throw new IOException("Segment exceeds 2 GB: " + path);
+            }
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        return new Segment(path, data, firstKeys.toArray(new String[0]), offsets, compressedLengths, rawLengths,
+                bloom, entryCount);
+    }
+
+    long getId() {
+        return id;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    long getEntryCount() {
+        return entryCount;
+    }
+
+    int getBlockCount() {
+        return firstKeys.length;
+    }
+
+    /**
+     * @return the heap held while the segment is open: its sparse index and bloom filter
+     */
+    long residentBytes() {
+        long bytes = bloom.sizeInBytes() + firstKeys.length * (Long.BYTES + 2L * Integer.BYTES);
+        for (String key : firstKeys) {
+            bytes += 40 + 2L * key.length();
+        }
+        return bytes;
+    }
+
+    /**
+     * @return whether the segment was retired and its file deleted
+     */
+    boolean isReleased() {
+        return references.get() == 0;
+    }
+
+    /**
+     * Gives up the store's reference to a segment no longer in its current snapshot. The file is deleted and the
+     * action runs as soon as no block read is in progress, which may be right away.
+     *
+     * @param action run once the file is deleted, e.g. to evict the segment's clients from the hot tier
+     */
+    void retire(Runnable action) {
+        onRetired = action;
+        release();
+    }
+
+    /**
+     * @return whether a reference was taken; false once the segment is released
+     */
+    private boolean retain() {
+        int count;
+        do {
+            count = references.get();
+            if (count == 0) {
+                return false;
+            }
+        } while (!references.compareAndSet(count, count + 1));
+        return true;
+    }
+
+    private void release() {
+        if (references.decrementAndGet() == 0) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ignored) {
+                // Best effort: the store directory is cleared on the next start.
+            }
+            Runnable action = onRetired;
+            if (action != null) {
+                action.run();
+            }
+        }
+    }
+
+    boolean mightContain(String key) {
+        return bloom.mightContain(key);
+    }
+
+    /**
+     * Looks a key up in this segment.
+     *
+     * @param key the ID number
+     * @return the client, {@link #TOMBSTONE} if the key was deleted in this segment, or null if it is absent
+     * @throws UncheckedIOException if the block cannot be read
+     */
+    Client find(String key) {
+        int block = blockOf(key);
+        if (block < 0) {
+            return null;
+        }
+        try (DataInputStream in = blockInput(block)) {
+            while (in.available() > 0) {
+                String entryKey = in.readUTF();
+                boolean tombstone = in.readBoolean();
+                int order = entryKey.compareTo(key);
+                if (order == 0) {
+                    return tombstone ? TOMBSTONE : RecordCodec.read(in, entryKey);
+                }
+                if (order > 0) {
+                    return null;
+                }
+                if (!tombstone) {
+                    RecordCodec.skip(in);
+                }
+            }
+            return null;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read " + path, ex);
+        }
+    }
+
+    /**
+     * @return an iterator over every entry in key order, tombstones included
+     */
+    Iterator<Map.Entry<String, Client>> iterator() {
+        return new EntryIterator(0, firstKeys.length);
+    }
+
+    /**
+     * Iterates over the entries in a key range, tombstones included, reading only the blocks that overlap it.
+     *
+     * @param fromKey the lowest key to return, or null to start at the first entry
+     * @param toKey   the key at which to stop, exclusive, or null to run to the last entry
+     * @return an iterator over the entries of the range in key order
+     */
+    Iterator<Map.Entry<String, Client>> iterator(String fromKey, String toKey) {
+        int fromBlock = fromKey == null ? 0 : Math.max(blockOf(fromKey), 0);
+        int toBlock = toKey == null ? firstKeys.length : blockOf(toKey) + 1;
+        return new RangeIterator(new EntryIterator(fromBlock, toBlock), fromKey, toKey);
+    }
+
+    /**
+     * Picks a block boundary near the middle of a key range, at which a scan of the range can be split.
+     *
+     * @param fromKey the start of the range, inclusive, or null
+     * @param toKey   the end of the range, exclusive, or null
+     * @return the first key of a block lying strictly inside the range, or null if the range spans under two blocks
+     */
+    String middleKey(String fromKey, String toKey) {
+        int fromBlock = fromKey == null ? 0 : blockOf(fromKey) + 1;
+        int toBlock = toKey == null ? firstKeys.length : blockOf(toKey) + 1;
+        if (toKey != null && toBlock > 0 && firstKeys[toBlock - 1].equals(toKey)) {
+            toBlock--;
+        }
+        return toBlock - fromBlock < 2 ? null : firstKeys[fromBlock + (toBlock - fromBlock) / 2];
+    }
+
+    /**
+     * @return the number of blocks in this segment that overlap the key range
+     */
+    int blocksBetween(String fromKey, String toKey) {
+        int fromBlock = fromKey == null ? 0 : Math.max(blockOf(fromKey), 0);
+        int toBlock = toKey == null ? firstKeys.length : blockOf(toKey) + 1;
+        return Math.max(toBlock - fromBlock, 0);
+    }
+
+    /**
+     * @return the index of the block whose key range holds the key, or -1 if it precedes the first block
+     */
+    private int blockOf(String key) {
+        int block = Arrays.binarySearch(firstKeys, key);
+        return block < 0 ? -block - 2 : block;
+    }
+
+    /**
+     * @return a spliterator over the live (non-deleted) clients, splitting along block boundaries
+     */
+    Spliterator<Client> liveSpliterator() {
+        return new LiveSpliterator(new EntryIterator(0, firstKeys.length), 0, firstKeys.length);
+    }
+
+    private DataInputStream blockInput(int block) throws IOException {
+        // Reads of a released segment go on through the mapping, which stays valid after the file is deleted.
+        boolean retained = retain();
+        try {
+            return inflate(block);
+        } finally {
+            if (retained) {
+                release();
+            }
+        }
+    }
+
+    private DataInputStream inflate(int block) throws IOException {
+        ByteBuffer compressed = data.slice((int) offsets[block], compressedLengths[block]);
+        byte[] raw = new byte[rawLengths[block]];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int read = 0;
+            while (read < raw.length) {
+                int n = inflater.inflate(raw, read, raw.length - read);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new IOException("Truncated block " + block + " in " + path);
+                }
+                read += n;
+            }
+        } catch (DataFormatException ex) {
+            throw new IOException("Corrupt block " + block + " in " + path, ex);
+        } finally {
+            inflater.end();
+        }
+        return new DataInputStream(new ByteArrayInputStream(raw));
+    }
+
+    private static long[] flushBlock(ByteArrayOutputStream raw, Deflater deflater, CountingOutputStream file)
+            throws IOException {
+        byte[] input = raw.toByteArray();
+        deflater.reset();
+        deflater.setInput(input);
+        deflater.finish();
+        long offset = file.count;
+        byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+            int n = deflater.deflate(buffer);
+            file.write(buffer, 0, n);
+        }
+        raw.reset();
+        return new long[]{offset, file.count - offset, input.length};
+    }
+
+    /**
+     * Sequential reader over a range of blocks, decoding one block at a time.
+     */
+    private final class EntryIterator implements Iterator<Map.Entry<String, Client>> {
+        private int nextBlock;
+        private final int endBlock;
+        private DataInputStream current;
+        private Map.Entry<String, Client> next;
+
+        EntryIterator(int fromBlock, int toBlock) {
+            this.nextBlock = fromBlock;
+            this.endBlock = toBlock;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            try {
+                while (current == null || current.available() == 0) {
+                    if (nextBlock >= endBlock) {
+                        return false;
+                    }
+                    current = blockInput(nextBlock++);
+                }
+                String key = current.readUTF();
+                Client client = current.readBoolean() ? TOMBSTONE : RecordCodec.read(current, key);
+                next = Map.entry(key, client);
+                return true;
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Failed to read " + path, ex);
+            }
+        }
+
+        @Override
+        public Map.Entry<String, Client> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<String, Client> entry = next;
+            next = null;
+            return entry;
+        }
+    }
+
+    /**
+     * Entries of a key range, skipping those of its first block that precede it and stopping at its end.
+     */
+    private static final class RangeIterator implements Iterator<Map.Entry<String, Client>> {
+        private final Iterator<Map.Entry<String, Client>> entries;
+        private final String fromKey;
+        private final String toKey;
+        private Map.Entry<String, Client> next;
+        private boolean done;
+
+        RangeIterator(Iterator<Map.Entry<String, Client>> entries, String fromKey, String toKey) {
+            this.entries = entries;
+            this.fromKey = fromKey;
+            this.toKey = toKey;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && !done) {
+                if (!entries.hasNext()) {
+                    done = true;
+                } else {
+                    Map.Entry<String, Client> entry = entries.next();
+                    if (toKey != null && entry.getKey().compareTo(toKey) >= 0) {
+                        done = true;
+                    } else if (fromKey == null || entry.getKey().compareTo(fromKey) >= 0) {
+                        next = entry;
+                    }
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<String, Client> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<String, Client> entry = next;
+            next = null;
+            return entry;
+        }
+    }
+
+    /**
+     * Live clients of a block range; splits by handing over the upper half of the blocks not yet started.
+     */
+    private final class LiveSpliterator implements Spliterator<Client> {
+        private EntryIterator entries;
+        private final int fromBlock;
+        private int toBlock;
+
+        LiveSpliterator(EntryIterator entries, int fromBlock, int toBlock) {
+            this.entries = entries;
+            this.fromBlock = fromBlock;
+            this.toBlock = toBlock;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Client> action) {
+            while (entries.hasNext()) {
+                Client client = entries.next().getValue();
+                if (client != TOMBSTONE) {
+                    action.accept(client);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<Client> trySplit() {
+            int started = entries.nextBlock;
+            int remaining = toBlock - started;
+            if (entries.current != null || remaining < 2) {
+                return null;
+            }
+            int middle = started + remaining / 2;
+            LiveSpliterator suffix = new LiveSpliterator(new EntryIterator(middle, toBlock), middle, toBlock);
+            toBlock = middle;
+            entries = new EntryIterator(started, middle);
+            return suffix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return firstKeys.length == 0 ? 0 : entryCount * (toBlock - fromBlock) / firstKeys.length;
+        }
+
+        @Override
+        public int characteristics() {
+            return IMMUTABLE | NONNULL;
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private final OutputStream out;
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
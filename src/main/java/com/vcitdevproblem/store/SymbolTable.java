@@ -0,0 +1,132 @@
+package com.vcitdevproblem.store;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent, reference-counted table of interned strings, each identified by a small integer code.
+ * <p>
+ * Every holder of a value acquires it and releases it when done; all holders then share one {@code String} instance
+ * and can compare codes instead of strings. A value is dropped with its last reference and its code is reused, so a
+ * code is only meaningful while the value is held: a reader of an older snapshot must confirm a code match against
+ * the string itself.
+ */
+public final class SymbolTable {
+
+    /**
+     * The code of a value that is not in the table.
+     */
+    public static final int NO_SYMBOL = -1;
+
+    private final ConcurrentHashMap<String, Symbol> symbols = new ConcurrentHashMap<>();
+    private final LongAdder references = new LongAdder();
+    private final Object codeLock = new Object();
+    private volatile String[] values = new String[64];
+    private int[] freeCodes = new int[16];
+    private int freeCount;
+    private int nextCode;
+
+    /**
+     * Adds a reference to a value, interning it if it is new.
+     *
+     * @param value the value to hold
+     * @return the code of the value
+     */
+    public int acquire(String value) {
+        return symbols.compute(value, (key, symbol) -> {
+            if (symbol == null) {
+                symbol = new Symbol(key, allocate(key));
+            }
+            symbol.references++;
+            references.increment();
+            return symbol;
+        }).code;
+    }
+
+    /**
+     * Drops a reference to a value, removing it and freeing its code with the last reference.
+     *
+     * @param value the value to release
+     */
+    public void release(String value) {
+        symbols.computeIfPresent(value, (key, symbol) -> {
+            references.decrement();
+            if (--symbol.references > 0) {
+                return symbol;
+            }
+            synchronized (codeLock) {
+                values[symbol.code] = null;
+                if (freeCount == freeCodes.length) {
+                    freeCodes = Arrays.copyOf(freeCodes, freeCount * 2);
+                }
+                freeCodes[freeCount++] = symbol.code;
+                return null;
+            }
+        });
+    }
+
+    /**
+     * @param value the value to look up
+     * @return the code of the value, or {@link #NO_SYMBOL} if nobody holds it
+     */
+    public int code(String value) {
+        Symbol symbol = symbols.get(value);
+        return symbol != null ? symbol.code : NO_SYMBOL;
+    }
+
+    /**
+     * @param value the value to look up
+     * @return the shared instance of the value, or the value itself if nobody holds it
+     */
+    public String canonical(String value) {
+        Symbol symbol = symbols.get(value);
+        return symbol != null ? symbol.value : value;
+    }
+
+    /**
+     * @param code the code of a held value
+     * @return the value, or null if the code is free
+     */
+    public String value(int code) {
+        String[] current = values;
+        return code >= 0 && code < current.length ? current[code] : null;
+    }
+
+    /**
+     * @return the number of distinct values held
+     */
+    public int size() {
+        return symbols.size();
+    }
+
+    /**
+     * @return the number of references to all values
+     */
+    public long references() {
+        return references.sum();
+    }
+
+    private int allocate(String value) {
+        synchronized (codeLock) {
+            int code = freeCount > 0 ? freeCodes[--freeCount] : nextCode++;
+            if (code == values.length) {
+                values = Arrays.copyOf(values, code * 2);
+            }
+            values[code] = value;
+            return code;
+        }
+    }
+
+    private static final class Symbol {
+
+        private final String value;
+        private final int code;
+        private int references;
+
+        private Symbol(String value, int code) {
+            this.value = value;
+            this.code = code;
+        }
+    }
+}
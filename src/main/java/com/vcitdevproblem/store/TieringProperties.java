@@ -0,0 +1,89 @@
+package com.vcitdevproblem.store;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+/**
+ * Configuration of the tiered client store, bound from {@code store.tiering.*}. When disabled, every client stays
+ * in memory.
+ */
+@ConfigurationProperties(prefix = "store.tiering")
+public class TieringProperties {
+
+    private boolean enabled = false;
+    /**
+     * Directory holding the cold tier's segment files; cleared on start-up.
+     */
+    private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "vcit-client-store");
+    /**
+     * Maximum number of cold clients cached in memory after being read from disk.
+     */
+    private int hotCapacity = 100_000;
+    /**
+     * Number of recently written clients held in memory before they are flushed to a segment.
+     */
+    private int memtableLimit = 50_000;
+    private int blockSize = 16 * 1024;
+    private int bloomBitsPerKey = 10;
+    /**
+     * Number of segments at which they are merged into one.
+     */
+    private int maxSegments = 4;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(Path directory) {
+        this.directory = directory;
+    }
+
+    public int getHotCapacity() {
+        return hotCapacity;
+    }
+
+    public void setHotCapacity(int hotCapacity) {
+        this.hotCapacity = hotCapacity;
+    }
+
+    public int getMemtableLimit() {
+        return memtableLimit;
+    }
+
+    public void setMemtableLimit(int memtableLimit) {
+        this.memtableLimit = memtableLimit;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public void setBlockSize(int blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    public int getBloomBitsPerKey() {
+        return bloomBitsPerKey;
+    }
+
+    public void setBloomBitsPerKey(int bloomBitsPerKey) {
+        this.bloomBitsPerKey = bloomBitsPerKey;
+    }
+
+    public int getMaxSegments() {
+        return maxSegments;
+    }
+
+    public void setMaxSegments(int maxSegments) {
+        this.maxSegments = maxSegments;
+    }
+}
@@ -0,0 +1,255 @@
+package com.vcitdevproblem.synthetic;
+
+import com.vcitdevproblem.model.Client;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Deterministic generator of realistic, valid clients for capacity tests and load tests.
+ * <p>
+ * Client {@code i} is a pure function of the seed and {@code i}, so any range can be generated independently and in
+ * parallel, and the same seed always yields the same register. ID numbers carry a real date of birth between 1930
+ * and 2005, a serial whose range encodes the gender, a citizenship digit (about one in twenty are permanent
+ * residents) and a check digit accepted by {@code IdNumberValidator}. Mobile numbers match the API's
+ * {@code 0[6-8]XXXXXXXX} pattern. Both are unique within a seed: each is an affine permutation of the client's
+ * position over its whole value space, which keeps them unique without remembering what was handed out.
+ * <p>
+ * Run as a program to write clients as newline-delimited JSON:
+ * {@code SyntheticClientGenerator <count> [seed] [output file, or - for stdout]}.
+ */
+public final class SyntheticClientGenerator {
+
+    private static final LocalDate FIRST_BIRTH_DATE = LocalDate.of(1930, 1, 1);
+    private static final long BIRTH_DAYS = LocalDate.of(2006, 1, 1).toEpochDay() - FIRST_BIRTH_DATE.toEpochDay();
+    private static final long ID_SPACE = BIRTH_DAYS * 10_000;
+    private static final long MOBILE_SPACE = 300_000_000L;
+    /**
+     * Coprime to the spaces they permute, and close to their golden section so that neighbouring clients land far
+     * apart.
+     */
+    private static final long ID_MULTIPLIER = goldenCoprime(ID_SPACE);
+    private static final long MOBILE_MULTIPLIER = goldenCoprime(MOBILE_SPACE);
+
+    /**
+     * The largest number of clients one seed can produce without repeating an ID number or mobile number.
+     */
+    public static final long MAX_CLIENTS = Math.min(ID_SPACE, MOBILE_SPACE);
+
+    private static final int NDJSON_CHUNK = 1 << 16;
+
+    private static final String[] FIRST_NAMES = {"John", "Jane", "Thabo", "Naledi", "Pieter", "Anika", "Sipho",
+            "Lerato", "Johan", "Zanele", "Ahmed", "Fatima", "David", "Precious", "Kagiso", "Megan", "Themba", "Ayanda",
+            "Willem", "Chantel", "Bongani", "Nomvula", "Rajesh", "Priya", "Mandla", "Busisiwe", "Hendrik", "Karabo",
+            "Michael", "Palesa", "Tshepo", "Refilwe", "Andile", "Nadia", "Lwazi", "Kim", "Sizwe", "Thandiwe",
+            "Ruan", "Mpho"};
+    private static final String[] LAST_NAMES = {"Doe", "Smith", "Nkosi", "Dlamini", "van der Merwe", "Botha",
+            "Naidoo", "Mokoena", "Pillay", "Khumalo", "Jacobs", "Adams", "Mahlangu", "Pretorius", "Zulu", "Cele",
+            "Ndlovu", "Sithole", "Coetzee", "Mthembu", "Govender", "Molefe", "Venter", "Ngcobo", "du Plessis",
+            "Mabaso", "Williams", "Petersen", "Radebe", "Steyn", "Moloi", "Fourie", "Maseko", "Hendricks", "Buthelezi",
+            "Nel", "Tshabalala", "Reddy", "Kruger", "Shabalala"};
+    private static final String[] STREETS = {"Elm Street", "Maple Avenue", "Main Road", "Church Street",
+            "Long Street", "Voortrekker Road", "Jan Smuts Avenue", "Nelson Mandela Drive", "Oxford Road",
+            "Beach Road", "Rivonia Road", "Bree Street", "Vilakazi Street", "Kloof Street", "Louis Botha Avenue",
+            "Florida Road"};
+    private static final String[] TOWNS = {"Johannesburg", "Cape Town", "Durban", "Pretoria", "Soweto",
+            "Gqeberha", "Bloemfontein", "East London", "Polokwane", "Mbombela", "Kimberley", "Stellenbosch"};
+
+    private final long seed;
+    private final long idOffset;
+    private final long mobileOffset;
+
+    /**
+     * @param seed selects the register; the same seed always generates the same clients
+     */
+    public SyntheticClientGenerator(long seed) {
+        this.seed = seed;
+        SplittableRandom random = new SplittableRandom(seed);
+        this.idOffset = random.nextLong(ID_SPACE);
+        this.mobileOffset = random.nextLong(MOBILE_SPACE);
+    }
+
+    /**
+     * @param index the position of the client, from 0 (inclusive) to {@link #MAX_CLIENTS} (exclusive)
+     * @return the client at that position
+     * @throws IllegalArgumentException if the index is out of range
+     */
+    public Client generate(long index) {
+        if (index < 0 || index >= MAX_CLIENTS) {
+            throw new IllegalArgumentException("Client index out of range: " + index);
+        }
+        SplittableRandom random = new SplittableRandom(seed ^ (index * 0x9e3779b97f4a7c15L));
+        return new Client(
+                FIRST_NAMES[random.nextInt(FIRST_NAMES.length)],
+                LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                mobileNumber(index),
+                idNumber(index, random.nextInt(20) == 0),
+                (1 + random.nextInt(999)) + " " + STREETS[random.nextInt(STREETS.length)] + ", "
+                        + TOWNS[random.nextInt(TOWNS.length)]);
+    }
+
+    /**
+     * @param fromIndex the position of the first client (inclusive)
+     * @param toIndex   the position after the last client (exclusive), at most {@link #MAX_CLIENTS}
+     * @return the clients in the range, in order; parallel streams generate them in parallel
+     */
+    public Stream<Client> stream(long fromIndex, long toIndex) {
+        if (fromIndex < 0 || toIndex > MAX_CLIENTS || fromIndex > toIndex) {
+            throw new IllegalArgumentException("Client range out of bounds: " + fromIndex + ".." + toIndex);
+        }
+        return LongStream.range(fromIndex, toIndex).mapToObj(this::generate);
+    }
+
+    /**
+     * Writes clients {@code 0} to {@code count - 1} as newline-delimited JSON, in order. Clients are generated in
+     * parallel chunks.
+     *
+     * @param writer the destination
+     * @param count  the number of clients
+     * @throws IOException if writing fails
+     */
+    public void writeNdjson(Writer writer, long count) throws IOException {
+        if (count < 0 || count > MAX_CLIENTS) {
+            throw new IllegalArgumentException("Client count out of range: " + count);
+        }
+        for (long from = 0; from < count; from += NDJSON_CHUNK) {
+            long start = from;
+            int size = (int) Math.min(NDJSON_CHUNK, count - from);
+            String[] lines = new String[size];
+            IntStream.range(0, size).parallel().forEach(i -> lines[i] = toJson(generate(start + i)));
+            for (String line : lines) {
+                writer.write(line);
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * @param client the client to serialize
+     * @return the client as a single-line JSON object with the API's field names
+     */
+    public static String toJson(Client client) {
+        StringBuilder json = new StringBuilder(160);
+        json.append('{');
+        field(json, "firstName", client.getFirstName()).append(',');
+        field(json, "lastName", client.getLastName()).append(',');
+        field(json, "mobileNumber", client.getMobileNumber()).append(',');
+        field(json, "idNumber", client.getIdNumber()).append(',');
+        field(json, "physicalAddress", client.getPhysicalAddress());
+        return json.append('}').toString();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: SyntheticClientGenerator <count> [seed] [output file, or - for stdout]");
+            System.exit(2);
+        }
+        long count = Long.parseLong(args[0]);
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        SyntheticClientGenerator generator = new SyntheticClientGenerator(seed);
+        if (args.length < 3 || "-".equals(args[2])) {
+            Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+            generator.writeNdjson(out, count);
+            return;
+        }
+        Path output = Path.of(args[2]);
+        if (output.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(output.toAbsolutePath().getParent());
+        }
+        try (Writer out = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            generator.writeNdjson(out, count);
+        }
+    }
+
+    private String idNumber(long index, boolean permanentResident) {
+        long position = Math.floorMod(index * ID_MULTIPLIER + idOffset, ID_SPACE);
+        LocalDate birthDate = LocalDate.ofEpochDay(FIRST_BIRTH_DATE.toEpochDay() + position / 10_000);
+        char[] digits = new char[13];
+        twoDigits(digits, 0, birthDate.getYear() % 100);
+        twoDigits(digits, 2, birthDate.getMonthValue());
+        twoDigits(digits, 4, birthDate.getDayOfMonth());
+        int serial = (int) (position % 10_000);
+        twoDigits(digits, 6, serial / 100);
+        twoDigits(digits, 8, serial % 100);
+        digits[10] = permanentResident ? '1' : '0';
+        digits[11] = '8';
+        digits[12] = (char) ('0' + checkDigit(digits));
+        return new String(digits);
+    }
+
+    private String mobileNumber(long index) {
+        long position = Math.floorMod(index * MOBILE_MULTIPLIER + mobileOffset, MOBILE_SPACE);
+        char[] digits = new char[10];
+        digits[0] = '0';
+        digits[1] = (char) ('6' + position / 100_000_000);
+        long subscriber = position % 100_000_000;
+        for (int i = 9; i >= 2; i--) {
+            digits[i] = (char) ('0' + subscriber % 10);
+            subscriber /= 10;
+        }
+        return new String(digits);
+    }
+
+    /**
+     * Computes the last digit so that the Luhn sum over all thirteen digits, doubling every second digit from the
+     * left starting with the second, is divisible by ten.
+     */
+    private static int checkDigit(char[] digits) {
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            int digit = digits[i] - '0';
+            if (i % 2 == 1) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    private static long goldenCoprime(long space) {
+        long multiplier = (long) (space * 0.6180339887498949);
+        while (gcd(multiplier, space) != 1) {
+            multiplier++;
+        }
+        return multiplier;
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    private static void twoDigits(char[] digits, int at, int value) {
+        digits[at] = (char) ('0' + value / 10);
+        digits[at + 1] = (char) ('0' + value % 10);
+    }
+
+    private static StringBuilder field(StringBuilder json, String name, String value) {
+        json.append('"').append(name).append("\":");
+        if (value == null) {
+            return json.append("null");
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\');
+            }
+            json.append(c);
+        }
+        return json.append('"');
+    }
+}
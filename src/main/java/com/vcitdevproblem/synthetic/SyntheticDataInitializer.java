@@ -0,0 +1,44 @@
+package com.vcitdevproblem.synthetic;
+
+import com.vcitdevproblem.service.ClientService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+
+/**
+ * Loads a generated register of {@code synthetic.clients} clients on application startup, for capacity planning
+ * and load tests. Clients are generated in parallel, one batch at a time. Nothing is loaded unless
+ * {@code synthetic.clients} is positive; the setting is read when the application starts, not when it is built.
+ */
+@Slf4j
+public class SyntheticDataInitializer implements CommandLineRunner {
+
+    private final ClientService clientService;
+    private final SyntheticDataProperties properties;
+
+    public SyntheticDataInitializer(ClientService clientService, SyntheticDataProperties properties) {
+        this.clientService = clientService;
+        this.properties = properties;
+    }
+
+    /**
+     * Generates and loads the configured number of clients, if any.
+     *
+     * @param args command-line arguments passed during the application startup; not used
+     */
+    @Override
+    public void run(String... args) {
+        long count = Math.min(properties.getClients(), SyntheticClientGenerator.MAX_CLIENTS);
+        if (count <= 0) {
+            return;
+        }
+        SyntheticClientGenerator generator = new SyntheticClientGenerator(properties.getSeed());
+        long started = System.nanoTime();
+        long loaded = 0;
+        for (long from = 0; from < count; from += properties.getBatchSize()) {
+            long to = Math.min(count, from + properties.getBatchSize());
+            loaded += clientService.loadClients(generator.stream(from, to).parallel());
+        }
+        long millis = (System.nanoTime() - started) / 1_000_000;
+        log.info("Loaded {} synthetic clients (seed {}) in {} ms.", loaded, properties.getSeed(), millis);
+    }
+}
@@ -0,0 +1,44 @@
+package com.vcitdevproblem.synthetic;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the synthetic register loaded at start-up, bound from {@code synthetic.*}.
+ */
+@ConfigurationProperties(prefix = "synthetic")
+public class SyntheticDataProperties {
+
+    /**
+     * Number of generated clients to load at start-up; none by default.
+     */
+    private long clients = 0;
+    private long seed = 42;
+    /**
+     * Number of clients generated and loaded per batch, which bounds the memory used while loading.
+     */
+    private int batchSize = 100_000;
+
+    public long getClients() {
+        return clients;
+    }
+
+    public void setClients(long clients) {
+        this.clients = clients;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+}
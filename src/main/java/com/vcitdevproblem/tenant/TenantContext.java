@@ -0,0 +1,37 @@
+package com.vcitdevproblem.tenant;
+
+/**
+ * The tenant of the request being served on the current thread, set by {@link TenantFilter}. Work that runs outside
+ * a request, such as loading the synthetic register at start-up, belongs to the {@value #DEFAULT_TENANT} tenant.
+ * <p>
+ * The tenant does not follow a request onto other threads: anything that completes asynchronously must resolve its
+ * {@link TenantPartition} on the request thread.
+ */
+public final class TenantContext {
+
+    public static final String DEFAULT_TENANT = "default";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    /**
+     * @return the tenant of the current request, or {@value #DEFAULT_TENANT} outside of one
+     */
+    public static String current() {
+        String tenant = CURRENT.get();
+        return tenant != null ? tenant : DEFAULT_TENANT;
+    }
+
+    /**
+     * @param tenant the tenant the current thread now serves
+     */
+    public static void set(String tenant) {
+        CURRENT.set(tenant);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,47 @@
+package com.vcitdevproblem.tenant;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Actuator endpoint ({@code /actuator/tenants}) exposing the quota, usage and index states of each tenant. Tenants
+ * not configured under {@code tenancy.tenants} are created here, with {@code POST /actuator/tenants/{name}}.
+ */
+@Endpoint(id = "tenants")
+public class TenantEndpoint {
+
+    private final TenantRegistry registry;
+
+    public TenantEndpoint(TenantRegistry registry) {
+        this.registry = registry;
+    }
+
+    @ReadOperation
+    public Map<String, Object> tenants() {
+        Map<String, Object> tenants = new TreeMap<>();
+        registry.getPartitions().forEach(partition -> tenants.put(partition.getTenant(), partition.status()));
+        return tenants;
+    }
+
+    @ReadOperation
+    public Map<String, Object> tenant(@Selector String name) {
+        TenantPartition partition = registry.find(name);
+        return partition != null ? partition.status() : null;
+    }
+
+    /**
+     * Creates the register of a tenant, with the default quota unless one is configured for it.
+     *
+     * @param name the tenant ID
+     * @return the quota, usage and index states of the tenant
+     */
+    @WriteOperation
+    public Map<String, Object> create(@Selector String name) {
+        return registry.create(name).status();
+    }
+}
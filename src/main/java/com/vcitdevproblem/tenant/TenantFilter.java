@@ -0,0 +1,211 @@
+package com.vcitdevproblem.tenant;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vcitdevproblem.dto.ClientResponse;
+import com.vcitdevproblem.exception.InvalidRequestParameterException;
+import com.vcitdevproblem.exception.TenantNotFoundException;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Servlet filter that resolves the tenant of a client API request and schedules it with the {@link TenantScheduler}.
+ * The tenant is named by the {@code /v1/tenants/{tenant}/clients} path or by the {@code tenancy.header} header,
+ * and is the {@value TenantContext#DEFAULT_TENANT} tenant when neither is given. A tenant that is neither configured
+ * nor created through the tenants endpoint is answered with 404.
+ * <p>
+ * A request granted a slot at once runs on its own thread. Otherwise it is put into asynchronous mode and queued, so
+ * no container thread waits for a slot; once it is granted one, the request is dispatched again, and the rest of the
+ * chain sees that asynchronous dispatch as the request's first. A request that cannot queue, or waits longer than its
+ * tenant's {@code queue-timeout}, is answered with a pre-serialized 429 envelope before it reaches the instance-wide
+ * admission budget.
+ */
+public class TenantFilter extends OncePerRequestFilter {
+
+    private static final String TENANT_PATH = "/v1/tenants/";
+    private static final String GRANTED_TICKET = TenantFilter.class.getName() + ".grantedTicket";
+
+    private final TenantRegistry registry;
+    private final TenantScheduler scheduler;
+    private final String header;
+    private final ObjectMapper objectMapper;
+    private final byte[] rejectionBody;
+
+    public TenantFilter(TenantRegistry registry, TenantScheduler scheduler, String header, ObjectMapper objectMapper)
+            throws JsonProcessingException {
+        this.registry = registry;
+        this.scheduler = scheduler;
+        this.header = header;
+        this.objectMapper = objectMapper;
+        this.rejectionBody = objectMapper.writeValueAsBytes(new ClientResponse<String>(
+                429, "api-fm-429", "Too many requests for this tenant.", "The service is busy, please try again shortly.",
+                null));
+    }
+
+    /**
+     * Queued requests come back as asynchronous dispatches once they are granted a slot.
+     */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            TenantScheduler.Ticket granted = (TenantScheduler.Ticket) request.getAttribute(GRANTED_TICKET);
+            if (granted == null) {
+                // The request ran here before and went asynchronous itself, such as a change stream.
+                filterChain.doFilter(request, response);
+                return;
+            }
+            request.removeAttribute(GRANTED_TICKET);
+            run(granted, request, response, filterChain);
+            return;
+        }
+
+        TenantPartition partition;
+        try {
+            partition = registry.partition(tenantOf(request));
+        } catch (InvalidRequestParameterException ex) {
+            write(response, HttpStatus.BAD_REQUEST, objectMapper.writeValueAsBytes(new ClientResponse<String>(
+                    400, "api-fm-400", ex.getMessage(), "Invalid input.", null)));
+            return;
+        } catch (TenantNotFoundException ex) {
+            write(response, HttpStatus.NOT_FOUND, objectMapper.writeValueAsBytes(new ClientResponse<String>(
+                    404, "api-fm-404", ex.getMessage(), "Tenant not found.", null)));
+            return;
+        }
+
+        TenantScheduler.Ticket ticket = scheduler.tryAcquire(partition);
+        if (ticket != null) {
+            run(ticket, request, response, filterChain);
+            return;
+        }
+        long timeoutMillis = partition.getQueueTimeout().toMillis();
+        if (timeoutMillis <= 0) {
+            partition.rejectRequest();
+            reject(response);
+            return;
+        }
+
+        AsyncContext asyncContext = request.startAsync(request, response);
+        asyncContext.setTimeout(timeoutMillis);
+        ticket = scheduler.enqueue(partition, granted -> {
+            request.setAttribute(GRANTED_TICKET, granted);
+            try {
+                asyncContext.dispatch();
+            } catch (IllegalStateException ex) {
+                // The request already failed or completed; its listener gives the slot back.
+            }
+        });
+        if (ticket == null) {
+            reject(response);
+            asyncContext.complete();
+            return;
+        }
+        asyncContext.addListener(new QueueListener(ticket));
+    }
+
+    private void run(TenantScheduler.Ticket ticket, HttpServletRequest request, HttpServletResponse response,
+                     FilterChain filterChain) throws ServletException, IOException {
+        TenantContext.set(ticket.getPartition().getTenant());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            TenantContext.clear();
+            scheduler.release(ticket);
+        }
+    }
+
+    /**
+     * @param request the request
+     * @return the tenant named by the request, or the default tenant
+     * @throws InvalidRequestParameterException if the path and the header name different tenants
+     */
+    private String tenantOf(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String fromPath = null;
+        if (path.startsWith(TENANT_PATH)) {
+            int end = path.indexOf('/', TENANT_PATH.length());
+            fromPath = path.substring(TENANT_PATH.length(), end < 0 ? path.length() : end);
+        }
+        String fromHeader = request.getHeader(header);
+        if (fromHeader != null && fromHeader.isBlank()) {
+            fromHeader = null;
+        }
+        if (fromPath != null && fromHeader != null && !fromPath.equals(fromHeader)) {
+            throw new InvalidRequestParameterException("The " + header + " header names tenant " + fromHeader
+                    + " but the path names tenant " + fromPath + ".");
+        }
+        return fromPath != null ? fromPath : fromHeader != null ? fromHeader : TenantContext.DEFAULT_TENANT;
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        write(response, HttpStatus.TOO_MANY_REQUESTS, rejectionBody);
+    }
+
+    private static void write(HttpServletResponse response, HttpStatus status, byte[] body) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * Takes a queued request out of its tenant's queue when it times out or fails, and gives back the slot of one
+     * that was granted but never dispatched.
+     */
+    private final class QueueListener implements AsyncListener {
+
+        private final TenantScheduler.Ticket ticket;
+
+        QueueListener(TenantScheduler.Ticket ticket) {
+            this.ticket = ticket;
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) throws IOException {
+            if (scheduler.cancel(ticket)) {
+                ticket.getPartition().rejectRequest();
+                AsyncContext asyncContext = event.getAsyncContext();
+                reject((HttpServletResponse) asyncContext.getResponse());
+                asyncContext.complete();
+            }
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            giveUp();
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            giveUp();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // A granted request that goes asynchronous again has released its slot when its dispatch returned.
+        }
+
+        private void giveUp() {
+            if (!scheduler.cancel(ticket)) {
+                scheduler.release(ticket);
+            }
+        }
+    }
+}
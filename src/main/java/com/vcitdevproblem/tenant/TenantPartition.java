@@ -0,0 +1,221 @@
+package com.vcitdevproblem.tenant;
+
+import com.vcitdevproblem.index.IndexManager;
+import com.vcitdevproblem.index.SortedClientIndex;
+import com.vcitdevproblem.index.TrigramIndex;
+import com.vcitdevproblem.store.ClientKeyFilters;
+import com.vcitdevproblem.store.ClientStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Everything one tenant's register consists of: its own store, key filters and indexes, the lock its writes are
+ * serialized on, and the quota it is held to. Nothing here is shared with other tenants, so one tenant's writes,
+ * bulk loads and index builds never wait for another's.
+ * <p>
+ * The tenant's memory quota is a number of clients, {@code max-clients}, rather than a number of bytes. The store
+ * and indexes do not account their memory per tenant, but what each tenant's register holds grows with its clients,
+ * so capping them bounds it without measuring every write.
+ * <p>
+ * At most {@code max-concurrent-requests} of the tenant's requests run at once, and up to
+ * {@code max-queued-requests} more wait in its queue, in arrival order. The {@link TenantScheduler} grants the
+ * instance's shared request slots to the queues of all tenants in proportion to their {@code weight}s; the queue
+ * and the count of running requests are kept here but only changed under its lock.
+ */
+public class TenantPartition {
+
+    private final String tenant;
+    private final ClientStore store;
+    private final ClientKeyFilters keyFilters;
+    private final TrigramIndex fuzzyIndex;
+    private final SortedClientIndex sortedIndex;
+    private final IndexManager indexManager;
+    private final Object writeLock = new Object();
+    private final long maxClients;
+    private final int maxConcurrentRequests;
+    private final int maxQueuedRequests;
+    private final int weight;
+    private final Duration queueTimeout;
+    private final LongAdder rejectedRequests = new LongAdder();
+    private final LongAdder rejectedClients = new LongAdder();
+
+    // Guarded by the scheduler's lock
+    final ArrayDeque<TenantScheduler.Ticket> waiting = new ArrayDeque<>();
+    volatile int activeRequests;
+    volatile int queuedRequests;
+
+    public TenantPartition(String tenant, TenantProperties.Quota quota, ClientStore store, ClientKeyFilters keyFilters,
+                           TrigramIndex fuzzyIndex, SortedClientIndex sortedIndex, IndexManager indexManager) {
+        this.tenant = tenant;
+        this.store = store;
+        this.keyFilters = keyFilters;
+        this.fuzzyIndex = fuzzyIndex;
+        this.sortedIndex = sortedIndex;
+        this.indexManager = indexManager;
+        this.maxClients = quota.getMaxClients();
+        this.maxConcurrentRequests = Math.max(1, quota.getMaxConcurrentRequests());
+        this.maxQueuedRequests = Math.max(0, quota.getMaxQueuedRequests());
+        this.weight = Math.max(1, quota.getWeight());
+        this.queueTimeout = quota.getQueueTimeout();
+    }
+
+    /**
+     * Counts a request rejected because the tenant's budget and queue were full, or it waited too long.
+     */
+    public void rejectRequest() {
+        rejectedRequests.increment();
+    }
+
+    /**
+     * Checks the client quota before clients are added. The caller must hold the {@link #getWriteLock() write lock},
+     * so that the register cannot grow between the check and the write.
+     *
+     * @param additional the number of clients about to be added
+     * @return whether the register has room for them
+     */
+    public boolean hasRoomFor(int additional) {
+        return maxClients <= 0 || store.snapshot().size() + (long) additional <= maxClients;
+    }
+
+    /**
+     * @param count the number of clients not added because the register had no room for them
+     */
+    public void rejectClients(long count) {
+        rejectedClients.add(count);
+    }
+
+    public String getTenant() {
+        return tenant;
+    }
+
+    public ClientStore getStore() {
+        return store;
+    }
+
+    public ClientKeyFilters getKeyFilters() {
+        return keyFilters;
+    }
+
+    public TrigramIndex getFuzzyIndex() {
+        return fuzzyIndex;
+    }
+
+    public SortedClientIndex getSortedIndex() {
+        return sortedIndex;
+    }
+
+    public IndexManager getIndexManager() {
+        return indexManager;
+    }
+
+    /**
+     * @return the lock the tenant's writes are serialized on
+     */
+    public Object getWriteLock() {
+        return writeLock;
+    }
+
+    /**
+     * @return the number of the tenant's requests in progress
+     */
+    public int getActiveRequests() {
+        return activeRequests;
+    }
+
+    /**
+     * @return the number of the tenant's requests waiting for a slot
+     */
+    public int getQueuedRequests() {
+        return queuedRequests;
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    public int getMaxQueuedRequests() {
+        return maxQueuedRequests;
+    }
+
+    /**
+     * @return the share of the instance's request slots the tenant gets under load, relative to other tenants
+     */
+    public int getWeight() {
+        return weight;
+    }
+
+    /**
+     * @return how long a request waits in the tenant's queue before it is rejected
+     */
+    public Duration getQueueTimeout() {
+        return queueTimeout;
+    }
+
+    /**
+     * @return the number of requests rejected because the tenant's budget and queue were full, or they waited too
+     *         long
+     */
+    public long getRejectedRequests() {
+        return rejectedRequests.sum();
+    }
+
+    /**
+     * @return the number of clients not added because the register was at its quota
+     */
+    public long getRejectedClients() {
+        return rejectedClients.sum();
+    }
+
+    /**
+     * @return the quota, usage and index states of the tenant
+     */
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("tenant", tenant);
+        status.put("clients", store.snapshot().size());
+        status.put("maxClients", maxClients);
+        status.put("activeRequests", getActiveRequests());
+        status.put("maxConcurrentRequests", maxConcurrentRequests);
+        status.put("queuedRequests", getQueuedRequests());
+        status.put("weight", weight);
+        status.put("rejectedRequests", getRejectedRequests());
+        status.put("rejectedClients", getRejectedClients());
+        status.put("indexes", indexManager.status());
+        return status;
+    }
+
+    /**
+     * Registers the tenant's meters once, tagged with the tenant, so that recording them costs no registry lookup.
+     *
+     * @param registry the meter registry
+     */
+    void bindTo(MeterRegistry registry) {
+        Gauge.builder("client.tenant.clients", this, partition -> partition.store.snapshot().size())
+                .description("Clients in the tenant's register")
+                .tag("tenant", tenant)
+                .register(registry);
+        Gauge.builder("client.tenant.requests.active", this, TenantPartition::getActiveRequests)
+                .description("Requests of the tenant in progress")
+                .tag("tenant", tenant)
+                .register(registry);
+        Gauge.builder("client.tenant.requests.queued", this, TenantPartition::getQueuedRequests)
+                .description("Requests of the tenant waiting for a slot")
+                .tag("tenant", tenant)
+                .register(registry);
+        FunctionCounter.builder("client.tenant.requests.rejected", rejectedRequests, LongAdder::sum)
+                .description("Requests rejected because the tenant's concurrency budget and queue were exhausted")
+                .tag("tenant", tenant)
+                .register(registry);
+        FunctionCounter.builder("client.tenant.clients.rejected", rejectedClients, LongAdder::sum)
+                .description("Clients not added because the tenant's register was at its quota")
+                .tag("tenant", tenant)
+                .register(registry);
+    }
+}
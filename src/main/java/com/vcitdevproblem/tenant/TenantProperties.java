@@ -0,0 +1,146 @@
+package com.vcitdevproblem.tenant;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuration of the tenant-scoped client registers, bound from {@code tenancy.*}.
+ */
+@ConfigurationProperties(prefix = "tenancy")
+public class TenantProperties {
+
+    /**
+     * Request header naming the tenant; requests without it, or a {@code /v1/tenants/{tenant}} path, use the
+     * {@value TenantContext#DEFAULT_TENANT} tenant.
+     */
+    private String header = "X-Tenant-Id";
+    /**
+     * Maximum number of tenants, the default one included; each of them holds its own register and indexes.
+     */
+    private int maxTenants = 64;
+    /**
+     * Maximum number of requests of all tenants in progress at once; under load they are shared between the tenants
+     * with queued requests in proportion to their weights.
+     */
+    private int maxConcurrentRequests = 256;
+    private final Quota defaults = new Quota();
+    /**
+     * Quotas of individual tenants, replacing the defaults.
+     */
+    private Map<String, Quota> tenants = new LinkedHashMap<>();
+
+    public String getHeader() {
+        return header;
+    }
+
+    public void setHeader(String header) {
+        this.header = header;
+    }
+
+    public int getMaxTenants() {
+        return maxTenants;
+    }
+
+    public void setMaxTenants(int maxTenants) {
+        this.maxTenants = maxTenants;
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    public Quota getDefaults() {
+        return defaults;
+    }
+
+    public Map<String, Quota> getTenants() {
+        return tenants;
+    }
+
+    public void setTenants(Map<String, Quota> tenants) {
+        this.tenants = tenants;
+    }
+
+    /**
+     * @param tenant the tenant ID
+     * @return the quota configured for the tenant, or the defaults
+     */
+    public Quota quotaOf(String tenant) {
+        return tenants.getOrDefault(tenant, defaults);
+    }
+
+    /**
+     * Resources one tenant may hold.
+     */
+    public static class Quota {
+
+        /**
+         * Maximum number of clients in the tenant's register; 0 for unlimited. This serves as the tenant's memory
+         * quota, counted in clients rather than bytes (see {@link TenantPartition}).
+         */
+        private long maxClients = 1_000_000;
+        /**
+         * Maximum number of the tenant's requests in progress at once.
+         */
+        private int maxConcurrentRequests = 32;
+        /**
+         * Maximum number of the tenant's requests waiting for a slot; further requests are rejected at once.
+         */
+        private int maxQueuedRequests = 64;
+        /**
+         * The tenant's share of the instance's request slots under load, relative to the other tenants' weights.
+         */
+        private int weight = 1;
+        /**
+         * How long a request waits for a slot before it is rejected; 0 to reject at once instead of queueing.
+         */
+        private Duration queueTimeout = Duration.ofSeconds(1);
+
+        public long getMaxClients() {
+            return maxClients;
+        }
+
+        public void setMaxClients(long maxClients) {
+            this.maxClients = maxClients;
+        }
+
+        public int getMaxConcurrentRequests() {
+            return maxConcurrentRequests;
+        }
+
+        public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+        }
+
+        public int getMaxQueuedRequests() {
+            return maxQueuedRequests;
+        }
+
+        public void setMaxQueuedRequests(int maxQueuedRequests) {
+            this.maxQueuedRequests = maxQueuedRequests;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public void setWeight(int weight) {
+            this.weight = weight;
+        }
+
+        public Duration getQueueTimeout() {
+            return queueTimeout;
+        }
+
+        public void setQueueTimeout(Duration queueTimeout) {
+            this.queueTimeout = queueTimeout;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.vcitdevproblem.tenant;
+
+import com.vcitdevproblem.exception.InvalidRequestParameterException;
+import com.vcitdevproblem.exception.TenantNotFoundException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.regex.Pattern;
+
+/**
+ * The {@link TenantPartition}s of the instance, keyed by tenant ID. The {@value TenantContext#DEFAULT_TENANT}
+ * partition is the register the application has always served. A tenant configured under {@code tenancy.tenants}
+ * gets its partition the first time one of its requests arrives; any other tenant only once it is
+ * {@link #create(String) created} through the tenants endpoint, so requests naming unknown tenants cannot make the
+ * instance allocate registers. There are at most {@code tenancy.max-tenants} partitions. Tenant IDs become metric
+ * tags and directory names, so they are restricted to lower-case letters, digits, dashes and underscores.
+ */
+@Slf4j
+public class TenantRegistry implements MeterBinder, DisposableBean {
+
+    private static final Pattern TENANT_ID = Pattern.compile("[a-z0-9][a-z0-9_-]{0,63}");
+
+    private final TenantProperties properties;
+    private final TenantPartition defaultPartition;
+    private final BiFunction<String, TenantProperties.Quota, TenantPartition> partitionFactory;
+    private final Map<String, TenantPartition> partitions = new ConcurrentHashMap<>();
+    private volatile MeterRegistry meterRegistry;
+
+    /**
+     * @param properties       the tenancy configuration
+     * @param defaultPartition the partition of the {@value TenantContext#DEFAULT_TENANT} tenant
+     * @param partitionFactory creates the partition of another tenant from its ID and quota
+     */
+    public TenantRegistry(TenantProperties properties, TenantPartition defaultPartition,
+                          BiFunction<String, TenantProperties.Quota, TenantPartition> partitionFactory) {
+        this.properties = properties;
+        this.defaultPartition = defaultPartition;
+        this.partitionFactory = partitionFactory;
+        partitions.put(defaultPartition.getTenant(), defaultPartition);
+    }
+
+    /**
+     * @return the partition of the tenant of the current request
+     */
+    public TenantPartition current() {
+        return partition(TenantContext.current());
+    }
+
+    /**
+     * Returns the partition of a tenant, creating it on first use if the tenant is configured.
+     *
+     * @param tenant the tenant ID
+     * @return the partition of the tenant
+     * @throws InvalidRequestParameterException if the tenant ID is invalid, or the tenant is configured but the
+     *                                          maximum number of tenants has been reached
+     * @throws TenantNotFoundException          if the tenant is neither configured nor created
+     */
+    public TenantPartition partition(String tenant) {
+        TenantPartition partition = partitions.get(tenant);
+        if (partition != null) {
+            return partition;
+        }
+        validate(tenant);
+        if (!properties.getTenants().containsKey(tenant)) {
+            throw new TenantNotFoundException("Unknown tenant: " + tenant + ".");
+        }
+        return create(tenant);
+    }
+
+    /**
+     * Creates the partition of a tenant, unless it has one already.
+     *
+     * @param tenant the tenant ID
+     * @return the partition of the tenant
+     * @throws InvalidRequestParameterException if the tenant ID is invalid, or the tenant is new and the maximum
+     *                                          number of tenants has been reached
+     */
+    public TenantPartition create(String tenant) {
+        validate(tenant);
+        TenantPartition partition;
+        synchronized (partitions) {
+            partition = partitions.get(tenant);
+            if (partition == null) {
+                if (partitions.size() >= properties.getMaxTenants()) {
+                    throw new InvalidRequestParameterException("Cannot create tenant " + tenant + ": the maximum of "
+                            + properties.getMaxTenants() + " tenants has been reached.");
+                }
+                partition = partitionFactory.apply(tenant, properties.quotaOf(tenant));
+                MeterRegistry registry = meterRegistry;
+                if (registry != null) {
+                    partition.bindTo(registry);
+                }
+                partitions.put(tenant, partition);
+                log.info("Created the register of tenant {}.", tenant);
+            }
+        }
+        return partition;
+    }
+
+    /**
+     * @param tenant the tenant ID
+     * @return the partition of the tenant, or null if it has none yet
+     */
+    public TenantPartition find(String tenant) {
+        return partitions.get(tenant);
+    }
+
+    public Collection<TenantPartition> getPartitions() {
+        return partitions.values();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        synchronized (partitions) {
+            meterRegistry = registry;
+            partitions.values().forEach(partition -> partition.bindTo(registry));
+        }
+        Gauge.builder("client.tenants", partitions, Map::size)
+                .description("Tenants with a register on this instance")
+                .register(registry);
+    }
+
+    /**
+     * Closes the stores and index builders of the tenants created at run time; those of the default tenant are beans
+     * and closed by the container.
+     */
+    @Override
+    public void destroy() throws Exception {
+        for (TenantPartition partition : partitions.values()) {
+            if (partition != defaultPartition) {
+                partition.getIndexManager().destroy();
+                partition.getStore().destroy();
+            }
+        }
+    }
+
+    private static void validate(String tenant) {
+        if (tenant == null || !TENANT_ID.matcher(tenant).matches()) {
+            throw new InvalidRequestParameterException("Invalid tenant: " + tenant
+                    + " (expected up to 64 lower-case letters, digits, '-' or '_').");
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.vcitdevproblem.tenant;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Arbitrates the instance's {@code tenancy.max-concurrent-requests} request slots between tenants. A request runs at
+ * once if its tenant has none queued and both the tenant's own budget and the shared slots have room; otherwise it
+ * joins its tenant's queue, which holds up to {@code max-queued-requests}.
+ * <p>
+ * Queues are drained by weighted round-robin: tenants with queued requests take turns, and each turn grants up to
+ * the tenant's {@code weight} slots before the next tenant's turn, skipping tenants whose own budget is full. Under
+ * load, every tenant therefore gets slots in proportion to its weight however many requests it sends, and a new
+ * request never overtakes one its tenant already queued, nor takes a slot a queued tenant could use.
+ * <p>
+ * Nothing here blocks: a queued request is handed a callback that is run once it is granted a slot, so that the
+ * caller can park the request without holding a thread.
+ */
+public class TenantScheduler implements MeterBinder {
+
+    private final int maxConcurrentRequests;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Guarded by lock
+    private final ArrayDeque<TenantPartition> rotation = new ArrayDeque<>();
+    private int turnLeft;
+    private volatile int activeRequests;
+
+    /**
+     * @param maxConcurrentRequests the number of requests of all tenants that may run at once
+     */
+    public TenantScheduler(int maxConcurrentRequests) {
+        this.maxConcurrentRequests = Math.max(1, maxConcurrentRequests);
+    }
+
+    /**
+     * Grants a request a slot at once, if it can run without overtaking a queued request.
+     *
+     * @param partition the tenant of the request
+     * @return the granted ticket, to be {@link #release(Ticket) released} when the request is done; null if the
+     *         request must queue
+     */
+    public Ticket tryAcquire(TenantPartition partition) {
+        lock.lock();
+        try {
+            if (!partition.waiting.isEmpty() || !canRun(partition)) {
+                return null;
+            }
+            Ticket ticket = new Ticket(partition, null);
+            grant(ticket);
+            return ticket;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queues a request for a slot. The grant callback runs once the request is granted one, possibly before this
+     * method returns, on whichever thread released that slot and while the scheduler's lock is held, so it must only
+     * hand the request on.
+     *
+     * @param partition the tenant of the request
+     * @param onGrant   given the ticket when the request is granted a slot
+     * @return the queued ticket, or null if the tenant's queue is full; a rejection is counted
+     */
+    public Ticket enqueue(TenantPartition partition, Consumer<Ticket> onGrant) {
+        lock.lock();
+        try {
+            if (partition.waiting.size() >= partition.getMaxQueuedRequests()) {
+                partition.rejectRequest();
+                return null;
+            }
+            Ticket ticket = new Ticket(partition, onGrant);
+            if (partition.waiting.isEmpty()) {
+                rotation.addLast(partition);
+                if (rotation.size() == 1) {
+                    turnLeft = partition.getWeight();
+                }
+            }
+            partition.waiting.addLast(ticket);
+            partition.queuedRequests = partition.waiting.size();
+            drain();
+            return ticket;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a request that gave up waiting out of its tenant's queue.
+     *
+     * @param ticket the queued ticket
+     * @return true if the request was still queued; false if it was granted a slot in the meantime
+     */
+    public boolean cancel(Ticket ticket) {
+        lock.lock();
+        try {
+            if (ticket.state != Ticket.QUEUED) {
+                return false;
+            }
+            ticket.state = Ticket.CANCELLED;
+            TenantPartition partition = ticket.partition;
+            partition.waiting.remove(ticket);
+            partition.queuedRequests = partition.waiting.size();
+            if (partition.waiting.isEmpty()) {
+                leaveRotation(partition);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gives back the slot of a granted ticket and grants it to the next queued request. Releasing a ticket again
+     * does nothing.
+     *
+     * @param ticket the granted ticket
+     */
+    public void release(Ticket ticket) {
+        lock.lock();
+        try {
+            if (ticket.state != Ticket.GRANTED) {
+                return;
+            }
+            ticket.state = Ticket.RELEASED;
+            ticket.partition.activeRequests--;
+            activeRequests--;
+            drain();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of requests of all tenants running
+     */
+    public int getActiveRequests() {
+        return activeRequests;
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("client.tenants.requests.active", this, TenantScheduler::getActiveRequests)
+                .description("Requests of all tenants in progress, out of tenancy.max-concurrent-requests")
+                .register(registry);
+    }
+
+    /**
+     * Grants free slots to queued requests, in turn. Afterwards either every shared slot is taken or no queued
+     * request can run, which is what lets {@link #tryAcquire(TenantPartition)} grant without overtaking anyone.
+     */
+    private void drain() {
+        while (activeRequests < maxConcurrentRequests && !rotation.isEmpty()) {
+            TenantPartition partition = nextTurn();
+            if (partition == null) {
+                return;
+            }
+            Ticket ticket = partition.waiting.pollFirst();
+            partition.queuedRequests = partition.waiting.size();
+            if (partition.waiting.isEmpty()) {
+                leaveRotation(partition);
+            }
+            grant(ticket);
+            ticket.onGrant.accept(ticket);
+        }
+    }
+
+    /**
+     * @return the tenant whose turn it is to be granted a slot, or null if none of the queued tenants can run more
+     *         requests
+     */
+    private TenantPartition nextTurn() {
+        // The head's current turn first, then one fresh turn for every tenant.
+        for (int i = 0; i <= rotation.size(); i++) {
+            TenantPartition head = rotation.peekFirst();
+            if (turnLeft > 0 && head.activeRequests < head.getMaxConcurrentRequests()) {
+                turnLeft--;
+                return head;
+            }
+            rotation.addLast(rotation.pollFirst());
+            turnLeft = rotation.peekFirst().getWeight();
+        }
+        return null;
+    }
+
+    private void leaveRotation(TenantPartition partition) {
+        if (rotation.peekFirst() == partition) {
+            rotation.pollFirst();
+            TenantPartition next = rotation.peekFirst();
+            turnLeft = next == null ? 0 : next.getWeight();
+        } else {
+            rotation.remove(partition);
+        }
+    }
+
+    private boolean canRun(TenantPartition partition) {
+        return activeRequests < maxConcurrentRequests
+                && partition.activeRequests < partition.getMaxConcurrentRequests();
+    }
+
+    private void grant(Ticket ticket) {
+        ticket.state = Ticket.GRANTED;
+        ticket.partition.activeRequests++;
+        activeRequests++;
+    }
+
+    /**
+     * A request's claim on a slot: queued, granted, and finally released or cancelled.
+     */
+    public static final class Ticket {
+
+        private static final int QUEUED = 0;
+        private static final int GRANTED = 1;
+        private static final int RELEASED = 2;
+        private static final int CANCELLED = 3;
+
+        private final TenantPartition partition;
+        private final Consumer<Ticket> onGrant;
+        // Guarded by the scheduler's lock
+        private int state = QUEUED;
+
+        private Ticket(TenantPartition partition, Consumer<Ticket> onGrant) {
+            this.partition = partition;
+            this.onGrant = onGrant;
+        }
+
+        public TenantPartition getPartition() {
+            return partition;
+        }
+    }
+}
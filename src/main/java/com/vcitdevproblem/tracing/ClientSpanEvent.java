@@ -0,0 +1,40 @@
+package com.vcitdevproblem.tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event recording one span of a sampled client API request. Spans of the same request share a trace id and
+ * point at their parent span, so a recording can be reassembled into a per-request tree.
+ */
+@Name("com.vcitdevproblem.ClientSpan")
+@Label("Client API Span")
+@Category({"VCIT", "Client API"})
+@Description("A timed step of a sampled client API request.")
+@StackTrace(false)
+class ClientSpanEvent extends Event {
+
+    @Label("Trace Id")
+    long traceId;
+
+    @Label("Span Id")
+    int spanId;
+
+    @Label("Parent Span Id")
+    @Description("0 for the request span")
+    int parentSpanId;
+
+    @Label("Layer")
+    String layer;
+
+    @Label("Name")
+    String name;
+
+    @Label("Error")
+    @Description("Class of the exception that ended the span, if any")
+    String error;
+}
@@ -0,0 +1,133 @@
+package com.vcitdevproblem.tracing;
+
+import jdk.jfr.EventType;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Span-based tracing of client API requests, recorded as {@link ClientSpanEvent} JFR events.
+ * <p>
+ * A request is traced only if a JFR recording has the span event enabled and the request falls within the sample
+ * rate; the decision is made once, for the whole request. Every step traced below the request first checks whether
+ * the current thread is inside a sampled request and otherwise just runs, so with sampling off a traced step costs
+ * one thread-local read.
+ */
+public class ClientTracer {
+
+    private static final EventType SPAN_EVENT_TYPE = EventType.getEventType(ClientSpanEvent.class);
+
+    private final ThreadLocal<TraceSpan> currentSpan = new ThreadLocal<>();
+    private final double sampleRate;
+
+    /**
+     * @param sampleRate share of requests to trace while a recording is running, between 0 and 1
+     */
+    public ClientTracer(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Starts the root span of a new trace if the request is sampled.
+     *
+     * @param request the request
+     * @param name    names the request, e.g. by its method and path; only called if the request is sampled, and
+     *                best a non-capturing function so that unsampled requests allocate nothing
+     * @return the span, to be ended by the caller; null if the request is not traced
+     */
+    public <R> TraceSpan startRequest(R request, Function<? super R, String> name) {
+        if (currentSpan.get() != null || !sample()) {
+            return null;
+        }
+        return open(new TraceSpan(this, ThreadLocalRandom.current().nextLong(), null, TraceLayer.REQUEST,
+                name.apply(request)));
+    }
+
+    /**
+     * Starts a child of the current span.
+     *
+     * @param layer the layer the step belongs to
+     * @param name  the step name
+     * @return the span, to be ended by the caller; null outside a sampled request
+     */
+    public TraceSpan start(TraceLayer layer, String name) {
+        TraceSpan parent = currentSpan.get();
+        if (parent == null) {
+            return null;
+        }
+        return open(new TraceSpan(this, parent.getTraceId(), parent, layer, name));
+    }
+
+    /**
+     * Runs a step, as a child of the current span inside a sampled request. The step is usually a capturing lambda,
+     * so callers on hot paths check {@link #isTracing()} first and run the step directly when it is false.
+     *
+     * @param layer  the layer the step belongs to
+     * @param name   the step name
+     * @param action the step
+     * @return the result of the step
+     */
+    public <T> T trace(TraceLayer layer, String name, Supplier<T> action) {
+        TraceSpan span = start(layer, name);
+        if (span == null) {
+            return action.get();
+        }
+        try {
+            return action.get();
+        } catch (RuntimeException | Error ex) {
+            span.fail(ex);
+            throw ex;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Runs a step without a result, as a child of the current span inside a sampled request.
+     *
+     * @param layer  the layer the step belongs to
+     * @param name   the step name
+     * @param action the step
+     */
+    public void trace(TraceLayer layer, String name, Runnable action) {
+        TraceSpan span = start(layer, name);
+        if (span == null) {
+            action.run();
+            return;
+        }
+        try {
+            action.run();
+        } catch (RuntimeException | Error ex) {
+            span.fail(ex);
+            throw ex;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * @return whether the current thread is inside a sampled request
+     */
+    public boolean isTracing() {
+        return currentSpan.get() != null;
+    }
+
+    void restore(TraceSpan span) {
+        if (span != null) {
+            currentSpan.set(span);
+        } else {
+            currentSpan.remove();
+        }
+    }
+
+    private TraceSpan open(TraceSpan span) {
+        currentSpan.set(span);
+        return span;
+    }
+
+    private boolean sample() {
+        return sampleRate > 0 && SPAN_EVENT_TYPE.isEnabled()
+                && (sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+}
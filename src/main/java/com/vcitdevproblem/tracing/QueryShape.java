@@ -0,0 +1,61 @@
+package com.vcitdevproblem.tracing;
+
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Describes the form of a query for the slow query log: which parameters were given, but not their values, which
+ * may be personal information, alongside options such as the sort that are safe to log as they are.
+ */
+public final class QueryShape {
+
+    private static final Pattern LITERAL = Pattern.compile("'(?:[^'\\\\]|\\\\.)*'|\"(?:[^\"\\\\]|\\\\.)*\"|-?\\b\\d+\\b");
+
+    private final StringBuilder shape = new StringBuilder();
+
+    /**
+     * Adds a parameter if it is present, as {@code name=?}.
+     *
+     * @param name  the parameter name
+     * @param value the parameter value
+     * @return this shape
+     */
+    public QueryShape parameter(String name, Optional<?> value) {
+        return value.isPresent() ? append(name, "?") : this;
+    }
+
+    /**
+     * Adds an expression with its literals replaced by {@code ?}.
+     *
+     * @param name       the parameter name
+     * @param expression the expression, e.g. a scan filter
+     * @return this shape
+     */
+    public QueryShape expression(String name, String expression) {
+        return append(name, LITERAL.matcher(expression).replaceAll("?"));
+    }
+
+    /**
+     * Adds an option with its value.
+     *
+     * @param name  the option name
+     * @param value the option value
+     * @return this shape
+     */
+    public QueryShape option(String name, Object value) {
+        return append(name, String.valueOf(value));
+    }
+
+    private QueryShape append(String name, String value) {
+        if (!shape.isEmpty()) {
+            shape.append(", ");
+        }
+        shape.append(name).append('=').append(value);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return shape.toString();
+    }
+}
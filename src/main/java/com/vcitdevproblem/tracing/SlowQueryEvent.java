@@ -0,0 +1,37 @@
+package com.vcitdevproblem.tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event recording a search that exceeded the slow query threshold.
+ */
+@Name("com.vcitdevproblem.SlowQuery")
+@Label("Slow Client Query")
+@Category({"VCIT", "Client API"})
+@Description("A client search that took longer than tracing.slow-query-threshold.")
+@StackTrace(false)
+class SlowQueryEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Shape")
+    @Description("The parameters given, without their values")
+    String shape;
+
+    @Label("Plan")
+    String plan;
+
+    @Label("Rows Scanned")
+    long rowsScanned;
+
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+}
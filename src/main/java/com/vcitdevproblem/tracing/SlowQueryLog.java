@@ -0,0 +1,73 @@
+package com.vcitdevproblem.tracing;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Logs searches that take longer than a threshold, with the shape of the query, the plan that served it and how many
+ * rows it read, and records them as {@link SlowQueryEvent} JFR events. The shape is only built for slow queries, so a
+ * fast query costs one {@link System#nanoTime()} call.
+ */
+@Slf4j
+public class SlowQueryLog implements MeterBinder {
+
+    private final long thresholdNanos;
+    private final LongAdder slowQueries = new LongAdder();
+
+    /**
+     * @param threshold the minimum duration of a logged query
+     */
+    public SlowQueryLog(Duration threshold) {
+        this.thresholdNanos = threshold.toNanos();
+    }
+
+    /**
+     * Logs a finished query if it was slow.
+     *
+     * @param operation   the service operation, e.g. {@code searchClient}
+     * @param plan        how the query was served, e.g. the index used or a full scan
+     * @param rowsScanned the number of clients or index entries read
+     * @param startNanos  the {@link System#nanoTime()} at which the query started
+     * @param shape       supplies the shape of the query
+     */
+    public void record(String operation, String plan, long rowsScanned, long startNanos, Supplier<QueryShape> shape) {
+        long elapsed = System.nanoTime() - startNanos;
+        if (elapsed < thresholdNanos) {
+            return;
+        }
+        slowQueries.increment();
+        String queryShape = shape.get().toString();
+        log.warn("Slow query: {} [{}] took {} ms using {}, {} rows scanned.",
+                operation, queryShape, elapsed / 1_000_000, plan, rowsScanned);
+
+        SlowQueryEvent event = new SlowQueryEvent();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.shape = queryShape;
+            event.plan = plan;
+            event.rowsScanned = rowsScanned;
+            event.elapsed = elapsed;
+            event.commit();
+        }
+    }
+
+    /**
+     * @return the number of slow queries logged so far
+     */
+    public long getSlowQueries() {
+        return slowQueries.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("client.slow.queries", slowQueries, LongAdder::sum)
+                .description("Searches slower than tracing.slow-query-threshold")
+                .register(registry);
+    }
+}
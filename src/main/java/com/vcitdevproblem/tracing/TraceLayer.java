@@ -0,0 +1,16 @@
+package com.vcitdevproblem.tracing;
+
+/**
+ * The part of the request path a span measures.
+ */
+public enum TraceLayer {
+    REQUEST,
+    CONTROLLER,
+    SERVICE,
+    LOGGING,
+    MAPPING,
+    VALIDATION,
+    STORE,
+    INDEX,
+    SERIALIZATION
+}
@@ -0,0 +1,60 @@
+package com.vcitdevproblem.tracing;
+
+/**
+ * An open span of a sampled request, started by {@link ClientTracer} and ended exactly once by whoever started it.
+ * Span ids are numbered from 1 within a trace, in start order.
+ */
+public final class TraceSpan {
+
+    private final ClientTracer tracer;
+    private final long traceId;
+    private final TraceSpan parent;
+    private final TraceSpan root;
+    private final int id;
+    private final TraceLayer layer;
+    private final String name;
+    private final ClientSpanEvent event = new ClientSpanEvent();
+    private int lastId;
+    private String error;
+
+    TraceSpan(ClientTracer tracer, long traceId, TraceSpan parent, TraceLayer layer, String name) {
+        this.tracer = tracer;
+        this.traceId = traceId;
+        this.parent = parent;
+        this.root = parent != null ? parent.root : this;
+        this.id = ++root.lastId;
+        this.layer = layer;
+        this.name = name;
+        event.begin();
+    }
+
+    /**
+     * Marks the span as ended by an exception.
+     *
+     * @param ex the exception
+     */
+    public void fail(Throwable ex) {
+        error = ex.getClass().getName();
+    }
+
+    /**
+     * Ends the span, records it and makes its parent the current span again.
+     */
+    public void end() {
+        event.end();
+        tracer.restore(parent);
+        if (event.shouldCommit()) {
+            event.traceId = traceId;
+            event.spanId = id;
+            event.parentSpanId = parent != null ? parent.id : 0;
+            event.layer = layer.name();
+            event.name = name;
+            event.error = error;
+            event.commit();
+        }
+    }
+
+    long getTraceId() {
+        return traceId;
+    }
+}
@@ -0,0 +1,61 @@
+package com.vcitdevproblem.tracing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Aspect that traces controller and service methods of sampled requests. It runs outside every other aspect, so a
+ * method's span includes the time spent in {@code LoggingAspect}, which records its own nested spans.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TracingAspect {
+
+    private final ClientTracer tracer;
+
+    public TracingAspect(ClientTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    /**
+     * Traces any method in the controller layer.
+     *
+     * @param joinPoint the method execution
+     * @return the return value of the method
+     * @throws Throwable whatever the method throws
+     */
+    @Around("execution(* com.vcitdevproblem.web.rest..*(..))")
+    public Object traceControllerMethod(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(TraceLayer.CONTROLLER, joinPoint);
+    }
+
+    /**
+     * Traces any method in the service layer.
+     *
+     * @param joinPoint the method execution
+     * @return the return value of the method
+     * @throws Throwable whatever the method throws
+     */
+    @Around("execution(* com.vcitdevproblem.service..*(..))")
+    public Object traceServiceMethod(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(TraceLayer.SERVICE, joinPoint);
+    }
+
+    private Object trace(TraceLayer layer, ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!tracer.isTracing()) {
+            return joinPoint.proceed();
+        }
+        TraceSpan span = tracer.start(layer, joinPoint.getSignature().toShortString());
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable ex) {
+            span.fail(ex);
+            throw ex;
+        } finally {
+            span.end();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.vcitdevproblem.tracing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+/**
+ * Servlet filter that opens the root span of sampled client API requests, on the first dispatch of a request that
+ * reaches it: for a request the tenant filter queued, that is an asynchronous dispatch.
+ */
+public class TracingFilter extends OncePerRequestFilter {
+
+    private static final String TRACED = TracingFilter.class.getName() + ".traced";
+
+    /**
+     * ID numbers and mobile numbers in paths are personal information and would make every span name unique.
+     */
+    private static final Pattern PATH_NUMBER = Pattern.compile("\\+?\\d{6,}");
+
+    private final ClientTracer tracer;
+
+    public TracingFilter(ClientTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (request.getAttribute(TRACED) != null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        request.setAttribute(TRACED, Boolean.TRUE);
+        TraceSpan span = tracer.startRequest(request, TracingFilter::spanName);
+        if (span == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException | Error ex) {
+            span.fail(ex);
+            throw ex;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * @return the request's method and path with numbers masked, built only for sampled requests
+     */
+    private static String spanName(HttpServletRequest request) {
+        return request.getMethod() + " " + PATH_NUMBER.matcher(request.getRequestURI()).replaceAll("*");
+    }
+}
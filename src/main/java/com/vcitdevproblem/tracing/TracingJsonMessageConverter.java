@@ -0,0 +1,41 @@
+package com.vcitdevproblem.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Jackson message converter that traces response serialization of sampled requests. Declared as a bean, it replaces
+ * the converter Spring Boot would otherwise create with the same object mapper.
+ */
+public class TracingJsonMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private final ClientTracer tracer;
+
+    public TracingJsonMessageConverter(ObjectMapper objectMapper, ClientTracer tracer) {
+        super(objectMapper);
+        this.tracer = tracer;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        TraceSpan span = tracer.start(TraceLayer.SERIALIZATION, object.getClass().getSimpleName());
+        if (span == null) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } catch (IOException | RuntimeException | Error ex) {
+            span.fail(ex);
+            throw ex;
+        } finally {
+            span.end();
+        }
+    }
+}
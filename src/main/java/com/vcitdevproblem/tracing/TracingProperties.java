@@ -0,0 +1,38 @@
+package com.vcitdevproblem.tracing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of request tracing and the slow query log, bound from {@code tracing.*}.
+ */
+@ConfigurationProperties(prefix = "tracing")
+public class TracingProperties {
+
+    /**
+     * Share of client API requests traced while a JFR recording is running, between 0 and 1.
+     */
+    private double sampleRate = 0.0;
+
+    /**
+     * Searches taking at least this long are written to the slow query log.
+     */
+    private Duration slowQueryThreshold = Duration.ofMillis(200);
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public Duration getSlowQueryThreshold() {
+        return slowQueryThreshold;
+    }
+
+    public void setSlowQueryThreshold(Duration slowQueryThreshold) {
+        this.slowQueryThreshold = slowQueryThreshold;
+    }
+}
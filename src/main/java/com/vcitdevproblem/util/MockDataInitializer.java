@@ -7,12 +7,15 @@ import com.vcitdevproblem.mapper.ClientMapper;
 import com.vcitdevproblem.service.ClientService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 /**
  * Initializes mock client data on application startup.
+ * Only active under the {@code dev} profile so production pods do not pay for seeding on every boot.
  */
 @Component
+@Profile("dev")
 @Slf4j
 public class MockDataInitializer implements CommandLineRunner {
 
@@ -0,0 +1,162 @@
+package com.vcitdevproblem.web.admission;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Gradient based concurrency limiter.
+ * The limit grows while the short-term latency tracks the long-term baseline and shrinks as soon as
+ * queueing shows up as a rising short-term latency. Failed requests back the limit off multiplicatively.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SHORT_WINDOW = 10;
+    private static final double LONG_WINDOW = 600;
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final ReentrantLock sampleLock = new ReentrantLock();
+
+    private volatile int limit;
+
+    // Guarded by sampleLock
+    private double estimatedLimit;
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid limits for " + name + ": min=" + minLimit + ", max=" + maxLimit);
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Attempts to admit a request without blocking.
+     *
+     * @return true if the request may proceed and must later call {@link #release(long, boolean)}
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                accepted.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a permit obtained from {@link #tryAcquire()} and feeds its latency into the limit estimate.
+     *
+     * @param rttNanos the measured processing time of the request
+     * @param dropped  true if the request failed in a way that signals overload
+     */
+    public void release(long rttNanos, boolean dropped) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        // Sampling is lossy on purpose: a busy lock means another thread is already updating the estimate.
+        if (sampleLock.tryLock()) {
+            try {
+                onSample(Math.max(1, rttNanos), inFlightAtCompletion, dropped);
+            } finally {
+                sampleLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Releases a permit obtained from {@link #tryAcquire()} without a latency sample, for requests whose duration is
+     * set by the client rather than by the service, such as streams.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    private void onSample(long rttNanos, int inFlightAtCompletion, boolean dropped) {
+        if (dropped) {
+            updateLimit(estimatedLimit * BACKOFF_RATIO);
+            return;
+        }
+
+        if (longRttNanos == 0) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+        } else {
+            shortRttNanos += (rttNanos - shortRttNanos) / SHORT_WINDOW;
+            longRttNanos += (rttNanos - longRttNanos) / LONG_WINDOW;
+        }
+
+        // Let the baseline follow quickly when latency drops, otherwise a past spike keeps the limit inflated.
+        if (longRttNanos / shortRttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        // Requests were not using the limit, so their latency says nothing about whether it is too high.
+        if (inFlightAtCompletion < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRttNanos / shortRttNanos));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        updateLimit(estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING);
+    }
+
+    private void updateLimit(double newLimit) {
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Returns a point-in-time view of the limiter state for the actuator endpoint.
+     *
+     * @return the limiter state keyed by attribute name
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("limit", limit);
+        state.put("inFlight", inFlight.get());
+        state.put("minLimit", minLimit);
+        state.put("maxLimit", maxLimit);
+        state.put("accepted", accepted.sum());
+        state.put("rejected", rejected.sum());
+        sampleLock.lock();
+        try {
+            state.put("shortRttMillis", shortRttNanos / 1_000_000d);
+            state.put("longRttMillis", longRttNanos / 1_000_000d);
+        } finally {
+            sampleLock.unlock();
+        }
+        return state;
+    }
+}
@@ -0,0 +1,35 @@
+package com.vcitdevproblem.web.admission;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint ({@code /actuator/admission}) exposing the current limiter and quota state.
+ */
+@Endpoint(id = "admission")
+public class AdmissionControlEndpoint {
+
+    private final AdaptiveConcurrencyLimiter readLimiter;
+    private final AdaptiveConcurrencyLimiter writeLimiter;
+    private final CallerQuotas callerQuotas;
+
+    public AdmissionControlEndpoint(AdaptiveConcurrencyLimiter readLimiter,
+                                    AdaptiveConcurrencyLimiter writeLimiter,
+                                    CallerQuotas callerQuotas) {
+        this.readLimiter = readLimiter;
+        this.writeLimiter = writeLimiter;
+        this.callerQuotas = callerQuotas;
+    }
+
+    @ReadOperation
+    public Map<String, Object> admission() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put(readLimiter.getName(), readLimiter.snapshot());
+        state.put(writeLimiter.getName(), writeLimiter.snapshot());
+        state.put("quota", callerQuotas.snapshot());
+        return state;
+    }
+}
@@ -0,0 +1,166 @@
+package com.vcitdevproblem.web.admission;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vcitdevproblem.dto.ClientResponse;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Servlet filter that admits or rejects client API requests before they reach Spring MVC.
+ * Rejections are answered with a pre-serialized 429 envelope, so an overloaded instance spends
+ * nothing on body parsing, validation, mapping or controller logging for requests it turns away.
+ * <p>
+ * Whether admission control is enabled is checked per request rather than by a bean condition, so
+ * {@code admission.enabled} keeps working in AOT-processed and native launches, whose bean definitions are fixed at
+ * build time. Asynchronous requests, such as change streams and scans, keep their permit until they complete, but
+ * their duration is set by the client rather than the service, so it is not fed to the latency estimate. A request the
+ * tenant filter queued first reaches this filter on an asynchronous dispatch, so each request is filtered on the
+ * first dispatch that reaches it, whatever its type.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final String ADMITTED = AdmissionControlFilter.class.getName() + ".admitted";
+
+    private final AdaptiveConcurrencyLimiter readLimiter;
+    private final AdaptiveConcurrencyLimiter writeLimiter;
+    private final CallerQuotas callerQuotas;
+    private final boolean enabled;
+    private final byte[] rejectionBody;
+
+    public AdmissionControlFilter(AdaptiveConcurrencyLimiter readLimiter,
+                                  AdaptiveConcurrencyLimiter writeLimiter,
+                                  CallerQuotas callerQuotas,
+                                  boolean enabled,
+                                  ObjectMapper objectMapper) throws JsonProcessingException {
+        this.enabled = enabled;
+        this.readLimiter = readLimiter;
+        this.writeLimiter = writeLimiter;
+        this.callerQuotas = callerQuotas;
+        this.rejectionBody = objectMapper.writeValueAsBytes(new ClientResponse<String>(
+                429, "api-fm-429", "Too many requests.", "The service is busy, please try again shortly.", null));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (request.getAttribute(ADMITTED) != null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        request.setAttribute(ADMITTED, Boolean.TRUE);
+        String caller = callerOf(request);
+        long quotaWaitNanos = callerQuotas.tryAcquire(caller);
+        if (quotaWaitNanos > 0) {
+            reject(response, quotaWaitNanos);
+            return;
+        }
+
+        AdaptiveConcurrencyLimiter limiter = isRead(request) ? readLimiter : writeLimiter;
+        if (!limiter.tryAcquire()) {
+            callerQuotas.refund(caller);
+            reject(response, TimeUnit.SECONDS.toNanos(1));
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean dropped = true;
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            dropped = response.getStatus() >= 500;
+            async = request.isAsyncStarted();
+        } finally {
+            if (async) {
+                request.getAsyncContext().addListener(new AsyncRelease(limiter));
+            } else {
+                limiter.release(System.nanoTime() - start, dropped);
+            }
+        }
+    }
+
+    /**
+     * Identifies the caller a quota is charged to: the authenticated principal, or else the remote address. Headers
+     * are chosen by the caller, who could rotate them for a fresh quota or spend another caller's, so none is used.
+     */
+    private static String callerOf(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        return principal != null ? "principal:" + principal.getName() : "address:" + request.getRemoteAddr();
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        String method = request.getMethod();
+        return "GET".equals(method) || "HEAD".equals(method);
+    }
+
+    /**
+     * Releases the permit of an asynchronous request once, when it completes, fails or times out.
+     */
+    private static final class AsyncRelease implements AsyncListener {
+
+        private final AdaptiveConcurrencyLimiter limiter;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        AsyncRelease(AdaptiveConcurrencyLimiter limiter) {
+            this.limiter = limiter;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // The request stays the same, so does its permit.
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                limiter.release();
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response, long retryAfterNanos) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + 999_999_999L))));
+        response.setContentLength(rejectionBody.length);
+        response.getOutputStream().write(rejectionBody);
+    }
+}
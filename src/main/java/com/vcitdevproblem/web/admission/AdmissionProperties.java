@@ -0,0 +1,112 @@
+package com.vcitdevproblem.web.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the admission control in front of the client API, bound from {@code admission.*}.
+ */
+@ConfigurationProperties(prefix = "admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+    private final Budget reads = new Budget(64, 8, 512);
+    private final Budget writes = new Budget(16, 2, 128);
+    private final Quota quota = new Quota();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Budget getReads() {
+        return reads;
+    }
+
+    public Budget getWrites() {
+        return writes;
+    }
+
+    public Quota getQuota() {
+        return quota;
+    }
+
+    /**
+     * Concurrency budget for one class of requests.
+     */
+    public static class Budget {
+
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+
+        public Budget() {
+        }
+
+        public Budget(int initialLimit, int minLimit, int maxLimit) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+    }
+
+    /**
+     * Per-caller request rate quota.
+     */
+    public static class Quota {
+
+        private double permitsPerSecond = 200;
+        private double burst = 400;
+        private int maxCallers = 10_000;
+
+        public double getPermitsPerSecond() {
+            return permitsPerSecond;
+        }
+
+        public void setPermitsPerSecond(double permitsPerSecond) {
+            this.permitsPerSecond = permitsPerSecond;
+        }
+
+        public double getBurst() {
+            return burst;
+        }
+
+        public void setBurst(double burst) {
+            this.burst = burst;
+        }
+
+        public int getMaxCallers() {
+            return maxCallers;
+        }
+
+        public void setMaxCallers(int maxCallers) {
+            this.maxCallers = maxCallers;
+        }
+    }
+}
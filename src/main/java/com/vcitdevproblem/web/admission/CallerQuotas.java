@@ -0,0 +1,114 @@
+package com.vcitdevproblem.web.admission;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-caller token bucket quotas, looked up without a shared lock. Once more than the configured maximum of callers
+ * is tracked, one request sweeps the buckets and forgets the callers that have been quiet longest, down to a
+ * sixteenth below the maximum, so the sweep runs once per many new callers rather than on every one. Eviction is
+ * approximate: callers seen while a sweep runs may briefly push the count above the maximum.
+ */
+public class CallerQuotas {
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final LongAdder rejected = new LongAdder();
+    private final double permitsPerSecond;
+    private final double burst;
+    private final int maxCallers;
+    private final LongSupplier clock;
+
+    public CallerQuotas(double permitsPerSecond, double burst, int maxCallers) {
+        this(permitsPerSecond, burst, maxCallers, System::nanoTime);
+    }
+
+    CallerQuotas(double permitsPerSecond, double burst, int maxCallers, LongSupplier clock) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.maxCallers = Math.max(1, maxCallers);
+        this.clock = clock;
+    }
+
+    /**
+     * Takes one permit from the caller's quota.
+     *
+     * @param caller the caller identity
+     * @return 0 if the request is within quota, otherwise the nanoseconds until the caller may retry
+     */
+    public long tryAcquire(String caller) {
+        long now = clock.getAsLong();
+        long waitNanos = bucket(caller, now).tryConsume(now);
+        if (waitNanos > 0) {
+            rejected.increment();
+        }
+        return waitNanos;
+    }
+
+    /**
+     * Gives back the permit of a request that was admitted by its quota but then turned away for another reason, so
+     * that a caller is not charged for requests the service did not serve.
+     *
+     * @param caller the caller identity
+     */
+    public void refund(String caller) {
+        TokenBucket bucket = buckets.get(caller);
+        if (bucket != null) {
+            bucket.refund();
+        }
+    }
+
+    private TokenBucket bucket(String caller, long now) {
+        TokenBucket bucket = buckets.get(caller);
+        if (bucket != null) {
+            return bucket;
+        }
+        bucket = buckets.computeIfAbsent(caller, key -> new TokenBucket(permitsPerSecond, burst, now));
+        if (buckets.size() > maxCallers) {
+            evictQuietest();
+        }
+        return bucket;
+    }
+
+    /**
+     * Forgets the least recently seen callers. Only one thread sweeps at a time; the others carry on meanwhile. A
+     * caller forgotten while its request runs merely starts over with a full bucket on its next request.
+     */
+    private void evictQuietest() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long[] lastUses = buckets.values().stream().mapToLong(TokenBucket::lastUse).toArray();
+            int target = maxCallers - maxCallers / 16;
+            int excess = lastUses.length - target;
+            if (excess <= 0) {
+                return;
+            }
+            Arrays.sort(lastUses);
+            long cutoff = lastUses[excess - 1];
+            buckets.values().removeIf(bucket -> bucket.lastUse() <= cutoff);
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    /**
+     * Returns a point-in-time view of the quota state for the actuator endpoint.
+     *
+     * @return the quota state keyed by attribute name
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("permitsPerSecond", permitsPerSecond);
+        state.put("burst", burst);
+        state.put("trackedCallers", buckets.size());
+        state.put("rejected", rejected.sum());
+        return state;
+    }
+}
@@ -0,0 +1,60 @@
+package com.vcitdevproblem.web.admission;
+
+/**
+ * Classic token bucket: refills continuously at a fixed rate up to a burst capacity.
+ */
+class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+
+    private double tokens;
+    private long lastRefillNanos;
+    private volatile long lastUseNanos;
+
+    TokenBucket(double permitsPerSecond, double capacity, long nowNanos) {
+        this.capacity = capacity;
+        this.tokensPerNano = permitsPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.lastRefillNanos = nowNanos;
+        this.lastUseNanos = nowNanos;
+    }
+
+    /**
+     * Takes one token if available.
+     *
+     * @param nowNanos the current time in nanoseconds
+     * @return 0 if a token was taken, otherwise the nanoseconds until the next token becomes available
+     */
+    synchronized long tryConsume(long nowNanos) {
+        lastUseNanos = nowNanos;
+        refill(nowNanos);
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+
+    /**
+     * Returns a token taken by {@link #tryConsume(long)}.
+     */
+    synchronized void refund() {
+        tokens = Math.min(capacity, tokens + 1);
+    }
+
+    /**
+     * @return the time of the last {@link #tryConsume(long)}, readable without taking the bucket's lock
+     */
+    long lastUse() {
+        return lastUseNanos;
+    }
+
+    private void refill(long nowNanos) {
+        long elapsed = nowNanos - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+            lastRefillNanos = nowNanos;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.vcitdevproblem.web.rest;
+
+import com.vcitdevproblem.cdc.ChangeStreamBroadcaster;
+import com.vcitdevproblem.tenant.TenantContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.util.Optional;
+
+/**
+ * REST controller streaming client changes to downstream systems.
+ */
+@RestController
+@RequestMapping({"/v1/clients", "/v1/tenants/{tenant}/clients"})
+public class ClientChangeController {
+
+    private final ChangeStreamBroadcaster broadcaster;
+
+    public ClientChangeController(ChangeStreamBroadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+    }
+
+    /**
+     * Streams the changes to the request's tenant's register as newline-delimited JSON, or as Server-Sent Events when
+     * the client accepts {@code text/event-stream}. Streams are resumable: pass the last seen sequence plus one as
+     * {@code fromSequence}, or rely on the {@code Last-Event-ID} header for SSE reconnects.
+     *
+     * @param fromSequence the optional first sequence to deliver; defaults, like 0, to the oldest buffered change
+     * @param lastEventId  the optional SSE Last-Event-ID sent by reconnecting EventSource clients
+     * @param accept       the Accept header of the request
+     * @return the emitter streaming the changes
+     */
+    @GetMapping("/changes")
+    public ResponseBodyEmitter streamChanges(
+            @RequestParam(required = false) Optional<Long> fromSequence,
+            @RequestHeader(value = "Last-Event-ID", required = false) Optional<Long> lastEventId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) Optional<String> accept) {
+
+        Long start = fromSequence.orElse(lastEventId.map(lastSequence -> lastSequence + 1).orElse(null));
+        boolean sse = accept.map(value -> value.contains(MediaType.TEXT_EVENT_STREAM_VALUE)).orElse(false);
+        String tenant = TenantContext.current();
+        return sse ? broadcaster.subscribeSse(tenant, start) : broadcaster.subscribeNdjson(tenant, start);
+    }
+}
@@ -1,45 +1,63 @@
 package com.vcitdevproblem.web.rest;
 
 import com.vcitdevproblem.dto.ClientDTO;
+import com.vcitdevproblem.dto.ClientMatchDTO;
+import com.vcitdevproblem.dto.ClientPageDTO;
 import com.vcitdevproblem.dto.ClientRequest;
 import com.vcitdevproblem.dto.ClientResponse;
+import com.vcitdevproblem.dto.ClientScanDTO;
+import com.vcitdevproblem.exception.GlobalExceptionHandler;
+import com.vcitdevproblem.exception.InvalidRequestParameterException;
+import com.vcitdevproblem.service.ClientResult;
 import com.vcitdevproblem.service.ClientService;
+import com.vcitdevproblem.store.ClientProjection;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
  * REST controller responsible for handling client-related HTTP requests.
  * Supports operations for creating, updating, searching, and deleting clients.
+ * Every operation works on the register of the request's tenant, which may be named by the
+ * {@code /v1/tenants/{tenant}/clients} path; {@code /v1/clients} serves the default tenant unless a tenant header is set.
+ * Expected failures such as a missing client come back from the service as results rather than exceptions and are
+ * answered with the same responses as {@link GlobalExceptionHandler}, pre-serialized for the common ones.
  */
 @RestController
-@RequestMapping("/v1/clients")
+@RequestMapping({"/v1/clients", "/v1/tenants/{tenant}/clients"})
 @Validated
 public class ClientController {
 
     private final ClientService clientService;
+    private final GlobalExceptionHandler exceptionHandler;
 
-    public ClientController(ClientService clientService) {
+    public ClientController(ClientService clientService, GlobalExceptionHandler exceptionHandler) {
         this.clientService = clientService;
+        this.exceptionHandler = exceptionHandler;
     }
 
     /**
      * Creates a new client.
      *
      * @param clientRequest the request containing client details
-     * @return a {@link ResponseEntity} containing a {@link ClientResponse} with the created {@link ClientDTO} and a success message
+     * @return a {@link ResponseEntity} containing a {@link ClientResponse} with the created {@link ClientDTO} and a success message,
+     * or the error response if the client could not be created
      */
     @PostMapping("/create")
-    public ResponseEntity<ClientResponse<ClientDTO>> createClient(@RequestBody @Validated ClientRequest clientRequest) {
-        ClientDTO createdClient = clientService.createClient(clientRequest);
+    public ResponseEntity<?> createClient(@RequestBody @Validated ClientRequest clientRequest) {
+        ClientResult<ClientDTO> result = clientService.tryCreateClient(clientRequest);
+        if (!result.isSuccess()) {
+            return exceptionHandler.handle(result.getError());
+        }
         ClientResponse<ClientDTO> response = new ClientResponse<>(
                 0,
                 "api-fm-012",
                 "Client created successfully.",
                 "Your client has been created.",
-                createdClient
+                result.getValue()
         );
         return ResponseEntity.ok(response);
     }
@@ -49,19 +67,23 @@ public class ClientController {
      *
      * @param idNumber      the ID number of the client to update
      * @param clientRequest the request containing updated client details
-     * @return a {@link ResponseEntity} containing a {@link ClientResponse} with the updated {@link ClientDTO} and a success message
+     * @return a {@link ResponseEntity} containing a {@link ClientResponse} with the updated {@link ClientDTO} and a success message,
+     * or the error response if the client could not be updated
      */
     @PutMapping("/update/{idNumber}")
-    public ResponseEntity<ClientResponse<ClientDTO>> updateClient(
+    public ResponseEntity<?> updateClient(
             @PathVariable String idNumber,
             @RequestBody @Validated ClientRequest clientRequest) {
-        ClientDTO updatedClient = clientService.updateClient(idNumber, clientRequest);
+        ClientResult<ClientDTO> result = clientService.tryUpdateClient(idNumber, clientRequest);
+        if (!result.isSuccess()) {
+            return exceptionHandler.handle(result.getError());
+        }
         ClientResponse<ClientDTO> response = new ClientResponse<>(
                 0,
                 "api-fm-013",
                 "Client updated successfully.",
                 "Your client has been updated.",
-                updatedClient
+                result.getValue()
         );
         return ResponseEntity.ok(response);
     }
@@ -70,11 +92,15 @@ public class ClientController {
      * Deletes a client by their ID number.
      *
      * @param idNumber the ID number of the client to delete
-     * @return a {@link ResponseEntity} containing a {@link ClientResponse} with the deleted client's ID number and a success message
+     * @return a {@link ResponseEntity} containing a {@link ClientResponse} with the deleted client's ID number and a success message,
+     * or the error response if there is no such client
      */
     @DeleteMapping("/delete/{idNumber}")
-    public ResponseEntity<ClientResponse<String>> deleteClient(@PathVariable String idNumber) {
-        clientService.deleteClient(idNumber);
+    public ResponseEntity<?> deleteClient(@PathVariable String idNumber) {
+        ClientResult<String> result = clientService.tryDeleteClient(idNumber);
+        if (!result.isSuccess()) {
+            return exceptionHandler.handle(result.getError());
+        }
         ClientResponse<String> response = new ClientResponse<>(
                 0,
                 "api-fm-015",
@@ -92,21 +118,130 @@ public class ClientController {
      * @param firstName   the optional first name of the client
      * @param idNumber    the optional ID number of the client
      * @param phoneNumber the optional phone number of the client
-     * @return a {@link ResponseEntity} containing a {@link ClientResponse} with the found {@link ClientDTO} and a success message
+     * @param view        the optional projection to return: full (default), idNumber or mobileNumber
+     * @return a {@link ResponseEntity} containing a {@link ClientResponse} with the found {@link ClientDTO} and a success message,
+     * or the error response if no client matches
      */
     @GetMapping("/search")
-    public ResponseEntity<ClientResponse<ClientDTO>> searchClient(
+    public ResponseEntity<?> searchClient(
             @RequestParam(required = false) Optional<String> firstName,
             @RequestParam(required = false) Optional<String> idNumber,
-            @RequestParam(required = false) Optional<String> phoneNumber) {
+            @RequestParam(required = false) Optional<String> phoneNumber,
+            @RequestParam(required = false) Optional<String> view) {
 
-        ClientDTO foundClient = clientService.searchClient(firstName, idNumber, phoneNumber);
+        ClientProjection projection = view.isPresent()
+                ? ClientProjection.fromParameter(view.get())
+                : ClientProjection.FULL;
+        ClientResult<ClientDTO> result = clientService.trySearchClient(firstName, idNumber, phoneNumber, projection);
+        if (!result.isSuccess()) {
+            return exceptionHandler.handle(result.getError());
+        }
         ClientResponse<ClientDTO> response = new ClientResponse<>(
                 0,
                 "api-fm-014",
                 "Client found successfully.",
                 "Client found.",
-                foundClient
+                result.getValue()
+        );
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Searches for all clients matching the given criteria, one sorted page at a time.
+     *
+     * @param firstName   the optional first name of the clients
+     * @param lastName    the optional last name of the clients
+     * @param idNumber    the optional ID number of the client
+     * @param phoneNumber the optional phone number of the client
+     * @param sort        the sort key: firstName, lastName or idNumber
+     * @param direction   the sort direction: asc or desc
+     * @param size        the page size, between 1 and 100
+     * @param cursor      the cursor returned with the previous page, omitted for the first page
+     * @param view        the projection of the clients: full (default), idNumber or mobileNumber
+     * @return a {@link ResponseEntity} containing a {@link ClientResponse} with the {@link ClientPageDTO}
+     */
+    @GetMapping("/search/all")
+    public ResponseEntity<ClientResponse<ClientPageDTO>> searchClients(
+            @RequestParam(required = false) Optional<String> firstName,
+            @RequestParam(required = false) Optional<String> lastName,
+            @RequestParam(required = false) Optional<String> idNumber,
+            @RequestParam(required = false) Optional<String> phoneNumber,
+            @RequestParam(defaultValue = "lastName") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) Optional<String> cursor,
+            @RequestParam(defaultValue = "full") String view) {
+
+        if (!direction.equalsIgnoreCase("asc") && !direction.equalsIgnoreCase("desc")) {
+            throw new InvalidRequestParameterException("Unknown sort direction: " + direction + ".");
+        }
+        ClientPageDTO page = clientService.searchClients(firstName, lastName, idNumber, phoneNumber, sort,
+                direction.equalsIgnoreCase("desc"), Math.max(1, Math.min(100, size)), cursor,
+                ClientProjection.fromParameter(view));
+        ClientResponse<ClientPageDTO> response = new ClientResponse<>(
+                0,
+                "api-fm-017",
+                "Client search completed successfully.",
+                page.getClients().isEmpty() ? "No clients found." : "Clients found.",
+                page
+        );
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Searches for clients whose first name, last name or physical address resemble the query, tolerating typos.
+     *
+     * @param q        the free-text query
+     * @param field    the optional fields to search (firstName, lastName, physicalAddress); all when omitted
+     * @param limit    the maximum number of matches, between 1 and 100
+     * @param minScore the minimum similarity score of a match, between 0 and 1
+     * @return a {@link ResponseEntity} containing a {@link ClientResponse} with the ranked matches
+     */
+    @GetMapping("/search/fuzzy")
+    public ResponseEntity<ClientResponse<List<ClientMatchDTO>>> fuzzySearchClients(
+            @RequestParam String q,
+            @RequestParam(required = false) Optional<List<String>> field,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "0.3") double minScore) {
+
+        List<ClientMatchDTO> matches = clientService.fuzzySearchClients(
+                q, field.orElse(List.of()), Math.max(1, Math.min(100, limit)), Math.max(0, Math.min(1, minScore)));
+        ClientResponse<List<ClientMatchDTO>> response = new ClientResponse<>(
+                0,
+                "api-fm-016",
+                "Fuzzy search completed successfully.",
+                matches.isEmpty() ? "No similar clients found." : "Similar clients found.",
+                matches
+        );
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Searches for clients whose key in an online index lies in a range, in key order.
+     *
+     * @param index the index: lastName or birthDate
+     * @param from  the optional lowest key, inclusive; a birth date as yyyy-MM-dd
+     * @param to    the optional highest key, inclusive; a birth date as yyyy-MM-dd
+     * @param limit the maximum number of clients, between 1 and 1000
+     * @param view  the projection of the clients: full (default), idNumber or mobileNumber
+     * @return a {@link ResponseEntity} containing a {@link ClientResponse} with the matching clients
+     */
+    @GetMapping("/search/range")
+    public ResponseEntity<ClientResponse<ClientScanDTO>> searchClientsByRange(
+            @RequestParam String index,
+            @RequestParam(required = false) Optional<String> from,
+            @RequestParam(required = false) Optional<String> to,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(defaultValue = "full") String view) {
+
+        ClientScanDTO result = clientService.searchClientsByRange(index, from, to, Math.max(1, Math.min(1000, limit)),
+                ClientProjection.fromParameter(view));
+        ClientResponse<ClientScanDTO> response = new ClientResponse<>(
+                0,
+                "api-fm-019",
+                "Client range search completed successfully.",
+                result.getClients().isEmpty() ? "No clients found." : "Clients found.",
+                result
         );
         return ResponseEntity.ok(response);
     }
@@ -0,0 +1,60 @@
+package com.vcitdevproblem.web.rest;
+
+import com.vcitdevproblem.export.ClientExporter;
+import com.vcitdevproblem.store.ClientProjection;
+import com.vcitdevproblem.store.ClientStore;
+import com.vcitdevproblem.tenant.TenantRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Optional;
+
+/**
+ * REST controller exporting the whole client register in bulk.
+ */
+@RestController
+@RequestMapping({"/v1/clients", "/v1/tenants/{tenant}/clients"})
+public class ClientExportController {
+
+    private final ClientExporter exporter;
+    private final TenantRegistry tenants;
+
+    public ClientExportController(ClientExporter exporter, TenantRegistry tenants) {
+        this.exporter = exporter;
+        this.tenants = tenants;
+    }
+
+    /**
+     * Streams every client as newline-delimited JSON. The body is gzip-compressed by the application when the client
+     * accepts it, so the connector passes it through untouched and repeated exports of an unchanged register are not
+     * compressed again.
+     *
+     * @param view           the projection of the clients: full (default), idNumber or mobileNumber
+     * @param acceptEncoding the Accept-Encoding header of the request
+     * @return a {@link ResponseEntity} streaming the clients
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportClients(
+            @RequestParam(defaultValue = "full") String view,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) Optional<String> acceptEncoding) {
+
+        ClientProjection projection = ClientProjection.fromParameter(view);
+        // The body is written on another thread, which does not know the tenant of the request.
+        ClientStore store = tenants.current().getStore();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (ClientExporter.acceptsGzip(acceptEncoding.orElse(null))) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(out -> exporter.exportGzip(store, projection, out));
+        }
+        return response.body(out -> exporter.export(store, projection, out));
+    }
+}
@@ -0,0 +1,116 @@
+package com.vcitdevproblem.web.rest;
+
+import com.vcitdevproblem.cdc.ChangeType;
+import com.vcitdevproblem.dto.ClientResponse;
+import com.vcitdevproblem.dto.ClientVersionDTO;
+import com.vcitdevproblem.exception.ClientErrors;
+import com.vcitdevproblem.exception.ClientNotFoundException;
+import com.vcitdevproblem.exception.HistoryIncompleteException;
+import com.vcitdevproblem.exception.InvalidRequestParameterException;
+import com.vcitdevproblem.history.HistoryStore;
+import com.vcitdevproblem.tenant.TenantContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * REST controller answering audit questions from the history of client changes.
+ */
+@RestController
+@RequestMapping({"/v1/clients", "/v1/tenants/{tenant}/clients"})
+public class ClientHistoryController {
+
+    private final HistoryStore historyStore;
+
+    public ClientHistoryController(HistoryStore historyStore) {
+        this.historyStore = historyStore;
+    }
+
+    /**
+     * Lists the recorded versions of a client of the request's tenant, oldest first.
+     *
+     * @param idNumber the ID number of the client
+     * @param from     the optional start of the window: an ISO instant, or a date meaning its start (UTC)
+     * @param to       the optional end of the window: an ISO instant, or a date meaning its end (UTC)
+     * @return a {@link ResponseEntity} containing a {@link ClientResponse} with the versions
+     * @throws HistoryIncompleteException if changes were lost from the history in the window
+     */
+    @GetMapping("/history/{idNumber}")
+    public ResponseEntity<ClientResponse<List<ClientVersionDTO>>> getHistory(
+            @PathVariable String idNumber,
+            @RequestParam(required = false) Optional<String> from,
+            @RequestParam(required = false) Optional<String> to) {
+
+        List<ClientVersionDTO> versions = historyStore.versions(TenantContext.current(), idNumber,
+                from.map(value -> parseTime(value, false)).orElse(Long.MIN_VALUE),
+                to.map(value -> parseTime(value, true)).orElse(Long.MAX_VALUE));
+        ClientResponse<List<ClientVersionDTO>> response = new ClientResponse<>(
+                0,
+                "api-fm-020",
+                "Client history retrieved successfully.",
+                versions.isEmpty() ? "No history found." : "History found.",
+                versions
+        );
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Returns a client of the request's tenant as it was at a point in time.
+     *
+     * @param idNumber  the ID number of the client
+     * @param timestamp the point in time: an ISO instant, or a date meaning its end (UTC)
+     * @return a {@link ResponseEntity} containing a {@link ClientResponse} with the version in effect at that time
+     * @throws ClientNotFoundException if the client did not exist at that time, or its history is not retained
+     * @throws HistoryIncompleteException if changes that could affect the answer were lost from the history
+     */
+    @GetMapping("/history/{idNumber}/at")
+    public ResponseEntity<ClientResponse<ClientVersionDTO>> getClientAt(
+            @PathVariable String idNumber,
+            @RequestParam String timestamp) {
+
+        ClientVersionDTO version = historyStore.at(TenantContext.current(), idNumber, parseTime(timestamp, true));
+        if (version == null || version.getType() == ChangeType.DELETED) {
+            throw ClientErrors.CLIENT_NOT_FOUND;
+        }
+        ClientResponse<ClientVersionDTO> response = new ClientResponse<>(
+                0,
+                "api-fm-021",
+                "Client version retrieved successfully.",
+                "Client found.",
+                version
+        );
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Parses a point in time given as an ISO instant or an ISO date.
+     *
+     * @param value    the request parameter
+     * @param endOfDay whether a date means the last millisecond of the day rather than the first
+     * @return the time in milliseconds since the epoch
+     * @throws InvalidRequestParameterException if the value is neither an instant nor a date
+     */
+    private static long parseTime(String value, boolean endOfDay) {
+        try {
+            if (value.indexOf('T') < 0) {
+                LocalDate date = LocalDate.parse(value);
+                Instant start = date.atStartOfDay(ZoneOffset.UTC).toInstant();
+                return endOfDay ? start.plusSeconds(86_400).toEpochMilli() - 1 : start.toEpochMilli();
+            }
+            return Instant.parse(value).toEpochMilli();
+        } catch (DateTimeException ex) {
+            throw new InvalidRequestParameterException(
+                    "Invalid time: " + value + " (expected yyyy-MM-dd or an ISO instant).");
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.vcitdevproblem.web.rest;
+
+import com.vcitdevproblem.dto.ClientResponse;
+import com.vcitdevproblem.dto.ClientScanDTO;
+import com.vcitdevproblem.exception.GlobalExceptionHandler;
+import com.vcitdevproblem.scan.ScanCancellation;
+import com.vcitdevproblem.scan.ScanProperties;
+import com.vcitdevproblem.service.ClientService;
+import com.vcitdevproblem.store.ClientProjection;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * REST controller running ad-hoc filter scans over the whole client register.
+ */
+@RestController
+@RequestMapping({"/v1/clients", "/v1/tenants/{tenant}/clients"})
+public class ClientScanController implements DisposableBean {
+
+    private final ClientService clientService;
+    private final ScanProperties scanProperties;
+    private final GlobalExceptionHandler exceptionHandler;
+    private final ScheduledExecutorService probes = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "client-scan-probe");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ClientScanController(ClientService clientService, ScanProperties scanProperties,
+                                GlobalExceptionHandler exceptionHandler) {
+        this.clientService = clientService;
+        this.scanProperties = scanProperties;
+        this.exceptionHandler = exceptionHandler;
+    }
+
+    /**
+     * Scans every client against a filter expression. The scan runs asynchronously and is cancelled if the HTTP client
+     * disconnects, so abandoned back-office queries stop consuming scan workers.
+     * <p>
+     * A container only learns that a client went away when it writes to the connection, so while the scan runs, a
+     * space is written ahead of the JSON answer every {@code scan.probe-interval}; the first failed write cancels the
+     * scan. A scan that fails before the first probe is answered with its usual error status. Once a probe has been
+     * written, the 200 status is sent, so a scan failing after that is answered with the error's usual
+     * {@link ClientResponse} envelope under that status; callers must check its {@code resultCode}.
+     *
+     * @param filter the filter expression, e.g. {@code birthYear >= 1990 and physicalAddress contains 'Elm'}
+     * @param limit  the maximum number of clients to return
+     * @param view   the projection of the clients: full (default), idNumber or mobileNumber
+     * @return a {@link ResponseEntity} streaming a {@link ClientResponse} holding the {@link ClientScanDTO}
+     */
+    @GetMapping("/scan")
+    public ResponseEntity<ResponseBodyEmitter> scanClients(
+            @RequestParam String filter,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(defaultValue = "full") String view) {
+
+        ClientProjection projection = ClientProjection.fromParameter(view);
+        ScanCancellation cancellation = new ScanCancellation(scanProperties.getTimeout().toNanos());
+        // The scan's own deadline fires first and answers with partial results; this timeout is only a backstop.
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(scanProperties.getTimeout().plusSeconds(5).toMillis());
+        emitter.onCompletion(cancellation::cancel);
+        emitter.onTimeout(cancellation::cancel);
+        emitter.onError(error -> cancellation.cancel());
+
+        CompletableFuture<ClientScanDTO> scan = clientService.scanClients(filter, limit, cancellation, projection);
+        ScanResponse response = new ScanResponse(emitter, cancellation);
+        long intervalNanos = scanProperties.getProbeInterval().toNanos();
+        ScheduledFuture<?> probe = probes.scheduleWithFixedDelay(
+                response::probe, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+
+        scan.whenComplete((result, error) -> {
+            probe.cancel(false);
+            if (error != null) {
+                response.fail(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+                return;
+            }
+            response.complete(new ClientResponse<>(
+                    0,
+                    "api-fm-018",
+                    "Client scan completed successfully.",
+                    result.getClients().isEmpty() ? "No clients found." : "Clients found.",
+                    result
+            ));
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(emitter);
+    }
+
+    @Override
+    public void destroy() {
+        probes.shutdownNow();
+    }
+
+    /**
+     * The writes to one scan's response. Probes and the answer are serialized, so that whether a probe has already
+     * sent the status is known for certain when the answer is written.
+     */
+    private final class ScanResponse {
+
+        private final ResponseBodyEmitter emitter;
+        private final ScanCancellation cancellation;
+        private boolean probed;
+        private boolean answered;
+
+        private ScanResponse(ResponseBodyEmitter emitter, ScanCancellation cancellation) {
+            this.emitter = emitter;
+            this.cancellation = cancellation;
+        }
+
+        private synchronized void probe() {
+            if (answered) {
+                return;
+            }
+            try {
+                // Leading whitespace is valid JSON, so the probes leave the answer intact.
+                emitter.send(" ", MediaType.TEXT_PLAIN);
+                probed = true;
+            } catch (IOException | IllegalStateException ex) {
+                cancellation.cancel();
+            }
+        }
+
+        private synchronized void complete(Object body) {
+            answered = true;
+            try {
+                emitter.send(body, MediaType.APPLICATION_JSON);
+                emitter.complete();
+            } catch (IOException | IllegalStateException ex) {
+                // The client went away or the request already timed out; the container cleans up the request.
+                cancellation.cancel();
+            }
+        }
+
+        private synchronized void fail(Throwable error) {
+            if (!probed) {
+                answered = true;
+                emitter.completeWithError(error);
+                return;
+            }
+            // The status line is out; the error can only travel in the envelope.
+            complete(exceptionHandler.handle(error).getBody());
+        }
+    }
+}
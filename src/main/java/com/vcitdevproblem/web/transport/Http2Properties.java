@@ -0,0 +1,38 @@
+package com.vcitdevproblem.web.transport;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Multiplexing limits of HTTP/2 connections, bound from {@code http2.*}. HTTP/2 itself, including cleartext h2c, is
+ * switched on with {@code server.http2.enabled}.
+ */
+@ConfigurationProperties(prefix = "http2")
+public class Http2Properties {
+
+    /**
+     * Number of streams a client may keep open on one connection.
+     */
+    private int maxConcurrentStreams = 128;
+
+    /**
+     * Number of streams of one connection processed at the same time; the others wait for a request thread, so that
+     * a single multiplexed connection cannot occupy the whole pool.
+     */
+    private int maxConcurrentStreamExecution = 32;
+
+    public int getMaxConcurrentStreams() {
+        return maxConcurrentStreams;
+    }
+
+    public void setMaxConcurrentStreams(int maxConcurrentStreams) {
+        this.maxConcurrentStreams = maxConcurrentStreams;
+    }
+
+    public int getMaxConcurrentStreamExecution() {
+        return maxConcurrentStreamExecution;
+    }
+
+    public void setMaxConcurrentStreamExecution(int maxConcurrentStreamExecution) {
+        this.maxConcurrentStreamExecution = maxConcurrentStreamExecution;
+    }
+}
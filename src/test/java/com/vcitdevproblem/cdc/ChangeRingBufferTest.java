@@ -0,0 +1,174 @@
+package com.vcitdevproblem.cdc;
+
+import com.vcitdevproblem.dto.ClientDTO;
+import com.vcitdevproblem.util.MockDataProvider;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ChangeRingBuffer class, testing sequencing, batching, overwrite behaviour and gating.
+ */
+public class ChangeRingBufferTest {
+
+    /**
+     * Tests that changes get consecutive sequences and are read back in order, in batches.
+     */
+    @Test
+    void testPublishAndReadInBatches() {
+        ChangeRingBuffer buffer = new ChangeRingBuffer(16);
+        ClientDTO client = MockDataProvider.getMockClientResponse1();
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i + 1, buffer.publish(ChangeType.UPDATED, client.getIdNumber(), client));
+        }
+
+        List<ClientChangeEvent> batch = new ArrayList<>();
+        long next = buffer.read(1, 3, batch);
+        assertEquals(4, next);
+        assertEquals(3, batch.size());
+        assertEquals(1, batch.get(0).getSequence());
+
+        batch.clear();
+        next = buffer.read(next, 10, batch);
+        assertEquals(6, next);
+        assertEquals(2, batch.size());
+        assertEquals(5, batch.get(1).getSequence());
+    }
+
+    /**
+     * Tests that the oldest changes are overwritten once the buffer wraps around.
+     */
+    @Test
+    void testOverwritesOldestWhenFull() {
+        ChangeRingBuffer buffer = new ChangeRingBuffer(4);
+        for (int i = 0; i < 10; i++) {
+            buffer.publish(ChangeType.DELETED, "id-" + i, null);
+        }
+
+        assertEquals(7, buffer.oldestSequence());
+        assertFalse(buffer.isAvailable(6));
+
+        List<ClientChangeEvent> batch = new ArrayList<>();
+        assertEquals(2, buffer.read(2, 10, batch));
+        assertTrue(batch.isEmpty());
+
+        assertEquals(11, buffer.read(buffer.oldestSequence(), 10, batch));
+        assertEquals("id-6", batch.get(0).getIdNumber());
+    }
+
+    /**
+     * Tests that reading from 0 starts at the oldest buffered change, and that only sequences that were actually
+     * overwritten count as missed, not those of an empty buffer or not yet published.
+     */
+    @Test
+    void testStartAndOverwrittenSequences() {
+        ChangeRingBuffer buffer = new ChangeRingBuffer(4);
+        assertEquals(1, buffer.startSequence(0));
+        assertFalse(buffer.isOverwritten(0));
+        assertFalse(buffer.isOverwritten(1));
+
+        for (int i = 0; i < 3; i++) {
+            buffer.publish(ChangeType.DELETED, "id-" + i, null);
+        }
+        assertEquals(1, buffer.startSequence(0));
+        assertEquals(1, buffer.startSequence(-5));
+        assertEquals(2, buffer.startSequence(2));
+        assertFalse(buffer.isOverwritten(1));
+        assertFalse(buffer.isOverwritten(4));
+
+        for (int i = 3; i < 10; i++) {
+            buffer.publish(ChangeType.DELETED, "id-" + i, null);
+        }
+        assertEquals(7, buffer.startSequence(0));
+        assertTrue(buffer.isOverwritten(6));
+        assertFalse(buffer.isOverwritten(7));
+        assertFalse(buffer.isOverwritten(11));
+    }
+
+    /**
+     * Tests that concurrent producers never lose or duplicate a sequence.
+     *
+     * @throws InterruptedException if the test is interrupted while waiting for producers
+     */
+    @Test
+    void testConcurrentPublishers() throws InterruptedException {
+        ChangeRingBuffer buffer = new ChangeRingBuffer(1 << 14);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        CountDownLatch done = new CountDownLatch(4);
+        for (int t = 0; t < 4; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    buffer.publish(ChangeType.CREATED, "id", null);
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        pool.shutdown();
+
+        List<ClientChangeEvent> all = new ArrayList<>();
+        assertEquals(8_001, buffer.read(1, 10_000, all));
+        for (int i = 0; i < all.size(); i++) {
+            assertEquals(i + 1, all.get(i).getSequence());
+        }
+    }
+
+    /**
+     * Tests that a waiting consumer is woken up by a publish.
+     *
+     * @throws InterruptedException if the test is interrupted while waiting for the consumer
+     */
+    @Test
+    void testAwaitPublishWakesUp() throws InterruptedException {
+        ChangeRingBuffer buffer = new ChangeRingBuffer(8);
+        long observed = buffer.publishCount();
+        CountDownLatch woken = new CountDownLatch(1);
+        Thread consumer = new Thread(() -> {
+            buffer.awaitPublish(observed, TimeUnit.SECONDS.toNanos(30));
+            woken.countDown();
+        });
+        consumer.start();
+
+        buffer.publish(ChangeType.CREATED, "id", null);
+
+        assertTrue(woken.await(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Tests that a publish about to overwrite a change the gating consumer has not read waits until it has.
+     *
+     * @throws InterruptedException if the test is interrupted while waiting for the publisher
+     */
+    @Test
+    void testGateHoldsBackOverwrites() throws InterruptedException {
+        ChangeRingBuffer buffer = new ChangeRingBuffer(4);
+        AtomicLong next = new AtomicLong(1);
+        buffer.setGate(next::get);
+        for (int i = 0; i < 4; i++) {
+            buffer.publish(ChangeType.CREATED, "id" + i, null);
+        }
+        CountDownLatch published = new CountDownLatch(1);
+        Thread publisher = new Thread(() -> {
+            buffer.publish(ChangeType.CREATED, "id4", null);
+            published.countDown();
+        });
+        publisher.start();
+
+        assertFalse(published.await(100, TimeUnit.MILLISECONDS));
+        assertTrue(buffer.isAvailable(1));
+        assertEquals(1, buffer.getGatedPublishes());
+
+        next.set(2);
+        assertTrue(published.await(5, TimeUnit.SECONDS));
+        assertFalse(buffer.isAvailable(1));
+        assertTrue(buffer.isAvailable(5));
+    }
+}
@@ -0,0 +1,128 @@
+package com.vcitdevproblem.coalesce;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the SingleFlight class, testing that concurrent identical calls share one execution, that
+ * invalidation starts a fresh one, and that failures are shared.
+ */
+public class SingleFlightTest {
+
+    /**
+     * Tests that callers arriving while a call is in flight receive its result without running the call again.
+     */
+    @Test
+    void testConcurrentCallsShareOneExecution() throws Exception {
+        SingleFlight<String, String> flights = new SingleFlight<>("test");
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(callers.submit(() -> flights.execute("key", () -> {
+                executions.incrementAndGet();
+                await(release);
+                return "result";
+            })));
+            awaitInFlight(flights, 1);
+            for (int i = 0; i < 7; i++) {
+                results.add(callers.submit(() -> flights.execute("key", () -> "duplicate")));
+            }
+            while (flights.getCoalesced() < 7) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("result", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, executions.get());
+            assertEquals(0.875, flights.getHitRatio(), 1e-9);
+            assertEquals(0, flights.getInFlight());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests that a caller arriving after the in-flight call was invalidated runs its own call.
+     */
+    @Test
+    void testInvalidatedCallIsNotJoined() throws Exception {
+        SingleFlight<String, String> flights = new SingleFlight<>("test");
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> stale = callers.submit(() -> flights.execute("key", () -> {
+                await(release);
+                return "before write";
+            }));
+            awaitInFlight(flights, 1);
+            flights.invalidate("key"::equals);
+
+            assertEquals("after write", flights.execute("key", () -> "after write"));
+            release.countDown();
+            assertEquals("before write", stale.get(5, TimeUnit.SECONDS));
+            assertEquals(2, flights.getExecuted());
+            assertEquals(0, flights.getCoalesced());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests that every caller of a failed call receives its exception.
+     */
+    @Test
+    void testFailureIsShared() throws Exception {
+        SingleFlight<String, String> flights = new SingleFlight<>("test");
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("not found");
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = callers.submit(() -> flights.execute("key", () -> {
+                await(release);
+                throw failure;
+            }));
+            awaitInFlight(flights, 1);
+            Future<String> follower = callers.submit(() -> flights.execute("key", () -> "unused"));
+            while (flights.getCoalesced() < 1) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            for (Future<String> result : List.of(leader, follower)) {
+                Exception thrown = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+                assertSame(failure, thrown.getCause());
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    private static void awaitInFlight(SingleFlight<?, ?> flights, int count) throws InterruptedException {
+        while (flights.getInFlight() < count) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.vcitdevproblem.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vcitdevproblem.dto.ClientDTO;
+import com.vcitdevproblem.model.Client;
+import com.vcitdevproblem.store.ClientProjection;
+import com.vcitdevproblem.store.ClientRecord;
+import com.vcitdevproblem.store.ClientStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ClientExporter class, testing the newline-delimited output, the reuse of precompressed exports
+ * within one shared limit and Accept-Encoding negotiation.
+ */
+public class ClientExporterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Tests that every client is written on its own line in the requested projection.
+     */
+    @Test
+    void testExportWritesOneClientPerLine() throws IOException {
+        ClientStore store = new ClientStore();
+        store.put(record("John", "Doe", "0712345678", "9601104800087", "123 Elm Street"), null);
+        store.put(record("Jane", "Smith", "0723456789", "9901104800081", "456 Maple Avenue"), null);
+        ClientExporter exporter = new ClientExporter(store, objectMapper, new ExportProperties());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(ClientProjection.ID_NUMBER, out);
+        String body = out.toString(StandardCharsets.UTF_8);
+
+        assertTrue(body.endsWith("\n"));
+        Set<String> lines = Arrays.stream(body.split("\n")).collect(Collectors.toSet());
+        assertEquals(Set.of("{\"idNumber\":\"9601104800087\"}", "{\"idNumber\":\"9901104800081\"}"), lines);
+    }
+
+    /**
+     * Tests that a compressed export is served from memory until the register changes, and then compressed again.
+     */
+    @Test
+    void testGzipExportIsReusedUntilTheRegisterChanges() throws IOException {
+        ClientStore store = new ClientStore();
+        store.put(record("John", "Doe", "0712345678", "9601104800087", "123 Elm Street"), null);
+        ClientExporter exporter = new ClientExporter(store, objectMapper, new ExportProperties());
+
+        byte[] first = exportGzip(exporter);
+        byte[] second = exportGzip(exporter);
+        assertArrayEquals(first, second);
+        assertEquals(1, exporter.getPrecompressedHits());
+        assertEquals(first.length, exporter.getPrecompressedBytes());
+
+        store.put(record("Jane", "Smith", "0723456789", "9901104800081", "456 Maple Avenue"), null);
+        String changed = gunzip(exportGzip(exporter));
+        assertEquals(1, exporter.getPrecompressedHits());
+        assertEquals(2, changed.split("\n").length);
+
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        exporter.export(ClientProjection.FULL, plain);
+        assertEquals(plain.toString(StandardCharsets.UTF_8).length(), changed.length());
+    }
+
+    /**
+     * Tests that exports larger than the limit are streamed but not kept.
+     */
+    @Test
+    void testLargeGzipExportIsNotKept() throws IOException {
+        ClientStore store = new ClientStore();
+        store.put(record("John", "Doe", "0712345678", "9601104800087", "123 Elm Street"), null);
+        ExportProperties properties = new ExportProperties();
+        properties.setPrecompressedLimit(DataSize.ofBytes(8));
+        ClientExporter exporter = new ClientExporter(store, objectMapper, properties);
+
+        assertTrue(gunzip(exportGzip(exporter)).contains("\"firstName\":\"John\""));
+        exportGzip(exporter);
+        assertEquals(0, exporter.getPrecompressedHits());
+        assertEquals(0, exporter.getPrecompressedBytes());
+    }
+
+    /**
+     * Tests that the compressed exports of different registers share one limit, the least recently served being
+     * dropped to make room.
+     */
+    @Test
+    void testGzipExportsShareOneLimit() throws IOException {
+        ClientStore acme = new ClientStore();
+        acme.put(record("John", "Doe", "0712345678", "9601104800087", "123 Elm Street"), null);
+        ClientStore globex = new ClientStore();
+        globex.put(record("Jane", "Smith", "0723456789", "9901104800081", "456 Maple Avenue"), null);
+        ExportProperties properties = new ExportProperties();
+        long size = exportGzip(new ClientExporter(acme, objectMapper, properties), acme).length;
+        properties.setPrecompressedLimit(DataSize.ofBytes(size + size / 2));
+        ClientExporter exporter = new ClientExporter(acme, objectMapper, properties);
+
+        exportGzip(exporter, acme);
+        exportGzip(exporter, globex);
+        assertEquals(1, exporter.getPrecompressedEvictions());
+        assertTrue(exporter.getPrecompressedBytes() <= size + size / 2);
+        exportGzip(exporter, globex);
+        assertEquals(1, exporter.getPrecompressedHits());
+        exportGzip(exporter, acme);
+        assertEquals(1, exporter.getPrecompressedHits());
+        assertEquals(2, exporter.getPrecompressedEvictions());
+    }
+
+    /**
+     * Tests that an export of a view already being compressed streams without keeping a second copy, and that the
+     * first export still keeps its copy.
+     */
+    @Test
+    void testConcurrentGzipExportsOfOneViewKeepOneCopy() throws IOException {
+        ClientStore store = new ClientStore();
+        store.put(record("John", "Doe", "0712345678", "9601104800087", "123 Elm Street"), null);
+        ClientExporter exporter = new ClientExporter(store, objectMapper, new ExportProperties());
+        byte[][] concurrent = new byte[1][];
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write(byte[] bytes, int offset, int length) {
+                if (concurrent[0] == null) {
+                    try {
+                        concurrent[0] = exportGzip(exporter);
+                    } catch (IOException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                    assertEquals(0, exporter.getPrecompressedBytes());
+                }
+                super.write(bytes, offset, length);
+            }
+        };
+
+        exporter.exportGzip(ClientProjection.FULL, out);
+        assertTrue(gunzip(concurrent[0]).contains("\"firstName\":\"John\""));
+        assertEquals(out.size(), exporter.getPrecompressedBytes());
+        assertArrayEquals(out.toByteArray(), exportGzip(exporter));
+        assertEquals(1, exporter.getPrecompressedHits());
+    }
+
+    /**
+     * Tests that gzip is negotiated from the Accept-Encoding header, honouring a zero quality.
+     */
+    @Test
+    void testAcceptsGzip() {
+        assertTrue(ClientExporter.acceptsGzip("gzip"));
+        assertTrue(ClientExporter.acceptsGzip("br;q=1.0, gzip;q=0.8"));
+        assertTrue(ClientExporter.acceptsGzip("*"));
+        assertFalse(ClientExporter.acceptsGzip(null));
+        assertFalse(ClientExporter.acceptsGzip("identity"));
+        assertFalse(ClientExporter.acceptsGzip("gzip;q=0"));
+        assertFalse(ClientExporter.acceptsGzip("deflate, gzip;q=0.0"));
+    }
+
+    private static byte[] exportGzip(ClientExporter exporter) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.exportGzip(ClientProjection.FULL, out);
+        return out.toByteArray();
+    }
+
+    private static byte[] exportGzip(ClientExporter exporter, ClientStore store) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.exportGzip(store, ClientProjection.FULL, out);
+        return out.toByteArray();
+    }
+
+    private static String gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static ClientRecord record(String firstName, String lastName, String mobileNumber, String idNumber,
+                                       String physicalAddress) {
+        Client client = new Client(firstName, lastName, mobileNumber, idNumber, physicalAddress);
+        ClientDTO full = new ClientDTO(firstName, lastName, mobileNumber, idNumber, physicalAddress);
+        ClientDTO idNumberOnly = new ClientDTO(null, null, null, idNumber, null);
+        ClientDTO mobileNumberOnly = new ClientDTO(null, null, mobileNumber, null, null);
+        return new ClientRecord(client, full, idNumberOnly, mobileNumberOnly);
+    }
+}
@@ -0,0 +1,256 @@
+package com.vcitdevproblem.history;
+
+import com.vcitdevproblem.cdc.ChangeRingBuffer;
+import com.vcitdevproblem.cdc.ChangeType;
+import com.vcitdevproblem.cdc.ClientChangeEvent;
+import com.vcitdevproblem.dto.ClientDTO;
+import com.vcitdevproblem.dto.ClientVersionDTO;
+import com.vcitdevproblem.exception.HistoryIncompleteException;
+import com.vcitdevproblem.tenant.TenantContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the HistoryStore class, testing point-in-time lookups over delta-encoded chunks, retention,
+ * recording from the change stream and bulk loads, and lookups into lost changes until a baseline closes them.
+ */
+public class HistoryStoreTest {
+
+    private static final String ID = "9601104800087";
+
+    /**
+     * Tests that each point in time sees the client as it was then, with the fields each change touched.
+     */
+    @Test
+    void testPointInTimeLookup() {
+        HistoryStore store = new HistoryStore(properties(32));
+        store.append(List.of(
+                change(1, ChangeType.CREATED, 1_000, client("John", "Doe", "0712345678", "123 Elm Street")),
+                change(2, ChangeType.UPDATED, 2_000, client("John", "Smith", "0712345678", "123 Elm Street")),
+                change(3, ChangeType.UPDATED, 3_000, client("John", "Smith", "0712345678", null)),
+                change(4, ChangeType.DELETED, 4_000, null),
+                change(5, ChangeType.CREATED, 5_000, client("Johnny", "Smith", "0799999999", "9 Oak Road"))));
+
+        assertNull(store.at(ID, 999));
+        assertEquals("Doe", store.at(ID, 1_999).getClient().getLastName());
+        ClientVersionDTO renamed = store.at(ID, 2_000);
+        assertEquals(2, renamed.getSequence());
+        assertEquals(List.of("lastName"), renamed.getChangedFields());
+        assertEquals("123 Elm Street", renamed.getClient().getPhysicalAddress());
+        assertEquals(ID, renamed.getClient().getIdNumber());
+        assertNull(store.at(ID, 3_500).getClient().getPhysicalAddress());
+        assertEquals(ChangeType.DELETED, store.at(ID, 4_500).getType());
+        assertNull(store.at(ID, 4_500).getClient());
+        assertEquals("0799999999", store.at(ID, Long.MAX_VALUE).getClient().getMobileNumber());
+
+        assertEquals(List.of(2L, 3L, 4L), store.versions(ID, 1_500, 4_000).stream()
+                .map(ClientVersionDTO::getSequence).toList());
+        assertTrue(store.versions("8502154800082", 0, Long.MAX_VALUE).isEmpty());
+        assertEquals(5, store.getVersions());
+        assertEquals(5, store.getLastSequence());
+    }
+
+    /**
+     * Tests that versions spread over many chunks decode exactly, and that an update of one field costs a few bytes
+     * beyond its value.
+     */
+    @Test
+    void testManyChunksDecodeExactly() {
+        HistoryStore store = new HistoryStore(properties(4));
+        List<ClientChangeEvent> changes = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            changes.add(change(i + 1, i == 0 ? ChangeType.CREATED : ChangeType.UPDATED, 1_000L * i,
+                    client("John", "Doe", String.format("07%08d", i), "123 Elm Street")));
+        }
+        store.append(changes);
+
+        List<ClientVersionDTO> versions = store.versions(ID, 0, Long.MAX_VALUE);
+        assertEquals(1_000, versions.size());
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(String.format("07%08d", i), versions.get(i).getClient().getMobileNumber());
+            assertEquals("123 Elm Street", versions.get(i).getClient().getPhysicalAddress());
+            assertEquals(String.format("07%08d", i), store.at(ID, 1_000L * i + 999).getClient().getMobileNumber());
+        }
+        assertTrue(store.getBytes() < 1_000 * 24, "history takes " + store.getBytes() + " bytes");
+    }
+
+    /**
+     * Tests that retention drops expired versions but keeps the state in effect at the cutoff, and forgets clients
+     * deleted before it.
+     */
+    @Test
+    void testCompactionKeepsStateAtCutoff() {
+        HistoryStore store = new HistoryStore(properties(4));
+        List<ClientChangeEvent> changes = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            changes.add(change(i + 1, i == 0 ? ChangeType.CREATED : ChangeType.UPDATED, 1_000L * (i + 1),
+                    client("John", "Doe" + i, "0712345678", "123 Elm Street")));
+        }
+        changes.add(new ClientChangeEvent(11, ChangeType.CREATED, "8502154800082", 1_500,
+                client("Jane", "Doe", "0723456789", "456 Maple Avenue")));
+        changes.add(new ClientChangeEvent(12, ChangeType.DELETED, "8502154800082", 2_500, null));
+        store.append(changes);
+
+        store.compact(6_500);
+
+        List<ClientVersionDTO> versions = store.versions(ID, 0, Long.MAX_VALUE);
+        assertEquals(List.of(6L, 7L, 8L, 9L, 10L), versions.stream().map(ClientVersionDTO::getSequence).toList());
+        assertEquals("Doe5", store.at(ID, 6_999).getClient().getLastName());
+        assertEquals("123 Elm Street", store.at(ID, 6_999).getClient().getPhysicalAddress());
+        assertNull(store.at(ID, 5_999));
+        assertTrue(store.versions("8502154800082", 0, Long.MAX_VALUE).isEmpty());
+        assertEquals(1, store.getClients());
+        assertEquals(5, store.getVersions());
+
+        store.compact(100_000);
+        assertEquals("Doe9", store.at(ID, 100_000).getClient().getLastName());
+        assertEquals(1, store.getVersions());
+    }
+
+    /**
+     * Tests that the recorder appends changes published to the change stream in the background.
+     */
+    @Test
+    void testRecorderFollowsChangeStream() throws Exception {
+        ChangeRingBuffer buffer = new ChangeRingBuffer(1024);
+        HistoryStore store = new HistoryStore(properties(32));
+        HistoryRecorder recorder = new HistoryRecorder(buffer, store, properties(32));
+        buffer.publish(ChangeType.CREATED, ID, client("John", "Doe", "0712345678", "123 Elm Street"));
+        recorder.afterPropertiesSet();
+        buffer.publish(ChangeType.UPDATED, ID, client("John", "Smith", "0712345678", "123 Elm Street"));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (store.getLastSequence() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        recorder.destroy();
+
+        assertEquals(0, recorder.getLag());
+        assertEquals(0, recorder.getDropped());
+        assertEquals(List.of(ChangeType.CREATED, ChangeType.UPDATED), store.versions(ID, 0, Long.MAX_VALUE).stream()
+                .map(ClientVersionDTO::getType).toList());
+    }
+
+    /**
+     * Tests that a bulk load gets a baseline version of each client, after the changes published before it and
+     * before those published after it.
+     */
+    @Test
+    void testBulkLoadBaselineIsRecordedInOrder() throws Exception {
+        ChangeRingBuffer buffer = new ChangeRingBuffer(1024);
+        HistoryStore store = new HistoryStore(properties(32));
+        HistoryRecorder recorder = new HistoryRecorder(buffer, store, properties(32));
+        recorder.afterPropertiesSet();
+        buffer.publish(ChangeType.CREATED, ID, client("John", "Doe", "0712345678", "123 Elm Street"));
+        buffer.publish(ChangeType.DELETED, ID, null);
+        recorder.recordBaseline(TenantContext.DEFAULT_TENANT,
+                List.of(client("Jane", "Doe", "0723456789", "456 Maple Avenue")));
+        buffer.publish(ChangeType.UPDATED, ID, client("Jane", "Smith", "0723456789", "456 Maple Avenue"));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (store.getLastSequence() < 4 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        recorder.destroy();
+
+        List<ClientVersionDTO> versions = store.versions(ID, 0, Long.MAX_VALUE);
+        assertEquals(List.of(ChangeType.CREATED, ChangeType.DELETED, ChangeType.CREATED, ChangeType.UPDATED),
+                versions.stream().map(ClientVersionDTO::getType).toList());
+        assertEquals("Jane", versions.get(2).getClient().getFirstName());
+        assertEquals(4, store.getVersions());
+    }
+
+    /**
+     * Tests that a burst of changes larger than the change buffer makes the writer wait for the recorder instead of
+     * losing changes from the history.
+     */
+    @Test
+    void testRecorderHoldsBackBurstLargerThanBuffer() throws Exception {
+        ChangeRingBuffer buffer = new ChangeRingBuffer(8);
+        HistoryStore store = new HistoryStore(properties(32));
+        HistoryRecorder recorder = new HistoryRecorder(buffer, store, properties(32));
+        recorder.afterPropertiesSet();
+        for (int i = 0; i < 5_000; i++) {
+            buffer.publish(i == 0 ? ChangeType.CREATED : ChangeType.UPDATED, ID,
+                    client("John", "Doe" + i, "0712345678", null));
+        }
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (store.getLastSequence() < 5_000 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        recorder.destroy();
+
+        assertEquals(0, recorder.getDropped());
+        assertEquals(0, store.getGaps());
+        assertEquals(5_000, store.getVersions());
+        assertEquals("Doe4999", store.at(ID, Long.MAX_VALUE).getClient().getLastName());
+    }
+
+    /**
+     * Tests that lookups of a tenant which a lost change could affect fail until a complete baseline of the tenant
+     * closes the gap, that other tenants are unaffected, and that retention forgets the closed gap.
+     */
+    @Test
+    void testLookupsIntoGapFailUntilBaseline() {
+        HistoryStore store = new HistoryStore(properties(32));
+        store.append(List.of(
+                change(1, ChangeType.CREATED, 1_000, client("John", "Doe", "0712345678", null)),
+                new ClientChangeEvent(2, ChangeType.CREATED, "acme", ID, 1_000,
+                        client("Jane", "Doe", "0723456789", null))));
+        store.openGap(TenantContext.DEFAULT_TENANT, 1_000);
+        store.openGap(TenantContext.DEFAULT_TENANT, 2_000);
+        store.append(List.of(change(5, ChangeType.UPDATED, 4_000, client("John", "Smith", "0712345678", null))));
+
+        assertEquals(1, store.getGaps());
+        assertThrows(HistoryIncompleteException.class, () -> store.at(ID, 1_500));
+        assertThrows(HistoryIncompleteException.class, () -> store.at(ID, 4_500));
+        assertNull(store.at(ID, 999));
+        assertEquals("Jane", store.at("acme", ID, 4_500).getClient().getFirstName());
+
+        store.appendBaseline(TenantContext.DEFAULT_TENANT,
+                List.of(client("John", "Smith", "0712345678", "9 Oak Road")), true, 6, 5_000);
+        ClientVersionDTO rebaselined = store.at(ID, 5_500);
+        assertEquals(ChangeType.UPDATED, rebaselined.getType());
+        assertEquals(List.of("physicalAddress"), rebaselined.getChangedFields());
+        assertEquals(1, store.versions(ID, 5_000, 6_000).size());
+        assertThrows(HistoryIncompleteException.class, () -> store.versions(ID, 0, Long.MAX_VALUE));
+
+        store.compact(5_001);
+        assertEquals(0, store.getGaps());
+        assertEquals(1, store.versions(ID, 0, Long.MAX_VALUE).size());
+    }
+
+    /**
+     * Tests that a complete baseline deletes the clients of the tenant it no longer holds.
+     */
+    @Test
+    void testCompleteBaselineDeletesMissingClients() {
+        HistoryStore store = new HistoryStore(properties(32));
+        store.append(List.of(change(1, ChangeType.CREATED, 1_000, client("John", "Doe", "0712345678", null))));
+
+        store.appendBaseline(TenantContext.DEFAULT_TENANT, List.of(), true, 2, 2_000);
+
+        assertEquals(ChangeType.DELETED, store.at(ID, 2_000).getType());
+        assertEquals(2, store.getVersions());
+        assertEquals(2, store.getLastSequence());
+    }
+
+    private static HistoryProperties properties(int chunkVersions) {
+        HistoryProperties properties = new HistoryProperties();
+        properties.setChunkVersions(chunkVersions);
+        return properties;
+    }
+
+    private static ClientChangeEvent change(long sequence, ChangeType type, long timestamp, ClientDTO client) {
+        return new ClientChangeEvent(sequence, type, ID, timestamp, client);
+    }
+
+    private static ClientDTO client(String firstName, String lastName, String mobileNumber, String physicalAddress) {
+        return new ClientDTO(firstName, lastName, mobileNumber, ID, physicalAddress);
+    }
+}
@@ -0,0 +1,164 @@
+package com.vcitdevproblem.index;
+
+import com.vcitdevproblem.dto.ClientDTO;
+import com.vcitdevproblem.exception.InvalidRequestParameterException;
+import com.vcitdevproblem.model.Client;
+import com.vcitdevproblem.store.ClientRecord;
+import com.vcitdevproblem.store.ClientStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the IndexManager class, testing that indexes built online while the register changes end up
+ * holding exactly the register, and that a rebuild does not interrupt queries.
+ */
+public class IndexManagerTest {
+
+    /**
+     * Tests that a built index serves range queries in key order, and is not queryable before its build.
+     */
+    @Test
+    void testBuildServesRanges() throws Exception {
+        ClientStore store = new ClientStore();
+        put(store, null, client("Smith", "9601104800087"));
+        put(store, null, client("doe", "8502154800082"));
+        put(store, null, client("Adams", "0107304800083"));
+        IndexManager manager = new IndexManager(properties(2, 0), store);
+
+        assertNull(manager.range(IndexDefinition.LAST_NAME, null, null, 10));
+        manager.build(IndexDefinition.LAST_NAME).get();
+        manager.build(IndexDefinition.BIRTH_DATE).get();
+
+        assertTrue(manager.isReady(IndexDefinition.LAST_NAME));
+        assertEquals(List.of("0107304800083", "8502154800082", "9601104800087"),
+                manager.range(IndexDefinition.LAST_NAME, null, null, 10).getIdNumbers());
+        assertEquals(List.of("8502154800082"),
+                manager.range(IndexDefinition.LAST_NAME, "b", "doe", 10).getIdNumbers());
+        assertEquals(List.of("9601104800087", "0107304800083"),
+                manager.range(IndexDefinition.BIRTH_DATE, "1990-01-01", null, 10).getIdNumbers());
+        assertEquals(List.of("8502154800082"),
+                manager.range(IndexDefinition.BIRTH_DATE, null, "1999-12-31", 1).getIdNumbers());
+        manager.destroy();
+    }
+
+    /**
+     * Tests that creates, updates, re-keys and deletes made while the backfill runs are all reflected in the index
+     * once it is ready.
+     */
+    @Test
+    void testWritesDuringBuildAreCaughtUp() throws Exception {
+        ClientStore store = new ClientStore();
+        for (int i = 0; i < 20_000; i++) {
+            put(store, null, client("Name" + (i % 97), idNumber(i)));
+        }
+        IndexManager manager = new IndexManager(properties(128, 40_000), store);
+
+        CompletableFuture<Void> build = manager.build(IndexDefinition.LAST_NAME);
+        int writes = 0;
+        while (!build.isDone()) {
+            int i = writes++ % 20_000;
+            switch (writes % 4) {
+                case 0 -> write(store, manager, null, client("New" + writes, idNumber(100_000 + writes)));
+                case 1 -> write(store, manager, idNumber(i), client("Renamed" + writes, idNumber(i)));
+                case 2 -> write(store, manager, idNumber(i), client("Moved", idNumber(40_000 + i)));
+                default -> {
+                    store.remove(idNumber(i));
+                    manager.remove(idNumber(i));
+                }
+            }
+            Thread.sleep(1);
+        }
+        build.get();
+
+        assertTrue(writes > 10);
+        List<String> expected = store.snapshot().stream()
+                .map(ClientRecord::getClient)
+                .sorted(Comparator.comparing((Client client) -> IndexDefinition.LAST_NAME.key(client))
+                        .thenComparing(Client::getIdNumber))
+                .map(Client::getIdNumber)
+                .toList();
+        assertEquals(expected, manager.range(IndexDefinition.LAST_NAME, null, null, Integer.MAX_VALUE).getIdNumbers());
+        manager.destroy();
+    }
+
+    /**
+     * Tests that the previous generation is served while a rebuild runs, and that progress is reported.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRebuildKeepsServing() throws Exception {
+        ClientStore store = new ClientStore();
+        for (int i = 0; i < 2_000; i++) {
+            put(store, null, client("Name" + i, idNumber(i)));
+        }
+        IndexingProperties properties = properties(100, 0);
+        IndexManager manager = new IndexManager(properties, store);
+        manager.build(IndexDefinition.LAST_NAME).get();
+
+        properties.setMaxRecordsPerSecond(2_000);
+        CompletableFuture<Void> rebuild = manager.build(IndexDefinition.LAST_NAME);
+        Thread.sleep(200);
+        Map<String, Object> status = manager.status(IndexDefinition.LAST_NAME);
+        assertEquals(true, status.get("ready"));
+        assertEquals(OnlineIndex.State.BUILDING, ((Map<String, Object>) status.get("latest")).get("state"));
+        assertEquals(2_000L, ((Map<String, Object>) status.get("latest")).get("total"));
+        assertEquals(2_000, manager.range(IndexDefinition.LAST_NAME, null, null, 5_000).getIdNumbers().size());
+
+        rebuild.get();
+        status = manager.status(IndexDefinition.LAST_NAME);
+        assertFalse(status.containsKey("latest"));
+        assertEquals(2L, ((Map<String, Object>) status.get("serving")).get("generation"));
+        assertEquals(1.0, ((Map<String, Object>) status.get("serving")).get("progress"));
+        manager.destroy();
+    }
+
+    /**
+     * Tests the keys of the index definitions and the validation of query bounds.
+     */
+    @Test
+    void testDefinitions() {
+        assertEquals("1996-01-10", IndexDefinition.BIRTH_DATE.key(client("Doe", "9601104800087")));
+        assertEquals("2001-07-30", IndexDefinition.BIRTH_DATE.key(client("Doe", "0107304800083")));
+        assertNull(IndexDefinition.BIRTH_DATE.key(client("Doe", "9613404800087")));
+        assertEquals("o'neill", IndexDefinition.LAST_NAME.key(client("O'Neill", "9601104800087")));
+        assertEquals(IndexDefinition.BIRTH_DATE, IndexDefinition.fromParameter("birthdate"));
+        assertThrows(InvalidRequestParameterException.class, () -> IndexDefinition.BIRTH_DATE.normalizeBound("1996-13-01"));
+        assertThrows(InvalidRequestParameterException.class, () -> IndexDefinition.fromParameter("mobileNumber"));
+    }
+
+    private static void put(ClientStore store, String replacedIdNumber, Client client) {
+        store.put(new ClientRecord(client, new ClientDTO(), new ClientDTO(), new ClientDTO()), replacedIdNumber);
+    }
+
+    /**
+     * Writes a client the way ClientService does: to the store, then to the indexes.
+     */
+    private static void write(ClientStore store, IndexManager manager, String replacedIdNumber, Client client) {
+        put(store, replacedIdNumber, client);
+        if (replacedIdNumber != null && !replacedIdNumber.equals(client.getIdNumber())) {
+            manager.remove(replacedIdNumber);
+        }
+        manager.index(client);
+    }
+
+    private static IndexingProperties properties(int chunkSize, int maxRecordsPerSecond) {
+        IndexingProperties properties = new IndexingProperties();
+        properties.setChunkSize(chunkSize);
+        properties.setMaxRecordsPerSecond(maxRecordsPerSecond);
+        return properties;
+    }
+
+    private static Client client(String lastName, String idNumber) {
+        return new Client("John", lastName, "07" + idNumber.substring(5), idNumber, "123 Elm Street");
+    }
+
+    private static String idNumber(int i) {
+        return String.format("%013d", i);
+    }
+}
@@ -0,0 +1,127 @@
+package com.vcitdevproblem.index;
+
+import com.vcitdevproblem.exception.InvalidRequestParameterException;
+import com.vcitdevproblem.model.Client;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the SortedClientIndex class, testing filtered ordering and keyset pagination.
+ */
+public class SortedClientIndexTest {
+
+    private SortedClientIndex index;
+
+    @BeforeEach
+    public void setup() {
+        index = new SortedClientIndex();
+        index.index(new Client("John", "Doe", "0712345678", "9601104800087", "123 Elm Street"));
+        index.index(new Client("Jane", "Smith", "0723456789", "9901104800081", "456 Maple Avenue"));
+        index.index(new Client("john", "Adams", "0734567890", "4801104800088", "12 Oak Road"));
+        index.index(new Client("John", "Zulu", "0745678901", "8001015009087", "7 Pine Lane"));
+    }
+
+    /**
+     * Tests that a first name filter returns every match, ordered by last name.
+     */
+    @Test
+    void testFilterByFirstNameSortedByLastName() {
+        IndexPage page = index.page(Optional.of("JOHN"), Optional.empty(), ClientSort.LAST_NAME, false, 10, Optional.empty());
+
+        assertEquals(List.of("4801104800088", "9601104800087", "8001015009087"), page.getIdNumbers());
+        assertNull(page.getNextCursor());
+    }
+
+    /**
+     * Tests that following cursors visits every client exactly once, in order, in both directions.
+     */
+    @Test
+    void testCursorsWalkAllPages() {
+        assertEquals(List.of("4801104800088", "8001015009087", "9601104800087", "9901104800081"),
+                walk(Optional.empty(), ClientSort.ID_NUMBER, false));
+        assertEquals(List.of("9601104800087", "8001015009087", "4801104800088"),
+                walk(Optional.of("John"), ClientSort.ID_NUMBER, true));
+    }
+
+    /**
+     * Tests that updates move clients to their new position and removals drop them.
+     */
+    @Test
+    void testUpdateAndRemove() {
+        index.index(new Client("Jane", "Doe", "0745678901", "8001015009087", "7 Pine Lane"));
+        index.remove("9601104800087");
+
+        IndexPage page = index.page(Optional.of("john"), Optional.empty(), ClientSort.FIRST_NAME, false, 10, Optional.empty());
+        assertEquals(List.of("4801104800088"), page.getIdNumbers());
+        assertEquals(3, index.size());
+    }
+
+    /**
+     * Tests that a bulk load replaces existing entries and keeps only the last entry given for an ID number.
+     */
+    @Test
+    void testIndexAll() {
+        index.indexAll(List.of(
+                new Client("Zola", "Doe", "0756789012", "9601104800087", "123 Elm Street"),
+                new Client("Amy", "Brown", "0767890123", "7001014800086", "1 Long Street"),
+                new Client("Bea", "Brown", "0767890123", "7001014800086", "1 Long Street")));
+
+        IndexPage page = index.page(Optional.empty(), Optional.empty(), ClientSort.FIRST_NAME, false, 10, Optional.empty());
+        assertEquals(List.of("7001014800086", "9901104800081", "4801104800088", "8001015009087", "9601104800087"),
+                page.getIdNumbers());
+        assertEquals(5, index.size());
+    }
+
+    /**
+     * Tests that a cursor is rejected for a different sort and when it is malformed.
+     */
+    @Test
+    void testRejectsForeignCursor() {
+        String cursor = index.page(Optional.empty(), Optional.empty(), ClientSort.LAST_NAME, false, 1, Optional.empty())
+                .getNextCursor();
+
+        assertNotNull(cursor);
+        assertThrows(InvalidRequestParameterException.class, () ->
+                index.page(Optional.empty(), Optional.empty(), ClientSort.FIRST_NAME, false, 1, Optional.of(cursor)));
+        assertThrows(InvalidRequestParameterException.class, () ->
+                index.page(Optional.empty(), Optional.empty(), ClientSort.LAST_NAME, false, 1, Optional.of("%%")));
+    }
+
+    /**
+     * Tests that a cursor is rejected when the name filters differ from those of the query that issued it, while the
+     * case of a filter does not matter.
+     */
+    @Test
+    void testRejectsCursorOfOtherFilters() {
+        String cursor = index.page(Optional.of("john"), Optional.empty(), ClientSort.LAST_NAME, false, 1, Optional.empty())
+                .getNextCursor();
+
+        assertNotNull(cursor);
+        assertEquals(List.of("9601104800087"),
+                index.page(Optional.of("JOHN"), Optional.empty(), ClientSort.LAST_NAME, false, 1, Optional.of(cursor))
+                        .getIdNumbers());
+        assertThrows(InvalidRequestParameterException.class, () ->
+                index.page(Optional.of("jane"), Optional.empty(), ClientSort.LAST_NAME, false, 1, Optional.of(cursor)));
+        assertThrows(InvalidRequestParameterException.class, () ->
+                index.page(Optional.empty(), Optional.empty(), ClientSort.LAST_NAME, false, 1, Optional.of(cursor)));
+        assertThrows(InvalidRequestParameterException.class, () ->
+                index.page(Optional.of("john"), Optional.of("doe"), ClientSort.LAST_NAME, false, 1, Optional.of(cursor)));
+    }
+
+    private List<String> walk(Optional<String> firstName, ClientSort sort, boolean descending) {
+        List<String> idNumbers = new ArrayList<>();
+        Optional<String> cursor = Optional.empty();
+        do {
+            IndexPage page = index.page(firstName, Optional.empty(), sort, descending, 1, cursor);
+            idNumbers.addAll(page.getIdNumbers());
+            cursor = Optional.ofNullable(page.getNextCursor());
+        } while (cursor.isPresent());
+        return idNumbers;
+    }
+}
@@ -0,0 +1,153 @@
+package com.vcitdevproblem.index;
+
+import com.vcitdevproblem.model.Client;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TrigramIndex class, testing typo tolerant ranking and incremental maintenance.
+ */
+public class TrigramIndexTest {
+
+    private static final Set<TextField> ALL_FIELDS = EnumSet.allOf(TextField.class);
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    public void setup() {
+        index = new TrigramIndex();
+        index.index(new Client("John", "Doe", "0712345678", "9601104800087", "123 Elm Street"));
+        index.index(new Client("Jane", "Smith", "0723456789", "9901104800081", "456 Maple Avenue"));
+        index.index(new Client("Johan", "Smit", "0734567890", "4801104800088", "12 Oak Road"));
+    }
+
+    /**
+     * Tests that a misspelt last name still ranks the intended clients first.
+     */
+    @Test
+    void testMisspeltNameRanksClosestFirst() {
+        List<FuzzyMatch> matches = index.search("Smiht", EnumSet.of(TextField.LAST_NAME), 10, 0.3);
+
+        assertFalse(matches.isEmpty());
+        assertTrue(matches.stream().allMatch(match -> Set.of("9901104800081", "4801104800088").contains(match.getIdNumber())));
+        assertTrue(matches.get(0).getScore() >= matches.get(matches.size() - 1).getScore());
+    }
+
+    /**
+     * Tests that addresses are searchable and that field restrictions are honoured.
+     */
+    @Test
+    void testSearchesAddressOnlyWhenSelected() {
+        assertEquals("9901104800081", index.search("mapel avenue", ALL_FIELDS, 1, 0.3).get(0).getIdNumber());
+        assertTrue(index.search("mapel avenue", EnumSet.of(TextField.FIRST_NAME), 10, 0.3).isEmpty());
+    }
+
+    /**
+     * Tests that updates replace the indexed values and removals drop the client.
+     */
+    @Test
+    void testUpdateAndRemove() {
+        index.index(new Client("John", "Dlamini", "0712345678", "9601104800087", "123 Elm Street"));
+
+        assertTrue(index.search("Doe", EnumSet.of(TextField.LAST_NAME), 10, 0.5).isEmpty());
+        assertEquals("9601104800087", index.search("Dlamni", EnumSet.of(TextField.LAST_NAME), 10, 0.3).get(0).getIdNumber());
+
+        index.remove("9601104800087");
+        assertTrue(index.search("Dlamini", ALL_FIELDS, 10, 0.3).isEmpty());
+    }
+
+    /**
+     * Tests that results are capped at the requested limit across many candidates and compactions.
+     */
+    @Test
+    void testTopKAcrossManyClients() {
+        for (int i = 0; i < 500; i++) {
+            index.index(new Client("Thabo", "Nkosi" + i, "08" + String.format("%08d", i), "id-" + i, i + " Long Street"));
+        }
+        for (int i = 0; i < 500; i += 2) {
+            index.remove("id-" + i);
+        }
+
+        List<FuzzyMatch> matches = index.search("Tabo", EnumSet.of(TextField.FIRST_NAME), 5, 0.3);
+        assertEquals(5, matches.size());
+        assertTrue(matches.stream().allMatch(match -> Integer.parseInt(match.getIdNumber().substring(3)) % 2 == 1));
+    }
+
+    /**
+     * Tests that a query trigram found in several fields of a client counts once, so that repeating a name across
+     * fields does not inflate the score.
+     */
+    @Test
+    void testTrigramSharedByFieldsCountsOnce() {
+        index.index(new Client("Anna", "Anna", "0745678901", "8001015800085", "7 Pine Lane"));
+
+        List<FuzzyMatch> matches = index.search("Anna Bell", ALL_FIELDS, 10, 0.5);
+        assertEquals(1, matches.size());
+        assertEquals(0.5, matches.get(0).getScore(), 1e-9);
+        assertTrue(index.search("Anna Bell", ALL_FIELDS, 10, 0.6).isEmpty());
+    }
+
+    /**
+     * Tests that the document ids of removed clients are reused by the clients indexed after them.
+     */
+    @Test
+    void testDocumentIdsAreReused() {
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 200; i++) {
+                index.index(new Client("Thabo", "Nkosi", "0800000000", "id-" + round + "-" + i, "1 Long Street"));
+            }
+            for (int i = 0; i < 200; i++) {
+                index.remove("id-" + round + "-" + i);
+            }
+        }
+        index.index(new Client("Sipho", "Zulu", "0811111111", "id-last", "2 Short Street"));
+
+        assertEquals(203, index.statistics().get("documentIds"));
+        assertEquals("id-last", index.search("Sipho", ALL_FIELDS, 1, 0.5).get(0).getIdNumber());
+        assertTrue(index.search("Thabo", ALL_FIELDS, 10, 0.5).isEmpty());
+    }
+
+    /**
+     * Tests that a client removed during a search is not reported under the ID number of the client its document id
+     * was handed to meanwhile.
+     */
+    @Test
+    void testReusedDocumentIdIsNotMisattributedDuringSearch() {
+        List<FuzzyMatch> matches = index.search("John", EnumSet.of(TextField.FIRST_NAME), 10, 0.5, candidates -> {
+            index.remove("9601104800087");
+            index.index(new Client("Zanele", "Khumalo", "0756789012", "8502154800082", "3 Beach Road"));
+        });
+
+        assertTrue(matches.stream().noneMatch(match -> match.getIdNumber().equals("8502154800082")));
+        assertEquals(3, index.statistics().get("documentIds"));
+        assertEquals("8502154800082", index.search("Zanele", ALL_FIELDS, 1, 0.5).get(0).getIdNumber());
+    }
+
+    /**
+     * Tests that the similarity of a single client matches the score the index ranks it by.
+     */
+    @Test
+    void testSimilarityMatchesIndexScore() {
+        Client johan = new Client("Johan", "Smit", "0734567890", "4801104800088", "12 Oak Road");
+        FuzzyMatch match = index.search("Jon Smiht", ALL_FIELDS, 10, 0.1).stream()
+                .filter(candidate -> candidate.getIdNumber().equals("4801104800088")).findFirst().orElseThrow();
+
+        assertEquals(match.getScore(), TrigramIndex.similarity("Jon Smiht", ALL_FIELDS, johan), 1e-9);
+        assertEquals(0, TrigramIndex.similarity("Jon Smiht", EnumSet.of(TextField.PHYSICAL_ADDRESS), johan), 1e-9);
+    }
+
+    /**
+     * Tests that the varint posting encoding round-trips.
+     */
+    @Test
+    void testVarIntRoundTrip() {
+        int[] values = {0, 1, 127, 128, 16_384, 2_000_000, Integer.MAX_VALUE};
+        assertArrayEquals(values, VarIntCodec.decode(VarIntCodec.encode(values, values.length), values.length));
+    }
+}
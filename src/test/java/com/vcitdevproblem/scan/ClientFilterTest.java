@@ -0,0 +1,51 @@
+package com.vcitdevproblem.scan;
+
+import com.vcitdevproblem.exception.InvalidRequestParameterException;
+import com.vcitdevproblem.model.Client;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ClientFilter class, testing parsing, operator semantics and derived ID number fields.
+ */
+public class ClientFilterTest {
+
+    private static final Client JOHN = new Client("John", "Doe", "0712345678", "9601104800087", "123 Elm Street");
+    private static final Client JANE = new Client("Jane", "Smith", "0723456789", "0101015009087", "456 Maple Avenue");
+
+    /**
+     * Tests that birth year ranges and case-insensitive text operators combine with and/or/not.
+     */
+    @Test
+    void testCombinesBirthYearAndTextPredicates() {
+        ClientFilter nineties = ClientFilter.compile("birthYear >= 1990 and birthYear < 2000 and physicalAddress contains 'elm'");
+
+        assertTrue(nineties.test(JOHN));
+        assertFalse(nineties.test(JANE));
+        assertTrue(ClientFilter.compile("NOT (firstName = 'john' OR lastName startsWith \"Do\")").test(JANE));
+        assertTrue(ClientFilter.compile("birthYear = 2001 and physicalAddress endsWith 'AVENUE'").test(JANE));
+    }
+
+    /**
+     * Tests that gender and citizenship are derived from the ID number.
+     */
+    @Test
+    void testDerivesGenderAndCitizenship() {
+        assertTrue(ClientFilter.compile("gender = 'female' and citizenship = 'citizen'").test(JOHN));
+        assertTrue(ClientFilter.compile("gender = 'male'").test(JANE));
+    }
+
+    /**
+     * Tests that malformed expressions are rejected with an InvalidRequestParameterException.
+     */
+    @Test
+    void testRejectsMalformedExpressions() {
+        assertThrows(InvalidRequestParameterException.class, () -> ClientFilter.compile(""));
+        assertThrows(InvalidRequestParameterException.class, () -> ClientFilter.compile("shoeSize = 42"));
+        assertThrows(InvalidRequestParameterException.class, () -> ClientFilter.compile("birthYear contains '19'"));
+        assertThrows(InvalidRequestParameterException.class, () -> ClientFilter.compile("firstName = 'John"));
+        assertThrows(InvalidRequestParameterException.class, () -> ClientFilter.compile("(firstName = 'John'"));
+        assertThrows(InvalidRequestParameterException.class, () -> ClientFilter.compile("(".repeat(40) + "firstName = 'x'" + ")".repeat(40)));
+    }
+}
@@ -0,0 +1,98 @@
+package com.vcitdevproblem.scan;
+
+import com.vcitdevproblem.exception.ScanCapacityExceededException;
+import com.vcitdevproblem.model.Client;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ParallelScanEngine class, testing complete scans, early termination and cancellation.
+ */
+public class ParallelScanEngineTest {
+
+    private static final long NO_TIMEOUT = TimeUnit.MINUTES.toNanos(1);
+
+    private final List<Client> clients = new ArrayList<>();
+    private ParallelScanEngine engine;
+
+    @BeforeEach
+    public void setup() {
+        ScanProperties properties = new ScanProperties();
+        properties.setParallelism(4);
+        properties.setChunkSize(256);
+        properties.setMaxConcurrentScans(1);
+        engine = new ParallelScanEngine(properties);
+        for (int i = 0; i < 100_000; i++) {
+            clients.add(new Client(i % 10 == 0 ? "John" : "Jane", "Doe", "07" + i, String.format("%013d", i), "Street " + i));
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        engine.destroy();
+    }
+
+    /**
+     * Tests that a scan below the limit visits every client and returns every match.
+     */
+    @Test
+    void testFullScanFindsEveryMatch() {
+        ScanResult<Client> result = engine.submit(clients::spliterator, ClientFilter.compile("idNumber endsWith '00'"), 1000,
+                new ScanCancellation(NO_TIMEOUT)).join();
+
+        assertEquals(100_000, result.getScanned());
+        assertEquals(1000, result.getMatches().stream().map(Client::getIdNumber).distinct().count());
+        assertTrue(result.getMatches().stream().allMatch(client -> client.getIdNumber().endsWith("00")));
+        assertFalse(result.isTruncated());
+        assertFalse(result.isCancelled());
+    }
+
+    /**
+     * Tests that reaching the limit stops the scan before it visits the whole source.
+     */
+    @Test
+    void testLimitStopsScanEarly() {
+        ScanResult<Client> result = engine.submit(clients::spliterator, ClientFilter.compile("lastName = 'Doe'"), 10,
+                new ScanCancellation(NO_TIMEOUT)).join();
+
+        assertEquals(10, result.getMatches().size());
+        assertTrue(result.isTruncated());
+        assertTrue(result.getScanned() < clients.size());
+    }
+
+    /**
+     * Tests that a cancelled scan stops, reports itself as cancelled and frees its slot for the next scan.
+     */
+    @Test
+    void testCancellationStopsScanAndReleasesPermit() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        ScanCancellation cancellation = new ScanCancellation(NO_TIMEOUT);
+        CompletableFuture<ScanResult<Client>> scan = engine.submit(clients::spliterator, client -> {
+            started.countDown();
+            while (!cancellation.isCancelled()) {
+                Thread.onSpinWait();
+            }
+            return false;
+        }, 10, cancellation);
+        started.await();
+
+        assertThrows(ScanCapacityExceededException.class, () -> engine.submit(clients::spliterator,
+                client -> true, 10, new ScanCancellation(NO_TIMEOUT)));
+        cancellation.cancel();
+        ScanResult<Client> result = scan.get(10, TimeUnit.SECONDS);
+
+        assertTrue(result.isCancelled());
+        assertTrue(result.getScanned() < clients.size());
+        assertTrue(engine.submit(clients::spliterator, client -> true, 10, new ScanCancellation(NO_TIMEOUT))
+                .get(10, TimeUnit.SECONDS).isTruncated());
+    }
+}
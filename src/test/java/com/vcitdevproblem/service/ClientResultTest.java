@@ -0,0 +1,42 @@
+package com.vcitdevproblem.service;
+
+import com.vcitdevproblem.exception.ClientErrors;
+import com.vcitdevproblem.exception.ClientNotFoundException;
+import com.vcitdevproblem.exception.DuplicateIdException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ClientResult class, testing success and failure outcomes and the stackless business errors.
+ */
+public class ClientResultTest {
+
+    /**
+     * Tests that a successful result carries its value through map and orElseThrow.
+     */
+    @Test
+    void testSuccess() {
+        ClientResult<String> result = ClientResult.success("9601104800087").map(id -> id.substring(0, 6));
+
+        assertTrue(result.isSuccess());
+        assertNull(result.getError());
+        assertEquals("960110", result.orElseThrow());
+    }
+
+    /**
+     * Tests that a failed result skips map and throws its preallocated error, which has no stack trace.
+     */
+    @Test
+    void testFailureThrowsPreallocatedError() {
+        ClientResult<String> result = ClientResult.<String>failure(ClientErrors.CLIENT_NOT_FOUND).map(String::trim);
+
+        assertFalse(result.isSuccess());
+        assertNull(result.getValue());
+        ClientNotFoundException thrown = assertThrows(ClientNotFoundException.class, result::orElseThrow);
+        assertSame(ClientErrors.CLIENT_NOT_FOUND, thrown);
+        assertEquals("Client not found.", thrown.getMessage());
+        assertEquals(0, thrown.getStackTrace().length);
+        assertEquals(0, new DuplicateIdException("Duplicate ID number found.").getStackTrace().length);
+    }
+}
@@ -12,6 +12,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.aot.DisabledInAotMode;
 
 import java.util.Optional;
 
@@ -23,6 +24,7 @@ import static org.mockito.Mockito.*;
  * Unit tests for the ClientService class, testing client creation, search, and validation logic.
  */
 @SpringBootTest
+@DisabledInAotMode
 public class ClientServiceTest {
 
     @MockBean
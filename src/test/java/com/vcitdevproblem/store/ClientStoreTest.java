@@ -0,0 +1,224 @@
+package com.vcitdevproblem.store;
+
+import com.vcitdevproblem.dto.ClientDTO;
+import com.vcitdevproblem.model.Client;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ClientStore class, testing that snapshots stay consistent while the register changes, in
+ * memory and when tiered to disk.
+ */
+public class ClientStoreTest {
+
+    /**
+     * Tests that a snapshot keeps its clients and mobile numbers after later updates and deletes.
+     */
+    @Test
+    void testSnapshotIsPointInTime() {
+        ClientStore store = new ClientStore();
+        store.put(record("John", "Doe", "0712345678", "9601104800087", "123 Elm Street"), null);
+        ClientSnapshot before = store.snapshot();
+
+        store.put(record("John", "Doe", "0799999999", "9601104800087", "123 Elm Street"), "9601104800087");
+        store.put(record("Jane", "Smith", "0723456789", "9901104800081", "456 Maple Avenue"), null);
+        store.remove("9601104800087");
+        ClientSnapshot after = store.snapshot();
+
+        assertEquals(1, before.size());
+        assertEquals("9601104800087", before.idNumberOfMobile("0712345678"));
+        assertEquals("0712345678", before.get("9601104800087").getClient().getMobileNumber());
+        assertEquals(1, after.size());
+        assertNull(after.idNumberOfMobile("0712345678"));
+        assertNull(after.idNumberOfMobile("0799999999"));
+        assertEquals(3, after.getVersion() - before.getVersion());
+    }
+
+    /**
+     * Tests that re-keying a client moves it and its mobile number to the new ID number.
+     */
+    @Test
+    void testReplaceUnderNewIdNumber() {
+        ClientStore store = new ClientStore();
+        store.put(record("John", "Doe", "0712345678", "9601104800087", "123 Elm Street"), null);
+        ClientSnapshot snapshot = store.put(
+                record("John", "Doe", "0712345678", "4801104800088", "123 Elm Street"), "9601104800087");
+
+        assertFalse(snapshot.contains("9601104800087"));
+        assertEquals("4801104800088", snapshot.idNumberOfMobile("0712345678"));
+        assertEquals(1, snapshot.stream().count());
+    }
+
+    /**
+     * Tests that reads return the precomputed projections without mapping.
+     */
+    @Test
+    void testReadsReturnPrecomputedProjections() {
+        ClientStore store = new ClientStore();
+        ClientRecord record = record("John", "Doe", "0712345678", "9601104800087", "123 Elm Street");
+        store.put(record, null);
+
+        ClientRecord stored = store.snapshot().get("9601104800087");
+        assertSame(record.projection(ClientProjection.FULL), stored.projection(ClientProjection.FULL));
+        assertNull(stored.projection(ClientProjection.ID_NUMBER).getMobileNumber());
+        assertEquals("0712345678", stored.projection(ClientProjection.MOBILE_NUMBER).getMobileNumber());
+    }
+
+    /**
+     * Tests that the shared projections cannot be modified, whether the record was built from mutable DTOs or not.
+     */
+    @Test
+    void testProjectionsAreUnmodifiable() {
+        ClientDTO full = new ClientDTO("John", "Doe", "0712345678", "9601104800087", "123 Elm Street");
+        ClientRecord record = new ClientRecord(new Client("John", "Doe", "0712345678", "9601104800087",
+                "123 Elm Street"), full, new ClientDTO(), new ClientDTO());
+        full.setLastName("Smith");
+
+        assertEquals("Doe", record.projection(ClientProjection.FULL).getLastName());
+        for (ClientProjection projection : ClientProjection.values()) {
+            ClientDTO dto = record.projection(projection);
+            assertThrows(UnsupportedOperationException.class, () -> dto.setMobileNumber("0799999999"));
+        }
+        assertEquals("0712345678", record.projection(ClientProjection.FULL).getMobileNumber());
+    }
+
+    /**
+     * Tests that stored clients share their name instances and keys, and that names are released with the last
+     * client holding them.
+     */
+    @Test
+    void testNamesAreDictionaryEncoded() {
+        ClientStore store = new ClientStore();
+        ClientDictionary dictionary = store.getDictionary();
+        store.put(record(new String("John"), "Doe", "0712345678", "9601104800087", "123 Elm Street"), null);
+        store.put(record(new String("John"), "Smith", "0723456789", "9901104800081", "456 Maple Avenue"), null);
+        ClientSnapshot snapshot = store.snapshot();
+        ClientRecord doe = snapshot.get("9601104800087");
+        ClientRecord smith = snapshot.get("9901104800081");
+
+        assertSame(doe.getClient().getFirstName(), smith.getClient().getFirstName());
+        assertSame(smith.getClient().getFirstName(), smith.projection(ClientProjection.FULL).getFirstName());
+        assertEquals(doe.getFirstNameKey(), smith.getFirstNameKey());
+        assertEquals(doe.getFirstNameKey(), dictionary.nameKey("JOHN"));
+        assertNotEquals(doe.getLastNameKey(), smith.getLastNameKey());
+
+        store.put(record("Johnny", "Smith", "0723456789", "9901104800081", "456 Maple Avenue"), "9901104800081");
+        store.remove("9601104800087");
+        assertEquals(SymbolTable.NO_SYMBOL, dictionary.nameKey("John"));
+        assertEquals(SymbolTable.NO_SYMBOL, dictionary.nameKey("Doe"));
+        assertEquals(store.snapshot().get("9901104800081").getFirstNameKey(), dictionary.nameKey("johnny"));
+        assertEquals(2L, dictionary.statistics().get("references"));
+        assertEquals("John", doe.getClient().getFirstName());
+    }
+
+    /**
+     * Tests that clients flushed to segments and merged by compaction are still read, updated and deleted correctly,
+     * that the files of merged segments are deleted, and that older snapshots keep reading the segments they were
+     * taken on.
+     */
+    @Test
+    void testTieredStoreReadsThroughSegments() throws Exception {
+        Path directory = Files.createTempDirectory("client-store-test");
+        TieringProperties tiering = new TieringProperties();
+        tiering.setEnabled(true);
+        tiering.setDirectory(directory);
+        tiering.setMemtableLimit(100);
+        tiering.setBlockSize(512);
+        tiering.setHotCapacity(64);
+        tiering.setMaxSegments(2);
+        ClientStore store = new ClientStore(tiering, client -> record(client.getFirstName(), client.getLastName(),
+                client.getMobileNumber(), client.getIdNumber(), client.getPhysicalAddress()));
+        try {
+            for (int i = 0; i < 1000; i++) {
+                store.put(record("First" + i, "Last" + i, mobile(i), idNumber(i), i + " Main Road"), null);
+            }
+            awaitFlushed(store, tiering);
+            ClientSnapshot beforeChanges = store.snapshot();
+            for (int i = 0; i < 1000; i += 10) {
+                store.remove(idNumber(i));
+            }
+            for (int i = 1; i < 1000; i += 10) {
+                store.put(record("Renamed" + i, "Last" + i, mobile(i), idNumber(i), i + " Main Road"), idNumber(i));
+            }
+            awaitFlushed(store, tiering);
+            ClientSnapshot snapshot = store.snapshot();
+
+            assertEquals(900, snapshot.size());
+            assertNull(snapshot.get(idNumber(500)));
+            assertNull(snapshot.idNumberOfMobile(mobile(500)));
+            assertEquals("Renamed501", snapshot.get(idNumber(501)).getClient().getFirstName());
+            assertEquals("First502", snapshot.get(idNumber(502)).getClient().getFirstName());
+            assertEquals("502 Main Road", snapshot.get(idNumber(502)).getClient().getPhysicalAddress());
+            assertEquals(store.getDictionary().nameKey("first502"), snapshot.get(idNumber(502)).getFirstNameKey());
+            assertEquals(idNumber(503), snapshot.idNumberOfMobile(mobile(503)));
+            Set<String> scanned = snapshot.stream().parallel().map(ClientRecord::getIdNumber).collect(Collectors.toSet());
+            assertEquals(900, scanned.size());
+            assertFalse(scanned.contains(idNumber(500)));
+            assertEquals(100, snapshot.stream().filter(record -> record.getClient().getFirstName().startsWith("Renamed")).count());
+
+            assertEquals(snapshot.getSegments().size(), awaitSegmentFiles(directory, snapshot.getSegments().size()));
+
+            assertEquals(1000, beforeChanges.size());
+            assertEquals("First500", beforeChanges.get(idNumber(500)).getClient().getFirstName());
+            assertEquals(1000, beforeChanges.stream().count());
+        } finally {
+            store.destroy();
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    private static void awaitFlushed(ClientStore store, TieringProperties tiering) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!flushed(store.snapshot(), tiering) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(flushed(store.snapshot(), tiering));
+    }
+
+    /**
+     * @return the number of segment files, once down to the expected number or after a timeout
+     */
+    private static long awaitSegmentFiles(Path directory, int expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        long count;
+        while ((count = segmentFiles(directory)) > expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return count;
+    }
+
+    private static long segmentFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private static boolean flushed(ClientSnapshot snapshot, TieringProperties tiering) {
+        return snapshot.getFrozen().isEmpty() && snapshot.getSegments().size() <= tiering.getMaxSegments();
+    }
+
+    private static String idNumber(int i) {
+        return String.format("%013d", i);
+    }
+
+    private static String mobile(int i) {
+        return String.format("07%08d", i);
+    }
+
+    private static ClientRecord record(String firstName, String lastName, String mobileNumber, String idNumber,
+                                       String physicalAddress) {
+        Client client = new Client(firstName, lastName, mobileNumber, idNumber, physicalAddress);
+        ClientDTO full = new ClientDTO(firstName, lastName, mobileNumber, idNumber, physicalAddress);
+        ClientDTO idNumberOnly = new ClientDTO(null, null, null, idNumber, null);
+        ClientDTO mobileNumberOnly = new ClientDTO(null, null, mobileNumber, null, null);
+        return new ClientRecord(client, full, idNumberOnly, mobileNumberOnly);
+    }
+}
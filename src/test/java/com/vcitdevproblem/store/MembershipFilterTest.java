@@ -0,0 +1,82 @@
+package com.vcitdevproblem.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the MembershipFilter class, testing that removals never cause false negatives, that the false
+ * positive rate stays near its prediction and that the filter grows when it fills up.
+ */
+public class MembershipFilterTest {
+
+    /**
+     * Tests that every key still present is reported after many other keys were added and removed.
+     */
+    @Test
+    void testNoFalseNegativesAfterRemovals() {
+        MembershipFilter filter = new MembershipFilter(20_000);
+        for (int i = 0; i < 20_000; i++) {
+            filter.add(key(i));
+        }
+        for (int i = 0; i < 20_000; i += 2) {
+            filter.remove(key(i));
+        }
+
+        for (int i = 1; i < 20_000; i += 2) {
+            assertTrue(filter.mightContain(key(i)));
+        }
+        assertEquals(10_000, filter.size());
+        long rejected = IntStream.range(0, 20_000).filter(i -> i % 2 == 0)
+                .filter(i -> !filter.mightContain(key(i))).count();
+        assertTrue(rejected > 9_000, "removed keys should mostly be rejected again, got " + rejected);
+    }
+
+    /**
+     * Tests that the observed false positive rate over absent keys is close to the predicted one.
+     */
+    @Test
+    void testFalsePositiveRateMatchesPrediction() {
+        MembershipFilter filter = new MembershipFilter(50_000);
+        for (int i = 0; i < 50_000; i++) {
+            filter.add(key(i));
+        }
+        for (int i = 50_000; i < 150_000; i++) {
+            if (filter.mightContain(key(i))) {
+                filter.recordFalsePositive();
+            }
+        }
+
+        double expected = filter.getExpectedFalsePositiveRate();
+        assertTrue(expected > 0.001 && expected < 0.02, "expected rate " + expected);
+        assertEquals(expected, filter.getFalsePositiveRate(), expected);
+        assertEquals(100_000, filter.getDefiniteMisses() + filter.getFalsePositives());
+    }
+
+    /**
+     * Tests that a full filter is rebuilt larger and keeps every key.
+     */
+    @Test
+    void testRebuildGrowsFilter() {
+        MembershipFilter filter = new MembershipFilter(100);
+        for (int i = 0; i < 1000; i++) {
+            filter.add(key(i));
+        }
+        assertTrue(filter.isFull());
+
+        filter.rebuild(IntStream.range(0, 1000).mapToObj(MembershipFilterTest::key), 1000);
+
+        assertFalse(filter.isFull());
+        assertEquals(2000, filter.getCapacity());
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(filter.mightContain(key(i)));
+        }
+        assertTrue(filter.getExpectedFalsePositiveRate() < 0.001);
+    }
+
+    private static String key(int i) {
+        return String.format("%013d", i);
+    }
+}
@@ -0,0 +1,123 @@
+package com.vcitdevproblem.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the PersistentHashMap class, testing it against HashMap, version isolation and parallel traversal.
+ */
+public class PersistentHashMapTest {
+
+    /**
+     * Key whose hash codes collide heavily, to exercise collision nodes and tree compaction.
+     */
+    private static final class CollidingKey {
+        private final int value;
+
+        CollidingKey(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof CollidingKey && ((CollidingKey) other).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return value % 7;
+        }
+    }
+
+    /**
+     * Tests that random puts and removes, including colliding keys, behave exactly like a HashMap.
+     */
+    @Test
+    void testMatchesHashMapUnderRandomUpdates() {
+        Random random = new Random(42);
+        PersistentHashMap<Object, Integer> map = PersistentHashMap.empty();
+        Map<Object, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 50_000; i++) {
+            Object key = random.nextBoolean() ? "key" + random.nextInt(5_000) : new CollidingKey(random.nextInt(200));
+            if (random.nextInt(3) < 2) {
+                int value = random.nextInt();
+                map = map.plus(key, value);
+                expected.put(key, value);
+            } else {
+                map = map.minus(key);
+                expected.remove(key);
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        Map<Object, Integer> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertEquals(expected, actual);
+
+        for (Object key : new ArrayList<>(expected.keySet())) {
+            map = map.minus(key);
+        }
+        assertTrue(map.isEmpty());
+        assertFalse(map.valueSpliterator().tryAdvance(value -> fail("empty map has no values")));
+    }
+
+    /**
+     * Tests that older versions are unaffected by later updates.
+     */
+    @Test
+    void testVersionsAreIsolated() {
+        PersistentHashMap<String, Integer> before = PersistentHashMap.<String, Integer>empty().plus("a", 1).plus("b", 2);
+        PersistentHashMap<String, Integer> after = before.plus("a", 10).minus("b").plus("c", 3);
+
+        assertEquals(Integer.valueOf(1), before.get("a"));
+        assertEquals(Integer.valueOf(2), before.get("b"));
+        assertNull(before.get("c"));
+        assertEquals(Integer.valueOf(10), after.get("a"));
+        assertNull(after.get("b"));
+        assertSame(after, after.plus("c", after.get("c")));
+    }
+
+    /**
+     * Tests that the value spliterator splits into balanced parts that together visit every value once.
+     */
+    @Test
+    void testSpliteratorSplitsEvenly() {
+        PersistentHashMap<String, Integer> map = PersistentHashMap.empty();
+        for (int i = 0; i < 100_000; i++) {
+            map = map.plus("id" + i, i);
+        }
+
+        List<Spliterator<Integer>> parts = new ArrayList<>(List.of(map.valueSpliterator()));
+        for (int round = 0; round < 4; round++) {
+            List<Spliterator<Integer>> split = new ArrayList<>();
+            for (Spliterator<Integer> part : parts) {
+                Spliterator<Integer> prefix = part.trySplit();
+                if (prefix != null) {
+                    split.add(prefix);
+                }
+                split.add(part);
+            }
+            parts = split;
+        }
+        assertEquals(16, parts.size());
+
+        List<Integer> values = new ArrayList<>();
+        for (Spliterator<Integer> part : parts) {
+            List<Integer> partValues = new ArrayList<>();
+            part.forEachRemaining(partValues::add);
+            assertTrue(partValues.size() > 100_000 / 32, "part of " + partValues.size() + " values is unbalanced");
+            values.addAll(partValues);
+        }
+        assertEquals(100_000, values.size());
+        assertEquals(100_000, StreamSupport.stream(map.valueSpliterator(), true).collect(Collectors.toSet()).size());
+    }
+}
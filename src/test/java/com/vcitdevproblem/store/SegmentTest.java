@@ -0,0 +1,153 @@
+package com.vcitdevproblem.store;
+
+import com.vcitdevproblem.model.Client;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Segment class, testing point lookups, tombstones and traversal of a multi-block segment, and
+ * the deletion of retired segments.
+ */
+public class SegmentTest {
+
+    /**
+     * Tests that every stored client is found with all of its fields, that deletions read as tombstones and that
+     * missing keys on either side of the stored range are absent.
+     */
+    @Test
+    void testFind() throws Exception {
+        Path file = Files.createTempFile("segment-test", ".dat");
+        Files.delete(file);
+        Segment segment = Segment.write(file, entries(2000).iterator(), 2000, 1024, 10);
+        try {
+            assertTrue(segment.getBlockCount() > 1);
+            assertEquals(2000, segment.getEntryCount());
+            Client client = segment.find(key(1234));
+            assertEquals("First1234", client.getFirstName());
+            assertEquals("0700001234", client.getMobileNumber());
+            assertNull(client.getPhysicalAddress());
+            assertEquals(key(1234), client.getIdNumber());
+            assertSame(Segment.TOMBSTONE, segment.find(key(1233)));
+            assertNull(segment.find("0"));
+            assertNull(segment.find(key(5000)));
+            assertNull(segment.find(key(1234) + "5"));
+            for (int i = 0; i < 2000; i++) {
+                assertTrue(segment.mightContain(key(i)));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Tests that iteration returns every entry in key order and that the live spliterator splits along blocks
+     * without losing or repeating clients.
+     */
+    @Test
+    void testTraversal() throws Exception {
+        Path file = Files.createTempFile("segment-test", ".dat");
+        Files.delete(file);
+        Segment segment = Segment.write(file, entries(2000).iterator(), 2000, 1024, 10);
+        try {
+            Iterator<Map.Entry<String, Client>> iterator = segment.iterator();
+            for (int i = 0; i < 2000; i++) {
+                assertEquals(key(i), iterator.next().getKey());
+            }
+            assertFalse(iterator.hasNext());
+
+            Spliterator<Client> spliterator = segment.liveSpliterator();
+            Spliterator<Client> prefix = spliterator.trySplit();
+            assertNotNull(prefix);
+            long live = StreamSupport.stream(prefix, false).count() + StreamSupport.stream(spliterator, false).count();
+            assertEquals(1000, live);
+            assertEquals(1000, StreamSupport.stream(segment.liveSpliterator(), true)
+                    .map(Client::getIdNumber).distinct().count());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Tests that a key range iterates exactly the entries inside it, starting and ending mid-block, and that the
+     * middle key splits a range into two non-empty halves.
+     */
+    @Test
+    void testKeyRange() throws Exception {
+        Path file = Files.createTempFile("segment-test", ".dat");
+        Files.delete(file);
+        Segment segment = Segment.write(file, entries(2000).iterator(), 2000, 1024, 10);
+        try {
+            Iterator<Map.Entry<String, Client>> iterator = segment.iterator(key(333), key(1555));
+            for (int i = 333; i < 1555; i++) {
+                assertEquals(key(i), iterator.next().getKey());
+            }
+            assertFalse(iterator.hasNext());
+            assertFalse(segment.iterator(key(5000), null).hasNext());
+
+            String middle = segment.middleKey(key(333), key(1555));
+            assertTrue(middle.compareTo(key(333)) > 0 && middle.compareTo(key(1555)) < 0);
+            assertNull(segment.middleKey(key(10), key(11)));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Tests that retiring a segment deletes its file and evicts its clients from the hot tier right away, without
+     * waiting for the garbage collector, and that a snapshot still holding the segment can read it.
+     */
+    @Test
+    void testRetireDeletesFileAndEvictsHotTier() throws Exception {
+        Path file = Files.createTempFile("segment-test", ".dat");
+        Files.delete(file);
+        Path otherFile = Files.createTempFile("segment-test", ".dat");
+        Files.delete(otherFile);
+        Segment segment = Segment.write(file, entries(200).iterator(), 200, 1024, 10);
+        Segment other = Segment.write(otherFile, entries(10).iterator(), 10, 1024, 10);
+        HotTier hotTier = new HotTier(64);
+        ClientRecord record = new ClientRecord(segment.find(key(2)), null, null, null);
+        hotTier.put(segment.getId(), key(2), record);
+        hotTier.put(other.getId(), key(2), record);
+        try {
+            assertFalse(segment.isReleased());
+            segment.retire(() -> hotTier.evictSegment(segment.getId()));
+
+            assertTrue(segment.isReleased());
+            assertFalse(Files.exists(file));
+            assertNull(hotTier.get(segment.getId(), key(2)));
+            assertSame(record, hotTier.get(other.getId(), key(2)));
+            assertEquals("First2", segment.find(key(2)).getFirstName());
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(otherFile);
+        }
+    }
+
+    /**
+     * Every odd entry is a tombstone; even entries have no physical address.
+     */
+    private static List<Map.Entry<String, Client>> entries(int count) {
+        List<Map.Entry<String, Client>> entries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Client client = i % 2 == 0
+                    ? new Client("First" + i, "Last" + i, String.format("07%08d", i), key(i), null)
+                    : Segment.TOMBSTONE;
+            entries.add(Map.entry(key(i), client));
+        }
+        return entries;
+    }
+
+    private static String key(int i) {
+        return String.format("%013d", i);
+    }
+}
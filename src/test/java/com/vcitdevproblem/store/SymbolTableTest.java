@@ -0,0 +1,68 @@
+package com.vcitdevproblem.store;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the SymbolTable class, testing interning, reference counting and the reuse of released codes.
+ */
+public class SymbolTableTest {
+
+    /**
+     * Tests that equal values share one instance and one code while any reference is held.
+     */
+    @Test
+    void testAcquireInternsValues() {
+        SymbolTable table = new SymbolTable();
+        String first = new String("Thabo");
+        String second = new String("Thabo");
+
+        int code = table.acquire(first);
+        assertEquals(code, table.acquire(second));
+        assertSame(first, table.canonical(second));
+        assertSame(first, table.value(code));
+        assertEquals(code, table.code("Thabo"));
+        assertEquals(1, table.size());
+        assertEquals(2, table.references());
+
+        table.release("Thabo");
+        assertEquals(code, table.code("Thabo"));
+        table.release("Thabo");
+        assertEquals(SymbolTable.NO_SYMBOL, table.code("Thabo"));
+        assertNull(table.value(code));
+        assertEquals(0, table.size());
+        assertEquals(0, table.references());
+    }
+
+    /**
+     * Tests that the code of a released value is given to the next new value, and that unknown values pass through.
+     */
+    @Test
+    void testReleasedCodesAreReused() {
+        SymbolTable table = new SymbolTable();
+        int thabo = table.acquire("Thabo");
+        int naledi = table.acquire("Naledi");
+        table.release("Thabo");
+        table.release("Unknown");
+
+        assertEquals(thabo, table.acquire("Sipho"));
+        assertNotEquals(naledi, table.code("Sipho"));
+        String unknown = new String("Pieter");
+        assertSame(unknown, table.canonical(unknown));
+        assertEquals(2, table.size());
+    }
+
+    /**
+     * Tests that the table grows beyond its initial capacity.
+     */
+    @Test
+    void testGrows() {
+        SymbolTable table = new SymbolTable();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, table.acquire("name" + i));
+        }
+        assertEquals("name999", table.value(999));
+        assertEquals(1000, table.size());
+    }
+}
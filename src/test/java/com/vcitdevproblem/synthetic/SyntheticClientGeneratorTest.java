@@ -0,0 +1,66 @@
+package com.vcitdevproblem.synthetic;
+
+import com.vcitdevproblem.model.Client;
+import com.vcitdevproblem.util.validation.IdNumberValidator;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the SyntheticClientGenerator class, testing validity, uniqueness and determinism of the
+ * generated register.
+ */
+public class SyntheticClientGeneratorTest {
+
+    private static final int COUNT = 50_000;
+
+    /**
+     * Tests that every generated client has a valid, unique ID number and a unique South African mobile number.
+     */
+    @Test
+    void testGeneratesValidUniqueClients() {
+        Set<String> idNumbers = new HashSet<>();
+        Set<String> mobileNumbers = new HashSet<>();
+        new SyntheticClientGenerator(42).stream(0, COUNT).forEach(client -> {
+            assertTrue(IdNumberValidator.validate(client.getIdNumber()), client.getIdNumber());
+            assertTrue(client.getMobileNumber().matches("^(\\+27|0)[6-8][0-9]{8}$"), client.getMobileNumber());
+            assertTrue(idNumbers.add(client.getIdNumber()));
+            assertTrue(mobileNumbers.add(client.getMobileNumber()));
+        });
+        assertEquals(COUNT, idNumbers.size());
+    }
+
+    /**
+     * Tests that a seed always produces the same clients, in parallel or not, and that another seed does not.
+     */
+    @Test
+    void testIsDeterministicPerSeed() {
+        List<String> sequential = new SyntheticClientGenerator(7).stream(0, 1_000).map(SyntheticClientGenerator::toJson).toList();
+        List<String> parallel = new SyntheticClientGenerator(7).stream(0, 1_000).parallel().map(SyntheticClientGenerator::toJson).toList();
+        Client other = new SyntheticClientGenerator(8).generate(0);
+
+        assertEquals(sequential, parallel);
+        assertEquals(sequential.get(500), SyntheticClientGenerator.toJson(new SyntheticClientGenerator(7).generate(500)));
+        assertNotEquals(sequential.get(0), SyntheticClientGenerator.toJson(other));
+    }
+
+    /**
+     * Tests that the NDJSON output holds one JSON object per client, in index order.
+     */
+    @Test
+    void testWritesNdjson() throws IOException {
+        SyntheticClientGenerator generator = new SyntheticClientGenerator(42);
+        StringWriter writer = new StringWriter();
+        generator.writeNdjson(writer, 70_000);
+
+        String[] lines = writer.toString().split("\n");
+        assertEquals(70_000, lines.length);
+        assertEquals(SyntheticClientGenerator.toJson(generator.generate(69_999)), lines[69_999]);
+    }
+}
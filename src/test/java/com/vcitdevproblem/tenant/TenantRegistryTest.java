@@ -0,0 +1,140 @@
+package com.vcitdevproblem.tenant;
+
+import com.vcitdevproblem.dto.ClientDTO;
+import com.vcitdevproblem.exception.InvalidRequestParameterException;
+import com.vcitdevproblem.exception.TenantNotFoundException;
+import com.vcitdevproblem.index.IndexManager;
+import com.vcitdevproblem.index.IndexingProperties;
+import com.vcitdevproblem.index.SortedClientIndex;
+import com.vcitdevproblem.index.TrigramIndex;
+import com.vcitdevproblem.model.Client;
+import com.vcitdevproblem.store.ClientKeyFilters;
+import com.vcitdevproblem.store.ClientRecord;
+import com.vcitdevproblem.store.ClientStore;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TenantRegistry class, testing that configured and created tenants get registers of their own,
+ * that unknown tenants get none, that tenant IDs are validated, and that each tenant is held to its own concurrency budget and client quota.
+ */
+public class TenantRegistryTest {
+
+    private static final String ID = "9601104800087";
+
+    /**
+     * Tests that a configured tenant's partition is created on its first use and shares nothing with the default
+     * tenant, while an unknown tenant gets no partition.
+     */
+    @Test
+    void testPartitionsAreCreatedOnDemandAndIsolated() throws Exception {
+        TenantProperties properties = new TenantProperties();
+        properties.getTenants().put("acme", new TenantProperties.Quota());
+        TenantRegistry registry = registry(properties);
+        TenantPartition acme = registry.partition("acme");
+        TenantPartition defaultPartition = registry.partition(TenantContext.DEFAULT_TENANT);
+
+        assertSame(acme, registry.partition("acme"));
+        assertNotSame(defaultPartition.getStore(), acme.getStore());
+        assertNotSame(defaultPartition.getWriteLock(), acme.getWriteLock());
+        put(acme.getStore(), client(ID));
+        assertNotNull(acme.getStore().snapshot().get(ID));
+        assertNull(defaultPartition.getStore().snapshot().get(ID));
+        assertThrows(TenantNotFoundException.class, () -> registry.partition("globex"));
+        assertNull(registry.find("globex"));
+        assertEquals(2, registry.getPartitions().size());
+        assertSame(registry.create("globex"), registry.partition("globex"));
+        assertEquals(3, registry.getPartitions().size());
+        registry.destroy();
+    }
+
+    /**
+     * Tests that invalid tenant IDs are rejected, and that no tenant is added beyond the maximum.
+     */
+    @Test
+    void testInvalidAndSurplusTenantsAreRejected() throws Exception {
+        TenantProperties properties = new TenantProperties();
+        properties.setMaxTenants(2);
+        TenantRegistry registry = registry(properties);
+
+        assertThrows(InvalidRequestParameterException.class, () -> registry.partition("Acme"));
+        assertThrows(InvalidRequestParameterException.class, () -> registry.partition("../acme"));
+        assertThrows(InvalidRequestParameterException.class, () -> registry.create("../acme"));
+        assertThrows(InvalidRequestParameterException.class, () -> registry.partition(""));
+        registry.create("acme");
+        assertThrows(InvalidRequestParameterException.class, () -> registry.create("globex"));
+        assertNotNull(registry.partition("acme"));
+        registry.destroy();
+    }
+
+    /**
+     * Tests that a tenant cannot hold more request slots than its budget, nor add clients beyond its quota, while
+     * another tenant is unaffected.
+     */
+    @Test
+    void testConcurrencyBudgetAndClientQuota() throws Exception {
+        TenantProperties properties = new TenantProperties();
+        TenantProperties.Quota quota = new TenantProperties.Quota();
+        quota.setMaxConcurrentRequests(2);
+        quota.setMaxClients(1);
+        properties.getTenants().put("acme", quota);
+        TenantRegistry registry = registry(properties);
+        TenantPartition acme = registry.partition("acme");
+        TenantPartition globex = registry.create("globex");
+
+        TenantScheduler scheduler = new TenantScheduler(16);
+        TenantScheduler.Ticket first = scheduler.tryAcquire(acme);
+        assertNotNull(first);
+        assertNotNull(scheduler.tryAcquire(acme));
+        assertNull(scheduler.tryAcquire(acme));
+        assertNotNull(scheduler.tryAcquire(globex));
+        assertEquals(2, acme.getActiveRequests());
+        scheduler.release(first);
+        assertNotNull(scheduler.tryAcquire(acme));
+
+        assertTrue(acme.hasRoomFor(1));
+        put(acme.getStore(), client(ID));
+        assertFalse(acme.hasRoomFor(1));
+        put(globex.getStore(), client(ID));
+        assertTrue(globex.hasRoomFor(1));
+        registry.destroy();
+    }
+
+    /**
+     * Tests that the current partition follows the tenant of the thread, and is the default tenant's outside a
+     * request.
+     */
+    @Test
+    void testCurrentFollowsTenantContext() throws Exception {
+        TenantRegistry registry = registry(new TenantProperties());
+        registry.create("acme");
+        TenantContext.set("acme");
+        try {
+            assertEquals("acme", registry.current().getTenant());
+        } finally {
+            TenantContext.clear();
+        }
+        assertEquals(TenantContext.DEFAULT_TENANT, registry.current().getTenant());
+        registry.destroy();
+    }
+
+    private static TenantRegistry registry(TenantProperties properties) {
+        return new TenantRegistry(properties, partition(TenantContext.DEFAULT_TENANT, properties.getDefaults()),
+                TenantRegistryTest::partition);
+    }
+
+    private static TenantPartition partition(String tenant, TenantProperties.Quota quota) {
+        ClientStore store = new ClientStore();
+        return new TenantPartition(tenant, quota, store, new ClientKeyFilters(16), new TrigramIndex(),
+                new SortedClientIndex(), new IndexManager(new IndexingProperties(), store));
+    }
+
+    private static void put(ClientStore store, Client client) {
+        store.put(new ClientRecord(client, new ClientDTO(), new ClientDTO(), new ClientDTO()), null);
+    }
+
+    private static Client client(String idNumber) {
+        return new Client("John", "Doe", "0712345678", idNumber, "123 Elm Street");
+    }
+}
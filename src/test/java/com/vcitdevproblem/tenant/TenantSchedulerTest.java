@@ -0,0 +1,120 @@
+package com.vcitdevproblem.tenant;
+
+import com.vcitdevproblem.index.IndexManager;
+import com.vcitdevproblem.index.IndexingProperties;
+import com.vcitdevproblem.index.SortedClientIndex;
+import com.vcitdevproblem.index.TrigramIndex;
+import com.vcitdevproblem.store.ClientKeyFilters;
+import com.vcitdevproblem.store.ClientStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TenantScheduler class, testing per-tenant budgets and queues, weighted round-robin between
+ * tenants, and that no request overtakes a queued one.
+ */
+public class TenantSchedulerTest {
+
+    /**
+     * Tests that a tenant over its own budget queues up to its queue limit, is rejected beyond it, and gets the slot
+     * of its next finished request, while another tenant runs at once.
+     */
+    @Test
+    void testTenantBudgetAndQueue() {
+        TenantScheduler scheduler = new TenantScheduler(16);
+        TenantPartition acme = partition("acme", 2, 1, 1);
+        TenantPartition globex = partition("globex", 2, 1, 1);
+        List<TenantScheduler.Ticket> granted = new ArrayList<>();
+
+        TenantScheduler.Ticket first = scheduler.tryAcquire(acme);
+        assertNotNull(scheduler.tryAcquire(acme));
+        assertNull(scheduler.tryAcquire(acme));
+        TenantScheduler.Ticket queued = scheduler.enqueue(acme, granted::add);
+        assertNotNull(queued);
+        assertNull(scheduler.enqueue(acme, granted::add));
+        assertEquals(1, acme.getQueuedRequests());
+        assertEquals(1, acme.getRejectedRequests());
+        assertNotNull(scheduler.tryAcquire(globex));
+
+        scheduler.release(first);
+        scheduler.release(first);
+        assertEquals(List.of(queued), granted);
+        assertEquals(2, acme.getActiveRequests());
+        assertEquals(0, acme.getQueuedRequests());
+        assertEquals(3, scheduler.getActiveRequests());
+    }
+
+    /**
+     * Tests that the shared slots go to the queued tenants in proportion to their weights, however many requests
+     * each has queued.
+     */
+    @Test
+    void testWeightedRoundRobin() {
+        TenantScheduler scheduler = new TenantScheduler(1);
+        TenantPartition heavy = partition("heavy", 8, 16, 2);
+        TenantPartition light = partition("light", 8, 16, 1);
+        List<String> order = new ArrayList<>();
+        List<TenantScheduler.Ticket> running = new ArrayList<>();
+        running.add(scheduler.tryAcquire(heavy));
+        for (int i = 0; i < 6; i++) {
+            scheduler.enqueue(light, ticket -> {
+                order.add("light");
+                running.add(ticket);
+            });
+        }
+        for (int i = 0; i < 6; i++) {
+            scheduler.enqueue(heavy, ticket -> {
+                order.add("heavy");
+                running.add(ticket);
+            });
+        }
+
+        for (int i = 0; i < 9; i++) {
+            scheduler.release(running.get(i));
+        }
+
+        assertEquals(List.of("light", "heavy", "heavy", "light", "heavy", "heavy", "light", "heavy", "heavy"), order);
+    }
+
+    /**
+     * Tests that a new request neither overtakes a request its tenant queued nor takes a shared slot from a queued
+     * tenant, and that a cancelled request is never granted.
+     */
+    @Test
+    void testNoBargingAndCancel() {
+        TenantScheduler scheduler = new TenantScheduler(1);
+        TenantPartition acme = partition("acme", 4, 4, 1);
+        TenantPartition globex = partition("globex", 4, 4, 1);
+        List<TenantScheduler.Ticket> granted = new ArrayList<>();
+        TenantScheduler.Ticket running = scheduler.tryAcquire(acme);
+        TenantScheduler.Ticket cancelled = scheduler.enqueue(globex, granted::add);
+        TenantScheduler.Ticket waiting = scheduler.enqueue(globex, granted::add);
+
+        assertNull(scheduler.tryAcquire(acme));
+        assertTrue(scheduler.cancel(cancelled));
+        assertFalse(scheduler.cancel(cancelled));
+        scheduler.release(running);
+        assertEquals(List.of(waiting), granted);
+        assertFalse(scheduler.cancel(waiting));
+        assertNull(scheduler.tryAcquire(acme));
+
+        scheduler.release(waiting);
+        assertNotNull(scheduler.tryAcquire(acme));
+        assertEquals(0, globex.getQueuedRequests());
+    }
+
+    private static TenantPartition partition(String tenant, int maxConcurrentRequests, int maxQueuedRequests,
+                                             int weight) {
+        TenantProperties.Quota quota = new TenantProperties.Quota();
+        quota.setMaxConcurrentRequests(maxConcurrentRequests);
+        quota.setMaxQueuedRequests(maxQueuedRequests);
+        quota.setWeight(weight);
+        ClientStore store = new ClientStore();
+        return new TenantPartition(tenant, quota, store, new ClientKeyFilters(16), new TrigramIndex(),
+                new SortedClientIndex(), new IndexManager(new IndexingProperties(), store));
+    }
+}
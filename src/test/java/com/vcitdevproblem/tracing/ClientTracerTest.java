@@ -0,0 +1,84 @@
+package com.vcitdevproblem.tracing;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ClientTracer class, testing sampling and the span events recorded to JFR.
+ */
+public class ClientTracerTest {
+
+    private static final String SPAN_EVENT = "com.vcitdevproblem.ClientSpan";
+
+    /**
+     * Tests that a sampled request records one span per traced step, linked into a tree within one trace.
+     */
+    @Test
+    void testRecordsSpanTreeOfSampledRequest() throws IOException {
+        ClientTracer tracer = new ClientTracer(1.0);
+        List<RecordedEvent> spans;
+        try (Recording recording = new Recording()) {
+            recording.enable(SPAN_EVENT);
+            recording.start();
+            TraceSpan request = tracer.startRequest("GET /v1/clients/search", Function.identity());
+            try {
+                tracer.trace(TraceLayer.SERVICE, "searchClient", () ->
+                        tracer.trace(TraceLayer.VALIDATION, "validateClient", () -> assertTrue(tracer.isTracing())));
+                assertThrows(IllegalStateException.class, () -> tracer.trace(TraceLayer.STORE, "put", () -> {
+                    throw new IllegalStateException("Store closed.");
+                }));
+            } finally {
+                request.end();
+            }
+            recording.stop();
+            Path file = Files.createTempFile("spans", ".jfr");
+            try {
+                recording.dump(file);
+                spans = RecordingFile.readAllEvents(file).stream()
+                        .filter(event -> event.getEventType().getName().equals(SPAN_EVENT))
+                        .sorted(Comparator.comparingInt(event -> event.getInt("spanId")))
+                        .toList();
+            } finally {
+                Files.delete(file);
+            }
+        }
+
+        assertFalse(tracer.isTracing());
+        assertEquals(List.of("GET /v1/clients/search", "searchClient", "validateClient", "put"),
+                spans.stream().map(event -> event.getString("name")).toList());
+        assertEquals(List.of(0, 1, 2, 1), spans.stream().map(event -> event.getInt("parentSpanId")).toList());
+        assertEquals(1, spans.stream().map(event -> event.getLong("traceId")).distinct().count());
+        assertEquals("REQUEST", spans.get(0).getString("layer"));
+        assertNull(spans.get(1).getString("error"));
+        assertEquals(IllegalStateException.class.getName(), spans.get(3).getString("error"));
+    }
+
+    /**
+     * Tests that nothing is traced while no recording has the span event enabled, or when sampling is off, and that
+     * unsampled requests are not named.
+     */
+    @Test
+    void testDoesNotTraceWithoutRecordingOrSampling() {
+        assertNull(new ClientTracer(1.0).startRequest("GET /v1/clients/search", Function.identity()));
+
+        ClientTracer tracer = new ClientTracer(0.0);
+        try (Recording recording = new Recording()) {
+            recording.enable(SPAN_EVENT);
+            recording.start();
+            assertNull(tracer.startRequest("GET /v1/clients/search", request -> fail("Named an unsampled request.")));
+            assertNull(tracer.start(TraceLayer.SERVICE, "searchClient"));
+            assertEquals("found", tracer.trace(TraceLayer.SERVICE, "searchClient", () -> "found"));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.vcitdevproblem.tracing;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the SlowQueryLog class, testing the threshold and the query shapes it logs.
+ */
+public class SlowQueryLogTest {
+
+    /**
+     * Tests that only queries over the threshold are logged, and that fast queries never build their shape.
+     */
+    @Test
+    void testLogsOnlySlowQueries() {
+        SlowQueryLog fast = new SlowQueryLog(Duration.ofHours(1));
+        fast.record("searchClient", "full scan", 10, System.nanoTime(), () -> fail("Shape built for a fast query."));
+        assertEquals(0, fast.getSlowQueries());
+
+        SlowQueryLog slow = new SlowQueryLog(Duration.ZERO);
+        slow.record("searchClient", "full scan", 10, System.nanoTime(), () -> new QueryShape().option("limit", 1));
+        assertEquals(1, slow.getSlowQueries());
+    }
+
+    /**
+     * Tests that query shapes name the parameters given but never include their values.
+     */
+    @Test
+    void testShapeOmitsValues() {
+        QueryShape shape = new QueryShape()
+                .parameter("firstName", Optional.of("John"))
+                .parameter("idNumber", Optional.empty())
+                .expression("filter", "birthYear < 2000 and lastName = 'Doe' or physicalAddress contains \"Elm\"")
+                .option("pageSize", 20);
+
+        assertEquals("firstName=?, filter=birthYear < ? and lastName = ? or physicalAddress contains ?, pageSize=20",
+                shape.toString());
+    }
+}
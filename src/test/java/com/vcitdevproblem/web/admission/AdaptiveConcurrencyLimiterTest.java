@@ -0,0 +1,188 @@
+package com.vcitdevproblem.web.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the admission control building blocks: the adaptive limiter and the caller quotas.
+ */
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(50);
+
+    /**
+     * Tests that requests beyond the current limit are rejected without blocking.
+     */
+    @Test
+    void testRejectsBeyondLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 1, 10);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        limiter.release(FAST, false);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    /**
+     * Tests that the limit grows while latency stays flat under full utilisation.
+     */
+    @Test
+    void testLimitGrowsWhileLatencyIsStable() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 1, 100);
+
+        for (int i = 0; i < 200; i++) {
+            saturate(limiter, FAST);
+            limiter.release(FAST, false);
+        }
+
+        assertTrue(limiter.getLimit() > 10, "limit should grow, was " + limiter.getLimit());
+    }
+
+    /**
+     * Tests that a sustained latency increase pulls the limit back down.
+     */
+    @Test
+    void testLimitShrinksWhenLatencyRises() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 50, 1, 100);
+        for (int i = 0; i < 100; i++) {
+            saturate(limiter, FAST);
+            limiter.release(FAST, false);
+        }
+        int before = limiter.getLimit();
+
+        // A short spike only: given long enough the baseline adapts to the new latency, as it should.
+        for (int i = 0; i < 3; i++) {
+            saturate(limiter, SLOW);
+            limiter.release(SLOW, false);
+        }
+
+        assertTrue(limiter.getLimit() < before, "limit should shrink from " + before + ", was " + limiter.getLimit());
+    }
+
+    /**
+     * Tests that failed requests back the limit off but never below the minimum.
+     */
+    @Test
+    void testDropsBackOffToMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 20, 5, 100);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(FAST, true);
+        }
+
+        assertEquals(5, limiter.getLimit());
+    }
+
+    /**
+     * Tests that a caller is throttled after its burst and recovers as tokens refill.
+     */
+    @Test
+    void testCallerQuotaRefills() {
+        AtomicLong now = new AtomicLong();
+        CallerQuotas quotas = new CallerQuotas(10, 2, 100, now::get);
+
+        assertEquals(0, quotas.tryAcquire("partner-a"));
+        assertEquals(0, quotas.tryAcquire("partner-a"));
+        assertTrue(quotas.tryAcquire("partner-a") > 0);
+        assertEquals(0, quotas.tryAcquire("partner-b"));
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(0, quotas.tryAcquire("partner-a"));
+    }
+
+    /**
+     * Tests that a refunded permit can be taken again, and that a refund never lifts a caller above its burst.
+     */
+    @Test
+    void testCallerQuotaRefund() {
+        AtomicLong now = new AtomicLong();
+        CallerQuotas quotas = new CallerQuotas(10, 2, 100, now::get);
+
+        assertEquals(0, quotas.tryAcquire("partner-a"));
+        assertEquals(0, quotas.tryAcquire("partner-a"));
+        quotas.refund("partner-a");
+        assertEquals(0, quotas.tryAcquire("partner-a"));
+        assertTrue(quotas.tryAcquire("partner-a") > 0);
+
+        quotas.refund("partner-b");
+        quotas.refund("partner-b");
+        assertEquals(0, quotas.tryAcquire("partner-b"));
+        assertEquals(0, quotas.tryAcquire("partner-b"));
+        assertTrue(quotas.tryAcquire("partner-b") > 0);
+    }
+
+    /**
+     * Tests that no more than the maximum number of callers is tracked, and that the least recently seen caller is
+     * the one forgotten.
+     */
+    @Test
+    void testCallerQuotasForgetLeastRecentCaller() {
+        AtomicLong now = new AtomicLong();
+        CallerQuotas quotas = new CallerQuotas(10, 1, 2, now::get);
+
+        assertEquals(0, quotas.tryAcquire("partner-a"));
+        now.incrementAndGet();
+        assertEquals(0, quotas.tryAcquire("partner-b"));
+        now.incrementAndGet();
+        assertTrue(quotas.tryAcquire("partner-a") > 0);
+        now.incrementAndGet();
+        assertEquals(0, quotas.tryAcquire("partner-c"));
+
+        assertEquals(2, quotas.snapshot().get("trackedCallers"));
+        assertTrue(quotas.tryAcquire("partner-a") > 0);
+        assertEquals(0, quotas.tryAcquire("partner-b"));
+    }
+
+    /**
+     * Tests that the tracked callers stay bounded while many new callers arrive, and that recent callers survive the
+     * sweeps.
+     */
+    @Test
+    void testCallerQuotasStayBoundedUnderManyCallers() {
+        AtomicLong now = new AtomicLong();
+        CallerQuotas quotas = new CallerQuotas(10, 1, 32, now::get);
+
+        for (int i = 0; i < 1_000; i++) {
+            now.incrementAndGet();
+            assertEquals(0, quotas.tryAcquire("partner-" + i));
+            assertTrue((int) quotas.snapshot().get("trackedCallers") <= 32);
+        }
+        assertTrue(quotas.tryAcquire("partner-999") > 0);
+    }
+
+    /**
+     * Tests that a permit released without a sample frees its slot but leaves the latency estimate untouched.
+     */
+    @Test
+    void testReleaseWithoutSample() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 1, 10);
+
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        limiter.release();
+        assertTrue(limiter.tryAcquire());
+        assertEquals(0d, limiter.snapshot().get("shortRttMillis"));
+    }
+
+    /**
+     * Fills the limiter up to its limit and releases all but one permit, so the next release is
+     * observed at full utilisation.
+     */
+    private static void saturate(AdaptiveConcurrencyLimiter limiter, long rttNanos) {
+        int acquired = 0;
+        while (limiter.tryAcquire()) {
+            acquired++;
+        }
+        for (int i = 1; i < acquired; i++) {
+            limiter.release(rttNanos, false);
+        }
+    }
+}
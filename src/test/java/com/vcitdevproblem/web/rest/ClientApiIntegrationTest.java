@@ -0,0 +1,80 @@
+package com.vcitdevproblem.web.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vcitdevproblem.dto.ClientRequest;
+import com.vcitdevproblem.util.MockDataProvider;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * End-to-end tests against the real ClientService. Unlike the Mockito based tests these also run
+ * against the native test binary ({@code ./gradlew nativeTest}).
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext
+public class ClientApiIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Test the full create, search and delete round trip of a single client.
+     *
+     * @throws Exception if there is a problem with the mock request
+     */
+    @Test
+    void testCreateSearchAndDeleteClient() throws Exception {
+        ClientRequest clientRequest = MockDataProvider.getMockClientRequest1();
+
+        mockMvc.perform(post("/v1/clients/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(clientRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.resultCode").value(0))
+                .andExpect(jsonPath("$.payload.idNumber").value(clientRequest.getIdNumber()));
+
+        mockMvc.perform(get("/v1/clients/search")
+                        .param("idNumber", clientRequest.getIdNumber()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.payload.firstName").value("John"));
+
+        mockMvc.perform(delete("/v1/clients/delete/" + clientRequest.getIdNumber()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.payload").value(clientRequest.getIdNumber()));
+
+        mockMvc.perform(get("/v1/clients/search")
+                        .param("idNumber", clientRequest.getIdNumber()))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.resultCode").value(404));
+    }
+
+    /**
+     * Test that an ID number failing the checksum is rejected by the real validator.
+     *
+     * @throws Exception if there is a problem with the mock request
+     */
+    @Test
+    void testCreateClientWithInvalidIdNumber() throws Exception {
+        ClientRequest clientRequest = MockDataProvider.getMockClientRequest2();
+        clientRequest.setIdNumber("9001015800083");
+
+        mockMvc.perform(post("/v1/clients/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(clientRequest)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.resultMessage").value("Invalid South African ID number."));
+    }
+}
@@ -5,7 +5,9 @@ import com.vcitdevproblem.dto.ClientDTO;
 import com.vcitdevproblem.dto.ClientRequest;
 import com.vcitdevproblem.exception.ClientNotFoundException;
 import com.vcitdevproblem.exception.DuplicateIdException;
+import com.vcitdevproblem.service.ClientResult;
 import com.vcitdevproblem.service.ClientService;
+import com.vcitdevproblem.store.ClientProjection;
 import com.vcitdevproblem.util.MockDataProvider;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +15,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.aot.DisabledInAotMode;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Optional;
@@ -28,6 +31,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * Unit tests for the ClientController class, testing client creation, search, and error handling.
  */
 @SpringBootTest
+@DisabledInAotMode
 @AutoConfigureMockMvc
 public class ClientControllerTest {
 
@@ -47,7 +51,7 @@ public class ClientControllerTest {
         ClientRequest clientRequest = MockDataProvider.getMockClientRequest1();
         ClientDTO clientResponse = MockDataProvider.getMockClientResponse1();
 
-        when(clientService.createClient(any(ClientRequest.class))).thenReturn(clientResponse);
+        when(clientService.tryCreateClient(any(ClientRequest.class))).thenReturn(ClientResult.success(clientResponse));
 
         mockMvc.perform(post("/v1/clients/create")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -67,7 +71,8 @@ public class ClientControllerTest {
         ClientRequest clientRequest = MockDataProvider.getMockClientRequest1();
         ClientDTO updatedClientResponse = MockDataProvider.getMockClientResponse1();
 
-        when(clientService.updateClient(anyString(), any(ClientRequest.class))).thenReturn(updatedClientResponse);
+        when(clientService.tryUpdateClient(anyString(), any(ClientRequest.class)))
+                .thenReturn(ClientResult.success(updatedClientResponse));
 
         mockMvc.perform(put("/v1/clients/update/" + updatedClientResponse.getIdNumber())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -86,8 +91,8 @@ public class ClientControllerTest {
     void testUpdateClientNotFoundThrowsException() throws Exception {
         ClientRequest clientRequest = MockDataProvider.getMockClientRequest2();
 
-        when(clientService.updateClient(anyString(), any(ClientRequest.class)))
-                .thenThrow(new ClientNotFoundException("Client not found."));
+        when(clientService.tryUpdateClient(anyString(), any(ClientRequest.class)))
+                .thenReturn(ClientResult.failure(new ClientNotFoundException("Client not found.")));
 
         mockMvc.perform(put("/v1/clients/update/9999999999999")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -106,7 +111,8 @@ public class ClientControllerTest {
     void testDuplicateIdThrowsException() throws Exception {
         ClientRequest clientRequest = MockDataProvider.getMockClientRequest1();
 
-        when(clientService.createClient(any(ClientRequest.class))).thenThrow(new DuplicateIdException("Duplicate ID number found."));
+        when(clientService.tryCreateClient(any(ClientRequest.class)))
+                .thenReturn(ClientResult.failure(new DuplicateIdException("Duplicate ID number found.")));
 
         mockMvc.perform(post("/v1/clients/create")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -125,9 +131,9 @@ public class ClientControllerTest {
     public void testSearchClientByFirstNameIdAndMobileSuccess() throws Exception {
         ClientDTO clientResponse = MockDataProvider.getMockClientResponse1();
 
-        when(clientService.searchClient(
-                any(Optional.class), any(Optional.class), any(Optional.class))
-        ).thenReturn(clientResponse);
+        when(clientService.trySearchClient(
+                any(Optional.class), any(Optional.class), any(Optional.class), any(ClientProjection.class))
+        ).thenReturn(ClientResult.success(clientResponse));
 
         mockMvc.perform(get("/v1/clients/search")
                         .param("firstName", "John"))
@@ -158,11 +164,12 @@ public class ClientControllerTest {
      */
     @Test
     void testSearchClientNotFound() throws Exception {
-        when(clientService.searchClient(
+        when(clientService.trySearchClient(
                 any(Optional.class),
                 any(Optional.class),
-                any(Optional.class))
-        ).thenThrow(new ClientNotFoundException("Client not found."));
+                any(Optional.class),
+                any(ClientProjection.class))
+        ).thenReturn(ClientResult.failure(new ClientNotFoundException("Client not found.")));
 
         mockMvc.perform(get("/v1/clients/search")
                         .param("idNumber", "9001015800083"))
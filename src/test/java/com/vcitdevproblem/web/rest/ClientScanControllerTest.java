@@ -0,0 +1,138 @@
+package com.vcitdevproblem.web.rest;
+
+import com.vcitdevproblem.dto.ClientScanDTO;
+import com.vcitdevproblem.exception.InvalidRequestParameterException;
+import com.vcitdevproblem.scan.ScanCancellation;
+import com.vcitdevproblem.service.ClientService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.aot.DisabledInAotMode;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the ClientScanController class, testing that a scan is cancelled when its client drops the
+ * connection and that failed scans are reported, over a real socket against the embedded server.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"scan.probe-interval=50ms", "scan.timeout=60s"})
+@DisabledInAotMode
+public class ClientScanControllerTest {
+
+    @LocalServerPort
+    private int port;
+
+    @MockBean
+    private ClientService clientService;
+
+    /**
+     * Tests that a scan still running when the client closes its connection is cancelled long before its deadline.
+     *
+     * @throws Exception if the connection fails or the test is interrupted
+     */
+    @Test
+    void testScanIsCancelledWhenClientDisconnects() throws Exception {
+        AtomicReference<ScanCancellation> cancellation = new AtomicReference<>();
+        CountDownLatch cancelled = new CountDownLatch(1);
+        when(clientService.scanClients(anyString(), anyInt(), any(), any())).thenAnswer(invocation -> {
+            ScanCancellation scan = invocation.getArgument(2);
+            cancellation.set(scan);
+            return CompletableFuture.supplyAsync(() -> {
+                while (!scan.isCancelled()) {
+                    try {
+                        Thread.sleep(10);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+                cancelled.countDown();
+                return new ClientScanDTO(List.of(), 0, false, false);
+            });
+        });
+
+        try (Socket socket = new Socket("localhost", port)) {
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET /api/v1/clients/scan?filter=birthYear%20%3E%3D%201990 HTTP/1.1\r\n"
+                    + "Host: localhost\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            // The status line arrives with the first probe, once the scan is under way.
+            InputStream in = socket.getInputStream();
+            byte[] statusLine = new byte[12];
+            assertEquals(12, in.readNBytes(statusLine, 0, statusLine.length));
+            assertEquals("HTTP/1.1 200", new String(statusLine, StandardCharsets.US_ASCII));
+            assertNotNull(cancellation.get());
+            assertFalse(cancellation.get().isCancelled());
+            // Reset rather than close gracefully, as a client that crashes or loses its network would.
+            socket.setSoLinger(true, 0);
+        }
+
+        assertTrue(cancelled.await(10, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Tests that a scan failing before the first probe is answered with the error's own status.
+     *
+     * @throws Exception if the connection fails
+     */
+    @Test
+    void testScanFailingBeforeFirstProbeKeepsErrorStatus() throws Exception {
+        when(clientService.scanClients(anyString(), anyInt(), any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new InvalidRequestParameterException("Bad filter.")));
+
+        String response = exchange();
+
+        assertTrue(response.startsWith("HTTP/1.1 400"), response);
+        assertTrue(response.contains("\"resultCode\":400"), response);
+    }
+
+    /**
+     * Tests that a scan failing after a probe has sent the 200 status is reported in the envelope instead of ending
+     * the body early.
+     *
+     * @throws Exception if the connection fails
+     */
+    @Test
+    void testScanFailingAfterProbeReportsErrorInEnvelope() throws Exception {
+        when(clientService.scanClients(anyString(), anyInt(), any(), any())).thenAnswer(invocation ->
+                CompletableFuture.supplyAsync(() -> {
+                    throw new IllegalStateException("Scan worker failed.");
+                }, CompletableFuture.delayedExecutor(500, TimeUnit.MILLISECONDS)));
+
+        String response = exchange();
+
+        assertTrue(response.startsWith("HTTP/1.1 200"), response);
+        assertTrue(response.contains("\"resultCode\":500"), response);
+        assertTrue(response.contains("Scan worker failed."), response);
+    }
+
+    /**
+     * Sends a scan request and reads the whole response.
+     */
+    private String exchange() throws Exception {
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.setSoTimeout(10_000);
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET /api/v1/clients/scan?filter=birthYear%20%3E%3D%201990 HTTP/1.1\r\n"
+                    + "Host: localhost\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            return new String(socket.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}